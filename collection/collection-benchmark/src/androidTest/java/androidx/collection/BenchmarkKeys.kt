@@ -0,0 +1,56 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.collection
+
+import kotlin.random.Random
+
+/**
+ * Keys shared by the container benchmarks, so that every container is measured with the same
+ * data.
+ *
+ * The keys are distinct integers in a random order generated from a fixed seed. Lookups cycle
+ * through a fixed random sequence of those keys, so that each measured call touches a different
+ * key without calling [Random] while measuring.
+ */
+internal class BenchmarkKeys(size: Int) {
+    val keys: Array<Int>
+    private val lookups: Array<Int>
+    private var cursor = 0
+
+    init {
+        val random = Random(0)
+        keys = Array(size) { it * 7 }
+        keys.shuffle(random)
+        lookups = Array(LOOKUPS) { keys[random.nextInt(size)] }
+    }
+
+    /** Returns the next key of the lookup sequence, which is always one of [keys]. */
+    fun next(): Int {
+        cursor = (cursor + 1) and (LOOKUPS - 1)
+        return lookups[cursor]
+    }
+
+    companion object {
+        /** Number of keys in the lookup sequence. Must be a power of two. */
+        private const val LOOKUPS = 1024
+
+        /** The number of elements the containers are measured with. */
+        val SIZES = listOf(10, 100, 1_000, 10_000, 100_000)
+
+        /** The largest size the containers are filled with from empty while measuring. */
+        const val MAX_NEW_KEYS = 10_000
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection
+
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import org.junit.Assume.assumeTrue
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+import org.junit.runners.Parameterized.Parameters
+
+/**
+ * Measures [SparseArrayCompat] with the same keys and operations as the other container
+ * benchmarks. Compare with [HashMapBenchmarkTest].
+ *
+ * `put` overwrites keys already in the array, while `putNewKeys` fills an empty array, so that
+ * it includes growing it. `remove` puts the removed key back so that every measurement sees the
+ * same size.
+ */
+@RunWith(Parameterized::class)
+class SparseArrayCompatBenchmarkTest(private val size: Int) {
+    private val keys = BenchmarkKeys(size)
+    private val container = SparseArrayCompat<Int>().apply {
+        for (key in keys.keys) {
+            put(key, key)
+        }
+    }
+
+    // Written by iterate, so that reading the elements cannot be optimized away.
+    private var sink = 0
+
+    @get:Rule
+    val benchmark = BenchmarkRule()
+
+    @Test fun get() {
+        benchmark.measureRepeated {
+            container.get(keys.next())
+        }
+    }
+
+    @Test fun put() {
+        benchmark.measureRepeated {
+            val key = keys.next()
+            container.put(key, key)
+        }
+    }
+
+    @Test fun putNewKeys() {
+        // Filling larger containers takes too long to be measured repeatedly.
+        assumeTrue(size <= BenchmarkKeys.MAX_NEW_KEYS)
+        benchmark.measureRepeated {
+            val empty = SparseArrayCompat<Int>()
+            for (key in keys.keys) {
+                empty.put(key, key)
+            }
+        }
+    }
+
+    @Test fun remove() {
+        benchmark.measureRepeated {
+            val key = keys.next()
+            container.remove(key)
+            container.put(key, key)
+        }
+    }
+
+    @Test fun iterate() {
+        benchmark.measureRepeated {
+            for (i in 0 until container.size()) {
+                sink += container.keyAt(i) + container.valueAt(i)
+            }
+        }
+    }
+
+    companion object {
+        @JvmStatic
+        @Parameters(name = "size={0}")
+        fun parameters() = buildParameters(BenchmarkKeys.SIZES)
+    }
+}
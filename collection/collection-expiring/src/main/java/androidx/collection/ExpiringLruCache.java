@@ -0,0 +1,713 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.concurrent.futures.ResolvableFuture;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A cache that holds strong references to a limited number of values, like {@link LruCache},
+ * and that also discards values once they are too old.
+ *
+ * <p>Entries can expire a fixed time after they were written, a fixed time after they were
+ * last read, or both.  Expired entries are never returned; they are found and released with
+ * {@link #entryRemoved} as the cache is used, with a cost that does not depend on the number
+ * of entries, so a cache holding many entries does not need to be scanned.  As with
+ * {@link LruCache}, override {@link #sizeOf} to weigh entries in units other than their count.
+ *
+ * <p>Entries can also be refreshed: once an entry is older than the refresh interval, the next
+ * read still returns the current value but starts loading a replacement with {@link #reload},
+ * on the executor given to the constructor.  Readers are never blocked by a refresh.
+ *
+ * <p>This class is thread-safe.  {@link #create}, {@link #reload} and {@link #entryRemoved}
+ * are called without synchronization.
+ *
+ * <p>This class does not allow null to be used as a key or value.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of cached values
+ */
+public class ExpiringLruCache<K, V> {
+    private static final Executor DIRECT_EXECUTOR = new Executor() {
+        @Override
+        public void execute(@NonNull Runnable command) {
+            command.run();
+        }
+    };
+
+    private final Store mStore;
+    private final TimerWheel mWheel;
+    private final TimerWheel.ExpirationListener mExpirationListener;
+    private final long mExpireAfterWriteNanos;
+    private final long mExpireAfterAccessNanos;
+    private final long mRefreshAfterWriteNanos;
+    @Nullable
+    private final Executor mRefreshExecutor;
+    private final long mStartNanos;
+
+    /** Time of the last operation, relative to {@link #mStartNanos}. Guarded by {@code this}. */
+    private long mNanos;
+    /** Removals waiting to be reported once the lock is released. Guarded by {@code this}. */
+    private ArrayList<Removal<K, V>> mPendingRemovals = new ArrayList<>();
+
+    private int mPutCount;
+    private int mCreateCount;
+    private int mEvictionCount;
+    private int mExpirationCount;
+    private int mRefreshCount;
+    private int mHitCount;
+    private int mMissCount;
+
+    /**
+     * @param maxSize for caches that do not override {@link #sizeOf}, this is
+     *     the maximum number of entries in the cache. For all other caches,
+     *     this is the maximum sum of the sizes of the entries in this cache.
+     * @param expireAfterWrite how long an entry stays in the cache after it was created or
+     *     last replaced, or 0 for no limit.
+     * @param expireAfterAccess how long an entry stays in the cache after it was last read or
+     *     written, or 0 for no limit.
+     * @param unit the unit of {@code expireAfterWrite} and {@code expireAfterAccess}.
+     */
+    public ExpiringLruCache(int maxSize, long expireAfterWrite, long expireAfterAccess,
+            @NonNull TimeUnit unit) {
+        this(maxSize, expireAfterWrite, expireAfterAccess, 0, unit, null);
+    }
+
+    /**
+     * @param maxSize for caches that do not override {@link #sizeOf}, this is
+     *     the maximum number of entries in the cache. For all other caches,
+     *     this is the maximum sum of the sizes of the entries in this cache.
+     * @param expireAfterWrite how long an entry stays in the cache after it was created or
+     *     last replaced, or 0 for no limit.
+     * @param expireAfterAccess how long an entry stays in the cache after it was last read or
+     *     written, or 0 for no limit.
+     * @param refreshAfterWrite how old an entry must be before a read starts reloading it in
+     *     the background, or 0 to never refresh automatically.  This should be shorter than
+     *     {@code expireAfterWrite}, otherwise entries expire before they are refreshed.
+     * @param unit the unit of {@code expireAfterWrite}, {@code expireAfterAccess} and
+     *     {@code refreshAfterWrite}.
+     * @param refreshExecutor the executor on which the default implementation of
+     *     {@link #reload} runs {@link #create}, or null to run it on the calling thread.
+     */
+    public ExpiringLruCache(int maxSize, long expireAfterWrite, long expireAfterAccess,
+            long refreshAfterWrite, @NonNull TimeUnit unit, @Nullable Executor refreshExecutor) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize <= 0");
+        }
+        if (expireAfterWrite < 0 || expireAfterAccess < 0 || refreshAfterWrite < 0) {
+            throw new IllegalArgumentException("durations must not be negative");
+        }
+        mExpireAfterWriteNanos = unit.toNanos(expireAfterWrite);
+        mExpireAfterAccessNanos = unit.toNanos(expireAfterAccess);
+        mRefreshAfterWriteNanos = unit.toNanos(refreshAfterWrite);
+        mRefreshExecutor = refreshExecutor;
+        mStore = new Store(maxSize);
+        mStartNanos = ticker();
+        mWheel = new TimerWheel(0);
+        mExpirationListener = new TimerWheel.ExpirationListener() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public void onExpired(@NonNull TimerWheel.Node node) {
+                mStore.remove(((Entry<K, V>) node).mKey);
+            }
+        };
+    }
+
+    /**
+     * Sets the size of the cache.
+     *
+     * @param maxSize The new maximum size.
+     */
+    public void resize(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize <= 0");
+        }
+
+        List<Removal<K, V>> removals;
+        synchronized (this) {
+            advance();
+            mStore.resize(maxSize);
+            removals = takePendingRemovals();
+        }
+        dispatch(removals);
+    }
+
+    /**
+     * Returns the value for {@code key} if it exists in the cache and has not expired, or can
+     * be created by {@link #create}.  If a value was returned, it is moved to the head of the
+     * queue.  This returns null if a value is not cached and cannot be created.
+     *
+     * <p>If the value is older than the refresh interval, it is still returned, and a
+     * replacement is loaded in the background with {@link #reload}.
+     */
+    @Nullable
+    public final V get(@NonNull K key) {
+        if (key == null) {
+            throw new NullPointerException("key == null");
+        }
+
+        Entry<K, V> entry;
+        boolean refresh = false;
+        List<Removal<K, V>> removals;
+        synchronized (this) {
+            final long now = advance();
+            entry = mStore.get(key);
+            if (entry != null && entry.mTime <= now) {
+                mStore.remove(key);
+                entry = null;
+            }
+            if (entry != null) {
+                mHitCount++;
+                if (mExpireAfterAccessNanos > 0) {
+                    entry.mTime = Math.min(entry.mWriteDeadline,
+                            saturatedAdd(now, mExpireAfterAccessNanos));
+                    mWheel.reschedule(entry);
+                }
+                if (mRefreshAfterWriteNanos > 0 && !entry.mRefreshing
+                        && now - entry.mWriteTime >= mRefreshAfterWriteNanos) {
+                    entry.mRefreshing = true;
+                    refresh = true;
+                }
+            } else {
+                mMissCount++;
+            }
+            removals = takePendingRemovals();
+        }
+        dispatch(removals);
+
+        if (entry != null) {
+            if (refresh) {
+                startRefresh(entry);
+            }
+            return entry.mValue;
+        }
+
+        /*
+         * Attempt to create a value. This may take a long time, and the map
+         * may be different when create() returns. If a conflicting value was
+         * added to the map while create() was working, we leave that value in
+         * the map and release the created value.
+         */
+        V createdValue = create(key);
+        if (createdValue == null) {
+            return null;
+        }
+
+        V existingValue = null;
+        synchronized (this) {
+            mCreateCount++;
+            final long now = advance();
+            Entry<K, V> existing = mStore.get(key);
+            if (existing != null && existing.mTime > now) {
+                existingValue = existing.mValue;
+            } else {
+                mStore.put(key, newEntry(key, createdValue, now));
+            }
+            removals = takePendingRemovals();
+        }
+        dispatch(removals);
+
+        if (existingValue != null) {
+            entryRemoved(false, key, createdValue, existingValue);
+            return existingValue;
+        }
+        return createdValue;
+    }
+
+    /**
+     * Caches {@code value} for {@code key}. The value is moved to the head of
+     * the queue, and its expiration times are reset.
+     *
+     * @return the previous value mapped by {@code key}, or null if there was none or it had
+     *     expired.
+     */
+    @Nullable
+    public final V put(@NonNull K key, @NonNull V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException("key == null || value == null");
+        }
+
+        V previous = null;
+        List<Removal<K, V>> removals;
+        synchronized (this) {
+            mPutCount++;
+            final long now = advance();
+            Entry<K, V> entry = mStore.put(key, newEntry(key, value, now));
+            if (entry != null && entry.mTime > now) {
+                previous = entry.mValue;
+            }
+            removals = takePendingRemovals();
+        }
+        dispatch(removals);
+
+        return previous;
+    }
+
+    /**
+     * Removes the entry for {@code key} if it exists.
+     *
+     * @return the previous value mapped by {@code key}, or null if there was none or it had
+     *     expired.
+     */
+    @Nullable
+    public final V remove(@NonNull K key) {
+        if (key == null) {
+            throw new NullPointerException("key == null");
+        }
+
+        V previous = null;
+        List<Removal<K, V>> removals;
+        synchronized (this) {
+            final long now = advance();
+            Entry<K, V> entry = mStore.remove(key);
+            if (entry != null && entry.mTime > now) {
+                previous = entry.mValue;
+            }
+            removals = takePendingRemovals();
+        }
+        dispatch(removals);
+
+        return previous;
+    }
+
+    /**
+     * Starts reloading the value for {@code key} with {@link #reload}, if it is cached and
+     * has not expired.  Reads keep returning the current value until the new one is available.
+     *
+     * @return a future holding the new value, or null if {@code key} was not cached or
+     *     {@link #reload} did not produce a value.
+     */
+    @NonNull
+    public final ListenableFuture<V> refresh(@NonNull K key) {
+        if (key == null) {
+            throw new NullPointerException("key == null");
+        }
+
+        Entry<K, V> entry;
+        List<Removal<K, V>> removals;
+        synchronized (this) {
+            final long now = advance();
+            entry = mStore.get(key);
+            if (entry != null && entry.mTime <= now) {
+                mStore.remove(key);
+                entry = null;
+            }
+            if (entry != null) {
+                entry.mRefreshing = true;
+            }
+            removals = takePendingRemovals();
+        }
+        dispatch(removals);
+
+        if (entry == null) {
+            ResolvableFuture<V> future = ResolvableFuture.create();
+            future.set(null);
+            return future;
+        }
+        return startRefresh(entry);
+    }
+
+    /**
+     * Removes the entries that have expired.  Expired entries are also removed as the cache is
+     * used, so this only needs to be called to release expired values sooner, for example when
+     * the cache is idle.
+     *
+     * <p>Expired entries are found in batches, so an entry may be removed up to about a second
+     * after it expired.  It is never returned by {@link #get} once it has expired.
+     */
+    public final void evictExpired() {
+        List<Removal<K, V>> removals;
+        synchronized (this) {
+            advance();
+            removals = takePendingRemovals();
+        }
+        dispatch(removals);
+    }
+
+    /**
+     * Remove the eldest entries until the total of remaining entries is at or
+     * below the requested size.
+     *
+     * @param maxSize the maximum size of the cache before returning. May be -1
+     *            to evict even 0-sized elements.
+     */
+    public void trimToSize(int maxSize) {
+        List<Removal<K, V>> removals;
+        synchronized (this) {
+            advance();
+            mStore.trimToSize(maxSize);
+            removals = takePendingRemovals();
+        }
+        dispatch(removals);
+    }
+
+    /**
+     * Clear the cache, calling {@link #entryRemoved} on each removed entry.
+     */
+    public final void evictAll() {
+        trimToSize(-1); // -1 will evict 0-sized elements
+    }
+
+    /**
+     * Called for entries that have been evicted, expired or removed. This method is
+     * invoked when a value is evicted to make space, found to have expired, removed by a call
+     * to {@link #remove}, or replaced by a call to {@link #put} or by a refresh. The default
+     * implementation does nothing.
+     *
+     * <p>The method is called without synchronization: other threads may
+     * access the cache while this method is executing.
+     *
+     * @param evicted true if the entry is being removed to make space or because it expired,
+     *     false if the removal was caused by a {@link #put}, a refresh or a {@link #remove}.
+     * @param newValue the new value for {@code key}, if it exists. If non-null,
+     *     this removal was caused by a {@link #put} or a refresh. Otherwise it was caused by
+     *     an eviction, an expiration or a {@link #remove}.
+     */
+    protected void entryRemoved(boolean evicted, @NonNull K key, @NonNull V oldValue,
+            @Nullable V newValue) {
+    }
+
+    /**
+     * Called after a cache miss to compute a value for the corresponding key.
+     * Returns the computed value or null if no value can be computed. The
+     * default implementation returns null.
+     *
+     * <p>The method is called without synchronization: other threads may
+     * access the cache while this method is executing.
+     *
+     * <p>If a value for {@code key} exists in the cache when this method
+     * returns, the created value will be released with {@link #entryRemoved}
+     * and discarded.
+     */
+    @Nullable
+    protected V create(@NonNull K key) {
+        return null;
+    }
+
+    /**
+     * Called to compute a replacement for a value that is due to be refreshed.  The returned
+     * future may complete with null to keep {@code oldValue}.  If the entry is removed or
+     * replaced before the future completes, the reloaded value is discarded.
+     *
+     * <p>The default implementation calls {@link #create} on the executor given to the
+     * constructor.
+     *
+     * <p>The method is called without synchronization: other threads may
+     * access the cache while this method is executing.
+     */
+    @NonNull
+    protected ListenableFuture<V> reload(@NonNull final K key, @NonNull V oldValue) {
+        final ResolvableFuture<V> future = ResolvableFuture.create();
+        final Executor executor = mRefreshExecutor != null ? mRefreshExecutor : DIRECT_EXECUTOR;
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    future.set(create(key));
+                } catch (Throwable t) {
+                    future.setException(t);
+                }
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Returns the size of the entry for {@code key} and {@code value} in
+     * user-defined units.  The default implementation returns 1 so that size
+     * is the number of entries and max size is the maximum number of entries.
+     *
+     * <p>An entry's size must not change while it is in the cache.
+     */
+    protected int sizeOf(@NonNull K key, @NonNull V value) {
+        return 1;
+    }
+
+    /**
+     * Returns the current time in nanoseconds. Only differences between values are used.
+     * Overridden in tests.
+     */
+    long ticker() {
+        return System.nanoTime();
+    }
+
+    /**
+     * For caches that do not override {@link #sizeOf}, this returns the number
+     * of entries in the cache. For all other caches, this returns the sum of
+     * the sizes of the entries in this cache.  Entries that have expired but have not been
+     * removed yet are included.
+     */
+    public final int size() {
+        return mStore.size();
+    }
+
+    /**
+     * For caches that do not override {@link #sizeOf}, this returns the maximum
+     * number of entries in the cache. For all other caches, this returns the
+     * maximum sum of the sizes of the entries in this cache.
+     */
+    public final int maxSize() {
+        return mStore.maxSize();
+    }
+
+    /**
+     * Returns the number of times {@link #get} returned a value that was
+     * already present in the cache.
+     */
+    public synchronized final int hitCount() {
+        return mHitCount;
+    }
+
+    /**
+     * Returns the number of times {@link #get} returned null or required a new
+     * value to be created.  Reads of expired entries count as misses.
+     */
+    public synchronized final int missCount() {
+        return mMissCount;
+    }
+
+    /**
+     * Returns the number of times {@link #create(Object)} returned a value.
+     */
+    public synchronized final int createCount() {
+        return mCreateCount;
+    }
+
+    /**
+     * Returns the number of times {@link #put} was called.
+     */
+    public synchronized final int putCount() {
+        return mPutCount;
+    }
+
+    /**
+     * Returns the number of values that have been evicted to make space.
+     */
+    public synchronized final int evictionCount() {
+        return mEvictionCount;
+    }
+
+    /**
+     * Returns the number of values that have been removed because they expired.
+     */
+    public synchronized final int expirationCount() {
+        return mExpirationCount;
+    }
+
+    /**
+     * Returns the number of values that have been replaced by a refresh.
+     */
+    public synchronized final int refreshCount() {
+        return mRefreshCount;
+    }
+
+    /**
+     * Returns a copy of the current contents of the cache that have not expired, ordered from
+     * least recently accessed to most recently accessed.
+     */
+    @NonNull
+    public synchronized final Map<K, V> snapshot() {
+        final long now = ticker() - mStartNanos;
+        final Map<K, Entry<K, V>> entries = mStore.snapshot();
+        final LinkedHashMap<K, V> result = new LinkedHashMap<>(entries.size());
+        for (Map.Entry<K, Entry<K, V>> e : entries.entrySet()) {
+            if (e.getValue().mTime > now) {
+                result.put(e.getKey(), e.getValue().mValue);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized final String toString() {
+        int accesses = mHitCount + mMissCount;
+        int hitPercent = accesses != 0 ? (100 * mHitCount / accesses) : 0;
+        return String.format(Locale.US,
+                "ExpiringLruCache[maxSize=%d,hits=%d,misses=%d,hitRate=%d%%,expirations=%d]",
+                mStore.maxSize(), mHitCount, mMissCount, hitPercent, mExpirationCount);
+    }
+
+    /**
+     * Advances the timer wheel to the current time, removing the entries found to have
+     * expired, and returns the current time relative to {@link #mStartNanos}.
+     */
+    private long advance() {
+        final long now = Math.max(mNanos, ticker() - mStartNanos);
+        mNanos = now;
+        mWheel.advance(now, mExpirationListener);
+        return now;
+    }
+
+    private Entry<K, V> newEntry(K key, V value, long now) {
+        final Entry<K, V> entry = new Entry<>(key, value, now);
+        entry.mWriteDeadline = mExpireAfterWriteNanos > 0
+                ? saturatedAdd(now, mExpireAfterWriteNanos) : Long.MAX_VALUE;
+        entry.mTime = Math.min(entry.mWriteDeadline, mExpireAfterAccessNanos > 0
+                ? saturatedAdd(now, mExpireAfterAccessNanos) : Long.MAX_VALUE);
+        if (entry.mTime != Long.MAX_VALUE) {
+            mWheel.schedule(entry);
+        }
+        return entry;
+    }
+
+    private ListenableFuture<V> startRefresh(final Entry<K, V> entry) {
+        final ListenableFuture<V> reloaded;
+        try {
+            reloaded = reload(entry.mKey, entry.mValue);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                entry.mRefreshing = false;
+            }
+            throw e;
+        }
+        final ResolvableFuture<V> result = ResolvableFuture.create();
+        reloaded.addListener(new Runnable() {
+            @Override
+            public void run() {
+                V value = null;
+                try {
+                    value = reloaded.get();
+                } catch (ExecutionException | InterruptedException | RuntimeException e) {
+                    // Reported to the caller through result, and the old value is kept.
+                }
+                onRefreshed(entry, value);
+                result.setFuture(reloaded);
+            }
+        }, DIRECT_EXECUTOR);
+        return result;
+    }
+
+    private void onRefreshed(Entry<K, V> entry, @Nullable V value) {
+        List<Removal<K, V>> removals;
+        synchronized (this) {
+            entry.mRefreshing = false;
+            if (value == null || !entry.mLive) {
+                return;
+            }
+            final long now = advance();
+            // The entry may have expired and been removed by advance().
+            if (entry.mLive) {
+                mRefreshCount++;
+                mStore.put(entry.mKey, newEntry(entry.mKey, value, now));
+            }
+            removals = takePendingRemovals();
+        }
+        dispatch(removals);
+    }
+
+    /** Called by the store, under the lock, whenever an entry leaves it. */
+    void onStoreRemoved(boolean evicted, Entry<K, V> oldEntry, @Nullable Entry<K, V> newEntry) {
+        oldEntry.mLive = false;
+        mWheel.deschedule(oldEntry);
+        final boolean expired = oldEntry.mTime <= mNanos;
+        if (expired) {
+            mExpirationCount++;
+        } else if (evicted) {
+            mEvictionCount++;
+        }
+        // A replaced value is reported as replaced even if it had expired, as with put().
+        mPendingRemovals.add(new Removal<>(evicted || (expired && newEntry == null),
+                oldEntry.mKey, oldEntry.mValue, newEntry != null ? newEntry.mValue : null));
+    }
+
+    @Nullable
+    private List<Removal<K, V>> takePendingRemovals() {
+        if (mPendingRemovals.isEmpty()) {
+            return null;
+        }
+        final List<Removal<K, V>> removals = mPendingRemovals;
+        mPendingRemovals = new ArrayList<>();
+        return removals;
+    }
+
+    private void dispatch(@Nullable List<Removal<K, V>> removals) {
+        if (removals == null) {
+            return;
+        }
+        for (int i = 0, size = removals.size(); i < size; i++) {
+            final Removal<K, V> removal = removals.get(i);
+            entryRemoved(removal.mEvicted, removal.mKey, removal.mOldValue, removal.mNewValue);
+        }
+    }
+
+    private static long saturatedAdd(long a, long b) {
+        final long sum = a + b;
+        return sum < a ? Long.MAX_VALUE : sum;
+    }
+
+    /** A cached value, scheduled in the timer wheel at its expiration time. */
+    static final class Entry<K, V> extends TimerWheel.Node {
+        final K mKey;
+        final V mValue;
+        /** When the value was written, relative to the cache's start time. */
+        final long mWriteTime;
+        long mWriteDeadline;
+        boolean mLive = true;
+        boolean mRefreshing;
+
+        Entry(K key, V value, long writeTime) {
+            mKey = key;
+            mValue = value;
+            mWriteTime = writeTime;
+        }
+    }
+
+    private static final class Removal<K, V> {
+        final boolean mEvicted;
+        final K mKey;
+        final V mOldValue;
+        @Nullable
+        final V mNewValue;
+
+        Removal(boolean evicted, K key, V oldValue, @Nullable V newValue) {
+            mEvicted = evicted;
+            mKey = key;
+            mOldValue = oldValue;
+            mNewValue = newValue;
+        }
+    }
+
+    /** The size-bounded map of entries, reporting every removal back to the cache. */
+    private final class Store extends LruCache<K, Entry<K, V>> {
+        Store(int maxSize) {
+            super(maxSize);
+        }
+
+        @Override
+        protected int sizeOf(@NonNull K key, @NonNull Entry<K, V> entry) {
+            return ExpiringLruCache.this.sizeOf(key, entry.mValue);
+        }
+
+        @Override
+        protected void entryRemoved(boolean evicted, @NonNull K key,
+                @NonNull Entry<K, V> oldValue, @Nullable Entry<K, V> newValue) {
+            onStoreRemoved(evicted, oldValue, newValue);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A hierarchical timer wheel, used to find expired cache entries in amortized constant time.
+ *
+ * <p>Nodes are placed in buckets according to their expiration time.  Each level of the wheel
+ * covers a coarser span of time: about a second per bucket on the first level, a minute on
+ * the second, an hour on the third and a day on the fourth, with a final overflow bucket.
+ * {@link #advance} only visits the buckets whose span has fully elapsed since the previous
+ * call; nodes in those buckets are either expired or, if they were in a coarse bucket, moved
+ * down to a finer level.  Scheduling, rescheduling and descheduling a node are constant time.
+ *
+ * <p>Times are expressed in nanoseconds and must not be negative.  This class is not thread
+ * safe.
+ */
+final class TimerWheel {
+    private static final int[] BUCKETS = new int[] {64, 64, 32, 4, 1};
+    private static final long[] SPANS = new long[] {
+            ceilingPowerOfTwo(TimeUnit.SECONDS.toNanos(1)),
+            ceilingPowerOfTwo(TimeUnit.MINUTES.toNanos(1)),
+            ceilingPowerOfTwo(TimeUnit.HOURS.toNanos(1)),
+            ceilingPowerOfTwo(TimeUnit.DAYS.toNanos(1)),
+            BUCKETS[3] * ceilingPowerOfTwo(TimeUnit.DAYS.toNanos(1)),
+            BUCKETS[3] * ceilingPowerOfTwo(TimeUnit.DAYS.toNanos(1)),
+    };
+    private static final int[] SHIFT = new int[] {
+            Long.numberOfTrailingZeros(SPANS[0]),
+            Long.numberOfTrailingZeros(SPANS[1]),
+            Long.numberOfTrailingZeros(SPANS[2]),
+            Long.numberOfTrailingZeros(SPANS[3]),
+            Long.numberOfTrailingZeros(SPANS[4]),
+    };
+
+    /** An element of the wheel. Subclasses carry the payload. */
+    static class Node {
+        /** The time at which this node expires, in nanoseconds. */
+        long mTime;
+        @Nullable
+        Node mPrevInWheel;
+        @Nullable
+        Node mNextInWheel;
+    }
+
+    /** Receives the nodes expired by {@link #advance}. */
+    interface ExpirationListener {
+        void onExpired(@NonNull Node node);
+    }
+
+    /** Sentinels of the circular lists of each bucket, indexed by level and bucket. */
+    private final Node[][] mWheel;
+    private long mNanos;
+
+    TimerWheel(long nanos) {
+        mNanos = nanos;
+        mWheel = new Node[BUCKETS.length][];
+        for (int i = 0; i < BUCKETS.length; i++) {
+            mWheel[i] = new Node[BUCKETS[i]];
+            for (int j = 0; j < BUCKETS[i]; j++) {
+                Node sentinel = new Node();
+                sentinel.mPrevInWheel = sentinel;
+                sentinel.mNextInWheel = sentinel;
+                mWheel[i][j] = sentinel;
+            }
+        }
+    }
+
+    /** Adds {@code node}, which must not already be in the wheel, at its expiration time. */
+    void schedule(@NonNull Node node) {
+        link(findBucket(node.mTime), node);
+    }
+
+    /** Moves {@code node} after its expiration time changed. */
+    void reschedule(@NonNull Node node) {
+        if (node.mNextInWheel != null) {
+            unlink(node);
+        }
+        schedule(node);
+    }
+
+    /** Removes {@code node} from the wheel if it is scheduled. */
+    void deschedule(@NonNull Node node) {
+        if (node.mNextInWheel != null) {
+            unlink(node);
+        }
+    }
+
+    /**
+     * Advances the wheel to {@code currentTime}, reporting every node whose expiration time
+     * is not after {@code currentTime} to {@code listener}.  Nodes in buckets that have not
+     * fully elapsed are not reported until a later call, so callers that need an exact answer
+     * for a particular node should also compare its time directly.
+     */
+    void advance(long currentTime, @NonNull ExpirationListener listener) {
+        final long previousTime = mNanos;
+        if (currentTime <= previousTime) {
+            return;
+        }
+        mNanos = currentTime;
+        for (int i = 0; i < SHIFT.length; i++) {
+            final long previousTicks = previousTime >>> SHIFT[i];
+            final long currentTicks = currentTime >>> SHIFT[i];
+            if (currentTicks == previousTicks) {
+                break;
+            }
+            expire(i, previousTicks, currentTicks - previousTicks, listener);
+        }
+    }
+
+    private void expire(int level, long previousTicks, long delta, ExpirationListener listener) {
+        final Node[] buckets = mWheel[level];
+        final int mask = buckets.length - 1;
+        final int steps = (int) Math.min(1 + delta, buckets.length);
+        final int start = (int) (previousTicks & mask);
+        for (int i = start; i < start + steps; i++) {
+            final Node sentinel = buckets[i & mask];
+            Node node = sentinel.mNextInWheel;
+            // Detach the whole bucket first, since nodes that are not yet due are rescheduled
+            // and may land in the same bucket again.
+            sentinel.mPrevInWheel = sentinel;
+            sentinel.mNextInWheel = sentinel;
+            while (node != sentinel) {
+                final Node next = node.mNextInWheel;
+                node.mPrevInWheel = null;
+                node.mNextInWheel = null;
+                if (node.mTime <= mNanos) {
+                    listener.onExpired(node);
+                } else {
+                    schedule(node);
+                }
+                node = next;
+            }
+        }
+    }
+
+    private Node findBucket(long time) {
+        final long duration = time - mNanos;
+        final int last = mWheel.length - 1;
+        for (int i = 0; i < last; i++) {
+            if (duration < SPANS[i + 1]) {
+                final long ticks = time >>> SHIFT[i];
+                return mWheel[i][(int) (ticks & (mWheel[i].length - 1))];
+            }
+        }
+        return mWheel[last][0];
+    }
+
+    private static void link(Node sentinel, Node node) {
+        final Node tail = sentinel.mPrevInWheel;
+        node.mPrevInWheel = tail;
+        node.mNextInWheel = sentinel;
+        tail.mNextInWheel = node;
+        sentinel.mPrevInWheel = node;
+    }
+
+    private static void unlink(Node node) {
+        final Node prev = node.mPrevInWheel;
+        final Node next = node.mNextInWheel;
+        prev.mNextInWheel = next;
+        next.mPrevInWheel = prev;
+        node.mPrevInWheel = null;
+        node.mNextInWheel = null;
+    }
+
+    private static long ceilingPowerOfTwo(long value) {
+        return 1L << -Long.numberOfLeadingZeros(value - 1);
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+@RunWith(JUnit4.class)
+public class ExpiringLruCacheTest {
+
+    @Test
+    public void expireAfterWrite() {
+        TestCache cache = new TestCache(10, 100, 0);
+        cache.put("a", "A");
+        cache.advance(50);
+        assertEquals("A", cache.get("a"));
+        cache.advance(49);
+        assertEquals("A", cache.get("a"));
+        cache.advance(1);
+        assertNull(cache.get("a"));
+        assertEquals(1, cache.expirationCount());
+        assertEquals(0, cache.evictionCount());
+        assertEquals(0, cache.size());
+        assertEquals(listOf("a=A>null(evicted)"), cache.removals);
+    }
+
+    @Test
+    public void expireAfterAccessIsExtendedByReads() {
+        TestCache cache = new TestCache(10, 0, 100);
+        cache.put("a", "A");
+        for (int i = 0; i < 10; i++) {
+            cache.advance(90);
+            assertEquals("A", cache.get("a"));
+        }
+        cache.advance(100);
+        assertNull(cache.get("a"));
+        assertEquals(10, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    public void expireAfterWriteIsNotExtendedByReads() {
+        TestCache cache = new TestCache(10, 150, 100);
+        cache.put("a", "A");
+        cache.advance(90);
+        assertEquals("A", cache.get("a"));
+        cache.advance(90);
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    public void putResetsExpiration() {
+        TestCache cache = new TestCache(10, 100, 0);
+        cache.put("a", "A");
+        cache.advance(90);
+        assertEquals("A", cache.put("a", "B"));
+        cache.advance(90);
+        assertEquals("B", cache.get("a"));
+        assertEquals(listOf("a=A>B"), cache.removals);
+    }
+
+    @Test
+    public void putAndRemoveIgnoreExpiredValues() {
+        TestCache cache = new TestCache(10, 100, 0);
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.advance(100);
+        assertNull(cache.put("a", "C"));
+        assertNull(cache.remove("b"));
+        assertEquals(2, cache.expirationCount());
+    }
+
+    @Test
+    public void expiredEntriesAreRemovedWithoutBeingRead() {
+        TestCache cache = new TestCache(1000, 0, 2000);
+        for (int i = 0; i < 500; i++) {
+            cache.put("k" + i, "v" + i);
+        }
+        cache.put("fresh", "F");
+        cache.advance(1000);
+        cache.get("fresh");
+        cache.advance(1500);
+        cache.evictExpired();
+        assertEquals(500, cache.expirationCount());
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.snapshot().size());
+    }
+
+    @Test
+    public void expiresAcrossWheelLevels() {
+        long hour = TimeUnit.HOURS.toMillis(1);
+        TestCache cache = new TestCache(10, 0, 0);
+        TestCache minutes = new TestCache(10, TimeUnit.MINUTES.toMillis(3), 0);
+        TestCache days = new TestCache(10, TimeUnit.DAYS.toMillis(10), 0);
+        cache.put("a", "A");
+        minutes.put("a", "A");
+        days.put("a", "A");
+        for (int i = 0; i < 24 * 11; i++) {
+            cache.advance(hour);
+            minutes.advance(hour);
+            days.advance(hour);
+            cache.evictExpired();
+            minutes.evictExpired();
+            days.evictExpired();
+            if (i == 24 * 10 - 2) {
+                assertEquals(0, days.expirationCount());
+            }
+        }
+        assertEquals(0, cache.expirationCount());
+        assertEquals(1, minutes.expirationCount());
+        assertEquals(1, days.expirationCount());
+    }
+
+    @Test
+    public void sizeEvictionStillApplies() {
+        TestCache cache = new TestCache(3, 100, 0) {
+            @Override
+            protected int sizeOf(@NonNull String key, @NonNull String value) {
+                return value.length();
+            }
+        };
+        cache.put("a", "A");
+        cache.put("b", "BB");
+        cache.put("c", "C");
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.evictionCount());
+        assertNull(cache.get("a"));
+        cache.advance(2000);
+        cache.evictExpired();
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.expirationCount());
+        assertEquals(1, cache.evictionCount());
+    }
+
+    @Test
+    public void createOnMissAfterExpiry() {
+        TestCache cache = new TestCache(10, 100, 0) {
+            @Override
+            protected String create(@NonNull String key) {
+                return key.toUpperCase() + createCount();
+            }
+        };
+        assertEquals("A0", cache.get("a"));
+        cache.advance(100);
+        assertEquals("A1", cache.get("a"));
+        assertEquals(2, cache.createCount());
+    }
+
+    @Test
+    public void refreshAfterWrite() {
+        QueueExecutor executor = new QueueExecutor();
+        TestCache cache = new TestCache(10, 1000, 0, 100, executor) {
+            @Override
+            protected String create(@NonNull String key) {
+                return key.toUpperCase() + refreshCount();
+            }
+        };
+        cache.put("a", "old");
+        cache.advance(99);
+        assertEquals("old", cache.get("a"));
+        assertEquals(0, executor.mTasks.size());
+
+        cache.advance(1);
+        assertEquals("old", cache.get("a"));
+        assertEquals("old", cache.get("a"));
+        assertEquals(1, executor.mTasks.size());
+
+        executor.runAll();
+        assertEquals("A0", cache.get("a"));
+        assertEquals(1, cache.refreshCount());
+        assertEquals(listOf("a=old>A0"), cache.removals);
+
+        // The refreshed value gets a new write time.
+        cache.advance(900);
+        assertEquals("A0", cache.get("a"));
+    }
+
+    @Test
+    public void refreshDiscardedWhenEntryReplaced() throws Exception {
+        QueueExecutor executor = new QueueExecutor();
+        TestCache cache = new TestCache(10, 0, 0, 100, executor) {
+            @Override
+            protected String create(@NonNull String key) {
+                return "reloaded";
+            }
+        };
+        cache.put("a", "A");
+        ListenableFuture<String> future = cache.refresh("a");
+        cache.put("a", "B");
+        executor.runAll();
+        assertEquals("reloaded", future.get());
+        assertEquals("B", cache.get("a"));
+        assertEquals(0, cache.refreshCount());
+    }
+
+    @Test
+    public void refreshOfMissingKey() throws Exception {
+        TestCache cache = new TestCache(10, 0, 0);
+        assertNull(cache.refresh("a").get());
+        assertFalse(cache.snapshot().containsKey("a"));
+    }
+
+    @Test
+    public void snapshotSkipsExpiredEntries() {
+        TestCache cache = new TestCache(10, 100, 0);
+        cache.put("a", "A");
+        cache.advance(50);
+        cache.put("b", "B");
+        cache.advance(60);
+        Map<String, String> snapshot = cache.snapshot();
+        assertEquals(1, snapshot.size());
+        assertTrue(snapshot.containsKey("b"));
+    }
+
+    private static List<String> listOf(String... values) {
+        List<String> result = new ArrayList<>();
+        for (String value : values) {
+            result.add(value);
+        }
+        return result;
+    }
+
+    private static class QueueExecutor implements Executor {
+        final List<Runnable> mTasks = new ArrayList<>();
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            mTasks.add(command);
+        }
+
+        void runAll() {
+            while (!mTasks.isEmpty()) {
+                mTasks.remove(0).run();
+            }
+        }
+    }
+
+    private static class TestCache extends ExpiringLruCache<String, String> {
+        final List<String> removals = new ArrayList<>();
+        long mNow = 1_000_000L;
+
+        TestCache(int maxSize, long expireAfterWrite, long expireAfterAccess) {
+            super(maxSize, expireAfterWrite, expireAfterAccess, TimeUnit.MILLISECONDS);
+        }
+
+        TestCache(int maxSize, long expireAfterWrite, long expireAfterAccess,
+                long refreshAfterWrite, Executor executor) {
+            super(maxSize, expireAfterWrite, expireAfterAccess, refreshAfterWrite,
+                    TimeUnit.MILLISECONDS, executor);
+        }
+
+        @Override
+        long ticker() {
+            return mNow;
+        }
+
+        void advance(long millis) {
+            mNow += TimeUnit.MILLISECONDS.toNanos(millis);
+        }
+
+        @Override
+        protected void entryRemoved(boolean evicted, @NonNull String key,
+                @NonNull String oldValue, @Nullable String newValue) {
+            removals.add(key + "=" + oldValue + ">" + newValue + (evicted ? "(evicted)" : ""));
+        }
+    }
+}
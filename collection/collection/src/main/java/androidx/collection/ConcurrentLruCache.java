@@ -0,0 +1,577 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A cache with the same contract as {@link LruCache}, designed to be shared by many threads.
+ *
+ * <p>{@link LruCache} keeps its entries in an access-ordered {@link LinkedHashMap} and holds
+ * its monitor for every {@link LruCache#get get}, so concurrent readers serialize on that
+ * lock.  This cache instead stores its entries in a {@link ConcurrentHashMap}: a
+ * {@link #get} that hits never blocks, and records the access in a small lossy per-thread
+ * buffer.  The recency order used for eviction is only updated when that buffer is drained,
+ * either opportunistically by a reader that finds the lock free or by the next write.  Under
+ * heavy load a few accesses may be dropped, so the entry chosen for eviction is very close
+ * to, but not always exactly, the least recently used one.
+ *
+ * <p>Writes ({@link #put}, {@link #remove} and values returned by {@link #create}) and
+ * evictions are serialized by a single lock.  Statistics are kept in striped counters and
+ * never take the lock.
+ *
+ * <p>{@link #sizeOf}, {@link #create} and {@link #entryRemoved} are called without holding
+ * any lock, exactly as in {@link LruCache}.
+ */
+public class ConcurrentLruCache<K, V> {
+    private final ConcurrentHashMap<K, Node<K, V>> mMap;
+    private final ReentrantLock mEvictionLock = new ReentrantLock();
+    private final ReadBuffer<K, V> mReadBuffer = new ReadBuffer<>();
+
+    /** Least recently used entry. Guarded by {@link #mEvictionLock}. */
+    @Nullable
+    private Node<K, V> mHead;
+    /** Most recently used entry. Guarded by {@link #mEvictionLock}. */
+    @Nullable
+    private Node<K, V> mTail;
+
+    /**
+     * Size of this cache in units. Not necessarily the number of elements. Guarded by
+     * {@link #mEvictionLock}.
+     */
+    private int mSize;
+    private volatile int mMaxSize;
+
+    private final StripedCounter mPutCount = new StripedCounter();
+    private final StripedCounter mCreateCount = new StripedCounter();
+    private final StripedCounter mEvictionCount = new StripedCounter();
+    private final StripedCounter mHitCount = new StripedCounter();
+    private final StripedCounter mMissCount = new StripedCounter();
+
+    /**
+     * @param maxSize for caches that do not override {@link #sizeOf}, this is
+     *     the maximum number of entries in the cache. For all other caches,
+     *     this is the maximum sum of the sizes of the entries in this cache.
+     */
+    public ConcurrentLruCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize <= 0");
+        }
+        mMaxSize = maxSize;
+        mMap = new ConcurrentHashMap<>(16, 0.75f, StripedCounter.STRIPES);
+    }
+
+    /**
+     * Sets the size of the cache.
+     *
+     * @param maxSize The new maximum size.
+     */
+    public void resize(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize <= 0");
+        }
+        mMaxSize = maxSize;
+        trimToSize(maxSize);
+    }
+
+    /**
+     * Returns the value for {@code key} if it exists in the cache or can be
+     * created by {@code #create}. If a value was returned, it is moved to the
+     * head of the queue. This returns null if a value is not cached and cannot
+     * be created.
+     */
+    @Nullable
+    public final V get(@NonNull K key) {
+        if (key == null) {
+            throw new NullPointerException("key == null");
+        }
+
+        Node<K, V> node = mMap.get(key);
+        if (node != null) {
+            mHitCount.increment();
+            recordAccess(node);
+            return node.mValue;
+        }
+        mMissCount.increment();
+
+        /*
+         * Attempt to create a value. This may take a long time, and the map
+         * may be different when create() returns. If a conflicting value was
+         * added to the map while create() was working, we leave that value in
+         * the map and release the created value.
+         */
+
+        V createdValue = create(key);
+        if (createdValue == null) {
+            return null;
+        }
+
+        mCreateCount.increment();
+        Node<K, V> created = new Node<>(key, createdValue, safeSizeOf(key, createdValue));
+        Node<K, V> existing = mMap.putIfAbsent(key, created);
+        if (existing != null) {
+            entryRemoved(false, key, createdValue, existing.mValue);
+            recordAccess(existing);
+            return existing.mValue;
+        }
+
+        mEvictionLock.lock();
+        try {
+            drainReadBuffer();
+            link(created);
+        } finally {
+            mEvictionLock.unlock();
+        }
+        trimToSize(mMaxSize);
+        return createdValue;
+    }
+
+    /**
+     * Caches {@code value} for {@code key}. The value is moved to the head of
+     * the queue.
+     *
+     * @return the previous value mapped by {@code key}.
+     */
+    @Nullable
+    public final V put(@NonNull K key, @NonNull V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException("key == null || value == null");
+        }
+
+        mPutCount.increment();
+        Node<K, V> node = new Node<>(key, value, safeSizeOf(key, value));
+        Node<K, V> previous = mMap.put(key, node);
+        mEvictionLock.lock();
+        try {
+            drainReadBuffer();
+            if (previous != null) {
+                retire(previous);
+            }
+            link(node);
+        } finally {
+            mEvictionLock.unlock();
+        }
+
+        if (previous != null) {
+            entryRemoved(false, key, previous.mValue, value);
+        }
+
+        trimToSize(mMaxSize);
+        return previous != null ? previous.mValue : null;
+    }
+
+    /**
+     * Remove the eldest entries until the total of remaining entries is at or
+     * below the requested size.
+     *
+     * @param maxSize the maximum size of the cache before returning. May be -1
+     *            to evict even 0-sized elements.
+     */
+    public void trimToSize(int maxSize) {
+        while (true) {
+            Node<K, V> victim;
+            boolean removed;
+            mEvictionLock.lock();
+            try {
+                drainReadBuffer();
+                if (mSize < 0 || (mHead == null && mSize != 0)) {
+                    throw new IllegalStateException(getClass().getName()
+                            + ".sizeOf() is reporting inconsistent results!");
+                }
+
+                victim = mHead;
+                if (mSize <= maxSize || victim == null) {
+                    break;
+                }
+
+                // The victim may already have been replaced in the map by a concurrent put,
+                // in which case that put reports the removal once it takes the lock.
+                removed = mMap.remove(victim.mKey, victim);
+                retire(victim);
+            } finally {
+                mEvictionLock.unlock();
+            }
+
+            if (removed) {
+                mEvictionCount.increment();
+                entryRemoved(true, victim.mKey, victim.mValue, null);
+            }
+        }
+    }
+
+    /**
+     * Removes the entry for {@code key} if it exists.
+     *
+     * @return the previous value mapped by {@code key}.
+     */
+    @Nullable
+    public final V remove(@NonNull K key) {
+        if (key == null) {
+            throw new NullPointerException("key == null");
+        }
+
+        Node<K, V> previous = mMap.remove(key);
+        if (previous == null) {
+            return null;
+        }
+
+        mEvictionLock.lock();
+        try {
+            retire(previous);
+        } finally {
+            mEvictionLock.unlock();
+        }
+
+        entryRemoved(false, key, previous.mValue, null);
+        return previous.mValue;
+    }
+
+    /**
+     * Called for entries that have been evicted or removed. This method is
+     * invoked when a value is evicted to make space, removed by a call to
+     * {@link #remove}, or replaced by a call to {@link #put}. The default
+     * implementation does nothing.
+     *
+     * <p>The method is called without synchronization: other threads may
+     * access the cache while this method is executing.
+     *
+     * @param evicted true if the entry is being removed to make space, false
+     *     if the removal was caused by a {@link #put} or {@link #remove}.
+     * @param newValue the new value for {@code key}, if it exists. If non-null,
+     *     this removal was caused by a {@link #put}. Otherwise it was caused by
+     *     an eviction or a {@link #remove}.
+     */
+    protected void entryRemoved(boolean evicted, @NonNull K key, @NonNull V oldValue,
+            @Nullable V newValue) {
+    }
+
+    /**
+     * Called after a cache miss to compute a value for the corresponding key.
+     * Returns the computed value or null if no value can be computed. The
+     * default implementation returns null.
+     *
+     * <p>The method is called without synchronization: other threads may
+     * access the cache while this method is executing.
+     *
+     * <p>If a value for {@code key} exists in the cache when this method
+     * returns, the created value will be released with {@link #entryRemoved}
+     * and discarded. This can occur when multiple threads request the same key
+     * at the same time (causing multiple values to be created), or when one
+     * thread calls {@link #put} while another is creating a value for the same
+     * key.
+     */
+    @Nullable
+    protected V create(@NonNull K key) {
+        return null;
+    }
+
+    private int safeSizeOf(K key, V value) {
+        int result = sizeOf(key, value);
+        if (result < 0) {
+            throw new IllegalStateException("Negative size: " + key + "=" + value);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the size of the entry for {@code key} and {@code value} in
+     * user-defined units.  The default implementation returns 1 so that size
+     * is the number of entries and max size is the maximum number of entries.
+     *
+     * <p>An entry's size must not change while it is in the cache.
+     */
+    protected int sizeOf(@NonNull K key, @NonNull V value) {
+        return 1;
+    }
+
+    /**
+     * Clear the cache, calling {@link #entryRemoved} on each removed entry.
+     */
+    public final void evictAll() {
+        trimToSize(-1); // -1 will evict 0-sized elements
+    }
+
+    /**
+     * For caches that do not override {@link #sizeOf}, this returns the number
+     * of entries in the cache. For all other caches, this returns the sum of
+     * the sizes of the entries in this cache.
+     */
+    public final int size() {
+        mEvictionLock.lock();
+        try {
+            return mSize;
+        } finally {
+            mEvictionLock.unlock();
+        }
+    }
+
+    /**
+     * For caches that do not override {@link #sizeOf}, this returns the maximum
+     * number of entries in the cache. For all other caches, this returns the
+     * maximum sum of the sizes of the entries in this cache.
+     */
+    public final int maxSize() {
+        return mMaxSize;
+    }
+
+    /**
+     * Returns the number of times {@link #get} returned a value that was
+     * already present in the cache.
+     */
+    public final int hitCount() {
+        return (int) mHitCount.sum();
+    }
+
+    /**
+     * Returns the number of times {@link #get} returned null or required a new
+     * value to be created.
+     */
+    public final int missCount() {
+        return (int) mMissCount.sum();
+    }
+
+    /**
+     * Returns the number of times {@link #create(Object)} returned a value.
+     */
+    public final int createCount() {
+        return (int) mCreateCount.sum();
+    }
+
+    /**
+     * Returns the number of times {@link #put} was called.
+     */
+    public final int putCount() {
+        return (int) mPutCount.sum();
+    }
+
+    /**
+     * Returns the number of values that have been evicted.
+     */
+    public final int evictionCount() {
+        return (int) mEvictionCount.sum();
+    }
+
+    /**
+     * Returns a copy of the current contents of the cache, ordered from least
+     * recently accessed to most recently accessed.
+     */
+    @NonNull
+    public final Map<K, V> snapshot() {
+        mEvictionLock.lock();
+        try {
+            drainReadBuffer();
+            LinkedHashMap<K, V> snapshot = new LinkedHashMap<>();
+            for (Node<K, V> node = mHead; node != null; node = node.mNext) {
+                snapshot.put(node.mKey, node.mValue);
+            }
+            return snapshot;
+        } finally {
+            mEvictionLock.unlock();
+        }
+    }
+
+    @NonNull
+    @Override
+    public final String toString() {
+        int hitCount = hitCount();
+        int missCount = missCount();
+        int accesses = hitCount + missCount;
+        int hitPercent = accesses != 0 ? (100 * hitCount / accesses) : 0;
+        return String.format(Locale.US,
+                "ConcurrentLruCache[maxSize=%d,hits=%d,misses=%d,hitRate=%d%%]",
+                mMaxSize, hitCount, missCount, hitPercent);
+    }
+
+    private void recordAccess(Node<K, V> node) {
+        if (mReadBuffer.offer(node) && mEvictionLock.tryLock()) {
+            try {
+                drainReadBuffer();
+            } finally {
+                mEvictionLock.unlock();
+            }
+        }
+    }
+
+    /** Replays buffered reads onto the recency order. Must hold {@link #mEvictionLock}. */
+    private void drainReadBuffer() {
+        // Bound the work so that readers refilling the buffer cannot keep a writer here.
+        for (int i = 0; i < ReadBuffer.CAPACITY; i++) {
+            final Node<K, V> node = mReadBuffer.poll();
+            if (node == null) {
+                break;
+            }
+            if (node.mLinked && node != mTail) {
+                unlink(node);
+                linkLast(node);
+            }
+        }
+    }
+
+    /**
+     * Adds a node that was just published to the map as the most recently used entry, unless
+     * it has already been replaced or removed. Must hold {@link #mEvictionLock}.
+     */
+    private void link(Node<K, V> node) {
+        if (!node.mRetired) {
+            linkLast(node);
+            mSize += node.mSize;
+        }
+    }
+
+    /**
+     * Drops a node that is no longer in the map from the recency order. Must hold
+     * {@link #mEvictionLock}.
+     */
+    private void retire(Node<K, V> node) {
+        if (!node.mRetired) {
+            node.mRetired = true;
+            if (node.mLinked) {
+                unlink(node);
+                mSize -= node.mSize;
+            }
+        }
+    }
+
+    private void linkLast(Node<K, V> node) {
+        final Node<K, V> tail = mTail;
+        node.mPrev = tail;
+        node.mNext = null;
+        if (tail == null) {
+            mHead = node;
+        } else {
+            tail.mNext = node;
+        }
+        mTail = node;
+        node.mLinked = true;
+    }
+
+    private void unlink(Node<K, V> node) {
+        final Node<K, V> prev = node.mPrev;
+        final Node<K, V> next = node.mNext;
+        if (prev == null) {
+            mHead = next;
+        } else {
+            prev.mNext = next;
+        }
+        if (next == null) {
+            mTail = prev;
+        } else {
+            next.mPrev = prev;
+        }
+        node.mPrev = null;
+        node.mNext = null;
+        node.mLinked = false;
+    }
+
+    static final class Node<K, V> {
+        final K mKey;
+        final V mValue;
+        final int mSize;
+
+        // Guarded by the owning cache's eviction lock.
+        @Nullable
+        Node<K, V> mPrev;
+        @Nullable
+        Node<K, V> mNext;
+        boolean mLinked;
+        boolean mRetired;
+
+        Node(K key, V value, int size) {
+            mKey = key;
+            mValue = value;
+            mSize = size;
+        }
+    }
+
+    /**
+     * A lossy multi-producer, single-consumer buffer of recently read nodes.  Each thread
+     * writes to the ring of its own stripe; when a ring is full, further reads are dropped
+     * rather than waiting for the consumer.
+     */
+    static final class ReadBuffer<K, V> {
+        private static final int RING_SIZE = 16;
+        private static final int RING_MASK = RING_SIZE - 1;
+        static final int CAPACITY = StripedCounter.STRIPES * RING_SIZE;
+        /** Number of pending reads in a ring after which the reader tries to drain. */
+        private static final int DRAIN_THRESHOLD = RING_SIZE / 2;
+        /** Spaces the per-stripe write counters a cache line apart. */
+        private static final int PADDING = 8;
+
+        private final AtomicReferenceArray<Node<K, V>> mSlots =
+                new AtomicReferenceArray<>(CAPACITY);
+        private final AtomicLongArray mWriteCounts =
+                new AtomicLongArray(StripedCounter.STRIPES * PADDING);
+        private final AtomicLongArray mReadCounts =
+                new AtomicLongArray(StripedCounter.STRIPES * PADDING);
+        /** Next stripe to poll. Only accessed by the consumer. */
+        private int mPollStripe;
+
+        /**
+         * Records a read of {@code node}, returning true if the calling thread's ring has
+         * enough pending reads that it should be drained.
+         */
+        boolean offer(Node<K, V> node) {
+            final int stripe = StripedCounter.currentStripe();
+            final int counter = stripe * PADDING;
+            final long head = mReadCounts.get(counter);
+            final long tail = mWriteCounts.get(counter);
+            final long pending = tail - head;
+            if (pending >= RING_SIZE) {
+                return true;
+            }
+            if (mWriteCounts.compareAndSet(counter, tail, tail + 1)) {
+                mSlots.lazySet(stripe * RING_SIZE + (int) (tail & RING_MASK), node);
+            }
+            return pending + 1 >= DRAIN_THRESHOLD;
+        }
+
+        /**
+         * Removes and returns the next pending read, or null if there are none.  Must only be
+         * called by one thread at a time.
+         */
+        @Nullable
+        Node<K, V> poll() {
+            for (int i = 0; i < StripedCounter.STRIPES; i++) {
+                final int stripe = mPollStripe;
+                final int counter = stripe * PADDING;
+                final long head = mReadCounts.get(counter);
+                if (head < mWriteCounts.get(counter)) {
+                    final int slot = stripe * RING_SIZE + (int) (head & RING_MASK);
+                    final Node<K, V> node = mSlots.get(slot);
+                    // A null slot has been claimed by a reader that has not stored its node
+                    // yet; leave it for the next drain.
+                    if (node != null) {
+                        mSlots.lazySet(slot, null);
+                        mReadCounts.lazySet(counter, head + 1);
+                        return node;
+                    }
+                }
+                mPollStripe = (stripe + 1) & (StripedCounter.STRIPES - 1);
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection;
+
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Recycles the backing arrays of {@link SimpleArrayMap}, {@link ArrayMap} and
+ * {@link ArraySet}.
+ *
+ * <p>These containers free their arrays whenever they grow, shrink or are cleared, and the
+ * freed arrays are kept here so that the next container needing arrays of the same capacity
+ * does not have to allocate them.  Arrays are pooled for the capacities that containers
+ * reach by growing one element at a time: 4, 8, 12, 18, 27 and 40.  Arrays of other
+ * capacities, such as those requested through {@code ensureCapacity}, are never pooled.
+ *
+ * <p>The pool is split into stripes, each with its own lock, and each thread uses the
+ * stripe chosen by its id, so threads churning through containers concurrently rarely wait
+ * for each other.  Across all its stripes, a pool never keeps arrays for more entries than
+ * the previous caches of 4 and 8 entry arrays did.
+ */
+public final class ContainerArrayPool {
+    /** Capacities for which arrays are pooled, in increasing order. */
+    private static final int[] SIZE_CLASSES = new int[] {4, 8, 12, 18, 27, 40};
+
+    /** Default value of {@link #setMaxArraysPerSizeClass}. */
+    private static final int DEFAULT_MAX_ARRAYS_PER_SIZE_CLASS = 10;
+
+    /** Upper bound on the number of stripes, which bounds the memory the pool can retain. */
+    private static final int MAX_STRIPES = 4;
+
+    private static final int STRIPES = Math.min(StripedCounter.STRIPES, MAX_STRIPES);
+
+    /**
+     * Upper bound on the sum of the capacities of the arrays kept by one pool, across all its
+     * stripes: what ten arrays of capacity 4 and ten of capacity 8 add up to.
+     */
+    private static final int MAX_POOLED_CAPACITY = 10 * 4 + 10 * 8;
+
+    /** Pool for {@link SimpleArrayMap} and {@link ArrayMap}, which store a key and a value. */
+    static final ContainerArrayPool MAPS = new ContainerArrayPool("SimpleArrayMap", 2);
+    /** Pool for {@link ArraySet}. */
+    static final ContainerArrayPool SETS = new ContainerArrayPool("ArraySet", 1);
+
+    private static volatile int sMaxArraysPerSizeClass = DEFAULT_MAX_ARRAYS_PER_SIZE_CLASS;
+
+    /** Name of the containers using the pool, for reporting corrupt arrays. */
+    private final String mName;
+    /** Number of slots of the object array for each slot of the hash array. */
+    private final int mObjectsPerHash;
+    private final Stripe[] mStripes;
+    /** Sum of the capacities of the pooled arrays, across all stripes. */
+    private final AtomicInteger mPooledCapacity = new AtomicInteger();
+
+    private ContainerArrayPool(String name, int objectsPerHash) {
+        mName = name;
+        mObjectsPerHash = objectsPerHash;
+        mStripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            mStripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Sets how many arrays of each capacity are kept for later reuse, per stripe of the pool,
+     * within the bound on the total capacity of the arrays a pool keeps.  The default is 10.
+     * Setting 0 disables recycling and releases every pooled array.
+     */
+    public static void setMaxArraysPerSizeClass(int maxArrays) {
+        if (maxArrays < 0) {
+            throw new IllegalArgumentException("maxArrays < 0");
+        }
+        sMaxArraysPerSizeClass = maxArrays;
+        MAPS.trim(maxArrays);
+        SETS.trim(maxArrays);
+    }
+
+    /**
+     * Releases every pooled array, for example when the application is asked to trim its
+     * memory.  Pooling resumes as containers free arrays again.
+     */
+    public static void clear() {
+        MAPS.trim(0);
+        SETS.trim(0);
+    }
+
+    /**
+     * Returns the number of times a container reused a pooled array instead of allocating
+     * a new one.
+     */
+    public static long recycledCount() {
+        return MAPS.sumCounts(true) + SETS.sumCounts(true);
+    }
+
+    /**
+     * Returns the number of times a container allocated arrays of a pooled capacity because
+     * no pooled array was available.
+     */
+    public static long allocationCount() {
+        return MAPS.sumCounts(false) + SETS.sumCounts(false);
+    }
+
+    /**
+     * Returns a pooled object array able to hold {@code capacity} entries, or null if there
+     * is none and the caller must allocate.  The matching hash array is stored in slot 1 of
+     * the returned array, and must be taken out, and the slot cleared, by the caller.
+     */
+    @Nullable
+    Object[] acquire(int capacity) {
+        final int sizeClass = sizeClassOf(capacity);
+        if (sizeClass < 0) {
+            return null;
+        }
+        final Stripe stripe = mStripes[StripedCounter.currentStripe() & (STRIPES - 1)];
+        final Object[] array;
+        synchronized (stripe) {
+            final int count = stripe.mCounts[sizeClass];
+            if (count == 0) {
+                stripe.mAllocatedCount++;
+                return null;
+            }
+            final Object[][] arrays = stripe.mArrays[sizeClass];
+            array = arrays[count - 1];
+            arrays[count - 1] = null;
+            stripe.mCounts[sizeClass] = count - 1;
+            mPooledCapacity.addAndGet(-capacity);
+            if (isIntact(array, capacity)) {
+                stripe.mRecycledCount++;
+                return array;
+            }
+            stripe.mAllocatedCount++;
+        }
+        // Whoops!  Someone trampled the array (probably due to not protecting their access
+        // with a lock).  Our pool is corrupt; report and give up.
+        System.out.println("Found corrupt " + mName + " cache: [0]=" + array[0]
+                + " [1]=" + array[1]);
+        trim(0);
+        return null;
+    }
+
+    /**
+     * Returns whether a pooled array is as {@link #release} left it: holding its hash array
+     * in slot 1, and nothing in slot 0.
+     */
+    private boolean isIntact(Object[] array, int capacity) {
+        final Object hashes = array[1];
+        return array[0] == null
+                && hashes instanceof int[]
+                && ((int[]) hashes).length == capacity
+                && array.length == capacity * mObjectsPerHash;
+    }
+
+    /**
+     * Offers arrays that a container no longer uses to the pool.  The first {@code used}
+     * slots of {@code array} are cleared before it is pooled.  Make sure <b>NOT</b> to call
+     * this method with arrays that can still be modified.
+     */
+    void release(int[] hashes, Object[] array, int used) {
+        final int sizeClass = sizeClassOf(hashes.length);
+        if (sizeClass < 0 || array.length != hashes.length * mObjectsPerHash) {
+            return;
+        }
+        final int max = sMaxArraysPerSizeClass;
+        if (max == 0) {
+            return;
+        }
+        final Stripe stripe = mStripes[StripedCounter.currentStripe() & (STRIPES - 1)];
+        synchronized (stripe) {
+            final int count = stripe.mCounts[sizeClass];
+            if (count >= max) {
+                return;
+            }
+            if (mPooledCapacity.addAndGet(hashes.length) > MAX_POOLED_CAPACITY) {
+                mPooledCapacity.addAndGet(-hashes.length);
+                return;
+            }
+            Object[][] arrays = stripe.mArrays[sizeClass];
+            if (arrays == null || arrays.length < max) {
+                arrays = arrays == null ? new Object[max][] : Arrays.copyOf(arrays, max);
+                stripe.mArrays[sizeClass] = arrays;
+            }
+            Arrays.fill(array, 0, used, null);
+            array[1] = hashes;
+            arrays[count] = array;
+            stripe.mCounts[sizeClass] = count + 1;
+        }
+    }
+
+    private void trim(int maxArrays) {
+        for (Stripe stripe : mStripes) {
+            synchronized (stripe) {
+                for (int i = 0; i < SIZE_CLASSES.length; i++) {
+                    final Object[][] arrays = stripe.mArrays[i];
+                    if (arrays != null && stripe.mCounts[i] > maxArrays) {
+                        Arrays.fill(arrays, maxArrays, stripe.mCounts[i], null);
+                        mPooledCapacity.addAndGet(
+                                -SIZE_CLASSES[i] * (stripe.mCounts[i] - maxArrays));
+                        stripe.mCounts[i] = maxArrays;
+                    }
+                }
+            }
+        }
+    }
+
+    private long sumCounts(boolean recycled) {
+        long sum = 0;
+        for (Stripe stripe : mStripes) {
+            synchronized (stripe) {
+                sum += recycled ? stripe.mRecycledCount : stripe.mAllocatedCount;
+            }
+        }
+        return sum;
+    }
+
+    private static int sizeClassOf(int capacity) {
+        for (int i = 0; i < SIZE_CLASSES.length; i++) {
+            if (SIZE_CLASSES[i] == capacity) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** One lock's worth of pooled arrays, with a stack of arrays for each size class. */
+    private static final class Stripe {
+        final Object[][][] mArrays = new Object[SIZE_CLASSES.length][][];
+        final int[] mCounts = new int[SIZE_CLASSES.length];
+        long mRecycledCount;
+        long mAllocatedCount;
+
+        Stripe() {
+        }
+    }
+}
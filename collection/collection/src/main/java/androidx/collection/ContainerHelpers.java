@@ -16,11 +16,19 @@
 
 package androidx.collection;
 
+import java.util.Arrays;
+
 class ContainerHelpers {
     static final int[] EMPTY_INTS = new int[0];
     static final long[] EMPTY_LONGS = new long[0];
     static final Object[] EMPTY_OBJECTS = new Object[0];
 
+    /**
+     * The minimum number of slots in the open-addressing hash tables used by the primitive
+     * maps and sets.  Must be a power of two.
+     */
+    private static final int BASE_HASH_TABLE_SIZE = 8;
+
     public static int idealIntArraySize(int need) {
         return idealByteArraySize(need * 4) / 4;
     }
@@ -37,6 +45,32 @@ class ContainerHelpers {
         return need;
     }
 
+    /**
+     * Returns the smallest power of two hash table size that keeps the load factor of a table
+     * holding {@code capacity} entries at or below one half.
+     */
+    static int idealHashTableSize(int capacity) {
+        int size = BASE_HASH_TABLE_SIZE;
+        while (size < (capacity << 1)) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    // Spreads the bits of a key so that sequential keys do not cluster in a linear-probing table.
+    static int hashInt(int key) {
+        final int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    static int hashLong(long key) {
+        return hashInt((int) (key ^ (key >>> 32)));
+    }
+
+    static int hashObject(Object key) {
+        return hashInt(key == null ? 0 : key.hashCode());
+    }
+
     public static boolean equal(Object a, Object b) {
         return a == b || (a != null && a.equals(b));
     }
@@ -80,6 +114,89 @@ class ContainerHelpers {
         return ~lo;  // value not present
     }
 
+    /**
+     * Returns the indices of {@code keys} ordered by ascending key.  Indices of equal keys keep
+     * their relative order, so the last occurrence of a key is also last in the result.
+     */
+    static int[] sortedOrder(int[] keys) {
+        final int n = keys.length;
+        final int[] order = new int[n];
+        if (isSorted(keys)) {
+            for (int i = 0; i < n; i++) {
+                order[i] = i;
+            }
+            return order;
+        }
+        // Sorting keys and indices packed into longs orders equal keys by index, without
+        // boxing them for a comparator.
+        final long[] packed = new long[n];
+        for (int i = 0; i < n; i++) {
+            packed[i] = ((long) keys[i] << 32) | i;
+        }
+        Arrays.sort(packed);
+        for (int i = 0; i < n; i++) {
+            order[i] = (int) packed[i];
+        }
+        return order;
+    }
+
+    /**
+     * Returns the indices of {@code keys} ordered by ascending key.  Indices of equal keys keep
+     * their relative order, so the last occurrence of a key is also last in the result.
+     */
+    static int[] sortedOrder(long[] keys) {
+        final int n = keys.length;
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        if (isSorted(keys)) {
+            return order;
+        }
+        // Bottom-up merge sort, which is stable.
+        int[] buffer = new int[n];
+        for (int width = 1; width < n; width <<= 1) {
+            for (int lo = 0; lo < n; lo += width << 1) {
+                final int mid = Math.min(lo + width, n);
+                final int hi = Math.min(lo + (width << 1), n);
+                int i = lo;
+                int j = mid;
+                int o = lo;
+                while (i < mid && j < hi) {
+                    buffer[o++] = keys[order[j]] < keys[order[i]] ? order[j++] : order[i++];
+                }
+                while (i < mid) {
+                    buffer[o++] = order[i++];
+                }
+                while (j < hi) {
+                    buffer[o++] = order[j++];
+                }
+            }
+            final int[] swap = order;
+            order = buffer;
+            buffer = swap;
+        }
+        return order;
+    }
+
+    private static boolean isSorted(int[] keys) {
+        for (int i = 1; i < keys.length; i++) {
+            if (keys[i - 1] > keys[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSorted(long[] keys) {
+        for (int i = 1; i < keys.length; i++) {
+            if (keys[i - 1] > keys[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private ContainerHelpers() {
     }
 }
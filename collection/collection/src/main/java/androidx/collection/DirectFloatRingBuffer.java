@@ -0,0 +1,172 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection;
+
+import androidx.annotation.NonNull;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * DirectFloatRingBuffer is a fixed-capacity first-in first-out queue of float values,
+ * stored outside of the Java heap in a direct {@link ByteBuffer}.  Unlike a
+ * {@link CircularArray} of boxed floats, it never grows and stores values unboxed, so
+ * recording sensor samples at a high rate allocates nothing and creates no garbage.
+ *
+ * <p>When the buffer is full, {@link #offer} either rejects the new value or, if the buffer was
+ * created in overwrite mode, discards the oldest value to make room for it.  Discarded values
+ * are counted by {@link #droppedCount()}.
+ *
+ * <p>One thread may add values while another thread removes them, without locking: values
+ * become visible to the consumer only once they are completely written, and a value that is
+ * overwritten while the consumer is reading it is never returned.  {@link #offer} must only
+ * be called from a single producer thread, and {@link #poll}, {@link #drainTo} and
+ * {@link #clear} from a single consumer thread.
+ */
+public final class DirectFloatRingBuffer {
+    /** The largest capacity, chosen so that the buffer size in bytes fits in an int. */
+    private static final int MAX_CAPACITY = 1 << 28;
+
+    private final RingBufferSequence mSequence;
+    private final FloatBuffer mElements;
+
+    /**
+     * Creates a ring buffer with capacity for at least {@code minCapacity} values, which
+     * rejects new values when it is full.
+     *
+     * @param minCapacity the minimum capacity, between 1 and 2^28 inclusive
+     */
+    public DirectFloatRingBuffer(int minCapacity) {
+        this(minCapacity, false);
+    }
+
+    /**
+     * Creates a ring buffer with capacity for at least {@code minCapacity} values.
+     *
+     * @param minCapacity the minimum capacity, between 1 and 2^28 inclusive
+     * @param overwriteOldest true to discard the oldest value when a value is added to a full
+     *     buffer, false to reject the new value instead
+     */
+    public DirectFloatRingBuffer(int minCapacity, boolean overwriteOldest) {
+        mSequence = new RingBufferSequence(minCapacity, MAX_CAPACITY, overwriteOldest);
+        mElements = ByteBuffer.allocateDirect(mSequence.mCapacity * 4)
+                .order(ByteOrder.nativeOrder())
+                .asFloatBuffer();
+    }
+
+    /**
+     * Adds a value at the end of the buffer.  Must only be called from the producer thread.
+     *
+     * @return true if the value was added, false if the buffer is full and does not overwrite
+     *     its oldest value.
+     */
+    public boolean offer(float e) {
+        final int slot = mSequence.claim();
+        if (slot < 0) {
+            return false;
+        }
+        mElements.put(slot, e);
+        mSequence.publish();
+        return true;
+    }
+
+    /**
+     * Removes and returns the oldest value.  Must only be called from the consumer thread.
+     *
+     * @throws ArrayIndexOutOfBoundsException if the buffer is empty.
+     */
+    public float poll() {
+        while (true) {
+            final long head = mSequence.peek();
+            if (head < 0) {
+                throw new ArrayIndexOutOfBoundsException();
+            }
+            final float e = mElements.get(mSequence.slotOf(head));
+            if (mSequence.release(head, 1)) {
+                return e;
+            }
+        }
+    }
+
+    /**
+     * Removes up to {@code maxCount} of the oldest values and copies them, oldest first, into
+     * {@code dest} starting at {@code offset}.  Must only be called from the consumer thread.
+     *
+     * @return the number of values copied, 0 if the buffer is empty.
+     */
+    public int drainTo(@NonNull float[] dest, int offset, int maxCount) {
+        if (offset < 0 || maxCount < 0 || offset > dest.length - maxCount) {
+            throw new ArrayIndexOutOfBoundsException();
+        }
+        while (true) {
+            final long head = mSequence.peek();
+            if (head < 0) {
+                return 0;
+            }
+            final int count = Math.min(maxCount, mSequence.available(head));
+            final int slot = mSequence.slotOf(head);
+            final int first = Math.min(count, mSequence.mCapacity - slot);
+            for (int i = 0; i < first; i++) {
+                dest[offset + i] = mElements.get(slot + i);
+            }
+            for (int i = first; i < count; i++) {
+                dest[offset + i] = mElements.get(i - first);
+            }
+            if (mSequence.release(head, count)) {
+                return count;
+            }
+        }
+    }
+
+    /**
+     * Removes all values.  Must only be called from the consumer thread.
+     */
+    public void clear() {
+        mSequence.clear();
+    }
+
+    /**
+     * Returns the number of values in the buffer.  When called from a thread other than the
+     * consumer while values are being added, the result is only an estimate.
+     */
+    public int size() {
+        return mSequence.size();
+    }
+
+    /**
+     * Return true if size() is 0.
+     * @return true if size() is 0.
+     */
+    public boolean isEmpty() {
+        return mSequence.size() == 0;
+    }
+
+    /**
+     * Returns the number of values the buffer can hold.
+     */
+    public int capacity() {
+        return mSequence.mCapacity;
+    }
+
+    /**
+     * Returns the number of values that were discarded to make room for newer values.
+     */
+    public long droppedCount() {
+        return mSequence.droppedCount();
+    }
+}
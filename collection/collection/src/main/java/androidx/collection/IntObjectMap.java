@@ -0,0 +1,507 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * IntObjectMap maps integers to Objects.  It offers the same API as
+ * {@link SparseArrayCompat}, but instead of keeping its keys in a sorted array it
+ * locates them through an open-addressing hash table, so lookups, insertions and
+ * removals take constant expected time no matter how many mappings it holds.  Keys
+ * are not auto-boxed, and no entry object is allocated for each mapping.
+ *
+ * <p>Mappings are stored densely, so it is possible to iterate over the items in this
+ * container using {@link #keyAt(int)} and {@link #valueAt(int)} with indices in the
+ * range <code>0...size()-1</code>.  Unlike {@link SparseArrayCompat}, the keys are not
+ * returned in ascending order: mappings are kept in insertion order until one is removed,
+ * at which point the last mapping is moved into the vacated index.</p>
+ */
+public class IntObjectMap<E> implements Cloneable {
+    /**
+     * The minimum amount by which the capacity of an IntObjectMap will increase.
+     */
+    private static final int BASE_SIZE = 4;
+
+    private int[] mKeys;
+    private Object[] mValues;
+    /**
+     * Linear-probing hash table of indices into {@link #mKeys}, offset by one so that
+     * {@code 0} marks an empty slot.
+     */
+    private int[] mTable;
+    private int mSize;
+
+    /**
+     * Creates a new IntObjectMap containing no mappings.  The default capacity is 0, and
+     * will grow once items are added to it.
+     */
+    public IntObjectMap() {
+        mKeys = ContainerHelpers.EMPTY_INTS;
+        mValues = ContainerHelpers.EMPTY_OBJECTS;
+        mTable = ContainerHelpers.EMPTY_INTS;
+    }
+
+    /**
+     * Creates a new IntObjectMap containing no mappings that will not require any additional
+     * memory allocation to store the specified number of mappings.
+     */
+    public IntObjectMap(int initialCapacity) {
+        this();
+        if (initialCapacity > 0) {
+            allocArrays(initialCapacity);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public IntObjectMap<E> clone() {
+        IntObjectMap<E> clone;
+        try {
+            clone = (IntObjectMap<E>) super.clone();
+            clone.mKeys = mKeys.clone();
+            clone.mValues = mValues.clone();
+            clone.mTable = mTable.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e); // Cannot happen as we implement Cloneable.
+        }
+        return clone;
+    }
+
+    private void allocArrays(int capacity) {
+        final int[] keys = new int[capacity];
+        final Object[] values = new Object[capacity];
+        System.arraycopy(mKeys, 0, keys, 0, mSize);
+        System.arraycopy(mValues, 0, values, 0, mSize);
+        mKeys = keys;
+        mValues = values;
+
+        final int tableSize = ContainerHelpers.idealHashTableSize(capacity);
+        if (tableSize != mTable.length) {
+            final int[] table = new int[tableSize];
+            final int mask = tableSize - 1;
+            for (int i = 0; i < mSize; i++) {
+                int slot = ContainerHelpers.hashInt(keys[i]) & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = i + 1;
+            }
+            mTable = table;
+        }
+    }
+
+    /**
+     * Returns the slot of the hash table holding {@code key}, or the one's complement of
+     * the empty slot where it would be inserted.  The table must not be empty.
+     */
+    private int slotOf(int key) {
+        final int[] table = mTable;
+        final int mask = table.length - 1;
+        int slot = ContainerHelpers.hashInt(key) & mask;
+        while (true) {
+            final int entry = table[slot];
+            if (entry == 0) {
+                return ~slot;
+            }
+            if (mKeys[entry - 1] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Empties {@code slot}, shifting back any entries further along its probe sequence so
+     * that lookups never stop early at the hole.
+     */
+    private void removeSlot(int slot) {
+        final int[] table = mTable;
+        final int mask = table.length - 1;
+        int hole = slot;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            final int entry = table[next];
+            if (entry == 0) {
+                break;
+            }
+            final int home = ContainerHelpers.hashInt(mKeys[entry - 1]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                table[hole] = entry;
+                hole = next;
+            }
+        }
+        table[hole] = 0;
+    }
+
+    /**
+     * Ensure the map can hold at least <var>minimumCapacity</var> mappings without
+     * allocating.
+     */
+    public void ensureCapacity(int minimumCapacity) {
+        if (mKeys.length < minimumCapacity) {
+            allocArrays(minimumCapacity);
+        }
+    }
+
+    /**
+     * Gets the Object mapped from the specified key, or <code>null</code>
+     * if no such mapping has been made.
+     */
+    @Nullable
+    @SuppressWarnings("NullAway") // See SparseArrayCompat.get(int).
+    public E get(int key) {
+        return get(key, null);
+    }
+
+    /**
+     * Gets the Object mapped from the specified key, or the specified Object
+     * if no such mapping has been made.
+     */
+    @SuppressWarnings("unchecked")
+    public E get(int key, E valueIfKeyNotFound) {
+        final int index = indexOfKey(key);
+        return index >= 0 ? (E) mValues[index] : valueIfKeyNotFound;
+    }
+
+    /**
+     * Adds a mapping from the specified key to the specified value,
+     * replacing the previous mapping from the specified key if there
+     * was one.
+     *
+     * @return Returns the previous value mapped by {@code key}, or null if there was
+     * no such key.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public E put(int key, E value) {
+        int slot = mTable.length > 0 ? slotOf(key) : ~0;
+        if (slot >= 0) {
+            final int index = mTable[slot] - 1;
+            final E old = (E) mValues[index];
+            mValues[index] = value;
+            return old;
+        }
+
+        final int osize = mSize;
+        if (osize >= mKeys.length) {
+            final int n = osize >= (BASE_SIZE * 2) ? (osize + (osize >> 1))
+                    : (osize >= BASE_SIZE ? (BASE_SIZE * 2) : BASE_SIZE);
+            allocArrays(n);
+            // Search again because the table may have been rebuilt.
+            slot = slotOf(key);
+        }
+
+        mKeys[osize] = key;
+        mValues[osize] = value;
+        mTable[~slot] = osize + 1;
+        mSize = osize + 1;
+        return null;
+    }
+
+    /**
+     * Copies all of the mappings from the {@code other} to this map. The effect of this call is
+     * equivalent to that of calling {@link #put(int, Object)} on this map once for each mapping
+     * from key to value in {@code other}.
+     */
+    public void putAll(@NonNull IntObjectMap<? extends E> other) {
+        ensureCapacity(mSize + other.mSize);
+        for (int i = 0, size = other.mSize; i < size; i++) {
+            put(other.mKeys[i], other.valueAt(i));
+        }
+    }
+
+    /**
+     * Add a new value to the map only if the key does not already have a value or it is
+     * mapped to {@code null}.
+     * @param key The key under which to store the value.
+     * @param value The value to store for the given key.
+     * @return Returns the value that was stored for the given key, or null if there
+     * was no such key.
+     */
+    @Nullable
+    public E putIfAbsent(int key, E value) {
+        E mapValue = get(key);
+        if (mapValue == null) {
+            put(key, value);
+        }
+        return mapValue;
+    }
+
+    /**
+     * Removes the mapping from the specified key, if there was any.
+     *
+     * @return Returns the value that was stored under the key, or null if there
+     * was no such key.
+     */
+    @Nullable
+    public E remove(int key) {
+        final int index = indexOfKey(key);
+        if (index >= 0) {
+            return removeAt(index);
+        }
+        return null;
+    }
+
+    /**
+     * Remove an existing key from the map only if it is currently mapped to {@code value}.
+     * @param key The key of the mapping to remove.
+     * @param value The value expected to be mapped to the key.
+     * @return Returns true if the mapping was removed.
+     */
+    public boolean remove(int key, Object value) {
+        final int index = indexOfKey(key);
+        if (index >= 0 && ContainerHelpers.equal(value, mValues[index])) {
+            removeAt(index);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes the mapping at the specified index.  The last mapping in the map, if it is not
+     * the one being removed, is moved to {@code index}.
+     *
+     * @return Returns the value that was stored at this index.
+     */
+    @SuppressWarnings("unchecked")
+    public E removeAt(int index) {
+        final int last = mSize - 1;
+        if (index < 0 || index > last) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        final E old = (E) mValues[index];
+        removeSlot(slotOf(mKeys[index]));
+        if (index != last) {
+            final int lastKey = mKeys[last];
+            mTable[slotOf(lastKey)] = index + 1;
+            mKeys[index] = lastKey;
+            mValues[index] = mValues[last];
+        }
+        mValues[last] = null;
+        mSize = last;
+        return old;
+    }
+
+    /**
+     * Replace the mapping for {@code key} only if it is already mapped to a value.
+     * @param key The key of the mapping to replace.
+     * @param value The value to store for the given key.
+     * @return Returns the previous mapped value or null.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public E replace(int key, E value) {
+        final int index = indexOfKey(key);
+        if (index >= 0) {
+            final E oldValue = (E) mValues[index];
+            mValues[index] = value;
+            return oldValue;
+        }
+        return null;
+    }
+
+    /**
+     * Replace the mapping for {@code key} only if it is already mapped to a value.
+     *
+     * @param key The key of the mapping to replace.
+     * @param oldValue The value expected to be mapped to the key.
+     * @param newValue The value to store for the given key.
+     * @return Returns true if the value was replaced.
+     */
+    public boolean replace(int key, E oldValue, E newValue) {
+        final int index = indexOfKey(key);
+        if (index >= 0 && ContainerHelpers.equal(oldValue, mValues[index])) {
+            mValues[index] = newValue;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of key-value mappings that this IntObjectMap
+     * currently stores.
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Return true if size() is 0.
+     * @return true if size() is 0.
+     */
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    /**
+     * Given an index in the range <code>0...size()-1</code>, returns
+     * the key from the <code>index</code>th key-value mapping that this
+     * IntObjectMap stores.
+     */
+    public int keyAt(int index) {
+        return mKeys[index];
+    }
+
+    /**
+     * Given an index in the range <code>0...size()-1</code>, returns
+     * the value from the <code>index</code>th key-value mapping that this
+     * IntObjectMap stores.
+     */
+    @SuppressWarnings("unchecked")
+    public E valueAt(int index) {
+        return (E) mValues[index];
+    }
+
+    /**
+     * Given an index in the range <code>0...size()-1</code>, sets a new
+     * value for the <code>index</code>th key-value mapping that this
+     * IntObjectMap stores.
+     */
+    public void setValueAt(int index, E value) {
+        mValues[index] = value;
+    }
+
+    /**
+     * Returns the index for which {@link #keyAt} would return the
+     * specified key, or a negative number if the specified
+     * key is not mapped.
+     */
+    public int indexOfKey(int key) {
+        if (mSize == 0) {
+            return -1;
+        }
+        final int slot = slotOf(key);
+        return slot >= 0 ? mTable[slot] - 1 : -1;
+    }
+
+    /**
+     * Returns an index for which {@link #valueAt} would return the
+     * specified value, or a negative number if no keys map to the
+     * specified value.
+     * <p>Beware that this is a linear search, unlike lookups by key,
+     * and that multiple keys can map to the same value and this will
+     * find only one of them.
+     */
+    public int indexOfValue(E value) {
+        for (int i = 0; i < mSize; i++) {
+            if (ContainerHelpers.equal(value, mValues[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Returns true if the specified key is mapped. */
+    public boolean containsKey(int key) {
+        return indexOfKey(key) >= 0;
+    }
+
+    /** Returns true if the specified value is mapped from any key. */
+    public boolean containsValue(E value) {
+        return indexOfValue(value) >= 0;
+    }
+
+    /**
+     * Removes all key-value mappings from this IntObjectMap.
+     */
+    public void clear() {
+        if (mSize > 0) {
+            Arrays.fill(mTable, 0);
+            Arrays.fill(mValues, 0, mSize, null);
+            mSize = 0;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This implementation returns false if the object is not an IntObjectMap, or
+     * if the maps have different sizes. Otherwise, for each key in this map, values
+     * of both maps are compared. If the values for any key are not equal, the method
+     * returns false, otherwise it returns true.
+     */
+    @Override
+    public boolean equals(Object object) {
+        if (this == object) {
+            return true;
+        }
+        if (!(object instanceof IntObjectMap)) {
+            return false;
+        }
+        IntObjectMap<?> map = (IntObjectMap<?>) object;
+        if (mSize != map.mSize) {
+            return false;
+        }
+        for (int i = 0; i < mSize; i++) {
+            final int index = map.indexOfKey(mKeys[i]);
+            if (index < 0 || !ContainerHelpers.equal(mValues[i], map.mValues[index])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        int result = 0;
+        for (int i = 0; i < mSize; i++) {
+            final Object value = mValues[i];
+            result += mKeys[i] ^ (value == null ? 0 : value.hashCode());
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This implementation composes a string by iterating over its mappings. If
+     * this map contains itself as a value, the string "(this Map)"
+     * will appear in its place.
+     */
+    @Override
+    public String toString() {
+        if (mSize <= 0) {
+            return "{}";
+        }
+
+        StringBuilder buffer = new StringBuilder(mSize * 28);
+        buffer.append('{');
+        for (int i = 0; i < mSize; i++) {
+            if (i > 0) {
+                buffer.append(", ");
+            }
+            buffer.append(mKeys[i]);
+            buffer.append('=');
+            Object value = mValues[i];
+            if (value != this) {
+                buffer.append(value);
+            } else {
+                buffer.append("(this Map)");
+            }
+        }
+        buffer.append('}');
+        return buffer.toString();
+    }
+}
@@ -0,0 +1,353 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * IntSet is a set of integers.  Unlike a {@code Set<Integer>}, values are not auto-boxed,
+ * and unlike {@link ArraySet} values are located through an open-addressing hash table,
+ * so {@link #add}, {@link #remove} and {@link #contains} take constant expected time no
+ * matter how many values it holds.
+ *
+ * <p>Values are stored densely, so it is possible to iterate over the items in this
+ * container using {@link #valueAt(int)} with indices in the range
+ * <code>0...size()-1</code>.  Values are kept in insertion order until one is removed,
+ * at which point the last value is moved into the vacated index.</p>
+ */
+public class IntSet implements Cloneable {
+    /**
+     * The minimum amount by which the capacity of an IntSet will increase.
+     */
+    private static final int BASE_SIZE = 4;
+
+    private int[] mValues;
+    /**
+     * Linear-probing hash table of indices into {@link #mValues}, offset by one so that
+     * {@code 0} marks an empty slot.
+     */
+    private int[] mTable;
+    private int mSize;
+
+    /**
+     * Creates a new empty IntSet.  The default capacity is 0, and will grow once items are
+     * added to it.
+     */
+    public IntSet() {
+        mValues = ContainerHelpers.EMPTY_INTS;
+        mTable = ContainerHelpers.EMPTY_INTS;
+    }
+
+    /**
+     * Creates a new empty IntSet that will not require any additional memory allocation to
+     * store the specified number of values.
+     */
+    public IntSet(int initialCapacity) {
+        this();
+        if (initialCapacity > 0) {
+            allocArrays(initialCapacity);
+        }
+    }
+
+    @Override
+    public IntSet clone() {
+        IntSet clone;
+        try {
+            clone = (IntSet) super.clone();
+            clone.mValues = mValues.clone();
+            clone.mTable = mTable.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e); // Cannot happen as we implement Cloneable.
+        }
+        return clone;
+    }
+
+    private void allocArrays(int capacity) {
+        final int[] values = new int[capacity];
+        System.arraycopy(mValues, 0, values, 0, mSize);
+        mValues = values;
+
+        final int tableSize = ContainerHelpers.idealHashTableSize(capacity);
+        if (tableSize != mTable.length) {
+            final int[] table = new int[tableSize];
+            final int mask = tableSize - 1;
+            for (int i = 0; i < mSize; i++) {
+                int slot = ContainerHelpers.hashInt(values[i]) & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = i + 1;
+            }
+            mTable = table;
+        }
+    }
+
+    /**
+     * Returns the slot of the hash table holding {@code value}, or the one's complement of
+     * the empty slot where it would be inserted.  The table must not be empty.
+     */
+    private int slotOf(int value) {
+        final int[] table = mTable;
+        final int mask = table.length - 1;
+        int slot = ContainerHelpers.hashInt(value) & mask;
+        while (true) {
+            final int entry = table[slot];
+            if (entry == 0) {
+                return ~slot;
+            }
+            if (mValues[entry - 1] == value) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Empties {@code slot}, shifting back any entries further along its probe sequence so
+     * that lookups never stop early at the hole.
+     */
+    private void removeSlot(int slot) {
+        final int[] table = mTable;
+        final int mask = table.length - 1;
+        int hole = slot;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            final int entry = table[next];
+            if (entry == 0) {
+                break;
+            }
+            final int home = ContainerHelpers.hashInt(mValues[entry - 1]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                table[hole] = entry;
+                hole = next;
+            }
+        }
+        table[hole] = 0;
+    }
+
+    /**
+     * Ensure the set can hold at least <var>minimumCapacity</var> values without
+     * allocating.
+     */
+    public void ensureCapacity(int minimumCapacity) {
+        if (mValues.length < minimumCapacity) {
+            allocArrays(minimumCapacity);
+        }
+    }
+
+    /**
+     * Adds the specified value to the set.
+     *
+     * @return Returns true if the value was added, or false if it was already present.
+     */
+    public boolean add(int value) {
+        int slot = mTable.length > 0 ? slotOf(value) : ~0;
+        if (slot >= 0) {
+            return false;
+        }
+
+        final int osize = mSize;
+        if (osize >= mValues.length) {
+            final int n = osize >= (BASE_SIZE * 2) ? (osize + (osize >> 1))
+                    : (osize >= BASE_SIZE ? (BASE_SIZE * 2) : BASE_SIZE);
+            allocArrays(n);
+            // Search again because the table may have been rebuilt.
+            slot = slotOf(value);
+        }
+
+        mValues[osize] = value;
+        mTable[~slot] = osize + 1;
+        mSize = osize + 1;
+        return true;
+    }
+
+    /**
+     * Adds all of the values in {@code other} to this set.
+     */
+    public void addAll(@NonNull IntSet other) {
+        ensureCapacity(mSize + other.mSize);
+        for (int i = 0, size = other.mSize; i < size; i++) {
+            add(other.mValues[i]);
+        }
+    }
+
+    /**
+     * Removes the specified value from the set, if it is present.
+     *
+     * @return Returns true if the value was removed.
+     */
+    public boolean remove(int value) {
+        final int index = indexOf(value);
+        if (index >= 0) {
+            removeAt(index);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes the value at the specified index.  The last value in the set, if it is not
+     * the one being removed, is moved to {@code index}.
+     *
+     * @return Returns the value that was stored at this index.
+     */
+    public int removeAt(int index) {
+        final int last = mSize - 1;
+        if (index < 0 || index > last) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        final int old = mValues[index];
+        removeSlot(slotOf(old));
+        if (index != last) {
+            final int lastValue = mValues[last];
+            mTable[slotOf(lastValue)] = index + 1;
+            mValues[index] = lastValue;
+        }
+        mSize = last;
+        return old;
+    }
+
+    /**
+     * Returns the index of a value in the set.
+     *
+     * @return Returns the index of the value if it exists, else a negative integer.
+     */
+    public int indexOf(int value) {
+        if (mSize == 0) {
+            return -1;
+        }
+        final int slot = slotOf(value);
+        return slot >= 0 ? mTable[slot] - 1 : -1;
+    }
+
+    /**
+     * Check whether a value exists in the set.
+     *
+     * @return Returns true if the value exists, else false.
+     */
+    public boolean contains(int value) {
+        return indexOf(value) >= 0;
+    }
+
+    /**
+     * Given an index in the range <code>0...size()-1</code>, returns
+     * the value stored at that index.
+     */
+    public int valueAt(int index) {
+        return mValues[index];
+    }
+
+    /**
+     * Returns the number of values in this set.
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Return true if size() is 0.
+     * @return true if size() is 0.
+     */
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    /**
+     * Removes all values from this set.
+     */
+    public void clear() {
+        if (mSize > 0) {
+            Arrays.fill(mTable, 0);
+            mSize = 0;
+        }
+    }
+
+    /**
+     * Returns a new array containing the values of this set, in iteration order.
+     */
+    @NonNull
+    public int[] toArray() {
+        final int[] result = new int[mSize];
+        System.arraycopy(mValues, 0, result, 0, mSize);
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This implementation returns false if the object is not an IntSet, or if the sets
+     * have different sizes. Otherwise, it returns true if every value in this set is also
+     * contained in the other set.
+     */
+    @Override
+    public boolean equals(Object object) {
+        if (this == object) {
+            return true;
+        }
+        if (!(object instanceof IntSet)) {
+            return false;
+        }
+        IntSet set = (IntSet) object;
+        if (mSize != set.mSize) {
+            return false;
+        }
+        for (int i = 0; i < mSize; i++) {
+            if (!set.contains(mValues[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        int result = 0;
+        for (int i = 0; i < mSize; i++) {
+            result += mValues[i];
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This implementation composes a string by iterating over its values.
+     */
+    @Override
+    public String toString() {
+        if (mSize <= 0) {
+            return "{}";
+        }
+
+        StringBuilder buffer = new StringBuilder(mSize * 8);
+        buffer.append('{');
+        for (int i = 0; i < mSize; i++) {
+            if (i > 0) {
+                buffer.append(", ");
+            }
+            buffer.append(mValues[i]);
+        }
+        buffer.append('}');
+        return buffer.toString();
+    }
+}
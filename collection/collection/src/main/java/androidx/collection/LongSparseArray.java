@@ -19,6 +19,8 @@ package androidx.collection;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import java.util.Arrays;
+
 /**
  * SparseArray mapping longs to Objects.  Unlike a normal array of Objects,
  * there can be gaps in the indices.  It is intended to be more memory efficient
@@ -174,6 +176,34 @@ public class LongSparseArray<E> implements Cloneable {
         }
     }
 
+    /**
+     * Removes every mapping whose key is at least {@code fromKey} and less than
+     * {@code toKey}.  The remaining mappings are compacted in a single pass.
+     *
+     * @param fromKey Lowest key to remove, inclusive
+     * @param toKey Highest key to remove, exclusive
+     * @throws IllegalArgumentException if {@code fromKey} is greater than {@code toKey}.
+     */
+    public void removeRange(long fromKey, long toKey) {
+        if (fromKey > toKey) {
+            throw new IllegalArgumentException("fromKey > toKey");
+        }
+        if (mGarbage) {
+            gc();
+        }
+
+        final int start = lowerBound(fromKey);
+        final int end = lowerBound(toKey);
+        final int removed = end - start;
+        if (removed == 0) {
+            return;
+        }
+        System.arraycopy(mKeys, end, mKeys, start, mSize - end);
+        System.arraycopy(mValues, end, mValues, start, mSize - end);
+        Arrays.fill(mValues, mSize - removed, mSize, null);
+        mSize -= removed;
+    }
+
     /**
      * Replace the mapping for {@code key} only if it is already mapped to a value.
      * @param key The key of the mapping to replace.
@@ -303,6 +333,68 @@ public class LongSparseArray<E> implements Cloneable {
         }
     }
 
+    /**
+     * Adds mappings from each of {@code keys} to the value at the same index of
+     * {@code values}, replacing any previous mapping from the same key.  If a key appears more
+     * than once, the value of its last occurrence is kept.
+     *
+     * <p>The effect of this call is equivalent to calling {@link #put(long, Object)} once for
+     * each key, but the keys are sorted once and merged with the existing mappings in a single
+     * pass, so building a large array from unsorted keys takes O(n log n) time rather than
+     * O(n<sup>2</sup>).  Keys that are already sorted are merged in linear time.
+     *
+     * @throws IllegalArgumentException if {@code keys} and {@code values} have different
+     * lengths.
+     */
+    public void putAll(@NonNull long[] keys, @NonNull E[] values) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("keys.length != values.length");
+        }
+        final int count = keys.length;
+        if (count == 0) {
+            return;
+        }
+        if (mGarbage) {
+            gc();
+        }
+
+        final int[] order = ContainerHelpers.sortedOrder(keys);
+        final int size = mSize;
+        final int capacity = ContainerHelpers.idealLongArraySize(size + count);
+        final long[] nkeys = new long[capacity];
+        final Object[] nvalues = new Object[capacity];
+
+        int i = 0;
+        int o = 0;
+        for (int j = 0; j < count; j++) {
+            final int index = order[j];
+            final long key = keys[index];
+            if (j + 1 < count && keys[order[j + 1]] == key) {
+                // A later occurrence of the same key wins.
+                continue;
+            }
+            while (i < size && mKeys[i] < key) {
+                nkeys[o] = mKeys[i];
+                nvalues[o] = mValues[i];
+                i++;
+                o++;
+            }
+            if (i < size && mKeys[i] == key) {
+                i++;
+            }
+            nkeys[o] = key;
+            nvalues[o] = values[index];
+            o++;
+        }
+        final int remaining = size - i;
+        System.arraycopy(mKeys, i, nkeys, o, remaining);
+        System.arraycopy(mValues, i, nvalues, o, remaining);
+
+        mKeys = nkeys;
+        mValues = nvalues;
+        mSize = o + remaining;
+    }
+
     /**
      * Add a new value to the array map only if the key does not already have a value or it is
      * mapped to {@code null}.
@@ -483,6 +575,40 @@ public class LongSparseArray<E> implements Cloneable {
         mSize = pos + 1;
     }
 
+    /**
+     * Returns a view of the mappings whose key is at least {@code fromKey} and less than
+     * {@code toKey}, in ascending key order.  The view is backed by this array, so no mappings
+     * are copied, and finding the range takes O(log n) time.
+     *
+     * <p>Like indices passed to {@link #keyAt(int)}, the view is only valid until the next
+     * time a mapping is added to or removed from this array.  Values may still be changed with
+     * {@link #setValueAt(int, Object)}.
+     *
+     * @param fromKey Lowest key in the view, inclusive
+     * @param toKey Highest key in the view, exclusive
+     * @throws IllegalArgumentException if {@code fromKey} is greater than {@code toKey}.
+     */
+    @NonNull
+    public RangeView<E> keyRangeView(long fromKey, long toKey) {
+        if (fromKey > toKey) {
+            throw new IllegalArgumentException("fromKey > toKey");
+        }
+        if (mGarbage) {
+            gc();
+        }
+        final int start = lowerBound(fromKey);
+        return new RangeView<>(this, start, lowerBound(toKey) - start);
+    }
+
+    /**
+     * Returns the index of the first key that is not less than {@code key}.  There must be no
+     * garbage.
+     */
+    private int lowerBound(long key) {
+        final int index = ContainerHelpers.binarySearch(mKeys, mSize, key);
+        return index >= 0 ? index : ~index;
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -515,4 +641,62 @@ public class LongSparseArray<E> implements Cloneable {
         buffer.append('}');
         return buffer.toString();
     }
+
+    /**
+     * A view of the mappings of a LongSparseArray within a range of keys, returned by
+     * {@link #keyRangeView}.  The keys can be iterated over in ascending order using
+     * {@link #keyAt(int)} and {@link #valueAt(int)} with indices in the range
+     * <code>0...size()-1</code>.
+     *
+     * @param <E> the type of values in the array
+     */
+    public static final class RangeView<E> {
+        private final LongSparseArray<E> mArray;
+        private final int mStart;
+        private final int mSize;
+
+        RangeView(LongSparseArray<E> array, int start, int size) {
+            mArray = array;
+            mStart = start;
+            mSize = size;
+        }
+
+        /**
+         * Returns the number of mappings in this view.
+         */
+        public int size() {
+            return mSize;
+        }
+
+        /**
+         * Return true if size() is 0.
+         * @return true if size() is 0.
+         */
+        public boolean isEmpty() {
+            return mSize == 0;
+        }
+
+        /**
+         * Given an index in the range <code>0...size()-1</code>, returns
+         * the key from the <code>index</code>th key-value mapping of this view.
+         */
+        public long keyAt(int index) {
+            return mArray.keyAt(checkIndex(index));
+        }
+
+        /**
+         * Given an index in the range <code>0...size()-1</code>, returns
+         * the value from the <code>index</code>th key-value mapping of this view.
+         */
+        public E valueAt(int index) {
+            return mArray.valueAt(checkIndex(index));
+        }
+
+        private int checkIndex(int index) {
+            if (index < 0 || index >= mSize) {
+                throw new ArrayIndexOutOfBoundsException(index);
+            }
+            return mStart + index;
+        }
+    }
 }
@@ -16,10 +16,19 @@
 
 package androidx.collection;
 
+import static androidx.annotation.RestrictTo.Scope.LIBRARY_GROUP_PREFIX;
+
+import androidx.annotation.IntDef;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
 
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
@@ -29,12 +38,55 @@ import java.util.Map;
  * this implementation is still used; it does not try to switch to the
  * framework's implementation. See the framework SDK documentation for a class
  * overview.
+ *
+ * <p>By default the least recently used entry is evicted first. Caches constructed with
+ * {@link #POLICY_WINDOW_TINY_LFU} instead resist pollution by one-off scans; see that
+ * constant for details.
  */
 public class LruCache<K, V> {
+    /**
+     * Eviction policy that evicts the least recently used entry first. This is the default.
+     */
+    public static final int POLICY_LRU = 0;
+
+    /**
+     * Eviction policy that combines a small LRU window with a frequency-based admission
+     * filter (W-TinyLFU).
+     *
+     * <p>New entries are added to a window holding about 1% of the cache. When an entry
+     * leaves the window it only displaces the least recently used entry of the rest of the
+     * cache if its key has been accessed more often recently, as estimated by a compact
+     * frequency sketch. Otherwise the newcomer is evicted instead. A burst of keys that are
+     * each accessed once, such as a fling through a long list, therefore cannot evict
+     * entries that are used repeatedly.
+     *
+     * <p>{@link #snapshot()} returns the entries of the main space, from least to most
+     * recently accessed, followed by those of the window.
+     */
+    public static final int POLICY_WINDOW_TINY_LFU = 1;
+
+    /** @hide */
+    @RestrictTo(LIBRARY_GROUP_PREFIX)
+    @IntDef({POLICY_LRU, POLICY_WINDOW_TINY_LFU})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface EvictionPolicy {
+    }
+
     private final LinkedHashMap<K, V> map;
 
+    /**
+     * Admission window for {@link #POLICY_WINDOW_TINY_LFU}, or null for {@link #POLICY_LRU}.
+     * Entries are in exactly one of {@link #map} and the window.
+     */
+    @Nullable
+    private final LinkedHashMap<K, V> window;
+    @Nullable
+    private final FrequencySketch sketch;
+
     /** Size of this cache in units. Not necessarily the number of elements. */
     private int size;
+    /** Size of the entries in {@link #window}, in the same units as {@link #size}. */
+    private int windowSize;
     private int maxSize;
 
     private int putCount;
@@ -43,17 +95,44 @@ public class LruCache<K, V> {
     private int hitCount;
     private int missCount;
 
+    /**
+     * The frequency sketch starts small and grows with the number of entries, since for
+     * caches that override {@link #sizeOf} the maximum size says little about the entry
+     * count.
+     */
+    private static final int INITIAL_SKETCH_CAPACITY = 1024;
+
     /**
      * @param maxSize for caches that do not override {@link #sizeOf}, this is
      *     the maximum number of entries in the cache. For all other caches,
      *     this is the maximum sum of the sizes of the entries in this cache.
      */
     public LruCache(int maxSize) {
+        this(maxSize, POLICY_LRU);
+    }
+
+    /**
+     * @param maxSize for caches that do not override {@link #sizeOf}, this is
+     *     the maximum number of entries in the cache. For all other caches,
+     *     this is the maximum sum of the sizes of the entries in this cache.
+     * @param evictionPolicy the policy deciding which entries to evict, either
+     *     {@link #POLICY_LRU} or {@link #POLICY_WINDOW_TINY_LFU}.
+     */
+    public LruCache(int maxSize, @EvictionPolicy int evictionPolicy) {
         if (maxSize <= 0) {
             throw new IllegalArgumentException("maxSize <= 0");
         }
         this.maxSize = maxSize;
         this.map = new LinkedHashMap<K, V>(0, 0.75f, true);
+        if (evictionPolicy == POLICY_WINDOW_TINY_LFU) {
+            this.window = new LinkedHashMap<K, V>(0, 0.75f, true);
+            this.sketch = new FrequencySketch(Math.min(maxSize, INITIAL_SKETCH_CAPACITY));
+        } else if (evictionPolicy == POLICY_LRU) {
+            this.window = null;
+            this.sketch = null;
+        } else {
+            throw new IllegalArgumentException("Unknown eviction policy " + evictionPolicy);
+        }
     }
 
     /**
@@ -86,7 +165,13 @@ public class LruCache<K, V> {
 
         V mapValue;
         synchronized (this) {
+            if (sketch != null) {
+                sketch.increment(key);
+            }
             mapValue = map.get(key);
+            if (mapValue == null && window != null) {
+                mapValue = window.get(key);
+            }
             if (mapValue != null) {
                 hitCount++;
                 return mapValue;
@@ -108,13 +193,27 @@ public class LruCache<K, V> {
 
         synchronized (this) {
             createCount++;
-            mapValue = map.put(key, createdValue);
-
-            if (mapValue != null) {
-                // There was a conflict so undo that last put
-                map.put(key, mapValue);
+            if (window != null && sketch != null) {
+                mapValue = map.get(key);
+                if (mapValue == null) {
+                    mapValue = window.get(key);
+                }
+                if (mapValue == null) {
+                    final int createdSize = safeSizeOf(key, createdValue);
+                    window.put(key, createdValue);
+                    windowSize += createdSize;
+                    size += createdSize;
+                    sketch.ensureCapacity(map.size() + window.size());
+                }
             } else {
-                size += safeSizeOf(key, createdValue);
+                mapValue = map.put(key, createdValue);
+
+                if (mapValue != null) {
+                    // There was a conflict so undo that last put
+                    map.put(key, mapValue);
+                } else {
+                    size += safeSizeOf(key, createdValue);
+                }
             }
         }
 
@@ -142,10 +241,25 @@ public class LruCache<K, V> {
         V previous;
         synchronized (this) {
             putCount++;
-            size += safeSizeOf(key, value);
-            previous = map.put(key, value);
-            if (previous != null) {
-                size -= safeSizeOf(key, previous);
+            final int valueSize = safeSizeOf(key, value);
+            size += valueSize;
+            if (sketch != null) {
+                sketch.increment(key);
+            }
+            if (window != null && sketch != null && !map.containsKey(key)) {
+                previous = window.put(key, value);
+                windowSize += valueSize;
+                if (previous != null) {
+                    final int previousSize = safeSizeOf(key, previous);
+                    size -= previousSize;
+                    windowSize -= previousSize;
+                }
+                sketch.ensureCapacity(map.size() + window.size());
+            } else {
+                previous = map.put(key, value);
+                if (previous != null) {
+                    size -= safeSizeOf(key, previous);
+                }
             }
         }
 
@@ -165,6 +279,10 @@ public class LruCache<K, V> {
      *            to evict even 0-sized elements.
      */
     public void trimToSize(int maxSize) {
+        if (window != null && sketch != null) {
+            trimWindowTinyLfu(maxSize, window, sketch);
+            return;
+        }
         while (true) {
             K key;
             V value;
@@ -190,6 +308,87 @@ public class LruCache<K, V> {
         }
     }
 
+    private void trimWindowTinyLfu(int maxSize, LinkedHashMap<K, V> window,
+            FrequencySketch sketch) {
+        List<Map.Entry<K, V>> evicted = null;
+        synchronized (this) {
+            if (size < 0 || (map.isEmpty() && window.isEmpty() && size != 0)) {
+                throw new IllegalStateException(getClass().getName()
+                        + ".sizeOf() is reporting inconsistent results!");
+            }
+
+            // Move entries leaving the window into the main space. Each one only displaces
+            // main entries that have been accessed less frequently than itself.
+            final int maxWindowSize = Math.max(1, this.maxSize / 100);
+            while (windowSize > maxWindowSize && !window.isEmpty()) {
+                Map.Entry<K, V> candidate = window.entrySet().iterator().next();
+                K candidateKey = candidate.getKey();
+                V candidateValue = candidate.getValue();
+                window.remove(candidateKey);
+                final int candidateSize = safeSizeOf(candidateKey, candidateValue);
+                windowSize -= candidateSize;
+
+                boolean admit = true;
+                final int candidateFrequency = sketch.frequency(candidateKey);
+                while (size > maxSize && !map.isEmpty()) {
+                    Map.Entry<K, V> victim = map.entrySet().iterator().next();
+                    if (candidateFrequency <= sketch.frequency(victim.getKey())) {
+                        admit = false;
+                        break;
+                    }
+                    evicted = evict(map, victim, evicted);
+                }
+
+                if (admit) {
+                    map.put(candidateKey, candidateValue);
+                } else {
+                    size -= candidateSize;
+                    evictionCount++;
+                    evicted = addEvicted(candidateKey, candidateValue, evicted);
+                }
+            }
+
+            // Evict whatever is still needed to reach maxSize, main space first.
+            while (size > maxSize) {
+                if (!map.isEmpty()) {
+                    evicted = evict(map, map.entrySet().iterator().next(), evicted);
+                } else if (!window.isEmpty()) {
+                    Map.Entry<K, V> eldest = window.entrySet().iterator().next();
+                    windowSize -= safeSizeOf(eldest.getKey(), eldest.getValue());
+                    evicted = evict(window, eldest, evicted);
+                } else {
+                    break;
+                }
+            }
+        }
+
+        if (evicted != null) {
+            for (int i = 0, n = evicted.size(); i < n; i++) {
+                Map.Entry<K, V> entry = evicted.get(i);
+                entryRemoved(true, entry.getKey(), entry.getValue(), null);
+            }
+        }
+    }
+
+    private List<Map.Entry<K, V>> evict(LinkedHashMap<K, V> from, Map.Entry<K, V> eldest,
+            @Nullable List<Map.Entry<K, V>> evicted) {
+        K key = eldest.getKey();
+        V value = eldest.getValue();
+        from.remove(key);
+        size -= safeSizeOf(key, value);
+        evictionCount++;
+        return addEvicted(key, value, evicted);
+    }
+
+    private static <K, V> List<Map.Entry<K, V>> addEvicted(K key, V value,
+            @Nullable List<Map.Entry<K, V>> evicted) {
+        if (evicted == null) {
+            evicted = new ArrayList<>();
+        }
+        evicted.add(new AbstractMap.SimpleImmutableEntry<>(key, value));
+        return evicted;
+    }
+
     /**
      * Removes the entry for {@code key} if it exists.
      *
@@ -204,6 +403,12 @@ public class LruCache<K, V> {
         V previous;
         synchronized (this) {
             previous = map.remove(key);
+            if (previous == null && window != null) {
+                previous = window.remove(key);
+                if (previous != null) {
+                    windowSize -= safeSizeOf(key, previous);
+                }
+            }
             if (previous != null) {
                 size -= safeSizeOf(key, previous);
             }
@@ -315,6 +520,16 @@ public class LruCache<K, V> {
         return missCount;
     }
 
+    /**
+     * Returns the fraction of calls to {@link #get} that returned a value that was already
+     * present in the cache, or 0 if {@link #get} has not been called. This is useful to
+     * compare eviction policies on the same workload.
+     */
+    public synchronized final float hitRate() {
+        int accesses = hitCount + missCount;
+        return accesses != 0 ? (float) hitCount / accesses : 0f;
+    }
+
     /**
      * Returns the number of times {@link #create(Object)} returned a value.
      */
@@ -341,7 +556,11 @@ public class LruCache<K, V> {
      * recently accessed to most recently accessed.
      */
     public synchronized final Map<K, V> snapshot() {
-        return new LinkedHashMap<K, V>(map);
+        LinkedHashMap<K, V> snapshot = new LinkedHashMap<K, V>(map);
+        if (window != null) {
+            snapshot.putAll(window);
+        }
+        return snapshot;
     }
 
     @Override public synchronized final String toString() {
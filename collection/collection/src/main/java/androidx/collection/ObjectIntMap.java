@@ -0,0 +1,423 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * ObjectIntMap maps Objects to integers.  Unlike {@link SimpleArrayMap}, which keeps its
+ * keys sorted by hash code in an array, this container locates keys through an
+ * open-addressing hash table, so lookups, insertions and removals take constant expected
+ * time no matter how many mappings it holds.  Values are not auto-boxed, and no entry
+ * object is allocated for each mapping.  Keys are compared using {@link Object#equals},
+ * and a {@code null} key is permitted.
+ *
+ * <p>Mappings are stored densely, so it is possible to iterate over the items in this
+ * container using {@link #keyAt(int)} and {@link #valueAt(int)} with indices in the
+ * range <code>0...size()-1</code>.  Mappings are kept in insertion order until one is
+ * removed, at which point the last mapping is moved into the vacated index.</p>
+ */
+public class ObjectIntMap<K> implements Cloneable {
+    /**
+     * The minimum amount by which the capacity of an ObjectIntMap will increase.
+     */
+    private static final int BASE_SIZE = 4;
+
+    private Object[] mKeys;
+    private int[] mValues;
+    /**
+     * Linear-probing hash table of indices into {@link #mKeys}, offset by one so that
+     * {@code 0} marks an empty slot.
+     */
+    private int[] mTable;
+    private int mSize;
+
+    /**
+     * Creates a new ObjectIntMap containing no mappings.  The default capacity is 0, and
+     * will grow once items are added to it.
+     */
+    public ObjectIntMap() {
+        mKeys = ContainerHelpers.EMPTY_OBJECTS;
+        mValues = ContainerHelpers.EMPTY_INTS;
+        mTable = ContainerHelpers.EMPTY_INTS;
+    }
+
+    /**
+     * Creates a new ObjectIntMap containing no mappings that will not require any additional
+     * memory allocation to store the specified number of mappings.
+     */
+    public ObjectIntMap(int initialCapacity) {
+        this();
+        if (initialCapacity > 0) {
+            allocArrays(initialCapacity);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public ObjectIntMap<K> clone() {
+        ObjectIntMap<K> clone;
+        try {
+            clone = (ObjectIntMap<K>) super.clone();
+            clone.mKeys = mKeys.clone();
+            clone.mValues = mValues.clone();
+            clone.mTable = mTable.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e); // Cannot happen as we implement Cloneable.
+        }
+        return clone;
+    }
+
+    private void allocArrays(int capacity) {
+        final Object[] keys = new Object[capacity];
+        final int[] values = new int[capacity];
+        System.arraycopy(mKeys, 0, keys, 0, mSize);
+        System.arraycopy(mValues, 0, values, 0, mSize);
+        mKeys = keys;
+        mValues = values;
+
+        final int tableSize = ContainerHelpers.idealHashTableSize(capacity);
+        if (tableSize != mTable.length) {
+            final int[] table = new int[tableSize];
+            final int mask = tableSize - 1;
+            for (int i = 0; i < mSize; i++) {
+                int slot = ContainerHelpers.hashObject(keys[i]) & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = i + 1;
+            }
+            mTable = table;
+        }
+    }
+
+    /**
+     * Returns the slot of the hash table holding {@code key}, or the one's complement of
+     * the empty slot where it would be inserted.  The table must not be empty.
+     */
+    private int slotOf(@Nullable Object key) {
+        final int[] table = mTable;
+        final int mask = table.length - 1;
+        int slot = ContainerHelpers.hashObject(key) & mask;
+        while (true) {
+            final int entry = table[slot];
+            if (entry == 0) {
+                return ~slot;
+            }
+            if (ContainerHelpers.equal(key, mKeys[entry - 1])) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Empties {@code slot}, shifting back any entries further along its probe sequence so
+     * that lookups never stop early at the hole.
+     */
+    private void removeSlot(int slot) {
+        final int[] table = mTable;
+        final int mask = table.length - 1;
+        int hole = slot;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            final int entry = table[next];
+            if (entry == 0) {
+                break;
+            }
+            final int home = ContainerHelpers.hashObject(mKeys[entry - 1]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                table[hole] = entry;
+                hole = next;
+            }
+        }
+        table[hole] = 0;
+    }
+
+    /**
+     * Ensure the map can hold at least <var>minimumCapacity</var> mappings without
+     * allocating.
+     */
+    public void ensureCapacity(int minimumCapacity) {
+        if (mKeys.length < minimumCapacity) {
+            allocArrays(minimumCapacity);
+        }
+    }
+
+    /**
+     * Gets the int mapped from the specified key, or <code>0</code>
+     * if no such mapping has been made.
+     */
+    public int get(@Nullable Object key) {
+        return get(key, 0);
+    }
+
+    /**
+     * Gets the int mapped from the specified key, or the specified value
+     * if no such mapping has been made.
+     */
+    public int get(@Nullable Object key, int valueIfKeyNotFound) {
+        final int index = indexOfKey(key);
+        return index >= 0 ? mValues[index] : valueIfKeyNotFound;
+    }
+
+    /**
+     * Adds a mapping from the specified key to the specified value,
+     * replacing the previous mapping from the specified key if there
+     * was one.
+     */
+    public void put(K key, int value) {
+        int slot = mTable.length > 0 ? slotOf(key) : ~0;
+        if (slot >= 0) {
+            mValues[mTable[slot] - 1] = value;
+            return;
+        }
+
+        final int osize = mSize;
+        if (osize >= mKeys.length) {
+            final int n = osize >= (BASE_SIZE * 2) ? (osize + (osize >> 1))
+                    : (osize >= BASE_SIZE ? (BASE_SIZE * 2) : BASE_SIZE);
+            allocArrays(n);
+            // Search again because the table may have been rebuilt.
+            slot = slotOf(key);
+        }
+
+        mKeys[osize] = key;
+        mValues[osize] = value;
+        mTable[~slot] = osize + 1;
+        mSize = osize + 1;
+    }
+
+    /**
+     * Copies all of the mappings from the {@code other} to this map. The effect of this call is
+     * equivalent to that of calling {@link #put(Object, int)} on this map once for each mapping
+     * from key to value in {@code other}.
+     */
+    public void putAll(@NonNull ObjectIntMap<? extends K> other) {
+        ensureCapacity(mSize + other.mSize);
+        for (int i = 0, size = other.mSize; i < size; i++) {
+            put(other.keyAt(i), other.mValues[i]);
+        }
+    }
+
+    /**
+     * Removes the mapping from the specified key, if there was any.
+     *
+     * @return Returns true if a mapping was removed.
+     */
+    public boolean remove(@Nullable Object key) {
+        final int index = indexOfKey(key);
+        if (index >= 0) {
+            removeAt(index);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes the mapping at the specified index.  The last mapping in the map, if it is not
+     * the one being removed, is moved to {@code index}.
+     */
+    public void removeAt(int index) {
+        final int last = mSize - 1;
+        if (index < 0 || index > last) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        removeSlot(slotOf(mKeys[index]));
+        if (index != last) {
+            final Object lastKey = mKeys[last];
+            mTable[slotOf(lastKey)] = index + 1;
+            mKeys[index] = lastKey;
+            mValues[index] = mValues[last];
+        }
+        mKeys[last] = null;
+        mSize = last;
+    }
+
+    /**
+     * Returns the number of key-value mappings that this ObjectIntMap
+     * currently stores.
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Return true if size() is 0.
+     * @return true if size() is 0.
+     */
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    /**
+     * Given an index in the range <code>0...size()-1</code>, returns
+     * the key from the <code>index</code>th key-value mapping that this
+     * ObjectIntMap stores.
+     */
+    @SuppressWarnings("unchecked")
+    public K keyAt(int index) {
+        return (K) mKeys[index];
+    }
+
+    /**
+     * Given an index in the range <code>0...size()-1</code>, returns
+     * the value from the <code>index</code>th key-value mapping that this
+     * ObjectIntMap stores.
+     */
+    public int valueAt(int index) {
+        return mValues[index];
+    }
+
+    /**
+     * Given an index in the range <code>0...size()-1</code>, sets a new
+     * value for the <code>index</code>th key-value mapping that this
+     * ObjectIntMap stores.
+     */
+    public void setValueAt(int index, int value) {
+        mValues[index] = value;
+    }
+
+    /**
+     * Returns the index for which {@link #keyAt} would return the
+     * specified key, or a negative number if the specified
+     * key is not mapped.
+     */
+    public int indexOfKey(@Nullable Object key) {
+        if (mSize == 0) {
+            return -1;
+        }
+        final int slot = slotOf(key);
+        return slot >= 0 ? mTable[slot] - 1 : -1;
+    }
+
+    /**
+     * Returns an index for which {@link #valueAt} would return the
+     * specified value, or a negative number if no keys map to the
+     * specified value.
+     * <p>Beware that this is a linear search, unlike lookups by key,
+     * and that multiple keys can map to the same value and this will
+     * find only one of them.
+     */
+    public int indexOfValue(int value) {
+        for (int i = 0; i < mSize; i++) {
+            if (mValues[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Returns true if the specified key is mapped. */
+    public boolean containsKey(@Nullable Object key) {
+        return indexOfKey(key) >= 0;
+    }
+
+    /** Returns true if the specified value is mapped from any key. */
+    public boolean containsValue(int value) {
+        return indexOfValue(value) >= 0;
+    }
+
+    /**
+     * Removes all key-value mappings from this ObjectIntMap.
+     */
+    public void clear() {
+        if (mSize > 0) {
+            Arrays.fill(mTable, 0);
+            Arrays.fill(mKeys, 0, mSize, null);
+            mSize = 0;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This implementation returns false if the object is not an ObjectIntMap, or
+     * if the maps have different sizes. Otherwise, for each key in this map, values
+     * of both maps are compared. If the values for any key are not equal, the method
+     * returns false, otherwise it returns true.
+     */
+    @Override
+    public boolean equals(Object object) {
+        if (this == object) {
+            return true;
+        }
+        if (!(object instanceof ObjectIntMap)) {
+            return false;
+        }
+        ObjectIntMap<?> map = (ObjectIntMap<?>) object;
+        if (mSize != map.mSize) {
+            return false;
+        }
+        for (int i = 0; i < mSize; i++) {
+            final int index = map.indexOfKey(mKeys[i]);
+            if (index < 0 || map.mValues[index] != mValues[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        int result = 0;
+        for (int i = 0; i < mSize; i++) {
+            final Object key = mKeys[i];
+            result += (key == null ? 0 : key.hashCode()) ^ mValues[i];
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This implementation composes a string by iterating over its mappings. If
+     * this map contains itself as a key, the string "(this Map)"
+     * will appear in its place.
+     */
+    @Override
+    public String toString() {
+        if (mSize <= 0) {
+            return "{}";
+        }
+
+        StringBuilder buffer = new StringBuilder(mSize * 28);
+        buffer.append('{');
+        for (int i = 0; i < mSize; i++) {
+            if (i > 0) {
+                buffer.append(", ");
+            }
+            Object key = mKeys[i];
+            if (key != this) {
+                buffer.append(key);
+            } else {
+                buffer.append("(this Map)");
+            }
+            buffer.append('=');
+            buffer.append(mValues[i]);
+        }
+        buffer.append('}');
+        return buffer.toString();
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The read and write positions of a fixed-capacity ring buffer shared by one producer thread
+ * and one consumer thread, without locks.
+ *
+ * <p>Positions are sequence numbers that only increase; the slot of a sequence number is its
+ * remainder modulo the capacity, which is a power of two.  The producer writes a slot and then
+ * publishes it by advancing the tail.  The consumer reads a slot and then releases it by
+ * advancing the head with a compare-and-set.  In overwrite mode a producer that finds the
+ * buffer full advances the head itself, discarding the oldest element, before reusing its
+ * slot.  A consumer that was reading that slot at the same time then fails its
+ * compare-and-set, discards what it read and tries again, so it never returns a value that
+ * was overwritten while it was being read.
+ */
+final class RingBufferSequence {
+    final int mCapacity;
+    final int mMask;
+    private final boolean mOverwrite;
+
+    /**
+     * Sequence number of the oldest element. Advanced by the consumer, and by the producer when
+     * it overwrites.
+     */
+    private final AtomicLong mHead = new AtomicLong();
+    /** Sequence number of the next element to be published. Only written by the producer. */
+    private final AtomicLong mTail = new AtomicLong();
+    /** Number of elements discarded to make room. Only written by the producer. */
+    private final AtomicLong mDropped = new AtomicLong();
+
+    /**
+     * @param minCapacity the minimum capacity, between 1 and {@code maxCapacity} inclusive
+     * @param maxCapacity the largest supported capacity, a power of two
+     * @param overwrite whether writing to a full buffer discards its oldest element
+     */
+    RingBufferSequence(int minCapacity, int maxCapacity, boolean overwrite) {
+        if (minCapacity < 1) {
+            throw new IllegalArgumentException("capacity must be >= 1");
+        }
+        if (minCapacity > maxCapacity) {
+            throw new IllegalArgumentException("capacity must be <= " + maxCapacity);
+        }
+        // Round up to the next power of two, as in CircularIntArray.
+        final int capacity;
+        if (Integer.bitCount(minCapacity) != 1) {
+            capacity = Integer.highestOneBit(minCapacity - 1) << 1;
+        } else {
+            capacity = minCapacity;
+        }
+        mCapacity = capacity;
+        mMask = capacity - 1;
+        mOverwrite = overwrite;
+    }
+
+    /**
+     * Called by the producer to find the slot for the next element, or -1 if the buffer is
+     * full and does not overwrite.  The element must be written to the returned slot and then
+     * published with {@link #publish}.
+     */
+    int claim() {
+        final long tail = mTail.get();
+        while (true) {
+            final long head = mHead.get();
+            if (tail - head < mCapacity) {
+                break;
+            }
+            if (!mOverwrite) {
+                return -1;
+            }
+            if (mHead.compareAndSet(head, head + 1)) {
+                mDropped.lazySet(mDropped.get() + 1);
+                break;
+            }
+        }
+        return (int) tail & mMask;
+    }
+
+    /** Called by the producer to make the element written to the claimed slot visible. */
+    void publish() {
+        mTail.lazySet(mTail.get() + 1);
+    }
+
+    /**
+     * Called by the consumer to find the oldest element.  Returns its sequence number, or -1
+     * if the buffer is empty.
+     */
+    long peek() {
+        final long head = mHead.get();
+        return head == mTail.get() ? -1 : head;
+    }
+
+    /**
+     * Called by the consumer to find how many elements can be read starting at sequence number
+     * {@code head}, as returned by {@link #peek}.
+     */
+    int available(long head) {
+        return (int) Math.min(mTail.get() - head, mCapacity);
+    }
+
+    /** Returns the slot of the element with sequence number {@code sequence}. */
+    int slotOf(long sequence) {
+        return (int) sequence & mMask;
+    }
+
+    /**
+     * Called by the consumer after it read {@code count} elements starting at sequence number
+     * {@code head}.  Returns false if the producer overwrote any of them meanwhile, in which
+     * case the values read must be discarded.
+     */
+    boolean release(long head, int count) {
+        return mHead.compareAndSet(head, head + count);
+    }
+
+    /** Called by the consumer to discard every published element. */
+    void clear() {
+        while (true) {
+            final long head = mHead.get();
+            if (mHead.compareAndSet(head, Math.max(head, mTail.get()))) {
+                return;
+            }
+        }
+    }
+
+    int size() {
+        // Read the head first: it never passes the tail, so the difference is never negative.
+        final long head = mHead.get();
+        return (int) Math.min(mTail.get() - head, mCapacity);
+    }
+
+    long droppedCount() {
+        return mDropped.get();
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counter that spreads increments across several cells, indexed by the calling thread, so
+ * that threads incrementing concurrently rarely contend on the same memory location.  Reading
+ * the total requires summing every cell, so this is only suitable for counters that are
+ * written far more often than they are read.
+ */
+final class StripedCounter {
+    /**
+     * Number of stripes, a power of two no smaller than the number of available processors.
+     */
+    static final int STRIPES = ceilingPowerOfTwo(Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Distance between two cells in {@link #mCells}, chosen so that each cell sits on its own
+     * 64 byte cache line.
+     */
+    private static final int PADDING = 8;
+
+    private final AtomicLongArray mCells = new AtomicLongArray(STRIPES * PADDING);
+
+    void increment() {
+        add(1);
+    }
+
+    void add(long delta) {
+        mCells.getAndAdd(currentStripe() * PADDING, delta);
+    }
+
+    long sum() {
+        long sum = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            sum += mCells.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the stripe assigned to the calling thread, in the range
+     * <code>0...STRIPES-1</code>.
+     */
+    static int currentStripe() {
+        return ContainerHelpers.hashLong(Thread.currentThread().getId()) & (STRIPES - 1);
+    }
+
+    private static int ceilingPowerOfTwo(int value) {
+        int result = 1;
+        while (result < value) {
+            result <<= 1;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+@RunWith(JUnit4.class)
+public class ConcurrentLruCacheTest {
+    @Test
+    public void evictsLeastRecentlyUsedEntry() {
+        ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<>(3);
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.put("c", "C");
+        assertEquals("A", cache.get("a"));
+        cache.put("d", "D");
+
+        assertNull(cache.get("b"));
+        assertEquals(Arrays.asList("c", "a", "d"), new ArrayList<>(cache.snapshot().keySet()));
+        assertEquals(1, cache.evictionCount());
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void statisticsAreCounted() {
+        ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<>(3);
+        cache.put("a", "A");
+        cache.get("a");
+        cache.get("b");
+        assertEquals(1, cache.putCount());
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+        assertEquals("ConcurrentLruCache[maxSize=3,hits=1,misses=1,hitRate=50%]",
+                cache.toString());
+    }
+
+    @Test
+    public void sizeOfIsUsedForEviction() {
+        ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<String, String>(10) {
+            @Override
+            protected int sizeOf(@NonNull String key, @NonNull String value) {
+                return value.length();
+            }
+        };
+        cache.put("a", "xxxx");
+        cache.put("b", "xxxx");
+        cache.put("c", "xxxx");
+        assertEquals(8, cache.size());
+        assertFalse(cache.snapshot().containsKey("a"));
+    }
+
+    @Test
+    public void createdValueIsCached() {
+        ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<String, String>(3) {
+            @Override
+            protected String create(@NonNull String key) {
+                return key.toUpperCase();
+            }
+        };
+        assertEquals("A", cache.get("a"));
+        assertEquals("A", cache.get("a"));
+        assertEquals(1, cache.createCount());
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    public void entryRemovedIsCalled() {
+        final List<String> log = new ArrayList<>();
+        ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<String, String>(2) {
+            @Override
+            protected void entryRemoved(boolean evicted, @NonNull String key,
+                    @NonNull String oldValue, @Nullable String newValue) {
+                log.add(evicted + " " + key + "=" + oldValue + "/" + newValue);
+            }
+        };
+        cache.put("a", "A");
+        cache.put("a", "A2");
+        cache.put("b", "B");
+        cache.put("c", "C");
+        cache.remove("b");
+        cache.evictAll();
+
+        assertEquals(Arrays.asList(
+                "false a=A/A2",
+                "true a=A2/null",
+                "false b=B/null",
+                "true c=C/null"), log);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void concurrentAccessKeepsSizeConsistent() throws InterruptedException {
+        final ConcurrentLruCache<Integer, Integer> cache = new ConcurrentLruCache<>(100);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final CountDownLatch done = new CountDownLatch(8);
+        for (int t = 0; t < 8; t++) {
+            final int seed = t;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        Random random = new Random(seed);
+                        for (int i = 0; i < 20000; i++) {
+                            Integer key = random.nextInt(300);
+                            int op = random.nextInt(10);
+                            if (op == 0) {
+                                cache.remove(key);
+                            } else if (op < 4) {
+                                cache.put(key, key);
+                            } else {
+                                Integer value = cache.get(key);
+                                if (value != null && !value.equals(key)) {
+                                    throw new AssertionError(key + " mapped to " + value);
+                                }
+                            }
+                        }
+                    } catch (Throwable e) {
+                        failure.set(e);
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+        done.await();
+
+        assertNull(failure.get());
+        assertTrue(cache.size() <= 100);
+        assertEquals(cache.size(), cache.snapshot().size());
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ContainerArrayPoolTest {
+
+    @Before
+    public void setUp() {
+        ContainerArrayPool.clear();
+    }
+
+    @After
+    public void tearDown() {
+        ContainerArrayPool.setMaxArraysPerSizeClass(10);
+    }
+
+    @Test
+    public void releasedArraysAreReusedAndCleared() {
+        int[] hashes = new int[12];
+        Object[] array = new Object[24];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = "value" + i;
+        }
+        ContainerArrayPool.MAPS.release(hashes, array, 24);
+
+        long recycled = ContainerArrayPool.recycledCount();
+        Object[] reused = ContainerArrayPool.MAPS.acquire(12);
+        assertSame(array, reused);
+        assertSame(hashes, reused[1]);
+        reused[1] = null;
+        for (Object o : reused) {
+            assertNull(o);
+        }
+        assertEquals(recycled + 1, ContainerArrayPool.recycledCount());
+    }
+
+    @Test
+    public void unpooledCapacitiesAreIgnored() {
+        ContainerArrayPool.MAPS.release(new int[13], new Object[26], 0);
+        long allocated = ContainerArrayPool.allocationCount();
+        assertNull(ContainerArrayPool.MAPS.acquire(13));
+        assertEquals(allocated, ContainerArrayPool.allocationCount());
+    }
+
+    @Test
+    public void mapAndSetArraysAreKeptApart() {
+        ContainerArrayPool.SETS.release(new int[8], new Object[8], 0);
+        assertNull(ContainerArrayPool.MAPS.acquire(8));
+        ContainerArrayPool.MAPS.release(new int[8], new Object[8], 0);
+        assertNull(ContainerArrayPool.MAPS.acquire(8));
+    }
+
+    @Test
+    public void growingContainersRecycleEachOthersArrays() {
+        SimpleArrayMap<Integer, Integer> first = new SimpleArrayMap<>();
+        for (int i = 0; i < 30; i++) {
+            first.put(i, i);
+        }
+        first.clear();
+
+        long recycled = ContainerArrayPool.recycledCount();
+        long allocated = ContainerArrayPool.allocationCount();
+        SimpleArrayMap<Integer, Integer> second = new SimpleArrayMap<>();
+        for (int i = 0; i < 30; i++) {
+            second.put(i, i);
+        }
+        // Capacities 4, 8, 12, 18, 27 and 40 were all freed by the first map.
+        assertEquals(recycled + 6, ContainerArrayPool.recycledCount());
+        assertEquals(allocated, ContainerArrayPool.allocationCount());
+        for (int i = 0; i < 30; i++) {
+            assertEquals(Integer.valueOf(i), second.get(i));
+        }
+
+        ArraySet<Integer> set = new ArraySet<>();
+        for (int i = 0; i < 10; i++) {
+            set.add(i);
+        }
+        set.clear();
+        recycled = ContainerArrayPool.recycledCount();
+        ArraySet<Integer> other = new ArraySet<>();
+        for (int i = 0; i < 10; i++) {
+            other.add(i);
+        }
+        assertEquals(recycled + 3, ContainerArrayPool.recycledCount());
+        assertEquals(10, other.size());
+    }
+
+    @Test
+    public void corruptArraysAreDropped() {
+        Object[] array = new Object[8];
+        ContainerArrayPool.MAPS.release(new int[4], new Object[8], 0);
+        ContainerArrayPool.MAPS.release(new int[4], array, 0);
+        // A map still writing to an array it freed.
+        array[0] = "key";
+
+        assertNull(ContainerArrayPool.MAPS.acquire(4));
+        // The rest of the pool is dropped too, as it may have been trampled the same way.
+        assertNull(ContainerArrayPool.MAPS.acquire(4));
+    }
+
+    @Test
+    public void pooledCapacityIsBounded() {
+        for (int i = 0; i < 10; i++) {
+            ContainerArrayPool.SETS.release(new int[40], new Object[40], 0);
+        }
+        int pooled = 0;
+        while (ContainerArrayPool.SETS.acquire(40) != null) {
+            pooled++;
+        }
+        assertEquals(3, pooled);
+    }
+
+    @Test
+    public void maxArraysPerSizeClass() {
+        for (int i = 0; i < 3; i++) {
+            ContainerArrayPool.MAPS.release(new int[4], new Object[8], 0);
+        }
+        ContainerArrayPool.setMaxArraysPerSizeClass(1);
+        assertTrue(ContainerArrayPool.MAPS.acquire(4) != null);
+        assertNull(ContainerArrayPool.MAPS.acquire(4));
+
+        ContainerArrayPool.setMaxArraysPerSizeClass(0);
+        ContainerArrayPool.MAPS.release(new int[4], new Object[8], 0);
+        long allocated = ContainerArrayPool.allocationCount();
+        assertNull(ContainerArrayPool.MAPS.acquire(4));
+        assertEquals(allocated + 1, ContainerArrayPool.allocationCount());
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class DirectFloatRingBufferTest {
+
+    @Test
+    public void offerAndPoll() {
+        DirectFloatRingBuffer buffer = new DirectFloatRingBuffer(2);
+        assertTrue(buffer.offer(0.5f));
+        assertTrue(buffer.offer(-1.25f));
+        assertFalse(buffer.offer(0.5f));
+        assertEquals(0.5f, buffer.poll(), 0f);
+        assertEquals(-1.25f, buffer.poll(), 0f);
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    public void overwriteOldest() {
+        DirectFloatRingBuffer buffer = new DirectFloatRingBuffer(2, true);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertEquals(3, buffer.droppedCount());
+        float[] values = new float[2];
+        assertEquals(2, buffer.drainTo(values, 0, 2));
+        assertEquals(3, values[0], 0f);
+        assertEquals(4, values[1], 0f);
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+
+@RunWith(JUnit4.class)
+public class DirectLongRingBufferTest {
+
+    @Test
+    public void capacityIsRoundedUpToPowerOfTwo() {
+        assertEquals(1, new DirectLongRingBuffer(1).capacity());
+        assertEquals(8, new DirectLongRingBuffer(5).capacity());
+        assertEquals(16, new DirectLongRingBuffer(16).capacity());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroCapacity() {
+        new DirectLongRingBuffer(0);
+    }
+
+    @Test
+    public void offerAndPollInOrder() {
+        DirectLongRingBuffer buffer = new DirectLongRingBuffer(4);
+        assertTrue(buffer.isEmpty());
+        for (long i = 0; i < 10; i++) {
+            assertTrue(buffer.offer(i * 1000000007L));
+            assertTrue(buffer.offer(-i));
+            assertEquals(2, buffer.size());
+            assertEquals(i * 1000000007L, buffer.poll());
+            assertEquals(-i, buffer.poll());
+        }
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    public void rejectsWhenFull() {
+        DirectLongRingBuffer buffer = new DirectLongRingBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.size());
+        assertEquals(0, buffer.droppedCount());
+        assertEquals(0, buffer.poll());
+        assertTrue(buffer.offer(4));
+    }
+
+    @Test
+    public void overwritesOldestWhenFull() {
+        DirectLongRingBuffer buffer = new DirectLongRingBuffer(4, true);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertEquals(4, buffer.size());
+        assertEquals(6, buffer.droppedCount());
+        long[] values = new long[8];
+        assertEquals(4, buffer.drainTo(values, 2, 6));
+        assertEquals(6, values[2]);
+        assertEquals(9, values[5]);
+        assertEquals(0, buffer.drainTo(values, 0, 8));
+    }
+
+    @Test
+    public void drainToWrapsAround() {
+        DirectLongRingBuffer buffer = new DirectLongRingBuffer(4);
+        buffer.offer(1);
+        buffer.offer(2);
+        buffer.offer(3);
+        buffer.poll();
+        buffer.poll();
+        buffer.offer(4);
+        buffer.offer(5);
+        buffer.offer(6);
+        long[] values = new long[3];
+        assertEquals(3, buffer.drainTo(values, 0, 3));
+        assertEquals(3, values[0]);
+        assertEquals(4, values[1]);
+        assertEquals(5, values[2]);
+        assertEquals(6, buffer.poll());
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void pollEmpty() {
+        DirectLongRingBuffer buffer = new DirectLongRingBuffer(4);
+        buffer.offer(1);
+        buffer.clear();
+        buffer.poll();
+    }
+
+    @Test
+    public void producerAndConsumerThreads() throws InterruptedException {
+        final int count = 1000000;
+        final DirectLongRingBuffer buffer = new DirectLongRingBuffer(64);
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (long i = 0; i < count; i++) {
+                    while (!buffer.offer(i)) {
+                        Thread.yield();
+                    }
+                }
+            }
+        });
+        producer.start();
+
+        long[] values = new long[16];
+        long expected = 0;
+        while (expected < count) {
+            int drained = buffer.drainTo(values, 0, values.length);
+            for (int i = 0; i < drained; i++) {
+                if (values[i] != expected) {
+                    fail("expected " + expected + " but was " + values[i]);
+                }
+                expected++;
+            }
+        }
+        producer.join();
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    public void overwritingProducerNeverCorruptsValues() throws InterruptedException {
+        final int count = 1000000;
+        final DirectLongRingBuffer buffer = new DirectLongRingBuffer(8, true);
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (long i = 1; i <= count; i++) {
+                    // Both halves carry the sequence so that a torn value would be detected.
+                    buffer.offer((i << 32) | i);
+                }
+            }
+        });
+        producer.start();
+
+        long last = 0;
+        long received = 0;
+        while (producer.isAlive() || !buffer.isEmpty()) {
+            if (buffer.isEmpty()) {
+                continue;
+            }
+            long value = buffer.poll();
+            long sequence = value & 0xFFFFFFFFL;
+            assertEquals(sequence, value >>> 32);
+            assertTrue(sequence > last);
+            last = sequence;
+            received++;
+        }
+        producer.join();
+        assertEquals(count, received + buffer.droppedCount());
+    }
+}
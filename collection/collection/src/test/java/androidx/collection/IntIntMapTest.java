@@ -0,0 +1,141 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+@RunWith(JUnit4.class)
+public class IntIntMapTest {
+    @Test
+    public void getUsesDefaultWhenAbsent() {
+        IntIntMap map = new IntIntMap();
+        assertEquals(0, map.get(1));
+        assertEquals(7, map.get(1, 7));
+    }
+
+    @Test
+    public void putReplacesExistingValue() {
+        IntIntMap map = new IntIntMap();
+        map.put(1, 1);
+        map.put(1, 2);
+        assertEquals(1, map.size());
+        assertEquals(2, map.get(1));
+    }
+
+    @Test
+    public void zeroKeyIsStored() {
+        IntIntMap map = new IntIntMap();
+        map.put(0, 5);
+        assertTrue(map.containsKey(0));
+        assertEquals(5, map.get(0, -1));
+    }
+
+    @Test
+    public void removeMovesLastMappingIntoHole() {
+        IntIntMap map = new IntIntMap();
+        map.put(10, 1);
+        map.put(20, 2);
+        map.put(30, 3);
+
+        assertTrue(map.remove(10));
+        assertFalse(map.remove(10));
+        assertEquals(2, map.size());
+        assertEquals(30, map.keyAt(0));
+        assertEquals(3, map.valueAt(0));
+        assertEquals(0, map.indexOfKey(30));
+        assertEquals(20, map.keyAt(1));
+    }
+
+    @Test
+    public void clearRetainsNoMappings() {
+        IntIntMap map = new IntIntMap(10);
+        for (int i = 0; i < 10; i++) {
+            map.put(i, i);
+        }
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertFalse(map.containsKey(3));
+        map.put(3, 4);
+        assertEquals(4, map.get(3));
+    }
+
+    @Test
+    public void equalsIgnoresOrder() {
+        IntIntMap a = new IntIntMap();
+        a.put(1, 10);
+        a.put(2, 20);
+        IntIntMap b = new IntIntMap();
+        b.put(2, 20);
+        b.put(1, 10);
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+
+        b.put(1, 11);
+        assertNotEquals(a, b);
+    }
+
+    @Test
+    public void cloneIsIndependent() {
+        IntIntMap map = new IntIntMap();
+        map.put(1, 1);
+        IntIntMap clone = map.clone();
+        clone.put(2, 2);
+        assertEquals(1, map.size());
+        assertEquals(2, clone.size());
+    }
+
+    @Test
+    public void matchesHashMapUnderRandomOperations() {
+        Random random = new Random(0);
+        IntIntMap map = new IntIntMap();
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(2000) - 1000;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key) != null, map.remove(key));
+            } else {
+                int value = random.nextInt();
+                expected.put(key, value);
+                map.put(key, value);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (int i = 0; i < map.size(); i++) {
+            assertEquals(expected.get(map.keyAt(i)), (Integer) map.valueAt(i));
+        }
+    }
+
+    @Test
+    public void toStringListsMappings() {
+        IntIntMap map = new IntIntMap();
+        assertEquals("{}", map.toString());
+        map.put(1, 2);
+        map.put(3, 4);
+        assertEquals("{1=2, 3=4}", map.toString());
+    }
+}
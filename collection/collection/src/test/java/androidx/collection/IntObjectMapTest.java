@@ -0,0 +1,148 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+@RunWith(JUnit4.class)
+public class IntObjectMapTest {
+    @Test
+    public void getOrDefaultPrefersStoredValue() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        map.put(1, "1");
+        assertEquals("1", map.get(1, "2"));
+    }
+
+    @Test
+    public void getOrDefaultReturnsNullWhenNullStored() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        map.put(1, null);
+        assertNull(map.get(1, "1"));
+    }
+
+    @Test
+    public void putReturnsPreviousValue() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        assertNull(map.put(1, "1"));
+        assertEquals("1", map.put(1, "2"));
+        assertEquals("2", map.get(1));
+    }
+
+    @Test
+    public void putIfAbsentDoesNotOverwriteStoredValue() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        map.put(1, "1");
+        assertEquals("1", map.putIfAbsent(1, "2"));
+        assertEquals("1", map.get(1));
+    }
+
+    @Test
+    public void removeValueMatchRemoves() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        map.put(1, "1");
+        assertFalse(map.remove(1, "2"));
+        assertTrue(map.remove(1, "1"));
+        assertFalse(map.containsKey(1));
+    }
+
+    @Test
+    public void removeNullValueMatchRemoves() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        map.put(1, null);
+        assertTrue(map.remove(1, null));
+        assertFalse(map.containsKey(1));
+    }
+
+    @Test
+    public void replaceValueMatchReplaces() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        assertNull(map.replace(1, "1"));
+        assertFalse(map.containsKey(1));
+        map.put(1, "1");
+        assertFalse(map.replace(1, "2", "3"));
+        assertTrue(map.replace(1, "1", "2"));
+        assertEquals("2", map.get(1));
+    }
+
+    @Test
+    public void containsValueUsesEquals() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        map.put(1, new String("one"));
+        assertTrue(map.containsValue("one"));
+        assertFalse(map.containsValue("two"));
+    }
+
+    @Test
+    public void putAll() {
+        IntObjectMap<String> dest = new IntObjectMap<>();
+        dest.put(1, "one");
+        dest.put(3, "three");
+
+        IntObjectMap<String> source = new IntObjectMap<>();
+        source.put(1, "uno");
+        source.put(2, "dos");
+
+        dest.putAll(source);
+        assertEquals(3, dest.size());
+        assertEquals("uno", dest.get(1));
+        assertEquals("dos", dest.get(2));
+        assertEquals("three", dest.get(3));
+    }
+
+    @Test
+    public void equalsComparesValues() {
+        IntObjectMap<String> a = new IntObjectMap<>();
+        a.put(1, "one");
+        a.put(2, null);
+        IntObjectMap<String> b = new IntObjectMap<>();
+        b.put(2, null);
+        b.put(1, new String("one"));
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+    }
+
+    @Test
+    public void longKeysMatchHashMapUnderRandomOperations() {
+        Random random = new Random(0);
+        LongObjectMap<Long> map = new LongObjectMap<>();
+        Map<Long, Long> expected = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            long key = (random.nextInt(2000) - 1000) * 0x100000000L;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                expected.put(key, key + i);
+                map.put(key, key + i);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (int i = 0; i < map.size(); i++) {
+            assertEquals(expected.get(map.keyAt(i)), map.valueAt(i));
+        }
+    }
+}
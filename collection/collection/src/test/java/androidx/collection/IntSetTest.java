@@ -0,0 +1,83 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+@RunWith(JUnit4.class)
+public class IntSetTest {
+    @Test
+    public void addReportsWhetherValueWasAdded() {
+        IntSet set = new IntSet();
+        assertTrue(set.add(1));
+        assertFalse(set.add(1));
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    public void removeMovesLastValueIntoHole() {
+        IntSet set = new IntSet();
+        set.add(1);
+        set.add(2);
+        set.add(3);
+        assertTrue(set.remove(1));
+        assertFalse(set.remove(1));
+        assertArrayEquals(new int[] { 3, 2 }, set.toArray());
+    }
+
+    @Test
+    public void equalsIgnoresOrder() {
+        IntSet a = new IntSet();
+        a.add(1);
+        a.add(2);
+        IntSet b = new IntSet();
+        b.add(2);
+        b.add(1);
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+    }
+
+    @Test
+    public void matchesHashSetUnderRandomOperations() {
+        Random random = new Random(0);
+        IntSet set = new IntSet();
+        Set<Integer> expected = new HashSet<>();
+        for (int i = 0; i < 20000; i++) {
+            int value = random.nextInt(2000);
+            if (random.nextBoolean()) {
+                assertEquals(expected.remove(value), set.remove(value));
+            } else {
+                assertEquals(expected.add(value), set.add(value));
+            }
+        }
+        assertEquals(expected.size(), set.size());
+        for (int i = 0; i < set.size(); i++) {
+            assertTrue(expected.contains(set.valueAt(i)));
+        }
+    }
+}
@@ -25,6 +25,8 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
+import java.util.Random;
+
 @RunWith(JUnit4.class)
 public class LongSparseArrayTest {
     @Test
@@ -274,4 +276,100 @@ public class LongSparseArrayTest {
         assertEquals(1L, dest.get(1L));
         assertEquals("two", dest.get(2L));
     }
+
+    @Test
+    public void putAllArrays() {
+        LongSparseArray<String> map = new LongSparseArray<>();
+        map.put(2L, "two");
+        map.put(5L, "five");
+        map.remove(5L);
+        map.put(9L, "nine");
+
+        map.putAll(new long[] {7L, -1L, 2L, 7L, 4L},
+                new String[] {"seven", "minus one", "dos", "siete", "four"});
+        assertEquals(5, map.size());
+        assertEquals(-1L, map.keyAt(0));
+        assertEquals(2L, map.keyAt(1));
+        assertEquals(4L, map.keyAt(2));
+        assertEquals(7L, map.keyAt(3));
+        assertEquals(9L, map.keyAt(4));
+        assertEquals("dos", map.get(2L));
+        assertEquals("siete", map.get(7L));
+        assertEquals("nine", map.get(9L));
+        assertFalse(map.containsKey(5L));
+    }
+
+    @Test
+    public void putAllArraysMatchesPut() {
+        Random random = new Random(42);
+        long[] keys = new long[1000];
+        Integer[] values = new Integer[keys.length];
+        LongSparseArray<Integer> expected = new LongSparseArray<>();
+        LongSparseArray<Integer> actual = new LongSparseArray<>();
+        for (int i = 0; i < 100; i++) {
+            expected.put(i * 7, -i);
+            actual.put(i * 7, -i);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextInt(2000) - 1000;
+            values[i] = i;
+            expected.put(keys[i], values[i]);
+        }
+        actual.putAll(keys, values);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.keyAt(i), actual.keyAt(i));
+            assertEquals(expected.valueAt(i), actual.valueAt(i));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void putAllArraysLengthMismatch() {
+        new LongSparseArray<String>().putAll(new long[] {1L}, new String[0]);
+    }
+
+    @Test
+    public void removeRange() {
+        LongSparseArray<String> map = new LongSparseArray<>();
+        for (int i = 0; i < 10; i++) {
+            map.put(i * 10, "v" + i);
+        }
+        map.remove(50L);
+        map.removeRange(25L, 70L);
+        assertEquals(6, map.size());
+        assertEquals(20L, map.keyAt(2));
+        assertEquals(70L, map.keyAt(3));
+        assertEquals("v7", map.valueAt(3));
+
+        map.removeRange(0L, 0L);
+        assertEquals(6, map.size());
+        map.removeRange(-100L, 1000L);
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void keyRangeView() {
+        LongSparseArray<String> map = new LongSparseArray<>();
+        for (int i = 0; i < 10; i++) {
+            map.put(i * 10, "v" + i);
+        }
+        map.remove(40L);
+
+        LongSparseArray.RangeView<String> view = map.keyRangeView(15L, 60L);
+        assertEquals(3, view.size());
+        assertEquals(20L, view.keyAt(0));
+        assertEquals("v3", view.valueAt(1));
+        assertEquals(50L, view.keyAt(2));
+
+        assertTrue(map.keyRangeView(41L, 50L).isEmpty());
+        assertEquals(9, map.keyRangeView(-5L, 1000L).size());
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void keyRangeViewOutOfBounds() {
+        LongSparseArray<String> map = new LongSparseArray<>();
+        map.put(1L, "one");
+        map.put(2L, "two");
+        map.keyRangeView(0L, 2L).keyAt(1);
+    }
 }
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(JUnit4.class)
+public class LruCacheTest {
+    @Test
+    public void lruEvictsLeastRecentlyUsed() {
+        LruCache<String, String> cache = new LruCache<>(2);
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.get("a");
+        cache.put("c", "C");
+        assertNull(cache.get("b"));
+        assertEquals("A", cache.get("a"));
+        assertEquals(1, cache.evictionCount());
+    }
+
+    @Test
+    public void windowTinyLfuKeepsFrequentEntriesDuringScan() {
+        LruCache<Integer, Integer> lru = new LruCache<>(100);
+        LruCache<Integer, Integer> tinyLfu =
+                new LruCache<>(100, LruCache.POLICY_WINDOW_TINY_LFU);
+        runScanWorkload(lru);
+        runScanWorkload(tinyLfu);
+
+        for (int key = 0; key < 50; key++) {
+            assertTrue("hot key " + key + " evicted", tinyLfu.snapshot().containsKey(key));
+        }
+        assertTrue(tinyLfu.hitRate() > lru.hitRate());
+    }
+
+    private static void runScanWorkload(LruCache<Integer, Integer> cache) {
+        for (int round = 0; round < 10; round++) {
+            for (int key = 0; key < 50; key++) {
+                if (cache.get(key) == null) {
+                    cache.put(key, key);
+                }
+            }
+        }
+        for (int key = 1000; key < 1300; key++) {
+            if (cache.get(key) == null) {
+                cache.put(key, key);
+            }
+        }
+        for (int key = 0; key < 50; key++) {
+            cache.get(key);
+        }
+    }
+
+    @Test
+    public void windowTinyLfuRespectsMaxSize() {
+        final List<Integer> removed = new ArrayList<>();
+        LruCache<Integer, Integer> cache =
+                new LruCache<Integer, Integer>(10, LruCache.POLICY_WINDOW_TINY_LFU) {
+                    @Override
+                    protected void entryRemoved(boolean evicted, @NonNull Integer key,
+                            @NonNull Integer oldValue, @Nullable Integer newValue) {
+                        assertTrue(evicted);
+                        removed.add(key);
+                    }
+                };
+        for (int i = 0; i < 100; i++) {
+            cache.put(i, i);
+            assertTrue(cache.size() <= 10);
+        }
+        assertEquals(90, cache.evictionCount());
+        assertEquals(90, removed.size());
+        assertEquals(10, cache.snapshot().size());
+
+        cache.evictAll();
+        assertEquals(0, cache.size());
+        assertFalse(cache.snapshot().containsKey(99));
+    }
+
+    @Test
+    public void windowTinyLfuRemoveAndReplace() {
+        LruCache<String, String> cache = new LruCache<>(10, LruCache.POLICY_WINDOW_TINY_LFU);
+        cache.put("a", "A");
+        assertEquals("A", cache.put("a", "A2"));
+        assertEquals("A2", cache.get("a"));
+        assertEquals("A2", cache.remove("a"));
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void hitRateIsZeroWithoutAccesses() {
+        LruCache<String, String> cache = new LruCache<>(1);
+        assertEquals(0f, cache.hitRate(), 0f);
+        cache.put("a", "A");
+        cache.get("a");
+        cache.get("b");
+        assertEquals(0.5f, cache.hitRate(), 0f);
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ObjectIntMapTest {
+    @Test
+    public void getUsesDefaultWhenAbsent() {
+        ObjectIntMap<String> map = new ObjectIntMap<>();
+        assertEquals(0, map.get("a"));
+        assertEquals(-1, map.get("a", -1));
+    }
+
+    @Test
+    public void keysAreComparedWithEquals() {
+        ObjectIntMap<String> map = new ObjectIntMap<>();
+        map.put("key", 1);
+        assertEquals(1, map.get(new String("key")));
+        map.put(new String("key"), 2);
+        assertEquals(1, map.size());
+        assertEquals(2, map.get("key"));
+    }
+
+    @Test
+    public void nullKeyIsStored() {
+        ObjectIntMap<String> map = new ObjectIntMap<>();
+        map.put(null, 3);
+        assertTrue(map.containsKey(null));
+        assertEquals(3, map.get(null));
+        assertTrue(map.remove(null));
+        assertFalse(map.containsKey(null));
+    }
+
+    @Test
+    public void removeAtClearsLastSlot() {
+        ObjectIntMap<String> map = new ObjectIntMap<>();
+        map.put("a", 1);
+        map.put("b", 2);
+        map.removeAt(0);
+        assertEquals("b", map.keyAt(0));
+        assertEquals(2, map.valueAt(0));
+        assertEquals(1, map.size());
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertEquals(-1, map.indexOfKey("b"));
+    }
+
+    @Test
+    public void equalsIgnoresOrder() {
+        ObjectIntMap<String> a = new ObjectIntMap<>();
+        a.put("a", 1);
+        a.put(null, 2);
+        ObjectIntMap<String> b = new ObjectIntMap<>();
+        b.put(null, 2);
+        b.put("a", 1);
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+    }
+}
@@ -25,6 +25,8 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
+import java.util.Random;
+
 @RunWith(JUnit4.class)
 public class SparseArrayCompatTest {
     @Test
@@ -274,4 +276,100 @@ public class SparseArrayCompatTest {
         assertEquals(1L, dest.get(1));
         assertEquals("two", dest.get(2));
     }
+
+    @Test
+    public void putAllArrays() {
+        SparseArrayCompat<String> map = new SparseArrayCompat<>();
+        map.put(2, "two");
+        map.put(5, "five");
+        map.remove(5);
+        map.put(9, "nine");
+
+        map.putAll(new int[] {7, -1, 2, 7, 4},
+                new String[] {"seven", "minus one", "dos", "siete", "four"});
+        assertEquals(5, map.size());
+        assertEquals(-1, map.keyAt(0));
+        assertEquals(2, map.keyAt(1));
+        assertEquals(4, map.keyAt(2));
+        assertEquals(7, map.keyAt(3));
+        assertEquals(9, map.keyAt(4));
+        assertEquals("dos", map.get(2));
+        assertEquals("siete", map.get(7));
+        assertEquals("nine", map.get(9));
+        assertFalse(map.containsKey(5));
+    }
+
+    @Test
+    public void putAllArraysMatchesPut() {
+        Random random = new Random(42);
+        int[] keys = new int[1000];
+        Integer[] values = new Integer[keys.length];
+        SparseArrayCompat<Integer> expected = new SparseArrayCompat<>();
+        SparseArrayCompat<Integer> actual = new SparseArrayCompat<>();
+        for (int i = 0; i < 100; i++) {
+            expected.put(i * 7, -i);
+            actual.put(i * 7, -i);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextInt(2000) - 1000;
+            values[i] = i;
+            expected.put(keys[i], values[i]);
+        }
+        actual.putAll(keys, values);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.keyAt(i), actual.keyAt(i));
+            assertEquals(expected.valueAt(i), actual.valueAt(i));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void putAllArraysLengthMismatch() {
+        new SparseArrayCompat<String>().putAll(new int[] {1}, new String[0]);
+    }
+
+    @Test
+    public void removeRange() {
+        SparseArrayCompat<String> map = new SparseArrayCompat<>();
+        for (int i = 0; i < 10; i++) {
+            map.put(i * 10, "v" + i);
+        }
+        map.remove(50);
+        map.removeRange(25, 70);
+        assertEquals(6, map.size());
+        assertEquals(20, map.keyAt(2));
+        assertEquals(70, map.keyAt(3));
+        assertEquals("v7", map.valueAt(3));
+
+        map.removeRange(0, 0);
+        assertEquals(6, map.size());
+        map.removeRange(-100, 1000);
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void keyRangeView() {
+        SparseArrayCompat<String> map = new SparseArrayCompat<>();
+        for (int i = 0; i < 10; i++) {
+            map.put(i * 10, "v" + i);
+        }
+        map.remove(40);
+
+        SparseArrayCompat.RangeView<String> view = map.keyRangeView(15, 60);
+        assertEquals(3, view.size());
+        assertEquals(20, view.keyAt(0));
+        assertEquals("v3", view.valueAt(1));
+        assertEquals(50, view.keyAt(2));
+
+        assertTrue(map.keyRangeView(41, 50).isEmpty());
+        assertEquals(9, map.keyRangeView(-5, 1000).size());
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void keyRangeViewOutOfBounds() {
+        SparseArrayCompat<String> map = new SparseArrayCompat<>();
+        map.put(1, "one");
+        map.put(2, "two");
+        map.keyRangeView(0, 2).keyAt(1);
+    }
 }
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room.benchmark
+
+import android.os.Build
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.room.Dao
+import androidx.room.Database
+import androidx.room.Entity
+import androidx.room.Insert
+import androidx.room.PrimaryKey
+import androidx.room.Query
+import androidx.room.Room
+import androidx.room.RoomDatabase
+import androidx.test.core.app.ApplicationProvider
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.filters.LargeTest
+import androidx.test.filters.SdkSuppress
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * Reads all the rows of a table of [ROW_COUNT] rows, into entities with the column indices
+ * resolved when compiling or looked up by name, and a single column into an array read in one
+ * pass over the cursor windows or into a list read row by row.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4::class)
+@SdkSuppress(minSdkVersion = Build.VERSION_CODES.JELLY_BEAN) // TODO Fix me for API 15 - b/120098504
+class CursorReadBenchmark {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    val context = ApplicationProvider.getApplicationContext() as android.content.Context
+
+    private lateinit var db: TestDatabase
+
+    @Before
+    fun setup() {
+        context.deleteDatabase(DB_NAME)
+        db = Room.databaseBuilder(context, TestDatabase::class.java, DB_NAME)
+            .setJournalMode(RoomDatabase.JournalMode.WRITE_AHEAD_LOGGING)
+            .build()
+        val dao = db.getItemDao()
+        db.runInTransaction {
+            for (start in 0 until ROW_COUNT step 10_000) {
+                dao.insertAll(List(10_000) {
+                    Item(start + it.toLong(), "name${start + it}", it, it / 2.0)
+                })
+            }
+        }
+    }
+
+    @After
+    fun tearDown() {
+        db.close()
+        context.deleteDatabase(DB_NAME)
+    }
+
+    @Test
+    fun readEntities_resolvedColumns() {
+        val dao = db.getItemDao()
+        benchmarkRule.measureRepeated {
+            val items = dao.allItems()
+            runWithTimingDisabled {
+                assertEquals(ROW_COUNT, items.size)
+            }
+        }
+    }
+
+    @Test
+    fun readEntities_columnsByName() {
+        val dao = db.getItemDao()
+        benchmarkRule.measureRepeated {
+            val items = dao.allItemsByName()
+            runWithTimingDisabled {
+                assertEquals(ROW_COUNT, items.size)
+            }
+        }
+    }
+
+    @Test
+    fun readLongColumn_array() {
+        val dao = db.getItemDao()
+        benchmarkRule.measureRepeated {
+            val ids = dao.allIds()
+            runWithTimingDisabled {
+                assertEquals(ROW_COUNT, ids.size)
+            }
+        }
+    }
+
+    @Test
+    fun readLongColumn_list() {
+        val dao = db.getItemDao()
+        benchmarkRule.measureRepeated {
+            val ids = dao.allIdsAsList()
+            runWithTimingDisabled {
+                assertEquals(ROW_COUNT, ids.size)
+            }
+        }
+    }
+
+    companion object {
+        private const val DB_NAME = "cursor-read-benchmark-test"
+        private const val ROW_COUNT = 100_000
+    }
+
+    @Database(entities = [Item::class], version = 1, exportSchema = false)
+    abstract class TestDatabase : RoomDatabase() {
+        abstract fun getItemDao(): ItemDao
+    }
+
+    @Entity
+    data class Item(
+        @PrimaryKey val id: Long,
+        val name: String,
+        val count: Int,
+        val score: Double
+    )
+
+    @Dao
+    interface ItemDao {
+        @Insert
+        fun insertAll(items: List<Item>)
+
+        @Query("SELECT id, name, count, score FROM Item")
+        fun allItems(): List<Item>
+
+        @Query("SELECT * FROM Item")
+        fun allItemsByName(): List<Item>
+
+        @Query("SELECT id FROM Item")
+        fun allIds(): LongArray
+
+        @Query("SELECT id FROM Item")
+        fun allIdsAsList(): List<Long>
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room.benchmark
+
+import android.os.Build
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.paging.DataSource
+import androidx.room.Dao
+import androidx.room.Database
+import androidx.room.Entity
+import androidx.room.Index
+import androidx.room.Insert
+import androidx.room.PrimaryKey
+import androidx.room.Query
+import androidx.room.RawQuery
+import androidx.room.Room
+import androidx.room.RoomDatabase
+import androidx.room.paging.KeysetDataSource
+import androidx.room.paging.LimitOffsetDataSource
+import androidx.sqlite.db.SimpleSQLiteQuery
+import androidx.sqlite.db.SupportSQLiteQuery
+import androidx.test.core.app.ApplicationProvider
+import androidx.test.filters.LargeTest
+import androidx.test.filters.SdkSuppress
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+
+/**
+ * Compares loading the page that follows an already loaded one deep in a table of [ROW_COUNT]
+ * rows, with `LIMIT`/`OFFSET` as for queries that are not ordered by columns and by seeking past
+ * the last row of the loaded page as for those that are.
+ */
+@LargeTest
+@RunWith(Parameterized::class)
+@SdkSuppress(minSdkVersion = Build.VERSION_CODES.JELLY_BEAN) // TODO Fix me for API 15 - b/120098504
+class PagingBenchmark(private val position: Int, private val keyset: Boolean) {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    val context = ApplicationProvider.getApplicationContext() as android.content.Context
+
+    private lateinit var db: TestDatabase
+
+    @Before
+    fun setup() {
+        db = Room.databaseBuilder(context, TestDatabase::class.java, DB_NAME)
+            .setJournalMode(RoomDatabase.JournalMode.WRITE_AHEAD_LOGGING)
+            .build()
+        val dao = db.getItemDao()
+        // the table is kept from one test to the next as filling it takes a while.
+        if (dao.count() != ROW_COUNT) {
+            dao.deleteAll()
+            db.runInTransaction {
+                for (start in 0 until ROW_COUNT step 10_000) {
+                    dao.insertAll(List(10_000) { Item(start + it, "name${start + it}", it) })
+                }
+            }
+        }
+    }
+
+    @After
+    fun tearDown() {
+        db.close()
+    }
+
+    @Test
+    fun loadNextPage() {
+        val dao = db.getItemDao()
+        @Suppress("UNCHECKED_CAST")
+        val dataSource = if (keyset) {
+            dao.itemsByValue().create()
+        } else {
+            dao.itemsByValueRaw(SimpleSQLiteQuery(ITEMS_BY_VALUE)).create()
+        } as LimitOffsetDataSource<Item>
+        assertEquals(keyset, dataSource is KeysetDataSource<*>)
+        dataSource.loadRange(position - PAGE_SIZE, PAGE_SIZE)
+        benchmarkRule.measureRepeated {
+            val page = dataSource.loadRange(position, PAGE_SIZE)
+            runWithTimingDisabled {
+                assertEquals(PAGE_SIZE, page.size)
+            }
+        }
+    }
+
+    companion object {
+        @JvmStatic
+        @Parameterized.Parameters(name = "position={0}, keyset={1}")
+        fun data(): List<Array<Any>> {
+            return mutableListOf<Array<Any>>().apply {
+                arrayOf(1_000, 100_000, 900_000).forEach { position ->
+                    arrayOf(false, true).forEach { keyset ->
+                        add(arrayOf(position, keyset))
+                    }
+                }
+            }
+        }
+
+        init {
+            // delete the database left by a previous run, once per run.
+            val context = ApplicationProvider.getApplicationContext() as android.content.Context
+            for (postfix in arrayOf("", "-wal", "-shm")) {
+                val dbFile = context.getDatabasePath(DB_NAME + postfix)
+                if (dbFile.exists()) {
+                    assertTrue(dbFile.delete())
+                }
+            }
+        }
+
+        private const val DB_NAME = "paging-benchmark-test"
+        private const val ROW_COUNT = 1_000_000
+        private const val PAGE_SIZE = 50
+        const val ITEMS_BY_VALUE = "SELECT * FROM Item ORDER BY value, id"
+    }
+
+    @Database(entities = [Item::class], version = 1, exportSchema = false)
+    abstract class TestDatabase : RoomDatabase() {
+        abstract fun getItemDao(): ItemDao
+    }
+
+    @Entity(indices = [Index("value")])
+    data class Item(
+        @PrimaryKey val id: Int,
+        val name: String,
+        val value: Int
+    )
+
+    @Dao
+    interface ItemDao {
+        @Insert
+        fun insertAll(items: List<Item>)
+
+        @Query("SELECT COUNT(*) FROM Item")
+        fun count(): Int
+
+        @Query("DELETE FROM Item")
+        fun deleteAll()
+
+        @Query(ITEMS_BY_VALUE)
+        fun itemsByValue(): DataSource.Factory<Int, Item>
+
+        @RawQuery(observedEntities = [Item::class])
+        fun itemsByValueRaw(query: SupportSQLiteQuery): DataSource.Factory<Int, Item>
+    }
+}
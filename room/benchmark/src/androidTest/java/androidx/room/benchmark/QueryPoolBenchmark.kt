@@ -0,0 +1,100 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room.benchmark
+
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.room.RoomSQLiteQuery
+import androidx.test.filters.LargeTest
+import org.junit.After
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+
+/**
+ * Measures how fast [RoomSQLiteQuery] instances are acquired, bound and released back to the
+ * pool, as generated DAO code does for every query, when several threads query at once.
+ *
+ * Each measured iteration runs [QUERIES_PER_THREAD] queries on each of the threads, so the
+ * reported time divided by the number of threads and queries gives the cost of a query. Run it
+ * on the previous revision of RoomSQLiteQuery to compare with the pool it replaces.
+ */
+@LargeTest
+@RunWith(Parameterized::class)
+class QueryPoolBenchmark(private val threadCount: Int, private val argCount: Int) {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private lateinit var executor: ExecutorService
+
+    @Before
+    fun setup() {
+        executor = Executors.newFixedThreadPool(threadCount)
+    }
+
+    @After
+    fun tearDown() {
+        executor.shutdownNow()
+    }
+
+    @Test
+    fun acquireAndRelease() {
+        val task = Runnable {
+            for (i in 0 until QUERIES_PER_THREAD) {
+                val query = RoomSQLiteQuery.acquire(SQL, argCount)
+                for (index in 1..argCount) {
+                    query.bindLong(index, i.toLong())
+                }
+                query.release()
+            }
+        }
+        benchmarkRule.measureRepeated {
+            val done = CountDownLatch(threadCount)
+            repeat(threadCount) {
+                executor.execute {
+                    task.run()
+                    done.countDown()
+                }
+            }
+            done.await()
+        }
+    }
+
+    companion object {
+        @JvmStatic
+        @Parameterized.Parameters(name = "threads={0}, args={1}")
+        fun data(): List<Array<Any>> {
+            return mutableListOf<Array<Any>>().apply {
+                arrayOf(1, 2, 4, 8).forEach { threadCount ->
+                    arrayOf(1, 10).forEach { argCount ->
+                        add(arrayOf(threadCount, argCount))
+                    }
+                }
+            }
+        }
+
+        private const val QUERIES_PER_THREAD = 1000
+        // the queries are only bound, never run, so their SQL does not matter.
+        private const val SQL = "SELECT * FROM user"
+    }
+}
@@ -86,10 +86,51 @@ class RelationBenchmark(private val parentSampleSize: Int, private val childSamp
         db.close()
     }
 
+    @Test
+    fun largeMultiRelationQuery() {
+        largeMultiRelationQuery(readerConnections = 0)
+    }
+
+    @Test
+    fun largeMultiRelationQuery_readerConnections() {
+        // the relations are fetched concurrently on reader connections.
+        largeMultiRelationQuery(readerConnections = 2)
+    }
+
+    private fun largeMultiRelationQuery(readerConnections: Int) {
+        val db = Room.databaseBuilder(context, TestDatabase::class.java, DB_NAME)
+            .setJournalMode(RoomDatabase.JournalMode.WRITE_AHEAD_LOGGING)
+            .setReaderConnectionPoolSize(readerConnections)
+            .build()
+        val dao = db.getUserDao()
+
+        val users = List(parentSampleSize) { i ->
+            User(i, "name$i")
+        }
+        val items = List(parentSampleSize * childSampleSize) { i ->
+            Item(i, i / childSampleSize)
+        }
+        val tags = List(parentSampleSize * childSampleSize) { i ->
+            Tag(i, i / childSampleSize, "tag$i")
+        }
+        dao.insertUsers(users)
+        dao.insertItems(items)
+        dao.insertTags(tags)
+
+        benchmarkRule.measureRepeated {
+            val result = dao.getUserWithItemsAndTags()
+            assertEquals(result.size, parentSampleSize)
+            assertEquals(result.first().items.size, childSampleSize)
+            assertEquals(result.last().tags.size, childSampleSize)
+        }
+
+        db.close()
+    }
+
     companion object {
         @JvmStatic
         @Parameterized.Parameters(name = "parentSampleSize={0}, childSampleSize={1}")
-        fun data() = arrayOf(100, 500, 1000).flatMap { parentSampleSize ->
+        fun data() = arrayOf(100, 500, 1000, 5000).flatMap { parentSampleSize ->
             arrayOf(10).map { childSampleSize ->
                 arrayOf(parentSampleSize, childSampleSize)
             }
@@ -98,7 +139,8 @@ class RelationBenchmark(private val parentSampleSize: Int, private val childSamp
         private const val DB_NAME = "relation-benchmark-test"
     }
 
-    @Database(entities = [User::class, Item::class], version = 1, exportSchema = false)
+    @Database(entities = [User::class, Item::class, Tag::class], version = 1,
+        exportSchema = false)
     abstract class TestDatabase : RoomDatabase() {
         abstract fun getUserDao(): UserDao
     }
@@ -109,6 +151,9 @@ class RelationBenchmark(private val parentSampleSize: Int, private val childSamp
     @Entity
     data class Item(@PrimaryKey val id: Int, val ownerId: Int)
 
+    @Entity
+    data class Tag(@PrimaryKey val id: Int, val ownerId: Int, val label: String)
+
     data class UserWithItems(
         @Embedded
         val user: User,
@@ -117,6 +162,17 @@ class RelationBenchmark(private val parentSampleSize: Int, private val childSamp
         val items: List<Item>
     )
 
+    data class UserWithItemsAndTags(
+        @Embedded
+        val user: User,
+
+        @Relation(parentColumn = "id", entityColumn = "ownerId")
+        val items: List<Item>,
+
+        @Relation(parentColumn = "id", entityColumn = "ownerId")
+        val tags: List<Tag>
+    )
+
     @Dao
     interface UserDao {
         @Insert
@@ -125,7 +181,13 @@ class RelationBenchmark(private val parentSampleSize: Int, private val childSamp
         @Insert
         fun insertItems(item: List<Item>)
 
+        @Insert
+        fun insertTags(tag: List<Tag>)
+
         @Query("SELECT * FROM User")
         fun getUserWithItems(): List<UserWithItems>
+
+        @Query("SELECT * FROM User")
+        fun getUserWithItemsAndTags(): List<UserWithItemsAndTags>
     }
 }
\ No newline at end of file
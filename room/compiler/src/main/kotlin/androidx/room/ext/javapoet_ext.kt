@@ -87,6 +87,8 @@ object RoomTypeNames {
             ClassName.get("$ROOM_PACKAGE.util", "ViewInfo")
     val LIMIT_OFFSET_DATA_SOURCE: ClassName =
             ClassName.get("$ROOM_PACKAGE.paging", "LimitOffsetDataSource")
+    val KEYSET_DATA_SOURCE: ClassName =
+            ClassName.get("$ROOM_PACKAGE.paging", "KeysetDataSource")
     val DB_UTIL: ClassName =
             ClassName.get("$ROOM_PACKAGE.util", "DBUtil")
     val CURSOR_UTIL: ClassName =
@@ -215,6 +217,18 @@ fun CallableTypeSpecBuilder(
     }.build())
 }
 
+fun RunnableTypeSpecBuilder(
+    runBody: MethodSpec.Builder.() -> Unit
+) = TypeSpec.anonymousClassBuilder("").apply {
+    addSuperinterface(Runnable::class.typeName())
+    addMethod(MethodSpec.methodBuilder("run").apply {
+        returns(TypeName.VOID)
+        addModifiers(Modifier.PUBLIC)
+        addAnnotation(Override::class.java)
+        runBody()
+    }.build())
+}
+
 fun Function1TypeSpecBuilder(
     parameterTypeName: TypeName,
     parameterName: String,
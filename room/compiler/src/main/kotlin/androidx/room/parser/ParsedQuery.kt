@@ -37,13 +37,24 @@ data class Section(val text: String, val type: SectionType) {
 }
 
 data class Table(val name: String, val alias: String)
+
+/**
+ * A column a select query is ordered by, with the name or alias of the [table] it is qualified
+ * with, if any.
+ */
+data class OrderingTerm(val column: String, val descending: Boolean, val table: String? = null)
+
 data class ParsedQuery(
     val original: String,
     val type: QueryType,
     val inputs: List<TerminalNode>,
     val tables: Set<Table>, // pairs of table name and alias
     val syntaxErrors: List<String>,
-    val runtimeQueryPlaceholder: Boolean
+    val runtimeQueryPlaceholder: Boolean,
+    // columns of an ORDER BY clause made of column names only, empty for other queries.
+    val orderingTerms: List<OrderingTerm> = emptyList(),
+    // true for select queries without a `*` result column, whose columns have fixed positions.
+    val explicitResultColumns: Boolean = false
 ) {
     companion object {
         val STARTS_WITH_NUMBER = "^\\?[0-9]".toRegex()
@@ -38,11 +38,23 @@ class QueryVisitor(
     private val tableNames = mutableSetOf<Table>()
     private val withClauseNames = mutableSetOf<String>()
     private val queryType: QueryType
+    private val orderingTerms: List<OrderingTerm>
+    private val explicitResultColumns: Boolean
 
     init {
         queryType = (0 until statement.childCount).map {
             findQueryType(statement.getChild(it))
         }.filterNot { it == QueryType.UNKNOWN }.firstOrNull() ?: QueryType.UNKNOWN
+        orderingTerms = (0 until statement.childCount).map {
+            statement.getChild(it)
+        }.filterIsInstance<SQLiteParser.Select_stmtContext>().firstOrNull()?.let {
+            findOrderingTerms(it)
+        } ?: emptyList()
+        explicitResultColumns = (0 until statement.childCount).map {
+            statement.getChild(it)
+        }.filterIsInstance<SQLiteParser.Select_stmtContext>().firstOrNull()?.let {
+            hasExplicitResultColumns(it)
+        } ?: false
         statement.accept(this)
     }
 
@@ -66,6 +78,63 @@ class QueryVisitor(
         }
     }
 
+    /**
+     * Returns the terms of the ORDER BY clause of the select statement if they all are column
+     * names, without a collation, and the result is neither limited nor compound. A column
+     * qualified with a table must not share its name with a result column aliasing another one.
+     */
+    private fun findOrderingTerms(select: SQLiteParser.Select_stmtContext): List<OrderingTerm> {
+        val orderClause = select.order_clause()
+        if (orderClause == null || select.limit_clause() != null ||
+            select.compound_operator().isNotEmpty()
+        ) {
+            return emptyList()
+        }
+        val resultColumns = select.select_or_values().flatMap { it.result_column() }
+        return orderClause.ordering_term().map { term ->
+            val columnName = term.expr().column_name()
+            if (columnName == null || term.collation_name() != null) {
+                return emptyList()
+            }
+            val column = unescapeIdentifier(columnName.text)
+            val table = term.expr().table_name()?.let { unescapeIdentifier(it.text) }
+            if (table != null && resultColumns.any { isAliasOfOtherColumn(it, column) }) {
+                return emptyList()
+            }
+            OrderingTerm(
+                column = column,
+                descending = term.K_DESC() != null,
+                table = table
+            )
+        }
+    }
+
+    /**
+     * Returns true if the result column is named [column] with an alias, but is not that column.
+     */
+    private fun isAliasOfOtherColumn(
+        resultColumn: SQLiteParser.Result_columnContext,
+        column: String
+    ): Boolean {
+        val alias = resultColumn.column_alias() ?: return false
+        if (!unescapeIdentifier(alias.text).equals(column, ignoreCase = true)) {
+            return false
+        }
+        val columnName = resultColumn.expr()?.column_name() ?: return true
+        return !unescapeIdentifier(columnName.text).equals(column, ignoreCase = true)
+    }
+
+    /**
+     * Returns true if none of the result columns of the select statement is a `*` or `table.*`
+     * wildcard, in which case the position of each column in the result does not depend on the
+     * schema of the tables.
+     */
+    private fun hasExplicitResultColumns(select: SQLiteParser.Select_stmtContext): Boolean {
+        return select.select_or_values().all { selectOrValues ->
+            selectOrValues.result_column().all { it.expr() != null }
+        }
+    }
+
     override fun visitExpr(ctx: SQLiteParser.ExprContext): Void? {
         val bindParameter = ctx.BIND_PARAMETER()
         if (bindParameter != null) {
@@ -81,7 +150,9 @@ class QueryVisitor(
             inputs = bindingExpressions.sortedBy { it.sourceInterval.a },
             tables = tableNames,
             syntaxErrors = syntaxErrors,
-            runtimeQueryPlaceholder = forRuntimeQuery
+            runtimeQueryPlaceholder = forRuntimeQuery,
+            orderingTerms = orderingTerms,
+            explicitResultColumns = explicitResultColumns
         )
     }
 
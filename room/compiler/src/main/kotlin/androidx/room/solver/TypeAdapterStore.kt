@@ -452,7 +452,8 @@ class TypeAdapterStore private constructor(
                             context = subContext,
                             info = resultInfo,
                             pojo = pojo,
-                            out = typeMirror)
+                            out = typeMirror,
+                            fixedColumnPositions = query.explicitResultColumns)
                 }
             } else {
                 Pair(null, null)
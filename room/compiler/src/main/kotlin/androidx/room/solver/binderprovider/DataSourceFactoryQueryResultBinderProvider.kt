@@ -47,7 +47,11 @@ class DataSourceFactoryQueryResultBinderProvider(val context: Context) : QueryRe
 
         val tableNames = ((adapter?.accessedTableNames() ?: emptyList()) +
                 query.tables.map { it.name }).toSet()
-        val countedBinder = PositionalDataSourceQueryResultBinder(adapter, tableNames)
+        val countedBinder = PositionalDataSourceQueryResultBinder(
+            adapter,
+            tableNames,
+            PositionalDataSourceQueryResultBinder.findKeysetOrderingTerms(query, adapter)
+        )
         return DataSourceFactoryQueryResultBinder(countedBinder)
     }
 
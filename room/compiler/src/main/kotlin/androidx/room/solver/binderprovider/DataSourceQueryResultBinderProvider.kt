@@ -49,7 +49,11 @@ class DataSourceQueryResultBinderProvider(val context: Context) : QueryResultBin
         }
         val tableNames = ((listAdapter?.accessedTableNames() ?: emptyList()) +
                 query.tables.map { it.name }).toSet()
-        return PositionalDataSourceQueryResultBinder(listAdapter, tableNames)
+        return PositionalDataSourceQueryResultBinder(
+            listAdapter,
+            tableNames,
+            PositionalDataSourceQueryResultBinder.findKeysetOrderingTerms(query, listAdapter)
+        )
     }
 
     override fun matches(declared: DeclaredType): Boolean {
@@ -49,7 +49,11 @@ class PagingSourceQueryResultBinderProvider(val context: Context) : QueryResultB
         val tableNames = ((listAdapter?.accessedTableNames() ?: emptyList()) +
                 query.tables.map { it.name }).toSet()
         return PagingSourceQueryResultBinder(
-            PositionalDataSourceQueryResultBinder(listAdapter, tableNames)
+            PositionalDataSourceQueryResultBinder(
+                listAdapter,
+                tableNames,
+                PositionalDataSourceQueryResultBinder.findKeysetOrderingTerms(query, listAdapter)
+            )
         )
     }
 
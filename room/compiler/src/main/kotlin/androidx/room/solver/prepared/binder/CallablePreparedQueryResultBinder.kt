@@ -48,7 +48,7 @@ class CallablePreparedQueryResultBinder private constructor(
 
     override fun executeAndReturn(
         prepareQueryStmtBlock: CodeGenScope.() -> String,
-        preparedStmtField: String?,
+        releaseQueryStmtBlock: CodeGenScope.(stmtVar: String) -> Unit,
         dbField: FieldSpec,
         scope: CodeGenScope
     ) {
@@ -56,7 +56,7 @@ class CallablePreparedQueryResultBinder private constructor(
         val callableImpl = CallableTypeSpecBuilder(returnType.typeName()) {
             adapter?.executeAndReturn(
                 binderScope.prepareQueryStmtBlock(),
-                preparedStmtField,
+                releaseQueryStmtBlock,
                 dbField,
                 binderScope)
             addCode(binderScope.generate())
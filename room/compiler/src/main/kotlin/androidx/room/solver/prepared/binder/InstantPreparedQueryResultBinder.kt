@@ -30,7 +30,7 @@ class InstantPreparedQueryResultBinder(adapter: PreparedQueryResultAdapter?) :
 
     override fun executeAndReturn(
         prepareQueryStmtBlock: CodeGenScope.() -> String,
-        preparedStmtField: String?,
+        releaseQueryStmtBlock: CodeGenScope.(stmtVar: String) -> Unit,
         dbField: FieldSpec,
         scope: CodeGenScope
     ) {
@@ -39,7 +39,7 @@ class InstantPreparedQueryResultBinder(adapter: PreparedQueryResultAdapter?) :
         }
         adapter?.executeAndReturn(
             stmtQueryVal = scope.prepareQueryStmtBlock(),
-            preparedStmtField = preparedStmtField,
+            releaseQueryStmtBlock = releaseQueryStmtBlock,
             dbField = dbField,
             scope = scope)
     }
@@ -30,11 +30,12 @@ import com.squareup.javapoet.FieldSpec
 abstract class PreparedQueryResultBinder(val adapter: PreparedQueryResultAdapter?) {
     /**
      * Receives a function that will prepare the query in a given scope to then generate the code
-     * that runs the query and returns the result.
+     * that runs the query and returns the result, and a function that generates the code handing
+     * the statement back once the query ran.
      */
     abstract fun executeAndReturn(
         prepareQueryStmtBlock: CodeGenScope.() -> String,
-        preparedStmtField: String?, // null when the query is not shared
+        releaseQueryStmtBlock: CodeGenScope.(stmtVar: String) -> Unit,
         dbField: FieldSpec,
         scope: CodeGenScope
     )
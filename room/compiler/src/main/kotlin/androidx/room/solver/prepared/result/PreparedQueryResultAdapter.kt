@@ -65,7 +65,7 @@ class PreparedQueryResultAdapter(
 
     fun executeAndReturn(
         stmtQueryVal: String,
-        preparedStmtField: String?,
+        releaseQueryStmtBlock: CodeGenScope.(stmtVar: String) -> Unit,
         dbField: FieldSpec,
         scope: CodeGenScope
     ) {
@@ -97,9 +97,7 @@ class PreparedQueryResultAdapter(
             }
             nextControlFlow("finally").apply {
                 addStatement("$N.endTransaction()", dbField)
-                if (preparedStmtField != null) {
-                    addStatement("$N.release($L)", preparedStmtField, stmtQueryVal)
-                }
+                scope.releaseQueryStmtBlock(stmtQueryVal)
             }
             endControlFlow()
         }
@@ -17,19 +17,46 @@
 package androidx.room.solver.query.result
 
 import androidx.room.ext.L
+import androidx.room.ext.RoomTypeNames
 import androidx.room.ext.T
 import androidx.room.ext.typeName
 import androidx.room.solver.CodeGenScope
+import androidx.room.solver.types.PrimitiveColumnTypeAdapter
 import com.squareup.javapoet.ArrayTypeName
 import com.squareup.javapoet.TypeName
 
 class ArrayQueryResultAdapter(rowAdapter: RowAdapter) : QueryResultAdapter(rowAdapter) {
     val type = rowAdapter.out
+
+    /**
+     * The [androidx.room.util.CursorUtil] method reading the whole column into the array when the
+     * array is of long, int or double values read without conversion, null otherwise.
+     */
+    private val bulkReadMethod = (rowAdapter as? SingleColumnRowAdapter)?.reader?.let { reader ->
+        if (reader is PrimitiveColumnTypeAdapter && reader.cast.isEmpty()) {
+            when (type.typeName()) {
+                TypeName.LONG -> "readLongColumn"
+                TypeName.INT -> "readIntColumn"
+                TypeName.DOUBLE -> "readDoubleColumn"
+                else -> null
+            }
+        } else {
+            null
+        }
+    }
+
     override fun convert(outVarName: String, cursorVarName: String, scope: CodeGenScope) {
         scope.builder().apply {
             rowAdapter?.onCursorReady(cursorVarName, scope)
 
             val arrayType = ArrayTypeName.of(type.typeName())
+            if (bulkReadMethod != null) {
+                addStatement("final $T $L = $T.$L($L, 0)",
+                        arrayType, outVarName, RoomTypeNames.CURSOR_UTIL, bulkReadMethod,
+                        cursorVarName)
+                rowAdapter?.onCursorFinished()?.invoke(scope)
+                return
+            }
             addStatement("final $T $L = new $T[$L.getCount()]",
                     arrayType, outVarName, type.typeName(), cursorVarName)
             val tmpVarName = scope.getTmpVar("_item")
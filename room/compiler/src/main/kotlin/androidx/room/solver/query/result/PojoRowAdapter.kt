@@ -39,12 +39,17 @@ import javax.lang.model.type.TypeMirror
  * Creates the entity from the given info.
  * <p>
  * The info comes from the query processor so we know about the order of columns in the result etc.
+ * <p>
+ * When [fixedColumnPositions] is true, the query lists its result columns explicitly so their
+ * positions in the cursor are the ones in the info, and the column indices are written as
+ * constants instead of being looked up by name for each query.
  */
 class PojoRowAdapter(
     context: Context,
     private val info: QueryResultInfo?,
     val pojo: Pojo,
-    out: TypeMirror
+    out: TypeMirror,
+    private val fixedColumnPositions: Boolean = false
 ) : RowAdapter(out) {
     val mapping: Mapping
     val relationCollectors: List<RelationCollector>
@@ -115,20 +120,44 @@ class PojoRowAdapter(
         }.distinct()
     }
 
+    /**
+     * Returns the position of the column of each matched field in the result, or null if they
+     * cannot be known at compile time and must be looked up by name.
+     */
+    private fun findColumnPositions(): List<Int>? {
+        if (info == null || !fixedColumnPositions) {
+            return null
+        }
+        val columnNames = info.columns.map { it.name }
+        if (columnNames.distinct().size != columnNames.size) {
+            // the cursor would resolve a duplicate name to only one of the columns.
+            return null
+        }
+        return mapping.matchedFields.map { columnNames.indexOf(it.columnName) }
+    }
+
     override fun onCursorReady(cursorVarName: String, scope: CodeGenScope) {
-        mapping.fieldsWithIndices = mapping.matchedFields.map {
-            val indexVar = scope.getTmpVar("_cursorIndexOf${it.name.stripNonJava().capitalize()}")
-            val indexMethod = if (info == null) {
-                "getColumnIndex"
+        val columnPositions = findColumnPositions()
+        mapping.fieldsWithIndices = mapping.matchedFields.mapIndexed { index, field ->
+            val indexVar = scope.getTmpVar(
+                "_cursorIndexOf${field.name.stripNonJava().capitalize()}")
+            if (columnPositions != null) {
+                scope.builder().addStatement(
+                    "final $T $L = $L", TypeName.INT, indexVar, columnPositions[index]
+                )
             } else {
-                "getColumnIndexOrThrow"
+                val indexMethod = if (info == null) {
+                    "getColumnIndex"
+                } else {
+                    "getColumnIndexOrThrow"
+                }
+                scope.builder().addStatement(
+                    "final $T $L = $T.$L($L, $S)",
+                    TypeName.INT, indexVar, RoomTypeNames.CURSOR_UTIL, indexMethod, cursorVarName,
+                    field.columnName
+                )
             }
-            scope.builder().addStatement(
-                "final $T $L = $T.$L($L, $S)",
-                TypeName.INT, indexVar, RoomTypeNames.CURSOR_UTIL, indexMethod, cursorVarName,
-                it.columnName
-            )
-            FieldWithIndex(field = it, indexVar = indexVar, alwaysExists = info != null)
+            FieldWithIndex(field = field, indexVar = indexVar, alwaysExists = info != null)
         }
         if (relationCollectors.isNotEmpty()) {
             relationCollectors.forEach { it.writeInitCode(scope) }
@@ -141,7 +170,7 @@ class PojoRowAdapter(
                 endControlFlow()
             }
             scope.builder().addStatement("$L.moveToPosition(-1)", cursorVarName)
-            relationCollectors.forEach { it.writeCollectionCode(scope) }
+            RelationCollector.writeCollectionCode(relationCollectors, scope)
         }
     }
 
@@ -21,8 +21,16 @@ import androidx.room.ext.CommonTypeNames
 import androidx.room.ext.L
 import androidx.room.ext.N
 import androidx.room.ext.RoomTypeNames
+import androidx.room.ext.S
+import androidx.room.ext.T
 import androidx.room.ext.typeName
+import androidx.room.parser.Collate
+import androidx.room.parser.OrderingTerm
+import androidx.room.parser.ParsedQuery
 import androidx.room.solver.CodeGenScope
+import androidx.room.verifier.ColumnInfo
+import com.squareup.javapoet.ArrayTypeName
+import com.squareup.javapoet.CodeBlock
 import com.squareup.javapoet.FieldSpec
 import com.squareup.javapoet.MethodSpec
 import com.squareup.javapoet.ParameterSpec
@@ -31,13 +39,24 @@ import com.squareup.javapoet.TypeName
 import com.squareup.javapoet.TypeSpec
 import javax.lang.model.element.Modifier
 
+/**
+ * Creates a LimitOffsetDataSource, or a KeysetDataSource when the query is ordered by
+ * [orderingTerms].
+ */
 class PositionalDataSourceQueryResultBinder(
     val listAdapter: ListQueryResultAdapter?,
-    val tableNames: Set<String>
+    val tableNames: Set<String>,
+    val orderingTerms: List<OrderingTerm>
 ) : QueryResultBinder(listAdapter) {
     val itemTypeName: TypeName = listAdapter?.rowAdapter?.out?.typeName() ?: TypeName.OBJECT
     val typeName: ParameterizedTypeName = ParameterizedTypeName.get(
-            RoomTypeNames.LIMIT_OFFSET_DATA_SOURCE, itemTypeName)
+        if (orderingTerms.isEmpty()) {
+            RoomTypeNames.LIMIT_OFFSET_DATA_SOURCE
+        } else {
+            RoomTypeNames.KEYSET_DATA_SOURCE
+        },
+        itemTypeName
+    )
     override fun convertAndReturn(
         roomSQLiteQueryVar: String,
         canReleaseQuery: Boolean,
@@ -49,8 +68,23 @@ class PositionalDataSourceQueryResultBinder(
         // we don't need a comma. If list is empty, this prevents generating bad code (it is still
         // an error to have empty list but that is already reported while item is processed)
         val tableNamesList = tableNames.joinToString("") { ", \"$it\"" }
-        val spec = TypeSpec.anonymousClassBuilder("$N, $L, $L $L",
-                dbField, roomSQLiteQueryVar, inTransaction, tableNamesList).apply {
+        val keyArgs = if (orderingTerms.isEmpty()) {
+            CodeBlock.of("")
+        } else {
+            CodeBlock.builder().apply {
+                add(", new $T {", ArrayTypeName.of(String::class.java))
+                orderingTerms.forEachIndexed { index, term ->
+                    add(if (index == 0) "$S" else ", $S", term.column)
+                }
+                add("}, new $T {", ArrayTypeName.of(TypeName.BOOLEAN))
+                orderingTerms.forEachIndexed { index, term ->
+                    add(if (index == 0) "$L" else ", $L", term.descending)
+                }
+                add("}")
+            }.build()
+        }
+        val spec = TypeSpec.anonymousClassBuilder("$N, $L, $L$L $L",
+                dbField, roomSQLiteQueryVar, inTransaction, keyArgs, tableNamesList).apply {
             superclass(typeName)
             addMethod(createConvertRowsMethod(scope))
         }.build()
@@ -73,4 +107,52 @@ class PositionalDataSourceQueryResultBinder(
                 addCode(rowsScope.builder().build())
                 addStatement("return $L", resultVar)
             }.build()
+
+    companion object {
+        /**
+         * Returns the columns the query is ordered by if its pages can be loaded by seeking past
+         * their values, which needs each of them to be a single column of the result that is
+         * compared without a collation.
+         */
+        fun findKeysetOrderingTerms(
+            query: ParsedQuery,
+            listAdapter: ListQueryResultAdapter?
+        ): List<OrderingTerm> {
+            val terms = query.orderingTerms
+            val resultColumns = query.resultInfo?.columns
+            val fields = (listAdapter?.rowAdapter as? PojoRowAdapter)?.pojo?.fields
+            val usable = terms.all { term ->
+                isSingleResultColumn(query, resultColumns, term) &&
+                        fields?.none {
+                            it.columnName == term.column &&
+                                    it.collate != null && it.collate != Collate.BINARY
+                        } ?: true
+            }
+            return if (usable) terms else emptyList()
+        }
+
+        /**
+         * Returns true if the term is a single column of the result. The result column of a term
+         * qualified with a table has to be read from that table, which can only be told when the
+         * query was verified and the table is in the query once.
+         */
+        private fun isSingleResultColumn(
+            query: ParsedQuery,
+            resultColumns: List<ColumnInfo>?,
+            term: OrderingTerm
+        ): Boolean {
+            if (term.table == null) {
+                return resultColumns == null || resultColumns.count { it.name == term.column } == 1
+            }
+            val table = query.tables.singleOrNull {
+                it.alias.equals(term.table, ignoreCase = true)
+            } ?: return false
+            if (query.tables.count { it.name.equals(table.name, ignoreCase = true) } != 1) {
+                return false
+            }
+            val resultColumn = resultColumns?.singleOrNull { it.name == term.column }
+                ?: return false
+            return table.name.equals(resultColumn.originTable, ignoreCase = true)
+        }
+    }
 }
@@ -20,5 +20,11 @@ import androidx.room.parser.SQLTypeAffinity
 
 /**
  * Represents a column in a query response
+ *
+ * [originTable] is the table the column is read from, or null if it is computed by an expression.
  */
-data class ColumnInfo(val name: String, val type: SQLTypeAffinity)
+data class ColumnInfo(
+    val name: String,
+    val type: SQLTypeAffinity,
+    val originTable: String? = null
+)
@@ -56,7 +56,18 @@ private fun PreparedStatement.tryGetAffinity(columnIndex: Int): SQLTypeAffinity
     }
 }
 
+private fun PreparedStatement.tryGetOriginTable(columnIndex: Int): String? {
+    return try {
+        // empty for a column computed by an expression
+        metaData.getTableName(columnIndex)?.takeIf { it.isNotEmpty() }
+    } catch (ex: SQLException) {
+        null
+    }
+}
+
 internal fun PreparedStatement.columnInfo(): List<ColumnInfo> {
     // see: http://sqlite.1065341.n5.nabble.com/Column-order-in-resultset-td23127.html
-    return map { index, data -> ColumnInfo(data.getColumnName(index), tryGetAffinity(index)) }
+    return map { index, data ->
+        ColumnInfo(data.getColumnName(index), tryGetAffinity(index), tryGetOriginTable(index))
+    }
 }
@@ -20,6 +20,8 @@ import androidx.room.ext.CollectionTypeNames
 import androidx.room.ext.CommonTypeNames
 import androidx.room.ext.L
 import androidx.room.ext.N
+import androidx.room.ext.RoomTypeNames
+import androidx.room.ext.RunnableTypeSpecBuilder
 import androidx.room.ext.T
 import androidx.room.ext.asDeclaredType
 import androidx.room.ext.findTypeElement
@@ -39,6 +41,7 @@ import androidx.room.solver.query.parameter.QueryParameterAdapter
 import androidx.room.solver.query.result.RowAdapter
 import androidx.room.solver.query.result.SingleColumnRowAdapter
 import androidx.room.verifier.DatabaseVerificationErrors
+import androidx.room.writer.DaoWriter
 import androidx.room.writer.QueryWriter
 import androidx.room.writer.RelationCollectorMethodWriter
 import com.squareup.javapoet.ClassName
@@ -222,6 +225,27 @@ data class RelationCollector(
         private val LONG_SPARSE_ARRAY_KEY_QUERY_PARAM_ADAPTER =
                 LongSparseArrayKeyQueryParameterAdapter()
 
+        /**
+         * Writes the code fetching the relations of the given collectors. When there are several
+         * of them, they are fetched with [androidx.room.util.DBUtil.runConcurrently] since they
+         * are independent of each other and fill different maps.
+         */
+        fun writeCollectionCode(collectors: List<RelationCollector>, scope: CodeGenScope) {
+            if (collectors.size < 2) {
+                collectors.forEach { it.writeCollectionCode(scope) }
+                return
+            }
+            val tasks = collectors.map { collector ->
+                val method = scope.writer
+                    .getOrCreateMethod(RelationCollectorMethodWriter(collector))
+                CodeBlock.of("$L", RunnableTypeSpecBuilder {
+                    addStatement("$N($L)", method, collector.varName)
+                }.build())
+            }
+            scope.builder().addStatement("$T.runConcurrently($N, $L)",
+                RoomTypeNames.DB_UTIL, DaoWriter.dbField, CodeBlock.join(tasks, ", "))
+        }
+
         fun createCollectors(
             baseContext: Context,
             relations: List<Relation>
@@ -173,7 +173,9 @@ class DaoWriter(
                 queryWriter.bindArgs(stmtName, emptyList(), this)
                 stmtName
             },
-            preparedStmtField = preparedStmtField.name,
+            releaseQueryStmtBlock = { stmtName ->
+                builder().addStatement("$N.release($L)", preparedStmtField, stmtName)
+            },
             dbField = dbField,
             scope = scope)
         return overrideWithoutAnnotations(method.element, declaredDao)
@@ -398,22 +400,26 @@ class DaoWriter(
 
     private fun createPreparedQueryMethodBody(method: WriteQueryMethod): CodeBlock {
         val scope = CodeGenScope(this)
+        // the SQL depends on the size of the list arguments, statements are cached per SQL
+        lateinit var sqlVar: String
         method.preparedQueryResultBinder.executeAndReturn(
             prepareQueryStmtBlock = {
                 val queryWriter = QueryWriter(method)
-                val sqlVar = getTmpVar("_sql")
+                sqlVar = getTmpVar("_sql")
                 val stmtVar = getTmpVar("_stmt")
                 val listSizeArgs = queryWriter.prepareQuery(sqlVar, this)
                 builder().apply {
                     addStatement(
-                        "final $T $L = $N.compileStatement($L)",
+                        "final $T $L = $N.acquireStatement($L)",
                         SupportDbTypeNames.SQLITE_STMT, stmtVar, dbField, sqlVar
                     )
                 }
                 queryWriter.bindArgs(stmtVar, listSizeArgs, this)
                 stmtVar
             },
-            preparedStmtField = null,
+            releaseQueryStmtBlock = { stmtVar ->
+                builder().addStatement("$N.releaseStatement($L, $L)", dbField, sqlVar, stmtVar)
+            },
             dbField = dbField,
             scope = scope)
         return scope.generate()
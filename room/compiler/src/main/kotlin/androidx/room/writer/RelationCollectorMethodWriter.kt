@@ -102,11 +102,20 @@ class RelationCollectorMethodWriter(private val collector: RelationCollector) :
             addStatement("// check if the size is too big, if so divide")
             beginControlFlow("if($N.size() > $T.MAX_BIND_PARAMETER_CNT)",
                     param, RoomTypeNames.ROOM_DB).apply {
-                // divide it into chunks
+                // divide it into the fewest chunks, all of about the same size rather than full
+                // chunks followed by a small one, so that their queries are alike.
+                val chunkCountVar = scope.getTmpVar("_chunkCount")
+                val chunkSizeVar = scope.getTmpVar("_chunkSize")
+                addStatement("final $T $L = ($N.size() + $T.MAX_BIND_PARAMETER_CNT - 1) / " +
+                        "$T.MAX_BIND_PARAMETER_CNT",
+                        TypeName.INT, chunkCountVar, param, RoomTypeNames.ROOM_DB,
+                        RoomTypeNames.ROOM_DB)
+                addStatement("final $T $L = ($N.size() + $L - 1) / $L",
+                        TypeName.INT, chunkSizeVar, param, chunkCountVar, chunkCountVar)
                 val tmpMapVar = scope.getTmpVar("_tmpInnerMap")
-                addStatement("$T $L = new $T($L.MAX_BIND_PARAMETER_CNT)",
+                addStatement("$T $L = new $T($L)",
                         collector.mapTypeName, tmpMapVar,
-                        collector.mapTypeName, RoomTypeNames.ROOM_DB)
+                        collector.mapTypeName, chunkSizeVar)
                 val tmpIndexVar = scope.getTmpVar("_tmpIndex")
                 addStatement("$T $L = 0", TypeName.INT, tmpIndexVar)
                 if (usingLongSparseArray || usingArrayMap) {
@@ -137,8 +146,7 @@ class RelationCollectorMethodWriter(private val collector: RelationCollector) :
                     }
                 }.apply {
                     addStatement("$L++", tmpIndexVar)
-                    beginControlFlow("if($L == $T.MAX_BIND_PARAMETER_CNT)",
-                        tmpIndexVar, RoomTypeNames.ROOM_DB).apply {
+                    beginControlFlow("if($L == $L)", tmpIndexVar, chunkSizeVar).apply {
                         // recursively load that batch
                         addStatement("$L($L)", methodName, tmpMapVar)
                         // for non collection relation, put the loaded batch in the original map,
@@ -147,8 +155,8 @@ class RelationCollectorMethodWriter(private val collector: RelationCollector) :
                             addBatchPutAllStatement(tmpMapVar)
                         }
                         // clear nukes the backing data hence we create a new one
-                        addStatement("$L = new $T($T.MAX_BIND_PARAMETER_CNT)",
-                            tmpMapVar, collector.mapTypeName, RoomTypeNames.ROOM_DB)
+                        addStatement("$L = new $T($L)",
+                            tmpMapVar, collector.mapTypeName, chunkSizeVar)
                         addStatement("$L = 0", tmpIndexVar)
                     }.endControlFlow()
                 }.endControlFlow()
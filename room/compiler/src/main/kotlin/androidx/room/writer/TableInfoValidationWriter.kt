@@ -103,9 +103,13 @@ class TableInfoValidationWriter(val entity: Entity) : ValidationWriter() {
                     entity.tableName, columnListVar, foreignKeySetVar, indicesSetVar)
 
             val existingVar = scope.getTmpVar("_existing$suffix")
-            addStatement("final $T $L = $T.read($N, $S)",
+            // the table is only read if it was not created by the same statements.
+            val createQueries = listOf(entity.createTableQuery) +
+                    entity.indices.map { it.createQuery(entity.tableName) }
+            val createQueryArgs = ", $S".repeat(createQueries.size)
+            addStatement("final $T $L = $T.readIfChanged($N, $L$createQueryArgs)",
                     RoomTypeNames.TABLE_INFO, existingVar, RoomTypeNames.TABLE_INFO,
-                    dbParam, entity.tableName)
+                    dbParam, expectedInfoVar, *createQueries.toTypedArray())
 
             beginControlFlow("if (! $L.equals($L))", expectedInfoVar, existingVar).apply {
                 addStatement("return new $T(false, $S + $L + $S + $L)",
@@ -93,7 +93,7 @@ public final class ComplexDatabase_Impl extends ComplexDatabase {
                 final HashSet<TableInfo.ForeignKey> _foreignKeysUser = new HashSet<TableInfo.ForeignKey>(0);
                 final HashSet<TableInfo.Index> _indicesUser = new HashSet<TableInfo.Index>(0);
                 final TableInfo _infoUser = new TableInfo("User", _columnsUser, _foreignKeysUser, _indicesUser);
-                final TableInfo _existingUser = TableInfo.read(_db, "User");
+                final TableInfo _existingUser = TableInfo.readIfChanged(_db, _infoUser, "CREATE TABLE IF NOT EXISTS `User` (`uid` INTEGER NOT NULL, `name` TEXT, `lastName` TEXT, `ageColumn` INTEGER NOT NULL, PRIMARY KEY(`uid`))");
                 if (! _infoUser.equals(_existingUser)) {
                     return new RoomOpenHelper.ValidationResult(false, "User(foo.bar.User).\n"
                             + " Expected:\n" + _infoUser + "\n"
@@ -107,7 +107,7 @@ public final class ComplexDatabase_Impl extends ComplexDatabase {
                 final HashSet<TableInfo.ForeignKey> _foreignKeysChild1 = new HashSet<TableInfo.ForeignKey>(0);
                 final HashSet<TableInfo.Index> _indicesChild1 = new HashSet<TableInfo.Index>(0);
                 final TableInfo _infoChild1 = new TableInfo("Child1", _columnsChild1, _foreignKeysChild1, _indicesChild1);
-                final TableInfo _existingChild1 = TableInfo.read(_db, "Child1");
+                final TableInfo _existingChild1 = TableInfo.readIfChanged(_db, _infoChild1, "CREATE TABLE IF NOT EXISTS `Child1` (`id` INTEGER NOT NULL, `name` TEXT, `serial` INTEGER, `code` TEXT, PRIMARY KEY(`id`))");
                 if (! _infoChild1.equals(_existingChild1)) {
                     return new RoomOpenHelper.ValidationResult(false, "Child1(foo.bar.Child1).\n"
                             + " Expected:\n" + _infoChild1 + "\n"
@@ -121,7 +121,7 @@ public final class ComplexDatabase_Impl extends ComplexDatabase {
                 final HashSet<TableInfo.ForeignKey> _foreignKeysChild2 = new HashSet<TableInfo.ForeignKey>(0);
                 final HashSet<TableInfo.Index> _indicesChild2 = new HashSet<TableInfo.Index>(0);
                 final TableInfo _infoChild2 = new TableInfo("Child2", _columnsChild2, _foreignKeysChild2, _indicesChild2);
-                final TableInfo _existingChild2 = TableInfo.read(_db, "Child2");
+                final TableInfo _existingChild2 = TableInfo.readIfChanged(_db, _infoChild2, "CREATE TABLE IF NOT EXISTS `Child2` (`id` INTEGER NOT NULL, `name` TEXT, `serial` INTEGER, `code` TEXT, PRIMARY KEY(`id`))");
                 if (! _infoChild2.equals(_existingChild2)) {
                     return new RoomOpenHelper.ValidationResult(false, "Child2(foo.bar.Child2).\n"
                             + " Expected:\n" + _infoChild2 + "\n"
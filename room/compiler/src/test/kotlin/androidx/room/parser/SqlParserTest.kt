@@ -185,6 +185,104 @@ class SqlParserTest {
         )
     }
 
+    @Test
+    fun orderingTerms() {
+        assertThat(
+            SqlParser.parse("select * from users order by name, `id` DESC").orderingTerms,
+            `is`(listOf(OrderingTerm("name", false), OrderingTerm("id", true)))
+        )
+        assertThat(
+            SqlParser.parse("select * from users u order by u.name asc").orderingTerms,
+            `is`(listOf(OrderingTerm("name", false, "u")))
+        )
+        assertThat(
+            SqlParser.parse("select u.name as name from users u order by u.name").orderingTerms,
+            `is`(listOf(OrderingTerm("name", false, "u")))
+        )
+        assertThat(
+            SqlParser.parse("select * from (select * from users order by id)").orderingTerms,
+            `is`(emptyList())
+        )
+    }
+
+    @Test
+    fun orderingTerms_qualifiedColumnShadowedByAlias() {
+        assertThat(
+            SqlParser.parse("select u.id as name from users u order by u.name").orderingTerms,
+            `is`(emptyList())
+        )
+        assertThat(
+            SqlParser.parse("select id, 'x' as name from users u order by u.name").orderingTerms,
+            `is`(emptyList())
+        )
+        // unqualified, the term is the result column
+        assertThat(
+            SqlParser.parse("select u.id as name from users u order by name").orderingTerms,
+            `is`(listOf(OrderingTerm("name", false)))
+        )
+    }
+
+    @Test
+    fun orderingTerms_notColumns() {
+        assertThat(
+            SqlParser.parse("select * from users order by name || id").orderingTerms,
+            `is`(emptyList())
+        )
+        assertThat(
+            SqlParser.parse("select * from users order by 1").orderingTerms,
+            `is`(emptyList())
+        )
+        assertThat(
+            SqlParser.parse("select * from users order by name collate nocase").orderingTerms,
+            `is`(emptyList())
+        )
+    }
+
+    @Test
+    fun orderingTerms_limitedOrCompound() {
+        assertThat(
+            SqlParser.parse("select * from users order by id limit 10").orderingTerms,
+            `is`(emptyList())
+        )
+        assertThat(
+            SqlParser.parse("select id from users union select id from books order by id")
+                .orderingTerms,
+            `is`(emptyList())
+        )
+    }
+
+    @Test
+    fun explicitResultColumns() {
+        assertThat(
+            SqlParser.parse("select id, name as n, age + 1 from users").explicitResultColumns,
+            `is`(true)
+        )
+        assertThat(
+            SqlParser.parse("select id from users union select id from books")
+                .explicitResultColumns,
+            `is`(true)
+        )
+        assertThat(
+            SqlParser.parse("select id from (select * from users)").explicitResultColumns,
+            `is`(true)
+        )
+    }
+
+    @Test
+    fun explicitResultColumns_wildcard() {
+        assertThat(SqlParser.parse("select * from users").explicitResultColumns, `is`(false))
+        assertThat(
+            SqlParser.parse("select u.*, b.id from users u, books b").explicitResultColumns,
+            `is`(false)
+        )
+        assertThat(
+            SqlParser.parse("select id from users union select * from books")
+                .explicitResultColumns,
+            `is`(false)
+        )
+        assertThat(SqlParser.parse("delete from users").explicitResultColumns, `is`(false))
+    }
+
     @Test
     fun unicodeInIdentifiers() {
         val query = SqlParser.parse("SELECT 名, 色 FROM 猫")
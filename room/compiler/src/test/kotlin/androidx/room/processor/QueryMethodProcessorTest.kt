@@ -31,6 +31,7 @@ import androidx.room.ext.getArrayType
 import androidx.room.ext.hasAnnotation
 import androidx.room.ext.requireTypeMirror
 import androidx.room.ext.typeName
+import androidx.room.parser.OrderingTerm
 import androidx.room.parser.QueryType
 import androidx.room.parser.Table
 import androidx.room.processor.ProcessorErrors.cannotFindQueryResultAdapter
@@ -560,6 +561,85 @@ class QueryMethodProcessorTest(val enableVerification: Boolean) {
         }.compilesWithoutError()
     }
 
+    @Test
+    fun testKeysetDataSourceFactoryQuery() {
+        singleQueryMethod<ReadQueryMethod>(
+                """
+                @Query("select name, uid from user order by name, uid desc")
+                abstract ${PagingTypeNames.DATA_SOURCE_FACTORY}<Integer, User>
+                userDataSourceFactory();
+                """
+        ) { parsedQuery, _ ->
+            val orderingTerms =
+                    (parsedQuery.queryResultBinder as DataSourceFactoryQueryResultBinder)
+                            .positionalDataSourceQueryResultBinder.orderingTerms
+            assertEquals(
+                listOf(OrderingTerm("name", false), OrderingTerm("uid", true)),
+                orderingTerms
+            )
+        }.compilesWithoutError()
+    }
+
+    @Test
+    fun testKeysetDataSourceFactoryQuery_orderColumnNotInResult() {
+        if (!enableVerification) {
+            return
+        }
+        singleQueryMethod<ReadQueryMethod>(
+                """
+                @Query("select name from user order by uid")
+                abstract ${PagingTypeNames.DATA_SOURCE_FACTORY}<Integer, String>
+                nameDataSourceFactory();
+                """
+        ) { parsedQuery, _ ->
+            val orderingTerms =
+                    (parsedQuery.queryResultBinder as DataSourceFactoryQueryResultBinder)
+                            .positionalDataSourceQueryResultBinder.orderingTerms
+            assertEquals(emptyList<OrderingTerm>(), orderingTerms)
+        }.compilesWithoutError()
+    }
+
+    @Test
+    fun testKeysetDataSourceFactoryQuery_join() {
+        singleQueryMethod<ReadQueryMethod>(
+                """
+                @Query("select u.name, u.uid from user u inner join book b on u.uid = b.uid"
+                        + " order by u.name, b.uid desc")
+                abstract ${PagingTypeNames.DATA_SOURCE_FACTORY}<Integer, User>
+                userDataSourceFactory();
+                """
+        ) { parsedQuery, _ ->
+            val orderingTerms =
+                    (parsedQuery.queryResultBinder as DataSourceFactoryQueryResultBinder)
+                            .positionalDataSourceQueryResultBinder.orderingTerms
+            // the result column uid is read from user, not from book
+            assertEquals(emptyList<OrderingTerm>(), orderingTerms)
+        }.compilesWithoutError()
+    }
+
+    @Test
+    fun testKeysetDataSourceFactoryQuery_joinOrderedByColumnsOfTheResult() {
+        singleQueryMethod<ReadQueryMethod>(
+                """
+                @Query("select u.name, u.uid from user u inner join book b on u.uid = b.uid"
+                        + " order by u.name, u.uid desc")
+                abstract ${PagingTypeNames.DATA_SOURCE_FACTORY}<Integer, User>
+                userDataSourceFactory();
+                """
+        ) { parsedQuery, _ ->
+            val orderingTerms =
+                    (parsedQuery.queryResultBinder as DataSourceFactoryQueryResultBinder)
+                            .positionalDataSourceQueryResultBinder.orderingTerms
+            // without verification, the tables of the result columns are not known
+            val expected = if (enableVerification) {
+                listOf(OrderingTerm("name", false, "u"), OrderingTerm("uid", true, "u"))
+            } else {
+                emptyList()
+            }
+            assertEquals(expected, orderingTerms)
+        }.compilesWithoutError()
+    }
+
     @Test
     fun testBadChannelReturnForQuery() {
         singleQueryMethod<QueryMethod>(
@@ -83,10 +83,10 @@ class DatabaseVerifierTest(private val useLocalizedCollation: Boolean) {
         validQueryTest("select * from User") {
             assertThat(it, `is`(
                     QueryResultInfo(listOf(
-                            ColumnInfo("id", SQLTypeAffinity.INTEGER),
-                            ColumnInfo("name", SQLTypeAffinity.TEXT),
-                            ColumnInfo("lastName", SQLTypeAffinity.TEXT),
-                            ColumnInfo("ratio", SQLTypeAffinity.REAL)
+                            ColumnInfo("id", SQLTypeAffinity.INTEGER, "User"),
+                            ColumnInfo("name", SQLTypeAffinity.TEXT, "User"),
+                            ColumnInfo("lastName", SQLTypeAffinity.TEXT, "User"),
+                            ColumnInfo("ratio", SQLTypeAffinity.REAL, "User")
                     ))))
         }
     }
@@ -96,8 +96,8 @@ class DatabaseVerifierTest(private val useLocalizedCollation: Boolean) {
         validQueryTest("select id, lastName from User") {
             assertThat(it, `is`(
                     QueryResultInfo(listOf(
-                            ColumnInfo("id", SQLTypeAffinity.INTEGER),
-                            ColumnInfo("lastName", SQLTypeAffinity.TEXT)
+                            ColumnInfo("id", SQLTypeAffinity.INTEGER, "User"),
+                            ColumnInfo("lastName", SQLTypeAffinity.TEXT, "User")
                     ))))
         }
     }
@@ -107,8 +107,8 @@ class DatabaseVerifierTest(private val useLocalizedCollation: Boolean) {
         validQueryTest("select id as myId, lastName from User") {
             assertThat(it, `is`(
                     QueryResultInfo(listOf(
-                            ColumnInfo("myId", SQLTypeAffinity.INTEGER),
-                            ColumnInfo("lastName", SQLTypeAffinity.TEXT)
+                            ColumnInfo("myId", SQLTypeAffinity.INTEGER, "User"),
+                            ColumnInfo("lastName", SQLTypeAffinity.TEXT, "User")
                     ))))
         }
     }
@@ -141,7 +141,7 @@ class DatabaseVerifierTest(private val useLocalizedCollation: Boolean) {
             assertThat(it, `is`(
                     QueryResultInfo(listOf(
                             // unfortunately, we don't get this information
-                            ColumnInfo("id", SQLTypeAffinity.INTEGER),
+                            ColumnInfo("id", SQLTypeAffinity.INTEGER, "User"),
                             ColumnInfo("mergedName", SQLTypeAffinity.NULL)
                     ))))
         }
@@ -176,8 +176,8 @@ class DatabaseVerifierTest(private val useLocalizedCollation: Boolean) {
             assertThat(it, `is`(
                     QueryResultInfo(listOf(
                             // unfortunately, we don't get this information
-                            ColumnInfo("id", SQLTypeAffinity.INTEGER),
-                            ColumnInfo("name", SQLTypeAffinity.TEXT)
+                            ColumnInfo("id", SQLTypeAffinity.INTEGER, "User"),
+                            ColumnInfo("name", SQLTypeAffinity.TEXT, "User")
                     ))))
         }
     }
@@ -197,8 +197,8 @@ class DatabaseVerifierTest(private val useLocalizedCollation: Boolean) {
         validQueryTest("select * from UserSummary") {
             assertThat(it, `is`(
                     QueryResultInfo(listOf(
-                            ColumnInfo("id", SQLTypeAffinity.INTEGER),
-                            ColumnInfo("name", SQLTypeAffinity.TEXT)
+                            ColumnInfo("id", SQLTypeAffinity.INTEGER, "User"),
+                            ColumnInfo("name", SQLTypeAffinity.TEXT, "User")
                     ))
             ))
         }
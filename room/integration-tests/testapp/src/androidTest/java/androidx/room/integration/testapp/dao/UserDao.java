@@ -276,6 +276,15 @@ public abstract class UserDao {
     @Query("SELECT * FROM user ORDER BY mAge DESC")
     public abstract DataSource.Factory<Integer, User> loadUsersByAgeDesc();
 
+    @Query("SELECT * FROM user ORDER BY mAge DESC, mId")
+    public abstract DataSource.Factory<Integer, User> loadUsersByAgeDescAndId();
+
+    @Query("SELECT * FROM user ORDER BY mLastName DESC")
+    public abstract DataSource.Factory<Integer, User> loadUsersByLastNameDesc();
+
+    @Query("SELECT * FROM user ORDER BY mAge, mLastName DESC")
+    public abstract DataSource.Factory<Integer, User> loadUsersByAgeAndLastNameDesc();
+
     @Query("DELETE FROM User WHERE mId IN (:ids) AND mAge == :age")
     public abstract int deleteByAgeAndIds(int age, List<Integer> ids);
 
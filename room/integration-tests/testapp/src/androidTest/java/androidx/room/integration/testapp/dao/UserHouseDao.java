@@ -19,6 +19,7 @@ package androidx.room.integration.testapp.dao;
 import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.Query;
+import androidx.room.RoomWarnings;
 import androidx.room.Transaction;
 import androidx.room.integration.testapp.vo.House;
 import androidx.room.integration.testapp.vo.UserAndAllHouses;
@@ -37,6 +38,11 @@ public interface UserHouseDao {
     @Query("SELECT * FROM user")
     List<UserAndPetsAndHouses> getUsersAndTheirPetsAndHouses();
 
+    // without a transaction, the relations are fetched concurrently on reader connections.
+    @SuppressWarnings(RoomWarnings.RELATION_QUERY_WITHOUT_TRANSACTION)
+    @Query("SELECT * FROM user")
+    List<UserAndPetsAndHouses> getUsersAndTheirPetsAndHousesWithoutTransaction();
+
     @Insert
     void insertAll(House[] houses);
 }
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room.integration.testapp.paging;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import androidx.annotation.NonNull;
+import androidx.paging.PositionalDataSource;
+import androidx.room.integration.testapp.test.TestDatabaseTest;
+import androidx.room.integration.testapp.test.TestUtil;
+import androidx.room.integration.testapp.vo.User;
+import androidx.room.paging.KeysetDataSource;
+import androidx.room.paging.LimitOffsetDataSource;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.MediumTest;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+@MediumTest
+@RunWith(AndroidJUnit4.class)
+public class KeysetDataSourceTest extends TestDatabaseTest {
+
+    @After
+    public void teardown() {
+        mUserDao.deleteEverything();
+    }
+
+    @SuppressWarnings("unchecked")
+    private LimitOffsetDataSource<User> loadUsersByAgeDescAndId() {
+        return (LimitOffsetDataSource<User>) mUserDao.loadUsersByAgeDescAndId().create();
+    }
+
+    @SuppressWarnings("unchecked")
+    private LimitOffsetDataSource<User> loadUsersByAgeDesc() {
+        return (LimitOffsetDataSource<User>) mUserDao.loadUsersByAgeDesc().create();
+    }
+
+    @SuppressWarnings("unchecked")
+    private LimitOffsetDataSource<User> loadUsersByLastNameDesc() {
+        return (LimitOffsetDataSource<User>) mUserDao.loadUsersByLastNameDesc().create();
+    }
+
+    @SuppressWarnings("unchecked")
+    private LimitOffsetDataSource<User> loadUsersByAgeAndLastNameDesc() {
+        return (LimitOffsetDataSource<User>) mUserDao.loadUsersByAgeAndLastNameDesc().create();
+    }
+
+    @Test
+    public void orderedQueryIsKeyset() {
+        assertThat(loadUsersByAgeDescAndId(), instanceOf(KeysetDataSource.class));
+    }
+
+    @Test
+    public void loadPagesInSequence() {
+        List<User> users = createUsers(25);
+        assertThat(loadInPages(loadUsersByAgeDescAndId(), 0, 4), is(users));
+    }
+
+    @Test
+    public void loadPagesInSequence_nonUniqueOrder() {
+        List<User> users = createUsers(25);
+        LimitOffsetDataSource<User> dataSource = loadUsersByAgeDesc();
+        List<User> all = dataSource.loadRange(0, 25);
+        assertThat(all.size(), is(25));
+        // pages of 2 end in the middle of the users of the same age, and pages of 10 contain
+        // all of them.
+        assertThat(loadInPages(loadUsersByAgeDesc(), 0, 2), is(all));
+        assertThat(loadInPages(loadUsersByAgeDesc(), 0, 10), is(all));
+        assertThat(loadInPages(loadUsersByAgeDesc(), 0, 1), is(all));
+    }
+
+    @Test
+    public void loadPagesInSequence_nullsInDescendingColumn() {
+        createUsersWithNullLastNames(10);
+        List<User> all = loadUsersByLastNameDesc().loadRange(0, 10);
+        assertThat(all.size(), is(10));
+        // null values sort last in descending order.
+        assertThat(all.get(9).getLastName(), is((String) null));
+        for (int pageSize = 1; pageSize <= 4; pageSize++) {
+            assertThat(loadInPages(loadUsersByLastNameDesc(), 0, pageSize), is(all));
+        }
+    }
+
+    @Test
+    public void loadPagesInSequence_nullsInDescendingSecondColumn() {
+        createUsersWithNullLastNames(20);
+        List<User> all = loadUsersByAgeAndLastNameDesc().loadRange(0, 20);
+        assertThat(all.size(), is(20));
+        for (int pageSize = 1; pageSize <= 4; pageSize++) {
+            assertThat(loadInPages(loadUsersByAgeAndLastNameDesc(), 0, pageSize), is(all));
+        }
+    }
+
+    @Test
+    public void loadPagesAfterJump() {
+        List<User> users = createUsers(25);
+        assertThat(loadInPages(loadUsersByAgeDescAndId(), 10, 3), is(users.subList(10, 25)));
+    }
+
+    @Test
+    public void loadInitialWithoutPlaceholders() {
+        List<User> users = createUsers(10);
+        ResultCallback callback = new ResultCallback();
+        loadUsersByAgeDescAndId().loadInitial(
+                new PositionalDataSource.LoadInitialParams(4, 4, 2, false), callback);
+        assertThat(callback.mData, is(users.subList(4, 8)));
+        assertThat(callback.mPosition, is(4));
+        assertThat(callback.mTotalCount, is(-1));
+    }
+
+    @Test
+    public void loadInitialWithoutPlaceholders_pastTheEnd() {
+        List<User> users = createUsers(10);
+        ResultCallback callback = new ResultCallback();
+        loadUsersByAgeDescAndId().loadInitial(
+                new PositionalDataSource.LoadInitialParams(20, 4, 2, false), callback);
+        assertThat(callback.mData, is(users.subList(6, 10)));
+        assertThat(callback.mPosition, is(6));
+        assertThat(callback.mTotalCount, is(10));
+    }
+
+    @Test
+    public void loadInitialWithPlaceholders() {
+        List<User> users = createUsers(10);
+        ResultCallback callback = new ResultCallback();
+        loadUsersByAgeDescAndId().loadInitial(
+                new PositionalDataSource.LoadInitialParams(0, 4, 2, true), callback);
+        assertThat(callback.mData, is(users.subList(0, 4)));
+        assertThat(callback.mPosition, is(0));
+        assertThat(callback.mTotalCount, is(10));
+    }
+
+    private static List<User> loadInPages(LimitOffsetDataSource<User> dataSource, int start,
+            int pageSize) {
+        List<User> result = new ArrayList<>();
+        int position = start;
+        while (true) {
+            List<User> page = dataSource.loadRange(position, pageSize);
+            if (page.isEmpty()) {
+                return result;
+            }
+            result.addAll(page);
+            position += page.size();
+        }
+    }
+
+    /**
+     * Creates users with 4 different ages, returned in the order of the query.
+     */
+    @NonNull
+    private List<User> createUsers(int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            User user = TestUtil.createUser(i);
+            user.setAge(i % 4);
+            mUserDao.insert(user);
+            users.add(user);
+        }
+        Collections.sort(users, new Comparator<User>() {
+            @Override
+            public int compare(User first, User second) {
+                if (first.getAge() != second.getAge()) {
+                    return second.getAge() - first.getAge();
+                }
+                return first.getId() - second.getId();
+            }
+        });
+        return users;
+    }
+
+    /**
+     * Creates users with 2 different ages and 3 different last names, one of which is null.
+     */
+    private void createUsersWithNullLastNames(int count) {
+        for (int i = 0; i < count; i++) {
+            User user = TestUtil.createUser(i);
+            user.setAge(i % 2);
+            user.setLastName(i % 3 == 0 ? null : "last" + (i % 3));
+            mUserDao.insert(user);
+        }
+    }
+
+    private static class ResultCallback extends PositionalDataSource.LoadInitialCallback<User> {
+        List<? extends User> mData;
+        int mPosition;
+        int mTotalCount;
+
+        @Override
+        public void onResult(@NonNull List<? extends User> data, int position, int totalCount) {
+            mData = data;
+            mPosition = position;
+            mTotalCount = totalCount;
+        }
+
+        @Override
+        public void onResult(@NonNull List<? extends User> data, int position) {
+            onResult(data, position, -1);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room.integration.testapp.test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import androidx.room.Room;
+import androidx.room.integration.testapp.PKeyTestDatabase;
+import androidx.room.integration.testapp.TestDatabase;
+import androidx.room.integration.testapp.vo.IntAutoIncPKeyEntity;
+import androidx.room.integration.testapp.vo.User;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.MediumTest;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.List;
+
+@RunWith(AndroidJUnit4.class)
+@MediumTest
+public class BatchedInsertTest {
+
+    @Test
+    public void insertManyWithExplicitKeys() {
+        TestDatabase db = Room.inMemoryDatabaseBuilder(
+                ApplicationProvider.getApplicationContext(), TestDatabase.class)
+                .enableBatchedInserts()
+                .build();
+        // less than the bind argument limit, so that they can be loaded back with one query.
+        int[] ids = new int[900];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i * 3;
+        }
+        User[] users = TestUtil.createUsersArray(ids);
+        db.getUserDao().insertAll(users);
+
+        assertThat(db.getUserDao().count(), is(ids.length));
+        User[] loaded = db.getUserDao().loadByIds(ids);
+        assertThat(loaded.length, is(ids.length));
+        for (int i = 0; i < loaded.length; i++) {
+            assertThat(loaded[i], is(users[i]));
+        }
+        db.close();
+    }
+
+    @Test
+    public void insertManyAndGetExplicitIds() throws Exception {
+        TestDatabase db = Room.inMemoryDatabaseBuilder(
+                ApplicationProvider.getApplicationContext(), TestDatabase.class)
+                .enableBatchedInserts()
+                .build();
+        // Decreasing keys, so the row ids are not consecutive in insertion order.
+        int[] ids = new int[100];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = (ids.length - i) * 7;
+        }
+        List<User> users = Arrays.asList(TestUtil.createUsersArray(ids));
+        List<Long> rowIds = db.getUserDao().insertWithLongListFuture(users).get();
+
+        assertThat(rowIds.size(), is(ids.length));
+        for (int i = 0; i < ids.length; i++) {
+            assertThat(rowIds.get(i), is((long) ids[i]));
+        }
+        db.close();
+    }
+
+    @Test
+    public void insertManyAndGetGeneratedIds() {
+        PKeyTestDatabase db = Room.inMemoryDatabaseBuilder(
+                ApplicationProvider.getApplicationContext(), PKeyTestDatabase.class)
+                .enableBatchedInserts()
+                .build();
+        db.intPKeyDao().insertMe(entity("first"));
+        // Methods returning ids insert one row per statement, and must not be affected.
+        IntAutoIncPKeyEntity[] entities = new IntAutoIncPKeyEntity[777];
+        for (int i = 0; i < entities.length; i++) {
+            entities[i] = entity("data" + i);
+        }
+        long[] ids = db.intPKeyDao().insertAndGetIds(entities);
+
+        assertThat(ids.length, is(entities.length));
+        List<String> data = db.intPKeyDao().loadDataById(ids);
+        assertThat(data.size(), is(entities.length));
+        for (int i = 0; i < ids.length; i++) {
+            assertThat(ids[i], is(i + 2L));
+            assertThat(db.intPKeyDao().getMe((int) ids[i]).data, is("data" + i));
+        }
+        db.close();
+    }
+
+    private static IntAutoIncPKeyEntity entity(String data) {
+        IntAutoIncPKeyEntity entity = new IntAutoIncPKeyEntity();
+        entity.data = data;
+        return entity;
+    }
+}
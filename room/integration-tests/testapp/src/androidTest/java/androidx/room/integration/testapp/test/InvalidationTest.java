@@ -42,6 +42,8 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -153,6 +155,33 @@ public class InvalidationTest {
         assertThat(observer.getInvalidatedTables(), hasItem("Pet"));
     }
 
+    @Test
+    public void testColumns() throws InterruptedException, TimeoutException {
+        User user = TestUtil.createUser(3);
+        mUserDao.insert(user);
+        LoggingObserver observer = new LoggingObserver("User", Arrays.asList("mName"));
+        mDb.getInvalidationTracker().addObserver(observer);
+        drain();
+        mUserDao.updateByAgeAndIds(12f, user.getAge(), Arrays.asList(3));
+        drain();
+        assertThat(observer.getInvalidatedTables(), nullValue());
+
+        mUserDao.updateById(3, "foo2");
+        drain();
+        assertThat(observer.getInvalidatedTables(), hasSize(1));
+        assertThat(observer.getInvalidatedTables(), hasItem("User"));
+
+        observer.reset();
+        mUserDao.insert(TestUtil.createUser(4));
+        drain();
+        assertThat(observer.getInvalidatedTables(), hasItem("User"));
+
+        observer.reset();
+        mUserDao.delete(user);
+        drain();
+        assertThat(observer.getInvalidatedTables(), hasItem("User"));
+    }
+
     private static class LoggingObserver extends InvalidationTracker.Observer {
         private Set<String> mInvalidatedTables;
 
@@ -160,6 +189,10 @@ public class InvalidationTest {
             super(tables);
         }
 
+        LoggingObserver(String table, List<String> columns) {
+            super(table, columns);
+        }
+
         @Override
         public void onInvalidated(@NonNull Set<String> tables) {
             mInvalidatedTables = tables;
@@ -66,6 +66,7 @@ import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @LargeTest
 @RunWith(AndroidJUnit4.class)
@@ -232,6 +233,84 @@ public class MultiInstanceInvalidationTest {
         assertFalse(changed3.second.await(3, TimeUnit.SECONDS));
     }
 
+    @Test
+    public void invalidateInAnotherInstance_batchWindow() throws Exception {
+        final SampleDatabase db1 = openDatabaseWithBatchWindow(100);
+        final SampleDatabase db2 = openDatabaseWithBatchWindow(100);
+
+        final CountDownLatch invalidated1 = prepareTableObserver(db1);
+        final Pair<CountDownLatch, CountDownLatch> changed1 = prepareLiveDataObserver(db1);
+        final CountDownLatch invalidated2 = prepareTableObserver(db2);
+
+        db2.getCustomerDao().insert(CUSTOMER_1);
+
+        assertTrue(invalidated1.await(3, TimeUnit.SECONDS));
+        assertTrue(changed1.first.await(3, TimeUnit.SECONDS));
+        assertTrue(invalidated2.await(3, TimeUnit.SECONDS));
+
+        db1.getCustomerDao().insert(CUSTOMER_2);
+
+        assertTrue(changed1.second.await(3, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void invalidateInAnotherInstance_batchWindowCoalesces() throws Exception {
+        final SampleDatabase db1 = openDatabaseWithBatchWindow(1000);
+        final SampleDatabase db2 = openDatabaseWithBatchWindow(1000);
+
+        final AtomicInteger notifications = new AtomicInteger();
+        final CountDownLatch invalidated = new CountDownLatch(1);
+        db1.getInvalidationTracker().addObserver(new InvalidationTracker.Observer("Customer") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                notifications.incrementAndGet();
+                invalidated.countDown();
+            }
+        });
+
+        final List<Customer> customers = generateCustomers(20);
+        for (Customer customer : customers) {
+            db2.getCustomerDao().insert(customer);
+        }
+
+        assertTrue(invalidated.await(3, TimeUnit.SECONDS));
+        // let the window of the last insert elapse.
+        SystemClock.sleep(1500);
+        assertThat(notifications.get(), is(lessThan(customers.size())));
+        assertThat(db1.getCustomerDao().countCustomers(), is(customers.size()));
+    }
+
+    @Test
+    public void invalidationInAnotherInstance_batchWindowMixed() throws Exception {
+        final SampleDatabase db1 = openDatabase(true);
+        final SampleDatabase db2 = openDatabaseWithBatchWindow(100);
+
+        final CountDownLatch invalidated1 = new CountDownLatch(1);
+        db1.getInvalidationTracker().addObserver(new InvalidationTracker.Observer("Customer") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                invalidated1.countDown();
+            }
+        });
+        final CountDownLatch invalidated2 = new CountDownLatch(1);
+        db2.getInvalidationTracker().addObserver(new InvalidationTracker.Observer("Product") {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                invalidated2.countDown();
+            }
+        });
+
+        // without the shared versions, db1 invalidates all of its tables.
+        db2.getCustomerDao().insert(CUSTOMER_1);
+        assertTrue(invalidated1.await(3, TimeUnit.SECONDS));
+
+        final Product product = new Product();
+        product.setId(1);
+        product.setName("A");
+        db1.getProductDao().insert(product);
+        assertTrue(invalidated2.await(3, TimeUnit.SECONDS));
+    }
+
     @Test
     public void invalidationCausesNoLoop() throws Exception {
         final SampleDatabase db1 = openDatabase(true);
@@ -390,6 +469,15 @@ public class MultiInstanceInvalidationTest {
         return db;
     }
 
+    private SampleDatabase openDatabaseWithBatchWindow(long batchWindowMillis) {
+        final Context context = ApplicationProvider.getApplicationContext();
+        final SampleDatabase db = Room.databaseBuilder(context, SampleDatabase.class, mDatabaseName)
+                .enableMultiInstanceInvalidation(batchWindowMillis, TimeUnit.MILLISECONDS)
+                .build();
+        mDatabases.add(db);
+        return db;
+    }
+
     private SampleFtsDatabase openFtsDatabase(boolean multiInstanceInvalidation) {
         final Context context = ApplicationProvider.getApplicationContext();
         final RoomDatabase.Builder<SampleFtsDatabase> builder = Room
@@ -20,6 +20,7 @@ import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.hasItem;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalToIgnoringCase;
 import static org.hamcrest.Matchers.hasSize;
@@ -39,7 +40,10 @@ import androidx.room.Room;
 import androidx.room.RoomDatabase;
 import androidx.room.integration.testapp.TestDatabase;
 import androidx.room.integration.testapp.dao.UserDao;
+import androidx.room.integration.testapp.vo.House;
+import androidx.room.integration.testapp.vo.Pet;
 import androidx.room.integration.testapp.vo.User;
+import androidx.room.integration.testapp.vo.UserAndPetsAndHouses;
 import androidx.sqlite.db.SupportSQLiteDatabase;
 import androidx.test.core.app.ApplicationProvider;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
@@ -53,6 +57,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
@@ -239,6 +244,90 @@ public class WriteAheadLoggingTest {
         assertThat(latch.await(3000, TimeUnit.MILLISECONDS), is(true));
     }
 
+    @SuppressWarnings("deprecation")
+    @Test
+    public void readerConnections_readWhileWriting()
+            throws InterruptedException, ExecutionException {
+        reopenWithReaderConnections(2);
+        final UserDao dao = mDatabase.getUserDao();
+        final User user1 = TestUtil.createUser(1);
+        dao.insert(user1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            mDatabase.beginTransaction();
+            dao.delete(user1);
+            // The transaction sees its own changes, the readers see the last committed state.
+            assertThat(dao.load(1), is(nullValue()));
+            ArrayList<Future<User>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(() -> dao.load(1)));
+            }
+            for (Future<User> future : futures) {
+                assertThat(future.get(), is(equalTo(user1)));
+            }
+            mDatabase.setTransactionSuccessful();
+        } finally {
+            mDatabase.endTransaction();
+        }
+        assertThat(executor.submit(dao::count).get(), is(0));
+        executor.shutdown();
+    }
+
+    @Test
+    public void readerConnections_observeLiveData() {
+        reopenWithReaderConnections(2);
+        UserDao dao = mDatabase.getUserDao();
+        LiveData<User> user1 = dao.liveUserById(1);
+        Observer<User> observer = startObserver(user1);
+        dao.insert(TestUtil.createUser(1));
+        verify(observer, timeout(3000).atLeastOnce())
+                .onChanged(argThat(user -> user != null && user.getId() == 1));
+        stopObserver(user1, observer);
+    }
+
+    @Test
+    public void readerConnections_relationsOfManyParents() {
+        reopenWithReaderConnections(2);
+        // more parents than bind parameters, so that each relation is fetched in chunks.
+        final int count = RoomDatabase.MAX_BIND_PARAMETER_CNT + 500;
+        List<User> users = new ArrayList<>();
+        List<Pet> pets = new ArrayList<>();
+        List<House> houses = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            users.add(TestUtil.createUser(i));
+            pets.addAll(Arrays.asList(TestUtil.createPetsForUser(i, i * 10, i % 3)));
+            houses.addAll(Arrays.asList(TestUtil.createHousesForUser(i, i * 10, i % 2)));
+        }
+        mDatabase.runInTransaction(() -> {
+            mDatabase.getUserDao().insertAll(users.toArray(new User[0]));
+            mDatabase.getPetDao().insertAll(pets.toArray(new Pet[0]));
+            mDatabase.getUserHouseDao().insertAll(houses.toArray(new House[0]));
+        });
+        List<UserAndPetsAndHouses> result =
+                mDatabase.getUserHouseDao().getUsersAndTheirPetsAndHousesWithoutTransaction();
+        assertThat(result, hasSize(count));
+        for (UserAndPetsAndHouses item : result) {
+            int id = item.getUser().getId();
+            assertThat(item.getPets(), hasSize(id % 3));
+            for (Pet pet : item.getPets()) {
+                assertThat(pet.getUserId(), is(id));
+            }
+            assertThat(item.getHouses(), hasSize(id % 2));
+            for (House house : item.getHouses()) {
+                assertThat(house.getOwnerId(), is((long) id));
+            }
+        }
+    }
+
+    private void reopenWithReaderConnections(int size) {
+        Context context = ApplicationProvider.getApplicationContext();
+        mDatabase.close();
+        mDatabase = Room.databaseBuilder(context, TestDatabase.class, DATABASE_NAME)
+                .setJournalMode(RoomDatabase.JournalMode.WRITE_AHEAD_LOGGING)
+                .setReaderConnectionPoolSize(size)
+                .build();
+    }
+
     private static <T> Observer<T> startObserver(LiveData<T> liveData) {
         @SuppressWarnings("unchecked")
         Observer<T> observer = mock(Observer.class);
@@ -20,6 +20,7 @@ package androidx.room.migration;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 import static java.util.Arrays.asList;
@@ -52,6 +53,11 @@ import java.util.Set;
 @RunWith(AndroidJUnit4.class)
 @SmallTest
 public class TableInfoTest {
+    private static final String CREATE_FOO = "CREATE TABLE IF NOT EXISTS `foo` (`id` INTEGER"
+            + " NOT NULL, `name` TEXT, PRIMARY KEY(`id`))";
+    private static final String CREATE_FOO_INDEX = "CREATE UNIQUE INDEX IF NOT EXISTS"
+            + " `index_foo_name` ON `foo` (`name`)";
+
     private SupportSQLiteDatabase mDb;
 
     @Test
@@ -356,6 +362,57 @@ public class TableInfoTest {
         }
     }
 
+    @Test
+    public void readIfChanged_sameStatements() {
+        mDb = createDatabase(CREATE_FOO, CREATE_FOO_INDEX);
+        TableInfo expectedInfo = fooInfo();
+        TableInfo dbInfo = TableInfo.readIfChanged(mDb, expectedInfo, CREATE_FOO,
+                CREATE_FOO_INDEX);
+        assertThat(dbInfo, is(sameInstance(expectedInfo)));
+        assertThat(dbInfo, is(TableInfo.read(mDb, "foo")));
+    }
+
+    @Test
+    public void readIfChanged_alteredTable() {
+        mDb = createDatabase(CREATE_FOO, CREATE_FOO_INDEX);
+        mDb.execSQL("ALTER TABLE foo ADD COLUMN added REAL");
+        TableInfo expectedInfo = fooInfo();
+        TableInfo dbInfo = TableInfo.readIfChanged(mDb, expectedInfo, CREATE_FOO,
+                CREATE_FOO_INDEX);
+        assertThat(dbInfo, is(not(sameInstance(expectedInfo))));
+        assertThat(dbInfo, is(TableInfo.read(mDb, "foo")));
+        assertThat(dbInfo, is(not(expectedInfo)));
+    }
+
+    @Test
+    public void readIfChanged_missingIndex() {
+        mDb = createDatabase(CREATE_FOO);
+        TableInfo expectedInfo = fooInfo();
+        TableInfo dbInfo = TableInfo.readIfChanged(mDb, expectedInfo, CREATE_FOO,
+                CREATE_FOO_INDEX);
+        assertThat(dbInfo, is(not(expectedInfo)));
+    }
+
+    @Test
+    public void readIfChanged_extraIndex() {
+        mDb = createDatabase(CREATE_FOO, CREATE_FOO_INDEX,
+                "CREATE INDEX `index_foo_id_name` ON `foo` (`id`, `name`)");
+        TableInfo expectedInfo = fooInfo();
+        TableInfo dbInfo = TableInfo.readIfChanged(mDb, expectedInfo, CREATE_FOO,
+                CREATE_FOO_INDEX);
+        assertThat(dbInfo, is(not(expectedInfo)));
+    }
+
+    private static TableInfo fooInfo() {
+        return new TableInfo("foo",
+                toMap(new TableInfo.Column("id", "INTEGER", true, 1, null,
+                                TableInfo.CREATED_FROM_ENTITY),
+                        new TableInfo.Column("name", "TEXT", false, 0, null,
+                                TableInfo.CREATED_FROM_ENTITY)),
+                Collections.<TableInfo.ForeignKey>emptySet(),
+                toSet(new TableInfo.Index("index_foo_name", true, Arrays.asList("name"))));
+    }
+
     private static Map<String, TableInfo.Column> toMap(TableInfo.Column... columns) {
         Map<String, TableInfo.Column> result = new HashMap<>();
         for (TableInfo.Column column : columns) {
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import android.database.AbstractWindowedCursor;
+import android.database.Cursor;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.MediumTest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@MediumTest
+@RunWith(AndroidJUnit4.class)
+public class CursorUtilReadColumnTest {
+    // large enough for the rows not to fit in a single window of the cursor.
+    private static final int ROW_COUNT = 1000;
+    private static final int FILLER_SIZE = 10 * 1024;
+
+    private SupportSQLiteDatabase mDb;
+
+    @Before
+    public void setup() {
+        mDb = new FrameworkSQLiteOpenHelperFactory().create(
+                SupportSQLiteOpenHelper.Configuration
+                        .builder(ApplicationProvider.getApplicationContext())
+                        .name(null)
+                        .callback(new SupportSQLiteOpenHelper.Callback(1) {
+                            @Override
+                            public void onCreate(SupportSQLiteDatabase db) {
+                                db.execSQL("CREATE TABLE foo (id INTEGER PRIMARY KEY,"
+                                        + " value REAL, filler BLOB)");
+                            }
+
+                            @Override
+                            public void onUpgrade(SupportSQLiteDatabase db, int oldVersion,
+                                    int newVersion) {
+                                throw new IllegalStateException("should not be upgrading");
+                            }
+                        }).build()
+        ).getWritableDatabase();
+        mDb.beginTransaction();
+        try {
+            for (int i = 0; i < ROW_COUNT; i++) {
+                mDb.execSQL("INSERT INTO foo VALUES (?, ?, ?)",
+                        new Object[]{i, i / 2.0, new byte[FILLER_SIZE]});
+            }
+            mDb.setTransactionSuccessful();
+        } finally {
+            mDb.endTransaction();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        mDb.close();
+    }
+
+    @Test
+    public void readLongColumn_severalWindows() {
+        Cursor cursor = mDb.query("SELECT id, filler FROM foo ORDER BY id");
+        try {
+            assertThat(cursor instanceof AbstractWindowedCursor, is(true));
+            long[] ids = CursorUtil.readLongColumn(cursor, 0);
+            assertThat(ids.length, is(ROW_COUNT));
+            for (int i = 0; i < ROW_COUNT; i++) {
+                assertThat(ids[i], is((long) i));
+            }
+        } finally {
+            cursor.close();
+        }
+    }
+
+    @Test
+    public void readIntColumn_severalWindows() {
+        Cursor cursor = mDb.query("SELECT filler, id FROM foo ORDER BY id DESC");
+        try {
+            int[] ids = CursorUtil.readIntColumn(cursor, 1);
+            assertThat(ids.length, is(ROW_COUNT));
+            for (int i = 0; i < ROW_COUNT; i++) {
+                assertThat(ids[i], is(ROW_COUNT - 1 - i));
+            }
+        } finally {
+            cursor.close();
+        }
+    }
+
+    @Test
+    public void readDoubleColumn_severalWindows() {
+        Cursor cursor = mDb.query("SELECT value, filler FROM foo ORDER BY id");
+        try {
+            double[] values = CursorUtil.readDoubleColumn(cursor, 0);
+            assertThat(values.length, is(ROW_COUNT));
+            for (int i = 0; i < ROW_COUNT; i++) {
+                assertThat(values[i], is(i / 2.0));
+            }
+        } finally {
+            cursor.close();
+        }
+    }
+
+    @Test
+    public void readLongColumn_nullsAndEmpty() {
+        Cursor cursor = mDb.query("SELECT NULL FROM foo LIMIT 2");
+        try {
+            long[] values = CursorUtil.readLongColumn(cursor, 0);
+            assertThat(values.length, is(2));
+            assertThat(values[0], is(0L));
+            assertThat(values[1], is(0L));
+        } finally {
+            cursor.close();
+        }
+        cursor = mDb.query("SELECT id FROM foo WHERE id < 0");
+        try {
+            assertThat(CursorUtil.readLongColumn(cursor, 0).length, is(0));
+        } finally {
+            cursor.close();
+        }
+    }
+}
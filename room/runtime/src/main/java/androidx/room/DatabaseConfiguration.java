@@ -116,13 +116,59 @@ public class DatabaseConfiguration {
     @Nullable
     public final File copyFromFile;
 
+    /**
+     * The number of compiled statements kept for reuse by each database connection.
+     */
+    public final int preparedStatementCacheSize;
+
+    /**
+     * If true, inserting several entities at once binds them into multi-row INSERT statements.
+     */
+    public final boolean batchedInserts;
+
+    /**
+     * The number of read-only connections used for queries outside of transactions, or 0 if all
+     * queries use the single writer connection.
+     */
+    public final int readerConnectionPoolSize;
+
+    /**
+     * The minimum time between two refreshes of the invalidated tables, in milliseconds.
+     */
+    public final long invalidationRefreshIntervalMillis;
+
+    /**
+     * If false, the schema is not validated after migrations, trusting them to create the
+     * expected tables.
+     */
+    public final boolean validateMigrations;
+
+    /**
+     * The callback receiving the measurements of the queries, or null if they are not measured.
+     */
+    @Nullable
+    public final QueryMetrics.Callback queryMetricsCallback;
+
+    /**
+     * If true, the plan of each query is explained once to report the tables it scans to the
+     * {@link #queryMetricsCallback}.
+     */
+    public final boolean checkQueryPlans;
+
+    /**
+     * The minimum time between two broadcasts of changed table versions to the other instances of
+     * the database, in milliseconds, or a negative value if the invalidated tables are broadcast
+     * after every transaction. Only used with {@link #multiInstanceInvalidation}.
+     */
+    public final long multiInstanceInvalidationBatchWindowMillis;
 
     /**
      * Creates a database configuration with the given values.
      *
      * @deprecated Use {@link #DatabaseConfiguration(Context, String,
      * SupportSQLiteOpenHelper.Factory, RoomDatabase.MigrationContainer, List, boolean,
-     * RoomDatabase.JournalMode, Executor, Executor, boolean, boolean, boolean, Set, String, File)}
+     * RoomDatabase.JournalMode, Executor, Executor, boolean, boolean, boolean, Set, String, File,
+     * int, boolean, int, long, boolean, QueryMetrics.Callback, boolean, long)}
      *
      * @param context The application context.
      * @param name Name of the database, can be null if it is in memory.
@@ -152,7 +198,8 @@ public class DatabaseConfiguration {
             @Nullable Set<Integer> migrationNotRequiredFrom) {
         this(context, name, sqliteOpenHelperFactory, migrationContainer, callbacks,
                 allowMainThreadQueries, journalMode, queryExecutor, queryExecutor, false,
-                requireMigration, false, migrationNotRequiredFrom, null, null);
+                requireMigration, false, migrationNotRequiredFrom, null, null,
+                PreparedStatementCache.DEFAULT_SIZE, false, 0, 0, true, null, false, -1);
     }
 
     /**
@@ -160,7 +207,8 @@ public class DatabaseConfiguration {
      *
      * @deprecated Use {@link #DatabaseConfiguration(Context, String,
      * SupportSQLiteOpenHelper.Factory, RoomDatabase.MigrationContainer, List, boolean,
-     * RoomDatabase.JournalMode, Executor, Executor, boolean, boolean, boolean, Set, String, File)}
+     * RoomDatabase.JournalMode, Executor, Executor, boolean, boolean, boolean, Set, String, File,
+     * int, boolean, int, long, boolean, QueryMetrics.Callback, boolean, long)}
      *
      * @param context The application context.
      * @param name Name of the database, can be null if it is in memory.
@@ -197,12 +245,18 @@ public class DatabaseConfiguration {
         this(context, name, sqliteOpenHelperFactory, migrationContainer, callbacks,
                 allowMainThreadQueries, journalMode, queryExecutor, transactionExecutor,
                 multiInstanceInvalidation, requireMigration, allowDestructiveMigrationOnDowngrade,
-                migrationNotRequiredFrom, null, null);
+                migrationNotRequiredFrom, null, null, PreparedStatementCache.DEFAULT_SIZE,
+                false, 0, 0, true, null, false, -1);
     }
 
     /**
      * Creates a database configuration with the given values.
      *
+     * @deprecated Use {@link #DatabaseConfiguration(Context, String,
+     * SupportSQLiteOpenHelper.Factory, RoomDatabase.MigrationContainer, List, boolean,
+     * RoomDatabase.JournalMode, Executor, Executor, boolean, boolean, boolean, Set, String, File,
+     * int, boolean, int, long, boolean, QueryMetrics.Callback, boolean, long)}
+     *
      * @param context The application context.
      * @param name Name of the database, can be null if it is in memory.
      * @param sqliteOpenHelperFactory The open helper factory to use.
@@ -223,6 +277,7 @@ public class DatabaseConfiguration {
      *
      * @hide
      */
+    @Deprecated
     @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX)
     public DatabaseConfiguration(@NonNull Context context, @Nullable String name,
             @NonNull SupportSQLiteOpenHelper.Factory sqliteOpenHelperFactory,
@@ -238,6 +293,75 @@ public class DatabaseConfiguration {
             @Nullable Set<Integer> migrationNotRequiredFrom,
             @Nullable String copyFromAssetPath,
             @Nullable File copyFromFile) {
+        this(context, name, sqliteOpenHelperFactory, migrationContainer, callbacks,
+                allowMainThreadQueries, journalMode, queryExecutor, transactionExecutor,
+                multiInstanceInvalidation, requireMigration, allowDestructiveMigrationOnDowngrade,
+                migrationNotRequiredFrom, copyFromAssetPath, copyFromFile,
+                PreparedStatementCache.DEFAULT_SIZE, false, 0, 0, true, null, false, -1);
+    }
+
+    /**
+     * Creates a database configuration with the given values.
+     *
+     * @param context The application context.
+     * @param name Name of the database, can be null if it is in memory.
+     * @param sqliteOpenHelperFactory The open helper factory to use.
+     * @param migrationContainer The migration container for migrations.
+     * @param callbacks The list of callbacks for database events.
+     * @param allowMainThreadQueries Whether to allow main thread reads/writes or not.
+     * @param journalMode The journal mode. This has to be either TRUNCATE or WRITE_AHEAD_LOGGING.
+     * @param queryExecutor The Executor used to execute asynchronous queries.
+     * @param transactionExecutor The Executor used to execute asynchronous transactions.
+     * @param multiInstanceInvalidation True if Room should perform multi-instance invalidation.
+     * @param requireMigration True if Room should require a valid migration if version changes,
+     * @param allowDestructiveMigrationOnDowngrade True if Room should recreate tables if no
+     *                                             migration is supplied during a downgrade.
+     * @param migrationNotRequiredFrom The collection of schema versions from which migrations
+     *                                 aren't required.
+     * @param copyFromAssetPath The assets path to the pre-packaged database.
+     * @param copyFromFile The pre-packaged database file.
+     * @param preparedStatementCacheSize The number of compiled statements kept for reuse by each
+     *                                   database connection.
+     * @param batchedInserts True if Room should insert several entities with multi-row INSERT
+     *                       statements.
+     * @param readerConnectionPoolSize The number of read-only connections used for queries
+     *                                 outside of transactions, 0 to use the writer connection.
+     * @param invalidationRefreshIntervalMillis The minimum time between two refreshes of the
+     *                                          invalidated tables, in milliseconds.
+     * @param validateMigrations False if Room should not validate the schema after migrations.
+     * @param queryMetricsCallback The callback receiving the measurements of the queries, or
+     *                             null if they are not measured.
+     * @param checkQueryPlans True if Room should explain the plan of the queries to report the
+     *                        tables they scan.
+     * @param multiInstanceInvalidationBatchWindowMillis The minimum time between two broadcasts
+     *                                                   of changed table versions, or a negative
+     *                                                   value to broadcast the invalidated tables.
+     *
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX)
+    public DatabaseConfiguration(@NonNull Context context, @Nullable String name,
+            @NonNull SupportSQLiteOpenHelper.Factory sqliteOpenHelperFactory,
+            @NonNull RoomDatabase.MigrationContainer migrationContainer,
+            @Nullable List<RoomDatabase.Callback> callbacks,
+            boolean allowMainThreadQueries,
+            RoomDatabase.JournalMode journalMode,
+            @NonNull Executor queryExecutor,
+            @NonNull Executor transactionExecutor,
+            boolean multiInstanceInvalidation,
+            boolean requireMigration,
+            boolean allowDestructiveMigrationOnDowngrade,
+            @Nullable Set<Integer> migrationNotRequiredFrom,
+            @Nullable String copyFromAssetPath,
+            @Nullable File copyFromFile,
+            int preparedStatementCacheSize,
+            boolean batchedInserts,
+            int readerConnectionPoolSize,
+            long invalidationRefreshIntervalMillis,
+            boolean validateMigrations,
+            @Nullable QueryMetrics.Callback queryMetricsCallback,
+            boolean checkQueryPlans,
+            long multiInstanceInvalidationBatchWindowMillis) {
         this.sqliteOpenHelperFactory = sqliteOpenHelperFactory;
         this.context = context;
         this.name = name;
@@ -253,6 +377,15 @@ public class DatabaseConfiguration {
         this.mMigrationNotRequiredFrom = migrationNotRequiredFrom;
         this.copyFromAssetPath = copyFromAssetPath;
         this.copyFromFile = copyFromFile;
+        this.preparedStatementCacheSize = preparedStatementCacheSize;
+        this.batchedInserts = batchedInserts;
+        this.readerConnectionPoolSize = readerConnectionPoolSize;
+        this.invalidationRefreshIntervalMillis = invalidationRefreshIntervalMillis;
+        this.validateMigrations = validateMigrations;
+        this.queryMetricsCallback = queryMetricsCallback;
+        this.checkQueryPlans = checkQueryPlans;
+        this.multiInstanceInvalidationBatchWindowMillis =
+                multiInstanceInvalidationBatchWindowMillis;
     }
 
     /**
@@ -16,17 +16,28 @@
 
 package androidx.room;
 
+import android.os.Build;
+
 import androidx.annotation.RestrictTo;
 import androidx.sqlite.db.SupportSQLiteStatement;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 
 /**
  * Implementations of this class knows how to insert a particular entity.
  * <p>
  * This is an internal library class and all of its implementations are auto-generated.
+ * <p>
+ * If {@link RoomDatabase.Builder#enableBatchedInserts()} was called, the methods inserting several
+ * entities bind them into multi-row {@code INSERT ... VALUES (...), (...)} statements. Those
+ * statements have a power of two number of rows, so that only a few of them have to be compiled
+ * and cached, and as many rows as fit within {@link RoomDatabase#MAX_BIND_PARAMETER_CNT} bind
+ * arguments. Methods returning row ids always insert one entity per statement, since the row ids
+ * of a multi-row statement cannot be told apart.
  *
  * @param <T> The type parameter of the entity to be inserted
  * @hide
@@ -34,6 +45,14 @@ import java.util.List;
 @SuppressWarnings({"WeakerAccess", "unused"})
 @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX)
 public abstract class EntityInsertionAdapter<T> extends SharedSQLiteStatement {
+    // Older SQLite versions do not accept more than 500 rows in a VALUES clause.
+    private static final int MAX_ROWS_PER_BATCH = 256;
+
+    private final RoomDatabase mDatabase;
+
+    // Lazily created from the insert query, since it cannot be created from the constructor.
+    private volatile BatchQueries mBatchQueries;
+
     /**
      * Creates an InsertionAdapter that can insert the entity type T into the given database.
      *
@@ -41,6 +60,7 @@ public abstract class EntityInsertionAdapter<T> extends SharedSQLiteStatement {
      */
     public EntityInsertionAdapter(RoomDatabase database) {
         super(database);
+        mDatabase = database;
     }
 
     /**
@@ -73,6 +93,10 @@ public abstract class EntityInsertionAdapter<T> extends SharedSQLiteStatement {
      * @param entities Entities to insert
      */
     public final void insert(T[] entities) {
+        if (shouldBatch(entities.length)) {
+            insertBatches(Arrays.asList(entities).iterator());
+            return;
+        }
         final SupportSQLiteStatement stmt = acquire();
         try {
             for (T entity : entities) {
@@ -90,6 +114,12 @@ public abstract class EntityInsertionAdapter<T> extends SharedSQLiteStatement {
      * @param entities Entities to insert
      */
     public final void insert(Iterable<? extends T> entities) {
+        final int size = entities instanceof Collection
+                ? ((Collection<? extends T>) entities).size() : Integer.MAX_VALUE;
+        if (shouldBatch(size)) {
+            insertBatches(entities.iterator());
+            return;
+        }
         final SupportSQLiteStatement stmt = acquire();
         try {
             for (T entity : entities) {
@@ -248,4 +278,189 @@ public abstract class EntityInsertionAdapter<T> extends SharedSQLiteStatement {
             release(stmt);
         }
     }
+
+    /**
+     * Returns whether {@code count} entities should be inserted with multi-row statements.
+     */
+    private boolean shouldBatch(int count) {
+        // Multi-row VALUES clauses need SQLite 3.7.11, first shipped with API 16.
+        if (count < 2 || !mDatabase.mBatchedInsertsEnabled
+                || Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN) {
+            return false;
+        }
+        BatchQueries queries = mBatchQueries;
+        if (queries == null) {
+            queries = BatchQueries.parse(createQuery());
+            mBatchQueries = queries;
+        }
+        return queries.mMaxRows > 1;
+    }
+
+    /**
+     * Inserts the entities with multi-row statements.
+     */
+    private void insertBatches(Iterator<? extends T> entities) {
+        final BatchQueries queries = mBatchQueries;
+        final List<T> rows = new ArrayList<>(queries.mMaxRows);
+        final OffsetStatement binder = new OffsetStatement();
+        while (entities.hasNext()) {
+            rows.add(entities.next());
+            if (rows.size() < queries.mMaxRows && entities.hasNext()) {
+                continue;
+            }
+            // Split the rows into statements of decreasing powers of two rows.
+            int start = 0;
+            while (start < rows.size()) {
+                final int width = Integer.highestOneBit(rows.size() - start);
+                insertRows(queries, binder, rows.subList(start, start + width));
+                start += width;
+            }
+            rows.clear();
+        }
+    }
+
+    private void insertRows(BatchQueries queries, OffsetStatement binder, List<T> rows) {
+        final String sql = queries.get(rows.size());
+        final SupportSQLiteStatement stmt = mDatabase.acquireStatement(sql);
+        try {
+            binder.mStatement = stmt;
+            for (int row = 0; row < rows.size(); row++) {
+                binder.mOffset = row * queries.mColumns;
+                bind(binder, rows.get(row));
+            }
+            stmt.executeInsert();
+        } finally {
+            binder.mStatement = null;
+            mDatabase.releaseStatement(sql, stmt);
+        }
+    }
+
+    /**
+     * The multi-row variants of an insert query, built by repeating its {@code VALUES} row.
+     */
+    private static final class BatchQueries {
+        final int mColumns;
+        // 0 or 1 if the query cannot be batched.
+        final int mMaxRows;
+        private final String mPrefix;
+        private final String mRow;
+        // Indexed by the base 2 logarithm of the number of rows.
+        private final String[] mQueries;
+
+        private BatchQueries(String prefix, String row, int columns, int maxRows) {
+            mPrefix = prefix;
+            mRow = row;
+            mColumns = columns;
+            mMaxRows = maxRows;
+            mQueries = new String[Integer.numberOfTrailingZeros(Math.max(maxRows, 1)) + 1];
+        }
+
+        static BatchQueries parse(String sql) {
+            final int values = sql.lastIndexOf(" VALUES (");
+            if (values < 0) {
+                return new BatchQueries(sql, "", 0, 0);
+            }
+            final int rowStart = values + " VALUES ".length();
+            final String row = sql.substring(rowStart);
+            int columns = 0;
+            for (int i = 0; i < row.length(); i++) {
+                if (row.charAt(i) == '?') {
+                    columns++;
+                }
+            }
+            final int maxRows = columns == 0 ? 0 : Integer.highestOneBit(
+                    Math.min(MAX_ROWS_PER_BATCH, RoomDatabase.MAX_BIND_PARAMETER_CNT / columns));
+            return new BatchQueries(sql.substring(0, rowStart), row, columns, maxRows);
+        }
+
+        /** Returns the query inserting {@code rows} rows, a power of two. */
+        String get(int rows) {
+            final int index = Integer.numberOfTrailingZeros(rows);
+            String query = mQueries[index];
+            if (query == null) {
+                final StringBuilder builder = new StringBuilder(
+                        mPrefix.length() + (mRow.length() + 1) * rows);
+                builder.append(mPrefix).append(mRow);
+                for (int i = 1; i < rows; i++) {
+                    builder.append(',').append(mRow);
+                }
+                query = builder.toString();
+                // Racing threads build the same string, so the array needs no lock.
+                mQueries[index] = query;
+            }
+            return query;
+        }
+    }
+
+    /**
+     * Binds the arguments of an entity to one of the rows of a multi-row statement, by shifting
+     * the indices the generated {@link #bind} method uses.
+     */
+    private static final class OffsetStatement implements SupportSQLiteStatement {
+        SupportSQLiteStatement mStatement;
+        int mOffset;
+
+        OffsetStatement() {
+        }
+
+        @Override
+        public void bindNull(int index) {
+            mStatement.bindNull(mOffset + index);
+        }
+
+        @Override
+        public void bindLong(int index, long value) {
+            mStatement.bindLong(mOffset + index, value);
+        }
+
+        @Override
+        public void bindDouble(int index, double value) {
+            mStatement.bindDouble(mOffset + index, value);
+        }
+
+        @Override
+        public void bindString(int index, String value) {
+            mStatement.bindString(mOffset + index, value);
+        }
+
+        @Override
+        public void bindBlob(int index, byte[] value) {
+            mStatement.bindBlob(mOffset + index, value);
+        }
+
+        @Override
+        public void clearBindings() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void execute() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int executeUpdateDelete() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long executeInsert() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long simpleQueryForLong() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String simpleQueryForString() {
+            throw new UnsupportedOperationException();
+        }
+    }
 }
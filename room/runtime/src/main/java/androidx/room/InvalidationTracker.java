@@ -34,15 +34,23 @@ import androidx.sqlite.db.SupportSQLiteDatabase;
 import androidx.sqlite.db.SupportSQLiteStatement;
 
 import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 
 /**
@@ -59,7 +67,15 @@ import java.util.concurrent.locks.Lock;
 // * Each update (write operation) on one of the observed tables triggers an update into the
 // memory table table, flipping the invalidated flag ON.
 // * When multi-instance invalidation is turned on, MultiInstanceInvalidationClient will be created.
-// It works as an Observer, and notifies other instances of table invalidation.
+// It works as an Observer, and notifies other instances of table invalidation. With a batch window,
+// it increments the shared versions of the tables instead, and the other instances are only told
+// to check the versions, at most once per window.
+// * Observers of specific columns of a table share a column set, which has its own id following
+// the table ids and its own row in the memory table. Its triggers fire on INSERT, DELETE and
+// UPDATE OF the columns only, so updates of other columns do not invalidate it.
+// * When a refresh interval is set, a refresh requested less than the interval after the last one
+// is delayed until the interval has elapsed. mPendingRefresh stays on meanwhile, so the requests of
+// all the transactions that end during the delay are served by that single refresh.
 public class InvalidationTracker {
 
     private static final String[] TRIGGERS = new String[]{"UPDATE", "DELETE", "INSERT"};
@@ -94,6 +110,19 @@ public class InvalidationTracker {
 
     AtomicBoolean mPendingRefresh = new AtomicBoolean(false);
 
+    // System.nanoTime() when the log table was last read, only valid once mHasRefreshed is set.
+    private volatile long mLastRefreshNanos;
+    private volatile boolean mHasRefreshed;
+
+    private final AtomicLong mRefreshCount = new AtomicLong();
+    private final AtomicLong mInvalidatedTableCount = new AtomicLong();
+    private final AtomicLong mNotifiedObserverCount = new AtomicLong();
+
+    // delays refreshes, then hands them to the query executor, and delays the broadcasts of the
+    // multi-instance invalidation batch windows. Shared by all databases and only created once a
+    // database needs it.
+    private static ScheduledExecutorService sRefreshScheduler;
+
     private volatile boolean mInitialized = false;
 
     @SuppressWarnings("WeakerAccess") /* synthetic access */
@@ -101,6 +130,11 @@ public class InvalidationTracker {
 
     private ObservedTableTracker mObservedTableTracker;
 
+    // column sets by their key, and by their id minus the number of tables. Column sets are never
+    // removed so that their ids stay valid, only their triggers are.
+    private final HashMap<String, ColumnSet> mColumnSetLookup = new HashMap<>();
+    private final ArrayList<ColumnSet> mColumnSets = new ArrayList<>();
+
     private final InvalidationLiveDataContainer mInvalidationLiveDataContainer;
 
     // should be accessed with synchronization only.
@@ -182,9 +216,9 @@ public class InvalidationTracker {
         }
     }
 
-    void startMultiInstanceInvalidation(Context context, String name) {
+    void startMultiInstanceInvalidation(Context context, String name, long batchWindowMillis) {
         mMultiInstanceInvalidationClient = new MultiInstanceInvalidationClient(context, name, this,
-                mDatabase.getQueryExecutor());
+                mDatabase.getQueryExecutor(), batchWindowMillis);
     }
 
     void stopMultiInstanceInvalidation() {
@@ -228,12 +262,66 @@ public class InvalidationTracker {
                     .append(trigger)
                     .append(" ON `")
                     .append(tableName)
-                    .append("` BEGIN UPDATE ")
-                    .append(UPDATE_TABLE_NAME)
-                    .append(" SET ").append(INVALIDATED_COLUMN_NAME).append(" = 1")
-                    .append(" WHERE ").append(TABLE_ID_COLUMN_NAME).append(" = ").append(tableId)
-                    .append(" AND ").append(INVALIDATED_COLUMN_NAME).append(" = 0")
-                    .append("; END");
+                    .append("` ");
+            appendTriggerBody(stringBuilder, tableId);
+            writableDb.execSQL(stringBuilder.toString());
+        }
+    }
+
+    private static void appendTriggerBody(StringBuilder builder, int trackedId) {
+        builder.append("BEGIN UPDATE ")
+                .append(UPDATE_TABLE_NAME)
+                .append(" SET ").append(INVALIDATED_COLUMN_NAME).append(" = 1")
+                .append(" WHERE ").append(TABLE_ID_COLUMN_NAME).append(" = ").append(trackedId)
+                .append(" AND ").append(INVALIDATED_COLUMN_NAME).append(" = 0")
+                .append("; END");
+    }
+
+    private static void appendColumnTriggerName(StringBuilder builder, ColumnSet columnSet,
+            String triggerType) {
+        builder.append("`")
+                .append("room_column_modification_trigger_")
+                .append(columnSet.mTableName)
+                .append("_")
+                .append(columnSet.mId)
+                .append("_")
+                .append(triggerType)
+                .append("`");
+    }
+
+    private void stopTrackingColumns(SupportSQLiteDatabase writableDb, ColumnSet columnSet) {
+        StringBuilder stringBuilder = new StringBuilder();
+        for (String trigger : TRIGGERS) {
+            stringBuilder.setLength(0);
+            stringBuilder.append("DROP TRIGGER IF EXISTS ");
+            appendColumnTriggerName(stringBuilder, columnSet, trigger);
+            writableDb.execSQL(stringBuilder.toString());
+        }
+    }
+
+    private void startTrackingColumns(SupportSQLiteDatabase writableDb, ColumnSet columnSet) {
+        writableDb.execSQL(
+                "INSERT OR IGNORE INTO " + UPDATE_TABLE_NAME + " VALUES(" + columnSet.mId + ", 0)");
+        StringBuilder stringBuilder = new StringBuilder();
+        for (String trigger : TRIGGERS) {
+            stringBuilder.setLength(0);
+            stringBuilder.append("CREATE TEMP TRIGGER IF NOT EXISTS ");
+            appendColumnTriggerName(stringBuilder, columnSet, trigger);
+            stringBuilder.append(" AFTER ")
+                    .append(trigger);
+            if ("UPDATE".equals(trigger)) {
+                stringBuilder.append(" OF ");
+                for (int i = 0; i < columnSet.mColumns.length; i++) {
+                    if (i > 0) {
+                        stringBuilder.append(", ");
+                    }
+                    stringBuilder.append("`").append(columnSet.mColumns[i]).append("`");
+                }
+            }
+            stringBuilder.append(" ON `")
+                    .append(columnSet.mTableName)
+                    .append("` ");
+            appendTriggerBody(stringBuilder, columnSet.mId);
             writableDb.execSQL(stringBuilder.toString());
         }
     }
@@ -247,7 +335,8 @@ public class InvalidationTracker {
      * <p>
      * If the observer already exists, this is a no-op call.
      * <p>
-     * If one of the tables in the Observer does not exist in the database, this method throws an
+     * If one of the tables in the Observer does not exist in the database, or one of the columns
+     * it observes does not exist in its table, this method throws an
      * {@link IllegalArgumentException}.
      *
      * @param observer The observer which listens the database for changes.
@@ -255,16 +344,24 @@ public class InvalidationTracker {
     @SuppressLint("RestrictedApi")
     @WorkerThread
     public void addObserver(@NonNull Observer observer) {
-        final String[] tableNames = resolveViews(observer.mTables);
-        int[] tableIds = new int[tableNames.length];
-        final int size = tableNames.length;
-
-        for (int i = 0; i < size; i++) {
-            Integer tableId = mTableIdLookup.get(tableNames[i].toLowerCase(Locale.US));
-            if (tableId == null) {
-                throw new IllegalArgumentException("There is no table with name " + tableNames[i]);
+        final String[] tableNames;
+        final int[] tableIds;
+        if (observer.mColumns != null) {
+            tableNames = observer.mTables;
+            tableIds = new int[]{getColumnSet(observer.mTables[0], observer.mColumns).mId};
+        } else {
+            tableNames = resolveViews(observer.mTables);
+            tableIds = new int[tableNames.length];
+            final int size = tableNames.length;
+
+            for (int i = 0; i < size; i++) {
+                Integer tableId = mTableIdLookup.get(tableNames[i].toLowerCase(Locale.US));
+                if (tableId == null) {
+                    throw new IllegalArgumentException(
+                            "There is no table with name " + tableNames[i]);
+                }
+                tableIds[i] = tableId;
             }
-            tableIds[i] = tableId;
         }
         ObserverWrapper wrapper = new ObserverWrapper(observer, tableIds, tableNames);
         ObserverWrapper currentObserver;
@@ -276,6 +373,77 @@ public class InvalidationTracker {
         }
     }
 
+    /**
+     * Returns the column set for the given columns of a table, creating it if needed.
+     */
+    private ColumnSet getColumnSet(String tableName, String[] columns) {
+        final String lowercaseName = tableName.toLowerCase(Locale.US);
+        final Integer tableId = mTableIdLookup.get(lowercaseName);
+        if (tableId == null) {
+            throw new IllegalArgumentException("There is no table with name " + tableName);
+        }
+        if (!mTableNames[tableId].equals(lowercaseName)) {
+            throw new IllegalArgumentException("Cannot observe columns of " + tableName
+                    + ", only columns of regular tables can be observed.");
+        }
+        final TreeSet<String> sortedColumns = new TreeSet<>();
+        for (String column : columns) {
+            sortedColumns.add(column.toLowerCase(Locale.US));
+        }
+        final String[] normalizedColumns = sortedColumns.toArray(new String[0]);
+        final String key = tableId + ":" + Arrays.toString(normalizedColumns);
+        synchronized (mColumnSets) {
+            final ColumnSet columnSet = mColumnSetLookup.get(key);
+            if (columnSet != null) {
+                return columnSet;
+            }
+        }
+        // An UPDATE OF trigger on a column that does not exist is created but never fires.
+        validateColumns(lowercaseName, normalizedColumns);
+        synchronized (mColumnSets) {
+            ColumnSet columnSet = mColumnSetLookup.get(key);
+            if (columnSet == null) {
+                final int id = mTableNames.length + mColumnSets.size();
+                columnSet = new ColumnSet(id, tableId, lowercaseName, normalizedColumns);
+                mObservedTableTracker.ensureCapacity(id + 1);
+                mColumnSets.add(columnSet);
+                mColumnSetLookup.put(key, columnSet);
+            }
+            return columnSet;
+        }
+    }
+
+    /**
+     * Throws an {@link IllegalArgumentException} if one of the lowercase columns is not a column
+     * of the table.
+     */
+    private void validateColumns(String tableName, String[] columns) {
+        final Set<String> tableColumns = new HashSet<>();
+        Cursor cursor = mDatabase.getOpenHelper().getWritableDatabase()
+                .query(new SimpleSQLiteQuery("PRAGMA table_info(`" + tableName + "`)"));
+        //noinspection TryFinallyCanBeTryWithResources
+        try {
+            final int nameIndex = cursor.getColumnIndex("name");
+            while (cursor.moveToNext()) {
+                tableColumns.add(cursor.getString(nameIndex).toLowerCase(Locale.US));
+            }
+        } finally {
+            cursor.close();
+        }
+        for (String column : columns) {
+            if (!tableColumns.contains(column)) {
+                throw new IllegalArgumentException(
+                        "There is no column " + column + " in table " + tableName);
+            }
+        }
+    }
+
+    private ColumnSet getColumnSet(int id) {
+        synchronized (mColumnSets) {
+            return mColumnSets.get(id - mTableNames.length);
+        }
+    }
+
     private String[] validateAndResolveTableNames(String[] tableNames) {
         String[] resolved = resolveViews(tableNames);
         for (String tableName : resolved) {
@@ -401,17 +569,28 @@ public class InvalidationTracker {
                 closeLock.unlock();
             }
             if (invalidatedTableIds != null && !invalidatedTableIds.isEmpty()) {
+                mInvalidatedTableCount.addAndGet(countTables(invalidatedTableIds));
+                int notified = 0;
                 synchronized (mObserverMap) {
                     for (Map.Entry<Observer, ObserverWrapper> entry : mObserverMap) {
-                        entry.getValue().notifyByTableInvalidStatus(invalidatedTableIds);
+                        if (entry.getValue().notifyByTableInvalidStatus(invalidatedTableIds)) {
+                            notified++;
+                        }
                     }
                 }
+                mNotifiedObserverCount.addAndGet(notified);
             }
         }
 
         private Set<Integer> checkUpdatedTable() {
+            mLastRefreshNanos = System.nanoTime();
+            mHasRefreshed = true;
+            mRefreshCount.incrementAndGet();
             HashSet<Integer> invalidatedTableIds = new HashSet<>();
-            Cursor cursor = mDatabase.query(new SimpleSQLiteQuery(SELECT_UPDATED_TABLES_SQL));
+            // The log is a temp table, so it only exists on the writer connection and must not
+            // be read through RoomDatabase#query, which may use a reader connection.
+            Cursor cursor = mDatabase.getOpenHelper().getWritableDatabase()
+                    .query(new SimpleSQLiteQuery(SELECT_UPDATED_TABLES_SQL));
             //noinspection TryFinallyCanBeTryWithResources
             try {
                 while (cursor.moveToNext()) {
@@ -428,19 +607,98 @@ public class InvalidationTracker {
         }
     };
 
+    /**
+     * Returns the number of tables the ids belong to, a column set belonging to its table.
+     */
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    int countTables(Set<Integer> ids) {
+        final Set<Integer> tableIds = new HashSet<>();
+        for (int id : ids) {
+            tableIds.add(id < mTableNames.length ? id : getColumnSet(id).mTableId);
+        }
+        return tableIds.size();
+    }
+
+    private final Runnable mDelayedRefreshRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mDatabase.getQueryExecutor().execute(mRefreshRunnable);
+        }
+    };
+
     /**
      * Enqueues a task to refresh the list of updated tables.
      * <p>
      * This method is automatically called when {@link RoomDatabase#endTransaction()} is called but
      * if you have another connection to the database or directly use {@link
      * SupportSQLiteDatabase}, you may need to call this manually.
+     * <p>
+     * If the database has an invalidation refresh interval, the task is delayed until the
+     * interval has elapsed since the last refresh.
+     *
+     * @see RoomDatabase.Builder#setInvalidationRefreshInterval(long, TimeUnit)
      */
     @SuppressWarnings("WeakerAccess")
     public void refreshVersionsAsync() {
         // TODO we should consider doing this sync instead of async.
         if (mPendingRefresh.compareAndSet(false, true)) {
-            mDatabase.getQueryExecutor().execute(mRefreshRunnable);
+            final long delayMillis = getRefreshDelayMillis();
+            if (delayMillis > 0) {
+                getRefreshScheduler().schedule(mDelayedRefreshRunnable, delayMillis,
+                        TimeUnit.MILLISECONDS);
+            } else {
+                mDatabase.getQueryExecutor().execute(mRefreshRunnable);
+            }
+        }
+    }
+
+    private long getRefreshDelayMillis() {
+        final long intervalMillis = mDatabase.mInvalidationRefreshIntervalMillis;
+        if (intervalMillis <= 0 || !mHasRefreshed) {
+            return 0;
+        }
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(
+                System.nanoTime() - mLastRefreshNanos);
+        return Math.max(0, intervalMillis - elapsedMillis);
+    }
+
+    static synchronized ScheduledExecutorService getRefreshScheduler() {
+        if (sRefreshScheduler == null) {
+            sRefreshScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(@NonNull Runnable runnable) {
+                    Thread thread = new Thread(runnable, "room_invalidation_refresh");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
         }
+        return sRefreshScheduler;
+    }
+
+    /**
+     * Returns the number of times the tracker read which tables were changed, usually once per
+     * transaction, or once per refresh interval if the database has one.
+     *
+     * @see RoomDatabase.Builder#setInvalidationRefreshInterval(long, TimeUnit)
+     */
+    public long refreshCount() {
+        return mRefreshCount.get();
+    }
+
+    /**
+     * Returns the number of tables found changed by the refreshes, counting a table once per
+     * refresh that found it changed, including when only observed columns of it changed.
+     */
+    public long invalidatedTableCount() {
+        return mInvalidatedTableCount.get();
+    }
+
+    /**
+     * Returns the number of times an {@link Observer} was notified of changed tables.
+     */
+    public long notifiedObserverCount() {
+        return mNotifiedObserverCount.get();
     }
 
     /**
@@ -467,13 +725,15 @@ public class InvalidationTracker {
     @RestrictTo(RestrictTo.Scope.LIBRARY)
     @VisibleForTesting(otherwise = VisibleForTesting.PACKAGE_PRIVATE)
     public void notifyObserversByTableNames(String... tables) {
+        int notified = 0;
         synchronized (mObserverMap) {
             for (Map.Entry<Observer, ObserverWrapper> entry : mObserverMap) {
-                if (!entry.getKey().isRemote()) {
-                    entry.getValue().notifyByTableNames(tables);
+                if (!entry.getKey().isRemote() && entry.getValue().notifyByTableNames(tables)) {
+                    notified++;
                 }
             }
         }
+        mNotifiedObserverCount.addAndGet(notified);
     }
 
     void syncTriggers(SupportSQLiteDatabase database) {
@@ -498,12 +758,21 @@ public class InvalidationTracker {
                     database.beginTransaction();
                     try {
                         for (int tableId = 0; tableId < limit; tableId++) {
+                            final boolean isTable = tableId < mTableNames.length;
                             switch (tablesToSync[tableId]) {
                                 case ObservedTableTracker.ADD:
-                                    startTrackingTable(database, tableId);
+                                    if (isTable) {
+                                        startTrackingTable(database, tableId);
+                                    } else {
+                                        startTrackingColumns(database, getColumnSet(tableId));
+                                    }
                                     break;
                                 case ObservedTableTracker.REMOVE:
-                                    stopTrackingTable(database, tableId);
+                                    if (isTable) {
+                                        stopTrackingTable(database, tableId);
+                                    } else {
+                                        stopTrackingColumns(database, getColumnSet(tableId));
+                                    }
                                     break;
                             }
                         }
@@ -612,8 +881,9 @@ public class InvalidationTracker {
          * based on the given invalid status set.
          *
          * @param invalidatedTablesIds The table ids of the tables that are invalidated.
+         * @return Whether the observer was notified.
          */
-        void notifyByTableInvalidStatus(Set<Integer> invalidatedTablesIds) {
+        boolean notifyByTableInvalidStatus(Set<Integer> invalidatedTablesIds) {
             Set<String> invalidatedTables = null;
             final int size = mTableIds.length;
             for (int index = 0; index < size; index++) {
@@ -632,7 +902,9 @@ public class InvalidationTracker {
             }
             if (invalidatedTables != null) {
                 mObserver.onInvalidated(invalidatedTables);
+                return true;
             }
+            return false;
         }
 
         /**
@@ -640,8 +912,9 @@ public class InvalidationTracker {
          * {@code tables}.
          *
          * @param tables The invalidated table names.
+         * @return Whether the observer was notified.
          */
-        void notifyByTableNames(String[] tables) {
+        boolean notifyByTableNames(String[] tables) {
             Set<String> invalidatedTables = null;
             if (mTableNames.length == 1) {
                 for (String table : tables) {
@@ -667,7 +940,9 @@ public class InvalidationTracker {
             }
             if (invalidatedTables != null) {
                 mObserver.onInvalidated(invalidatedTables);
+                return true;
             }
+            return false;
         }
     }
 
@@ -676,6 +951,9 @@ public class InvalidationTracker {
      */
     public abstract static class Observer {
         final String[] mTables;
+        // null when the observer is notified of any change of its tables.
+        @Nullable
+        final String[] mColumns;
 
         /**
          * Observes the given list of tables and views.
@@ -687,6 +965,7 @@ public class InvalidationTracker {
         protected Observer(@NonNull String firstTable, String... rest) {
             mTables = Arrays.copyOf(rest, rest.length + 1);
             mTables[rest.length] = firstTable;
+            mColumns = null;
         }
 
         /**
@@ -697,10 +976,40 @@ public class InvalidationTracker {
         public Observer(@NonNull String[] tables) {
             // copy tables in case user modifies them afterwards
             mTables = Arrays.copyOf(tables, tables.length);
+            mColumns = null;
+        }
+
+        /**
+         * Observes the given columns of a table.
+         * <p>
+         * The observer is notified when rows are inserted into or deleted from the table, and when
+         * an {@code UPDATE} statement sets one of the columns, even to the same value. Updates
+         * that only set other columns of the table do not notify it, which avoids running the
+         * queries of the observer again when they cannot have changed.
+         * <p>
+         * Only the columns of tables can be observed, not those of views or FTS tables. Adding
+         * the observer throws an {@link IllegalArgumentException} if one of the columns is not a
+         * column of the table.
+         *
+         * @param table   The name of the table.
+         * @param columns The names of the columns to observe.
+         */
+        public Observer(@NonNull String table, @NonNull Collection<String> columns) {
+            if (columns.isEmpty()) {
+                throw new IllegalArgumentException("At least one column must be observed.");
+            }
+            mTables = new String[]{table};
+            mColumns = columns.toArray(new String[columns.size()]);
+        }
+
+        Observer(@NonNull String[] tables, @Nullable String[] columns) {
+            mTables = tables;
+            mColumns = columns;
         }
 
         /**
-         * Called when one of the observed tables is invalidated in the database.
+         * Called when one of the observed tables, or observed columns, is invalidated in the
+         * database.
          *
          * @param tables A set of invalidated tables. This is useful when the observer targets
          *               multiple tables and you want to know which table is invalidated. This will
@@ -725,12 +1034,12 @@ public class InvalidationTracker {
         static final int REMOVE = 2; // remove triggers for this table
 
         // number of observers per table
-        final long[] mTableObservers;
+        long[] mTableObservers;
         // trigger state for each table at last sync
         // this field is updated when syncAndGet is called.
-        final boolean[] mTriggerStates;
+        boolean[] mTriggerStates;
         // when sync is called, this field is returned. It includes actions as ADD, REMOVE, NO_OP
-        final int[] mTriggerStateChanges;
+        int[] mTriggerStateChanges;
 
         boolean mNeedsSync;
 
@@ -749,6 +1058,22 @@ public class InvalidationTracker {
             Arrays.fill(mTriggerStates, false);
         }
 
+        /**
+         * Makes room to track ids up to {@code count - 1}, for column sets created after the
+         * tables.
+         */
+        void ensureCapacity(int count) {
+            synchronized (this) {
+                if (count <= mTableObservers.length) {
+                    return;
+                }
+                mTableObservers = Arrays.copyOf(mTableObservers, count);
+                mTriggerStates = Arrays.copyOf(mTriggerStates, count);
+                // a sync in progress keeps the array it was given.
+                mTriggerStateChanges = new int[count];
+            }
+        }
+
         /**
          * @return true if # of triggers is affected.
          */
@@ -824,6 +1149,24 @@ public class InvalidationTracker {
         }
     }
 
+    /**
+     * Columns of a table observed by at least one {@link Observer}. Observers of the same columns
+     * share the triggers and the memory table row of their column set.
+     */
+    static final class ColumnSet {
+        final int mId;
+        final int mTableId;
+        final String mTableName;
+        final String[] mColumns;
+
+        ColumnSet(int id, int tableId, String tableName, String[] columns) {
+            mId = id;
+            mTableId = tableId;
+            mTableName = tableName;
+            mColumns = columns;
+        }
+    }
+
     /**
      * An Observer wrapper that keeps a weak reference to the given object.
      * <p>
@@ -834,7 +1177,7 @@ public class InvalidationTracker {
         final WeakReference<Observer> mDelegateRef;
 
         WeakObserver(InvalidationTracker tracker, Observer delegate) {
-            super(delegate.mTables);
+            super(delegate.mTables, delegate.mColumns);
             mTracker = tracker;
             mDelegateRef = new WeakReference<>(delegate);
         }
@@ -27,16 +27,30 @@ import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Handles all the communication from {@link RoomDatabase} and {@link InvalidationTracker} to
  * {@link MultiInstanceInvalidationService}.
+ * <p>
+ * By default, the names of the invalidated tables are broadcast after every transaction. With a
+ * batch window, the client instead increments the versions of the tables in
+ * {@link SharedTableVersions} and only broadcasts that versions changed, at most once per window.
+ * The other clients then compare the versions with the ones they last saw.
  */
 class MultiInstanceInvalidationClient {
 
+    private static final String VERSIONS_FILE_SUFFIX = "-room-versions";
+
     /**
      * The application context.
      */
@@ -75,6 +89,35 @@ class MultiInstanceInvalidationClient {
     @SuppressWarnings("WeakerAccess")
     final Executor mExecutor;
 
+    /**
+     * The minimum time between two broadcasts of changed versions, in milliseconds, or a negative
+     * value to broadcast the invalidated tables after every transaction.
+     */
+    private final long mBatchWindowMillis;
+
+    /**
+     * The shared versions of the tables, null until the client is set up or if they are not used.
+     */
+    // synthetic access
+    @SuppressWarnings("WeakerAccess")
+    @Nullable
+    volatile SharedTableVersions mVersions;
+
+    /**
+     * The versions of the tables as this client last saw them, guarded by itself.
+     */
+    // synthetic access
+    @SuppressWarnings("WeakerAccess")
+    final long[] mSeenVersions;
+
+    // synthetic access
+    @SuppressWarnings("WeakerAccess")
+    final AtomicBoolean mBroadcastPending = new AtomicBoolean(false);
+
+    // synthetic access
+    @SuppressWarnings("WeakerAccess")
+    final AtomicBoolean mCheckPending = new AtomicBoolean(false);
+
     // synthetic access
     @SuppressWarnings("WeakerAccess")
     final IMultiInstanceInvalidationCallback mCallback =
@@ -88,8 +131,72 @@ class MultiInstanceInvalidationClient {
                         }
                     });
                 }
+
+                @Override
+                public void onVersionsChanged() {
+                    if (mCheckPending.compareAndSet(false, true)) {
+                        mExecutor.execute(mCheckVersionsRunnable);
+                    }
+                }
             };
 
+    // Finds the tables whose versions changed since this client last saw them, and notifies
+    // their observers.
+    // synthetic access
+    @SuppressWarnings("WeakerAccess")
+    final Runnable mCheckVersionsRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mCheckPending.set(false);
+            final SharedTableVersions versions = mVersions;
+            final boolean[] changed = new boolean[mSeenVersions.length];
+            if (versions == null) {
+                // the versions are not shared with this client, all the tables may have changed.
+                for (int id = 0; id < changed.length; id++) {
+                    changed[id] = true;
+                }
+            } else {
+                final long[] current = new long[mSeenVersions.length];
+                try {
+                    versions.read(current);
+                } catch (IOException e) {
+                    Log.w(Room.LOG_TAG, "Cannot read the shared table versions", e);
+                    return;
+                }
+                synchronized (mSeenVersions) {
+                    for (int id = 0; id < current.length; id++) {
+                        if (current[id] != mSeenVersions[id]) {
+                            mSeenVersions[id] = current[id];
+                            changed[id] = true;
+                        }
+                    }
+                }
+            }
+            final ArrayList<String> tables = new ArrayList<>();
+            for (Map.Entry<String, Integer> entry : mInvalidationTracker.mTableIdLookup
+                    .entrySet()) {
+                if (changed[entry.getValue()]) {
+                    tables.add(entry.getKey());
+                }
+            }
+            if (!tables.isEmpty()) {
+                mInvalidationTracker.notifyObserversByTableNames(
+                        tables.toArray(new String[0]));
+            }
+        }
+    };
+
+    // synthetic access
+    @SuppressWarnings("WeakerAccess")
+    final Runnable mBroadcastVersionsRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (mBroadcastPending.compareAndSet(true, false)) {
+                broadcastVersionsChanged();
+            }
+        }
+    };
+
     // synthetic access
     @SuppressWarnings("WeakerAccess")
     final AtomicBoolean mStopped = new AtomicBoolean(false);
@@ -120,6 +227,9 @@ class MultiInstanceInvalidationClient {
             try {
                 final IMultiInstanceInvalidationService service = mService;
                 if (service != null) {
+                    if (mBatchWindowMillis >= 0 && mVersions == null && !mStopped.get()) {
+                        openVersions();
+                    }
                     mClientId = service.registerCallback(mCallback, mName);
                     mInvalidationTracker.addObserver(mObserver);
                 }
@@ -144,13 +254,18 @@ class MultiInstanceInvalidationClient {
      * @param name                The name of the database file.
      * @param invalidationTracker The {@link InvalidationTracker}
      * @param executor            The background executor.
+     * @param batchWindowMillis   The minimum time between two broadcasts of changed table
+     *                            versions, or a negative value to broadcast the invalidated
+     *                            tables after every transaction.
      */
     MultiInstanceInvalidationClient(Context context, String name,
-            InvalidationTracker invalidationTracker, Executor executor) {
+            InvalidationTracker invalidationTracker, Executor executor, long batchWindowMillis) {
         mAppContext = context.getApplicationContext();
         mName = name;
         mInvalidationTracker = invalidationTracker;
         mExecutor = executor;
+        mBatchWindowMillis = batchWindowMillis;
+        mSeenVersions = new long[invalidationTracker.mTableNames.length];
         // Use all tables names for observer.
         final Set<String> tableNames = invalidationTracker.mTableIdLookup.keySet();
         mObserver = new InvalidationTracker.Observer(tableNames.toArray(new String[0])) {
@@ -159,6 +274,11 @@ class MultiInstanceInvalidationClient {
                 if (mStopped.get()) {
                     return;
                 }
+                final SharedTableVersions versions = mVersions;
+                if (versions != null) {
+                    incrementVersions(versions, tables);
+                    return;
+                }
                 try {
                     final IMultiInstanceInvalidationService service = mService;
                     if (service != null) {
@@ -178,9 +298,100 @@ class MultiInstanceInvalidationClient {
         mAppContext.bindService(intent, mServiceConnection, Context.BIND_AUTO_CREATE);
     }
 
+    // Opens the shared versions of the tables and starts from their current values, falling back
+    // to broadcasting the invalidated tables if they cannot be opened.
+    // synthetic access
+    @SuppressWarnings("WeakerAccess")
+    void openVersions() {
+        final File file = new File(mAppContext.getDatabasePath(mName).getPath()
+                + VERSIONS_FILE_SUFFIX);
+        final SharedTableVersions versions;
+        try {
+            versions = SharedTableVersions.acquire(file, mInvalidationTracker.mTableNames);
+        } catch (IOException e) {
+            Log.w(Room.LOG_TAG, "Cannot open the shared table versions", e);
+            return;
+        }
+        synchronized (mSeenVersions) {
+            if (!mStopped.get()) {
+                try {
+                    versions.read(mSeenVersions);
+                    mVersions = versions;
+                    return;
+                } catch (IOException e) {
+                    Log.w(Room.LOG_TAG, "Cannot read the shared table versions", e);
+                }
+            }
+        }
+        releaseVersions(versions);
+    }
+
+    private static void releaseVersions(@NonNull SharedTableVersions versions) {
+        try {
+            versions.release();
+        } catch (IOException e) {
+            Log.w(Room.LOG_TAG, "Cannot close the shared table versions", e);
+        }
+    }
+
+    // Increments the versions of the invalidated tables and schedules a broadcast, unless one is
+    // already pending.
+    // synthetic access
+    @SuppressWarnings("WeakerAccess")
+    void incrementVersions(@NonNull SharedTableVersions versions, @NonNull Set<String> tables) {
+        final int[] tableIds = new int[tables.size()];
+        int count = 0;
+        for (String table : tables) {
+            final Integer tableId = mInvalidationTracker.mTableIdLookup.get(
+                    table.toLowerCase(Locale.US));
+            if (tableId != null) {
+                tableIds[count++] = tableId;
+            }
+        }
+        final int[] changedIds = Arrays.copyOf(tableIds, count);
+        try {
+            final long[] newVersions = versions.increment(changedIds);
+            synchronized (mSeenVersions) {
+                for (int i = 0; i < changedIds.length; i++) {
+                    // only skip our own change, the table may have changed in another instance
+                    // since this client last saw it.
+                    if (mSeenVersions[changedIds[i]] == newVersions[i] - 1) {
+                        mSeenVersions[changedIds[i]] = newVersions[i];
+                    }
+                }
+            }
+        } catch (IOException e) {
+            Log.w(Room.LOG_TAG, "Cannot increment the shared table versions", e);
+            return;
+        }
+        if (mBroadcastPending.compareAndSet(false, true)) {
+            if (mBatchWindowMillis > 0) {
+                InvalidationTracker.getRefreshScheduler().schedule(mBroadcastVersionsRunnable,
+                        mBatchWindowMillis, TimeUnit.MILLISECONDS);
+            } else {
+                mBroadcastVersionsRunnable.run();
+            }
+        }
+    }
+
+    // synthetic access
+    @SuppressWarnings("WeakerAccess")
+    void broadcastVersionsChanged() {
+        try {
+            final IMultiInstanceInvalidationService service = mService;
+            if (service != null) {
+                service.broadcastVersionsChanged(mClientId);
+            }
+        } catch (RemoteException e) {
+            Log.w(Room.LOG_TAG, "Cannot broadcast changed table versions", e);
+        }
+    }
+
     void stop() {
         if (mStopped.compareAndSet(false, true)) {
             mInvalidationTracker.removeObserver(mObserver);
+            // do not leave the other instances waiting for a pending broadcast.
+            mBroadcastVersionsRunnable.run();
             try {
                 final IMultiInstanceInvalidationService service = mService;
                 if (service != null) {
@@ -190,6 +401,14 @@ class MultiInstanceInvalidationClient {
                 Log.w(Room.LOG_TAG, "Cannot unregister multi-instance invalidation callback", e);
             }
             mAppContext.unbindService(mServiceConnection);
+            final SharedTableVersions versions;
+            synchronized (mSeenVersions) {
+                versions = mVersions;
+                mVersions = null;
+            }
+            if (versions != null) {
+                releaseVersions(versions);
+            }
         }
     }
 }
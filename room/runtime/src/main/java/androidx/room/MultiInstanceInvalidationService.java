@@ -96,35 +96,54 @@ public class MultiInstanceInvalidationService extends Service {
                 // The broadcast is not sent to the caller itself.
                 @Override
                 public void broadcastInvalidation(int clientId, String[] tables) {
-                    synchronized (mCallbackList) {
-                        String name = mClientNames.get(clientId);
-                        if (name == null) {
-                            Log.w(Room.LOG_TAG, "Remote invalidation client ID not registered");
-                            return;
-                        }
-                        int count = mCallbackList.beginBroadcast();
-                        try {
-                            for (int i = 0; i < count; i++) {
-                                int targetClientId = (int) mCallbackList.getBroadcastCookie(i);
-                                String targetName = mClientNames.get(targetClientId);
-                                if (clientId == targetClientId // This is the caller itself.
-                                        || !name.equals(targetName)) { // Not the same file.
-                                    continue;
-                                }
-                                try {
-                                    IMultiInstanceInvalidationCallback callback =
-                                            mCallbackList.getBroadcastItem(i);
-                                    callback.onInvalidation(tables);
-                                } catch (RemoteException e) {
-                                    Log.w(Room.LOG_TAG, "Error invoking a remote callback", e);
-                                }
-                            }
-                        } finally {
-                            mCallbackList.finishBroadcast();
+                    broadcast(clientId, tables);
+                }
+
+                // Broadcasts that table versions changed, the other instances of the same
+                // database file read the versions to find the invalidated tables.
+                @Override
+                public void broadcastVersionsChanged(int clientId) {
+                    broadcast(clientId, null);
+                }
+            };
+
+    // Sends the invalidated tables, or that table versions changed if they are null, to the
+    // clients of the same database file as the caller.
+    // synthetic access
+    @SuppressWarnings("WeakerAccess")
+    void broadcast(int clientId, @Nullable String[] tables) {
+        synchronized (mCallbackList) {
+            String name = mClientNames.get(clientId);
+            if (name == null) {
+                Log.w(Room.LOG_TAG, "Remote invalidation client ID not registered");
+                return;
+            }
+            int count = mCallbackList.beginBroadcast();
+            try {
+                for (int i = 0; i < count; i++) {
+                    int targetClientId = (int) mCallbackList.getBroadcastCookie(i);
+                    String targetName = mClientNames.get(targetClientId);
+                    if (clientId == targetClientId // This is the caller itself.
+                            || !name.equals(targetName)) { // Not the same file.
+                        continue;
+                    }
+                    try {
+                        IMultiInstanceInvalidationCallback callback =
+                                mCallbackList.getBroadcastItem(i);
+                        if (tables != null) {
+                            callback.onInvalidation(tables);
+                        } else {
+                            callback.onVersionsChanged();
                         }
+                    } catch (RemoteException e) {
+                        Log.w(Room.LOG_TAG, "Error invoking a remote callback", e);
                     }
                 }
-            };
+            } finally {
+                mCallbackList.finishBroadcast();
+            }
+        }
+    }
 
     @Nullable
     @Override
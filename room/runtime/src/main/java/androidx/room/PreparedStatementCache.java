@@ -0,0 +1,234 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A least recently used cache of the statements compiled by a {@link RoomDatabase}, keyed by
+ * their SQL.
+ * <p>
+ * A cached statement belongs to the database connection that compiled it, so the cache is
+ * emptied whenever the database is closed or re-opened. A statement is taken out of the cache
+ * while it is in use and put back once it is released, so it is never shared between threads.
+ * If the same SQL is used by several threads at once, each of them gets its own statement and
+ * only one of them is kept when they are released.
+ * <p>
+ * The statements kept here are those Room runs directly: write queries whose SQL depends on the
+ * size of a collection argument, and shared statements of write queries that were busy in
+ * another thread. Write queries with a fixed SQL reuse their shared statement instead, and
+ * queries that return a {@link android.database.Cursor} cannot run from a compiled statement at
+ * all; those are cached by the SQLite connection itself, which is sized to match this cache.
+ * The counts reported here only cover the statements kept in this cache.
+ *
+ * @see RoomDatabase.Builder#setPreparedStatementCacheSize(int)
+ */
+public final class PreparedStatementCache {
+    /**
+     * Default number of statements kept, which is also the default size of the statement cache
+     * of a framework SQLite connection.
+     *
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX)
+    public static final int DEFAULT_SIZE = 25;
+
+    /**
+     * Largest number of statements that can be kept, which is also the limit of a framework
+     * SQLite connection.
+     */
+    static final int MAX_SIZE = 100;
+
+    // access ordered, so the eldest entry is the least recently released statement.
+    private final LinkedHashMap<String, SupportSQLiteStatement> mStatements =
+            new LinkedHashMap<>(16, 0.75f, true);
+
+    private int mMaxSize = DEFAULT_SIZE;
+
+    /** The connection that compiled the cached statements. */
+    @Nullable
+    private SupportSQLiteDatabase mDatabase;
+
+    private long mHitCount;
+    private long mMissCount;
+    private long mEvictionCount;
+
+    PreparedStatementCache() {
+    }
+
+    /**
+     * Returns a statement for the given SQL, taken from the cache or else compiled on
+     * {@code database}. It must be handed back to {@link #release} once it is not used anymore.
+     */
+    @NonNull
+    SupportSQLiteStatement acquire(@NonNull SupportSQLiteDatabase database, @NonNull String sql) {
+        final List<SupportSQLiteStatement> stale;
+        final SupportSQLiteStatement cached;
+        synchronized (this) {
+            stale = switchDatabaseLocked(database);
+            cached = mStatements.remove(sql);
+            if (cached != null) {
+                mHitCount++;
+            } else {
+                mMissCount++;
+            }
+        }
+        closeAll(stale);
+        if (cached != null) {
+            return cached;
+        }
+        return database.compileStatement(sql);
+    }
+
+    /**
+     * Puts back a statement returned by {@link #acquire}. Its bindings are cleared, and it is
+     * closed if the cache does not keep it, which is always the case if {@code database} is
+     * null because the database was closed.
+     */
+    void release(@Nullable SupportSQLiteDatabase database, @NonNull String sql,
+            @NonNull SupportSQLiteStatement statement) {
+        statement.clearBindings();
+        final List<SupportSQLiteStatement> discarded;
+        synchronized (this) {
+            if (database == null || database != mDatabase || mMaxSize == 0
+                    || mStatements.containsKey(sql)) {
+                discarded = new ArrayList<>(1);
+                discarded.add(statement);
+            } else {
+                mStatements.put(sql, statement);
+                discarded = trimLocked(mMaxSize);
+            }
+        }
+        closeAll(discarded);
+    }
+
+    /** Closes and removes every cached statement, for instance before the database closes. */
+    void clear() {
+        final List<SupportSQLiteStatement> discarded;
+        synchronized (this) {
+            discarded = new ArrayList<>(mStatements.values());
+            mStatements.clear();
+            mDatabase = null;
+        }
+        closeAll(discarded);
+    }
+
+    void setMaxSize(int maxSize) {
+        final List<SupportSQLiteStatement> discarded;
+        synchronized (this) {
+            mMaxSize = maxSize;
+            discarded = trimLocked(maxSize);
+        }
+        closeAll(discarded);
+    }
+
+    /**
+     * Returns the maximum number of statements kept.
+     */
+    public synchronized int maxSize() {
+        return mMaxSize;
+    }
+
+    /**
+     * Returns the number of statements currently kept, which does not include those in use.
+     */
+    public synchronized int size() {
+        return mStatements.size();
+    }
+
+    /**
+     * Returns the number of times a statement was reused from the cache.
+     */
+    public synchronized long hitCount() {
+        return mHitCount;
+    }
+
+    /**
+     * Returns the number of times a statement had to be compiled because none was cached.
+     */
+    public synchronized long missCount() {
+        return mMissCount;
+    }
+
+    /**
+     * Returns the number of statements that were closed to make room for more recently used
+     * ones.
+     */
+    public synchronized long evictionCount() {
+        return mEvictionCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        long accesses = mHitCount + mMissCount;
+        int hitPercent = accesses != 0 ? (int) (100 * mHitCount / accesses) : 0;
+        return "PreparedStatementCache[maxSize=" + mMaxSize + ",hits=" + mHitCount
+                + ",misses=" + mMissCount + ",hitRate=" + hitPercent + "%]";
+    }
+
+    @Nullable
+    private List<SupportSQLiteStatement> switchDatabaseLocked(SupportSQLiteDatabase database) {
+        if (database == mDatabase) {
+            return null;
+        }
+        // The statements were compiled on a connection that has been closed since.
+        final List<SupportSQLiteStatement> stale = new ArrayList<>(mStatements.values());
+        mStatements.clear();
+        mDatabase = database;
+        return stale;
+    }
+
+    @Nullable
+    private List<SupportSQLiteStatement> trimLocked(int maxSize) {
+        List<SupportSQLiteStatement> evicted = null;
+        final Iterator<Map.Entry<String, SupportSQLiteStatement>> iterator =
+                mStatements.entrySet().iterator();
+        while (mStatements.size() > maxSize && iterator.hasNext()) {
+            if (evicted == null) {
+                evicted = new ArrayList<>();
+            }
+            evicted.add(iterator.next().getValue());
+            iterator.remove();
+            mEvictionCount++;
+        }
+        return evicted;
+    }
+
+    private static void closeAll(@Nullable List<SupportSQLiteStatement> statements) {
+        if (statements == null) {
+            return;
+        }
+        for (SupportSQLiteStatement statement : statements) {
+            try {
+                statement.close();
+            } catch (IOException ignored) {
+                // Closing a compiled statement only releases its native resources.
+            }
+        }
+    }
+}
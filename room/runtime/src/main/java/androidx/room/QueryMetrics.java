@@ -0,0 +1,151 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+
+import java.util.List;
+
+/**
+ * Measurements of a query run by a {@link RoomDatabase}, reported to the
+ * {@link Callback} set with {@link RoomDatabase.Builder#setQueryMetricsCallback(Callback)}.
+ * <p>
+ * A query returns a cursor that reads its rows lazily. To measure the query, the cursor is made
+ * to count the rows before it is returned, which runs the query over all of them and fills the
+ * cursor with the first ones. The rows that do not fit in the cursor are read again later, when
+ * the cursor moves to them, and the time it takes is not included.
+ */
+public final class QueryMetrics {
+    @NonNull
+    private final String mSql;
+    private final int mArgCount;
+    private final int mRowCount;
+    private final long mPrepareTimeNanos;
+    private final long mStepTimeNanos;
+    private final long mTotalTimeNanos;
+    private final boolean mMainThread;
+    @Nullable
+    private final List<String> mFullTableScans;
+
+    /**
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX)
+    public QueryMetrics(@NonNull String sql, int argCount, int rowCount, long prepareTimeNanos,
+            long stepTimeNanos, long totalTimeNanos, boolean mainThread,
+            @Nullable List<String> fullTableScans) {
+        mSql = sql;
+        mArgCount = argCount;
+        mRowCount = rowCount;
+        mPrepareTimeNanos = prepareTimeNanos;
+        mStepTimeNanos = stepTimeNanos;
+        mTotalTimeNanos = totalTimeNanos;
+        mMainThread = mainThread;
+        mFullTableScans = fullTableScans;
+    }
+
+    /**
+     * @return The SQL of the query.
+     */
+    @NonNull
+    public String getSql() {
+        return mSql;
+    }
+
+    /**
+     * @return The number of arguments bound to the query.
+     */
+    public int getArgCount() {
+        return mArgCount;
+    }
+
+    /**
+     * @return The number of rows returned by the query.
+     */
+    public int getRowCount() {
+        return mRowCount;
+    }
+
+    /**
+     * @return The time it took to compile the query, or to get it from the statement cache of the
+     * connection, in nanoseconds.
+     */
+    public long getPrepareTimeNanos() {
+        return mPrepareTimeNanos;
+    }
+
+    /**
+     * @return The time it took to run the query over all of its rows, in nanoseconds.
+     */
+    public long getStepTimeNanos() {
+        return mStepTimeNanos;
+    }
+
+    /**
+     * @return The time it took to run the query from the call to the database, including the wait
+     * for a connection, in nanoseconds.
+     */
+    public long getTotalTimeNanos() {
+        return mTotalTimeNanos;
+    }
+
+    /**
+     * @return True if the query ran on the main thread.
+     */
+    public boolean isMainThread() {
+        return mMainThread;
+    }
+
+    /**
+     * Returns the steps of the query plan that scan a whole table, such as {@code "SCAN TABLE
+     * foo"}, as reported by {@code EXPLAIN QUERY PLAN}. The list is empty if the query does not
+     * scan any table, and null if query plans are not explained.
+     *
+     * @return The steps of the query plan that scan a whole table, or null.
+     * @see RoomDatabase.Builder#enableQueryPlanChecks()
+     */
+    @Nullable
+    public List<String> getFullTableScans() {
+        return mFullTableScans;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "QueryMetrics{sql='" + mSql + "', argCount=" + mArgCount
+                + ", rowCount=" + mRowCount + ", prepareTimeNanos=" + mPrepareTimeNanos
+                + ", stepTimeNanos=" + mStepTimeNanos + ", totalTimeNanos=" + mTotalTimeNanos
+                + ", mainThread=" + mMainThread + ", fullTableScans=" + mFullTableScans + "}";
+    }
+
+    /**
+     * Receives the measurements of the queries run by a {@link RoomDatabase}.
+     * <p>
+     * The callback is called on the thread that ran the query, right after it ran, so it should
+     * return quickly.
+     */
+    public interface Callback {
+        /**
+         * Called after a query ran.
+         *
+         * @param metrics The measurements of the query.
+         */
+        void onQuery(@NonNull QueryMetrics metrics);
+    }
+}
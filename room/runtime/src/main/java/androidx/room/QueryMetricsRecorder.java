@@ -0,0 +1,184 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room;
+
+import android.database.Cursor;
+import android.os.Build;
+import android.os.CancellationSignal;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteProgram;
+import androidx.sqlite.db.SupportSQLiteQuery;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Runs the queries of a {@link RoomDatabase} that has a {@link QueryMetrics.Callback}, measuring
+ * them and, if query plan checks are enabled, explaining the plan of each distinct SQL once to
+ * find the tables it scans.
+ */
+final class QueryMetricsRecorder {
+    private static final String EXPLAIN_QUERY_PLAN = "EXPLAIN QUERY PLAN ";
+
+    @NonNull
+    private final QueryMetrics.Callback mCallback;
+    // the full table scans of each SQL explained so far, null if query plans are not checked.
+    @Nullable
+    private final Map<String, List<String>> mFullTableScans;
+
+    QueryMetricsRecorder(@NonNull QueryMetrics.Callback callback, boolean checkQueryPlans) {
+        mCallback = callback;
+        mFullTableScans = checkQueryPlans ? new HashMap<String, List<String>>() : null;
+    }
+
+    /**
+     * Runs the query, reports its metrics to the callback and returns its cursor.
+     *
+     * @param database The connection to run the query on.
+     * @param query The query.
+     * @param signal The cancellation signal of the query, or null.
+     * @param startNanos The time the query was requested at, before getting a connection.
+     * @param mainThread True if the query runs on the main thread.
+     */
+    @NonNull
+    Cursor query(@NonNull SupportSQLiteDatabase database, @NonNull SupportSQLiteQuery query,
+            @Nullable CancellationSignal signal, long startNanos, boolean mainThread) {
+        final List<String> fullTableScans = findFullTableScans(database, query);
+        final long prepareStartNanos = System.nanoTime();
+        final Cursor cursor;
+        if (signal != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            cursor = database.query(query, signal);
+        } else {
+            cursor = database.query(query);
+        }
+        try {
+            final long stepStartNanos = System.nanoTime();
+            final int rowCount = cursor.getCount();
+            final long endNanos = System.nanoTime();
+            mCallback.onQuery(new QueryMetrics(query.getSql(), query.getArgCount(), rowCount,
+                    stepStartNanos - prepareStartNanos, endNanos - stepStartNanos,
+                    endNanos - startNanos, mainThread, fullTableScans));
+        } catch (RuntimeException e) {
+            cursor.close();
+            throw e;
+        }
+        return cursor;
+    }
+
+    /**
+     * Returns the full table scans in the plan of the query, explaining it if it was not yet, or
+     * null if query plans are not checked.
+     */
+    @Nullable
+    private List<String> findFullTableScans(@NonNull SupportSQLiteDatabase database,
+            @NonNull final SupportSQLiteQuery query) {
+        if (mFullTableScans == null) {
+            return null;
+        }
+        final String sql = query.getSql();
+        synchronized (mFullTableScans) {
+            final List<String> fullTableScans = mFullTableScans.get(sql);
+            if (fullTableScans != null) {
+                return fullTableScans;
+            }
+        }
+        final List<String> details = new ArrayList<>();
+        try {
+            final Cursor cursor = database.query(new SupportSQLiteQuery() {
+                @Override
+                public String getSql() {
+                    return EXPLAIN_QUERY_PLAN + sql;
+                }
+
+                @Override
+                public void bindTo(SupportSQLiteProgram statement) {
+                    query.bindTo(statement);
+                }
+
+                @Override
+                public int getArgCount() {
+                    return query.getArgCount();
+                }
+            });
+            try {
+                // the detail is the last column in all versions of SQLite.
+                final int detailIndex = cursor.getColumnCount() - 1;
+                while (cursor.moveToNext()) {
+                    details.add(cursor.getString(detailIndex));
+                }
+            } finally {
+                cursor.close();
+            }
+        } catch (RuntimeException e) {
+            Log.w(Room.LOG_TAG, "Cannot explain the query plan of " + sql, e);
+        }
+        final List<String> fullTableScans = Collections.unmodifiableList(
+                findFullTableScans(details));
+        synchronized (mFullTableScans) {
+            mFullTableScans.put(sql, fullTableScans);
+        }
+        return fullTableScans;
+    }
+
+    /**
+     * Returns the details of the steps of a query plan that scan a whole table, leaving out the
+     * scans that use an index, scans of virtual tables, and scans of subqueries and common table
+     * expressions, which are in memory.
+     * <p>
+     * Depending on the version of SQLite, a full table scan is described as
+     * {@code "SCAN TABLE foo"} or {@code "SCAN foo"}.
+     */
+    @VisibleForTesting
+    @NonNull
+    static List<String> findFullTableScans(@NonNull List<String> details) {
+        final Set<String> subqueries = new HashSet<>();
+        for (String detail : details) {
+            if (detail.startsWith("CO-ROUTINE ")) {
+                subqueries.add(detail.substring("CO-ROUTINE ".length()));
+            } else if (detail.startsWith("MATERIALIZE ")) {
+                subqueries.add(detail.substring("MATERIALIZE ".length()));
+            }
+        }
+        final List<String> fullTableScans = new ArrayList<>();
+        for (String detail : details) {
+            if (!detail.startsWith("SCAN ")) {
+                continue;
+            }
+            String table = detail.substring("SCAN ".length());
+            if (table.startsWith("TABLE ")) {
+                table = table.substring("TABLE ".length());
+            }
+            if (table.contains(" USING ") || table.contains(" VIRTUAL TABLE ")
+                    || table.equals("CONSTANT ROW") || table.startsWith("SUBQUERY ")
+                    || table.startsWith("(subquery") || subqueries.contains(table)) {
+                continue;
+            }
+            fullTableScans.add(detail);
+        }
+        return fullTableScans;
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A fixed set of connections that {@link RoomDatabase} uses to run queries outside of
+ * transactions, so that reads from several threads do not wait for each other nor for the
+ * writer connection.
+ * <p>
+ * This only works with databases in write-ahead logging mode, where readers see the last
+ * committed state of the database while a write is in progress. The connections are opened
+ * lazily with the same {@link SupportSQLiteOpenHelper.Factory} as the writer, once the writer
+ * has created or migrated the database, and are only ever used to run queries.
+ * <p>
+ * Each thread keeps using the connection it was first assigned, so the queries it runs
+ * repeatedly stay in that connection's statement cache.
+ */
+final class ReaderConnectionPool {
+    private final Context mContext;
+    private final String mName;
+    private final SupportSQLiteOpenHelper.Factory mFactory;
+    private final int mStatementCacheSize;
+
+    private final SupportSQLiteOpenHelper[] mHelpers;
+    private final AtomicReferenceArray<SupportSQLiteDatabase> mReaders;
+
+    private final AtomicInteger mNextIndex = new AtomicInteger();
+    private final ThreadLocal<Integer> mThreadIndex = new ThreadLocal<Integer>() {
+        @Override
+        protected Integer initialValue() {
+            return (mNextIndex.getAndIncrement() & Integer.MAX_VALUE) % mHelpers.length;
+        }
+    };
+
+    ReaderConnectionPool(@NonNull DatabaseConfiguration configuration) {
+        this(configuration.context, configuration.name, configuration.sqliteOpenHelperFactory,
+                configuration.readerConnectionPoolSize,
+                configuration.preparedStatementCacheSize);
+    }
+
+    @VisibleForTesting
+    ReaderConnectionPool(@NonNull Context context, @NonNull String name,
+            @NonNull SupportSQLiteOpenHelper.Factory factory, int size, int statementCacheSize) {
+        mContext = context;
+        mName = name;
+        mFactory = factory;
+        mStatementCacheSize = statementCacheSize;
+        mHelpers = new SupportSQLiteOpenHelper[size];
+        mReaders = new AtomicReferenceArray<>(size);
+    }
+
+    /**
+     * Returns the reader connection of the calling thread, opening it if needed.
+     *
+     * @param writer The open writer connection, whose schema version the reader expects.
+     */
+    @NonNull
+    SupportSQLiteDatabase acquire(@NonNull SupportSQLiteDatabase writer) {
+        final int index = mThreadIndex.get();
+        final SupportSQLiteDatabase reader = mReaders.get(index);
+        if (reader != null && reader.isOpen()) {
+            return reader;
+        }
+        return open(index, writer.getVersion());
+    }
+
+    /**
+     * Closes the reader connections. They are opened again the next time they are needed.
+     */
+    void close() {
+        synchronized (mHelpers) {
+            for (int i = 0; i < mHelpers.length; i++) {
+                mReaders.set(i, null);
+                if (mHelpers[i] != null) {
+                    mHelpers[i].close();
+                    mHelpers[i] = null;
+                }
+            }
+        }
+    }
+
+    @NonNull
+    private SupportSQLiteDatabase open(int index, int version) {
+        synchronized (mHelpers) {
+            final SupportSQLiteDatabase current = mReaders.get(index);
+            if (current != null && current.isOpen()) {
+                return current;
+            }
+            if (mHelpers[index] == null) {
+                final SupportSQLiteOpenHelper helper = mFactory.create(
+                        SupportSQLiteOpenHelper.Configuration.builder(mContext)
+                                .name(mName)
+                                .callback(new ReaderCallback(version, mStatementCacheSize))
+                                .build());
+                helper.setWriteAheadLoggingEnabled(true);
+                mHelpers[index] = helper;
+            }
+            final SupportSQLiteDatabase reader = mHelpers[index].getReadableDatabase();
+            mReaders.set(index, reader);
+            return reader;
+        }
+    }
+
+    /**
+     * The callback of a reader connection. The writer connection is always opened first, so a
+     * reader never has to create or migrate the database.
+     */
+    private static final class ReaderCallback extends SupportSQLiteOpenHelper.Callback {
+        private final int mStatementCacheSize;
+
+        ReaderCallback(int version, int statementCacheSize) {
+            super(version);
+            mStatementCacheSize = statementCacheSize;
+        }
+
+        @Override
+        public void onConfigure(@NonNull SupportSQLiteDatabase db) {
+            if (mStatementCacheSize != PreparedStatementCache.DEFAULT_SIZE) {
+                db.setMaxSqlCacheSize(mStatementCacheSize);
+            }
+        }
+
+        @Override
+        public void onCreate(@NonNull SupportSQLiteDatabase db) {
+            throw new IllegalStateException("A reader connection cannot create the database.");
+        }
+
+        @Override
+        public void onUpgrade(@NonNull SupportSQLiteDatabase db, int oldVersion,
+                int newVersion) {
+            throw new IllegalStateException("A reader connection cannot migrate the database"
+                    + " from version " + oldVersion + " to " + newVersion + ".");
+        }
+
+        @Override
+        public void onDowngrade(@NonNull SupportSQLiteDatabase db, int oldVersion,
+                int newVersion) {
+            onUpgrade(db, oldVersion, newVersion);
+        }
+    }
+}
@@ -19,6 +19,7 @@ package androidx.room;
 import android.annotation.SuppressLint;
 import android.app.ActivityManager;
 import android.content.Context;
+import android.content.pm.ApplicationInfo;
 import android.database.Cursor;
 import android.os.Build;
 import android.os.CancellationSignal;
@@ -53,6 +54,7 @@ import java.util.TreeMap;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -87,6 +89,8 @@ public abstract class RoomDatabase {
     private final InvalidationTracker mInvalidationTracker;
     private boolean mAllowMainThreadQueries;
     boolean mWriteAheadLoggingEnabled;
+    boolean mBatchedInsertsEnabled;
+    long mInvalidationRefreshIntervalMillis;
 
     /**
      * @deprecated Will be hidden in the next release.
@@ -97,6 +101,14 @@ public abstract class RoomDatabase {
 
     private final ReentrantReadWriteLock mCloseLock = new ReentrantReadWriteLock();
 
+    private final PreparedStatementCache mStatementCache = new PreparedStatementCache();
+
+    @Nullable
+    private ReaderConnectionPool mReaderPool;
+
+    @Nullable
+    private QueryMetricsRecorder mQueryMetricsRecorder;
+
     /**
      * {@link InvalidationTracker} uses this lock to prevent the database from closing while it is
      * querying database updates.
@@ -162,6 +174,7 @@ public abstract class RoomDatabase {
         if (mOpenHelper instanceof SQLiteCopyOpenHelper) {
             SQLiteCopyOpenHelper copyOpenHelper = (SQLiteCopyOpenHelper) mOpenHelper;
             copyOpenHelper.setDatabaseConfiguration(configuration);
+            copyOpenHelper.startBackgroundCopy(configuration.queryExecutor);
         }
         boolean wal = false;
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
@@ -173,9 +186,19 @@ public abstract class RoomDatabase {
         mTransactionExecutor = new TransactionExecutor(configuration.transactionExecutor);
         mAllowMainThreadQueries = configuration.allowMainThreadQueries;
         mWriteAheadLoggingEnabled = wal;
+        mStatementCache.setMaxSize(configuration.preparedStatementCacheSize);
+        mBatchedInsertsEnabled = configuration.batchedInserts;
+        if (wal && configuration.name != null && configuration.readerConnectionPoolSize > 0) {
+            mReaderPool = new ReaderConnectionPool(configuration);
+        }
+        mInvalidationRefreshIntervalMillis = configuration.invalidationRefreshIntervalMillis;
+        if (configuration.queryMetricsCallback != null) {
+            mQueryMetricsRecorder = new QueryMetricsRecorder(configuration.queryMetricsCallback,
+                    configuration.checkQueryPlans);
+        }
         if (configuration.multiInstanceInvalidation) {
             mInvalidationTracker.startMultiInstanceInvalidation(configuration.context,
-                    configuration.name);
+                    configuration.name, configuration.multiInstanceInvalidationBatchWindowMillis);
         }
     }
 
@@ -244,6 +267,10 @@ public abstract class RoomDatabase {
             closeLock.lock();
             try {
                 mInvalidationTracker.stopMultiInstanceInvalidation();
+                mStatementCache.clear();
+                if (mReaderPool != null) {
+                    mReaderPool.close();
+                }
                 mOpenHelper.close();
             } finally {
                 closeLock.unlock();
@@ -290,6 +317,9 @@ public abstract class RoomDatabase {
 
     /**
      * Convenience method to query the database with arguments.
+     * <p>
+     * The query always runs on the writer connection, so it may also change the database or
+     * the state of the connection, as some {@code PRAGMA} statements do.
      *
      * @param query The sql query
      * @param args  The bind arguments for the placeholders in the query
@@ -313,6 +343,9 @@ public abstract class RoomDatabase {
 
     /**
      * Wrapper for {@link SupportSQLiteDatabase#query(SupportSQLiteQuery)}.
+     * <p>
+     * If the database has reader connections, a query that is not part of a transaction runs
+     * on one of them, so it must not change the database.
      *
      * @param query The Query which includes the SQL and a bind callback for bind arguments.
      * @param signal The cancellation signal to be attached to the query.
@@ -322,11 +355,30 @@ public abstract class RoomDatabase {
     public Cursor query(@NonNull SupportSQLiteQuery query, @Nullable CancellationSignal signal) {
         assertNotMainThread();
         assertNotSuspendingTransaction();
+        final QueryMetricsRecorder recorder = mQueryMetricsRecorder;
+        final long startNanos = recorder != null ? System.nanoTime() : 0;
+        final SupportSQLiteDatabase database = getQueryDatabase();
+        if (recorder != null) {
+            return recorder.query(database, query, signal, startNanos, isMainThread());
+        }
         if (signal != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
-            return mOpenHelper.getWritableDatabase().query(query, signal);
+            return database.query(query, signal);
         } else {
-            return mOpenHelper.getWritableDatabase().query(query);
+            return database.query(query);
+        }
+    }
+
+    /**
+     * Returns the connection to run a query on: a reader connection if the database has some and
+     * the current thread is not in a transaction, since a reader would not see the changes made
+     * by the transaction, otherwise the writer connection.
+     */
+    private SupportSQLiteDatabase getQueryDatabase() {
+        final SupportSQLiteDatabase writer = mOpenHelper.getWritableDatabase();
+        if (mReaderPool == null || writer.inTransaction()) {
+            return writer;
         }
+        return mReaderPool.acquire(writer);
     }
 
     /**
@@ -341,6 +393,53 @@ public abstract class RoomDatabase {
         return mOpenHelper.getWritableDatabase().compileStatement(sql);
     }
 
+    /**
+     * Returns a compiled statement for the given SQL, reusing one that was compiled earlier on
+     * the same connection when possible. The statement must be handed back to
+     * {@link #releaseStatement(String, SupportSQLiteStatement)} once it is not used anymore,
+     * and must not be closed.
+     *
+     * @param sql The query to compile.
+     * @return The compiled query.
+     *
+     * @hide
+     */
+    @NonNull
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX)
+    public SupportSQLiteStatement acquireStatement(@NonNull String sql) {
+        assertNotMainThread();
+        assertNotSuspendingTransaction();
+        return mStatementCache.acquire(mOpenHelper.getWritableDatabase(), sql);
+    }
+
+    /**
+     * Hands back a statement returned by {@link #acquireStatement(String)} so that it can be
+     * reused.
+     *
+     * @param sql The query the statement was acquired for.
+     * @param statement The statement.
+     *
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX)
+    public void releaseStatement(@NonNull String sql, @NonNull SupportSQLiteStatement statement) {
+        // do not re-open a database that was closed while the statement was in use
+        mStatementCache.release(isOpen() ? mOpenHelper.getWritableDatabase() : null, sql,
+                statement);
+    }
+
+    /**
+     * Returns the cache of compiled statements of this database, which can be used to monitor
+     * how often statements are reused.
+     *
+     * @return The prepared statement cache.
+     * @see Builder#setPreparedStatementCacheSize(int)
+     */
+    @NonNull
+    public PreparedStatementCache getPreparedStatementCache() {
+        return mStatementCache;
+    }
+
     /**
      * Wrapper for {@link SupportSQLiteDatabase#beginTransaction()}.
      *
@@ -476,6 +575,20 @@ public abstract class RoomDatabase {
         return mOpenHelper.getWritableDatabase().inTransaction();
     }
 
+    /**
+     * Returns true if queries started from other threads would run on reader connections at the
+     * same time as those of the current thread, which is the case when the database has reader
+     * connections and the current thread is not in a transaction.
+     *
+     * @return True if queries can run concurrently with those of the current thread.
+     *
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX)
+    public boolean canRunQueriesConcurrently() {
+        return mReaderPool != null && !inTransaction();
+    }
+
     /**
      * Journal modes for SQLite database.
      *
@@ -549,8 +662,17 @@ public abstract class RoomDatabase {
         private boolean mAllowMainThreadQueries;
         private JournalMode mJournalMode;
         private boolean mMultiInstanceInvalidation;
+        private long mMultiInstanceInvalidationBatchWindowMillis = -1;
         private boolean mRequireMigration;
         private boolean mAllowDestructiveMigrationOnDowngrade;
+        private int mPreparedStatementCacheSize = PreparedStatementCache.DEFAULT_SIZE;
+        private boolean mBatchedInserts;
+        private int mReaderConnectionPoolSize;
+        private long mInvalidationRefreshIntervalMillis;
+        private boolean mSkipMigrationValidationInReleaseBuilds;
+        @Nullable
+        private QueryMetrics.Callback mQueryMetricsCallback;
+        private boolean mCheckQueryPlans;
         /**
          * Migrations, mapped by from-to pairs.
          */
@@ -565,6 +687,7 @@ public abstract class RoomDatabase {
 
         private String mCopyFromAssetPath;
         private File mCopyFromFile;
+        private boolean mCopyInBackground;
 
         Builder(@NonNull Context context, @NonNull Class<T> klass, @Nullable String name) {
             mContext = context;
@@ -584,6 +707,10 @@ public abstract class RoomDatabase {
          * the "assets/" folder of your application. For example, the path for a file located in
          * "assets/databases/products.db" would be "databases/products.db".
          * <p>
+         * The pre-packaged database can be compressed with gzip, in which case it is decompressed
+         * while it is copied. Naming it with a ".gz" extension, such as "databases/products.db.gz",
+         * keeps the build from compressing it again in the APK.
+         * <p>
          * The pre-packaged database schema will be validated. It might be best to create your
          * pre-packaged database schema utilizing the exported schema files generated when
          * {@link Database#exportSchema()} is enabled.
@@ -608,6 +735,9 @@ public abstract class RoomDatabase {
          * app database folder and then opens it. The given file must be accessible and the right
          * permissions must be granted for Room to copy the file.
          * <p>
+         * The file can be compressed with gzip, in which case it is decompressed while it is
+         * copied.
+         * <p>
          * The pre-packaged database schema will be validated. It might be best to create your
          * pre-packaged database schema utilizing the exported schema files generated when
          * {@link Database#exportSchema()} is enabled.
@@ -624,6 +754,24 @@ public abstract class RoomDatabase {
             return this;
         }
 
+        /**
+         * Configures Room to copy the pre-packaged database set with
+         * {@link #createFromAsset(String)} or {@link #createFromFile(File)} in the background as
+         * soon as the database is built, instead of when it is first opened.
+         * <p>
+         * The copy runs on the query executor. Opening the database, such as by running the
+         * first query, waits for the copy to complete. Copying a large pre-packaged database can
+         * take a while, so starting the copy early lets it run while the application does other
+         * work, rather than blocking the first query.
+         *
+         * @return This {@link Builder} instance.
+         */
+        @NonNull
+        public Builder<T> copyPrepackagedDatabaseInBackground() {
+            mCopyInBackground = true;
+            return this;
+        }
+
         /**
          * Sets the database factory. If not set, it defaults to
          * {@link FrameworkSQLiteOpenHelperFactory}.
@@ -709,6 +857,151 @@ public abstract class RoomDatabase {
             return this;
         }
 
+        /**
+         * Sets the number of compiled statements kept for reuse by each database connection.
+         * <p>
+         * Compiling a statement parses the SQL and plans the query, which can cost more than
+         * running it. Room keeps the statements of write queries it runs directly, such as
+         * those with collection arguments, in a least recently used cache of this size. Queries
+         * that return rows are compiled by the database connection, whose own statement cache
+         * is set to the same size. Larger caches use more memory.
+         * <p>
+         * The value must be between 0 and 100 inclusive. The default value is 25. Setting 0
+         * disables the cache of statements compiled by Room.
+         *
+         * @param size The number of statements to keep.
+         * @return This {@link Builder} instance.
+         *
+         * @see RoomDatabase#getPreparedStatementCache()
+         */
+        @NonNull
+        public Builder<T> setPreparedStatementCacheSize(int size) {
+            if (size < 0 || size > PreparedStatementCache.MAX_SIZE) {
+                throw new IllegalArgumentException("The prepared statement cache size must be"
+                        + " between 0 and " + PreparedStatementCache.MAX_SIZE + ", was " + size);
+            }
+            mPreparedStatementCacheSize = size;
+            return this;
+        }
+
+        /**
+         * Sets the number of read-only connections Room opens to run queries that are not part
+         * of a transaction.
+         * <p>
+         * A single connection runs one statement at a time, so by default queries issued from
+         * several threads wait for each other and for any write in progress. In
+         * {@link JournalMode#WRITE_AHEAD_LOGGING write-ahead logging} mode, readers see the last
+         * committed state of the database while it is written to, so Room can run queries on
+         * separate connections in parallel. Writes and transactions, including the queries
+         * they contain, always use the single writer connection. A value close to the number
+         * of threads of the query executor, or of processor cores, is usually a good choice.
+         * Each connection uses memory for its page and statement caches.
+         * <p>
+         * The default value is 0, which runs every query on the writer connection. Reader
+         * connections are not used for in-memory databases or when the journal mode does not
+         * resolve to write-ahead logging.
+         *
+         * @param size The number of reader connections.
+         * @return This {@link Builder} instance.
+         */
+        @NonNull
+        public Builder<T> setReaderConnectionPoolSize(int size) {
+            if (size < 0) {
+                throw new IllegalArgumentException("The reader connection pool size cannot be"
+                        + " negative, was " + size);
+            }
+            mReaderConnectionPoolSize = size;
+            return this;
+        }
+
+        /**
+         * Sets the minimum time between two checks for tables invalidated by write
+         * transactions.
+         * <p>
+         * After each transaction, the {@link InvalidationTracker} reads which tables were changed
+         * and notifies their observers, so that {@code LiveData}, {@code Flowable} and other
+         * observable queries run again. When many small transactions are committed in a short
+         * time, those checks and the queries they cause can cost more than the writes
+         * themselves. With an interval, the first transaction after a quiet period is still
+         * checked right away, but the changes made by later ones are checked together once the
+         * interval has elapsed, so their observers are notified once.
+         * <p>
+         * The default value is 0, which checks after every transaction.
+         *
+         * @param interval The minimum time between two checks.
+         * @param unit     The unit of {@code interval}.
+         * @return This {@link Builder} instance.
+         *
+         * @see InvalidationTracker#refreshCount()
+         */
+        @NonNull
+        public Builder<T> setInvalidationRefreshInterval(long interval, @NonNull TimeUnit unit) {
+            if (interval < 0) {
+                throw new IllegalArgumentException("The invalidation refresh interval cannot be"
+                        + " negative, was " + interval);
+            }
+            mInvalidationRefreshIntervalMillis = unit.toMillis(interval);
+            return this;
+        }
+
+        /**
+         * Skips the validation of the database schema after {@link Migration}s run, unless the
+         * application is debuggable.
+         * <p>
+         * After migrating a database, Room reads the columns, foreign keys and indices of every
+         * table and compares them to the entities, to catch migrations that do not create the
+         * expected schema. This costs several queries per table and can take a significant part
+         * of opening a database with many tables. Since a migration produces the same schema
+         * every time it runs, validating it in debuggable builds, such as when running
+         * {@code MigrationTestHelper} tests, is enough to catch those mistakes.
+         * <p>
+         * This is not enabled by default.
+         *
+         * @return This {@link Builder} instance.
+         */
+        @NonNull
+        public Builder<T> skipMigrationValidationInReleaseBuilds() {
+            mSkipMigrationValidationInReleaseBuilds = true;
+            return this;
+        }
+
+        /**
+         * Sets a callback that receives the measurements of every query run by the database,
+         * such as how long it took and how many rows it returned.
+         * <p>
+         * To measure a query, Room counts its rows before returning its cursor, which is done
+         * by the generated code of most queries anyway but makes a query returning a
+         * {@link Cursor} run over all of its rows right away. Statements that change the
+         * database are not measured.
+         *
+         * @param callback The callback receiving the measurements.
+         * @return This {@link Builder} instance.
+         *
+         * @see QueryMetrics
+         */
+        @NonNull
+        public Builder<T> setQueryMetricsCallback(@NonNull QueryMetrics.Callback callback) {
+            mQueryMetricsCallback = callback;
+            return this;
+        }
+
+        /**
+         * Explains the plan of each distinct query with {@code EXPLAIN QUERY PLAN} the first
+         * time it runs, and reports the tables it scans without an index in
+         * {@link QueryMetrics#getFullTableScans()}.
+         * <p>
+         * This runs an extra query the first time each query runs, and keeps the result for as
+         * long as the database is open, so it is meant for debug builds. It requires a callback
+         * set with {@link #setQueryMetricsCallback(QueryMetrics.Callback)}.
+         *
+         * @return This {@link Builder} instance.
+         */
+        @NonNull
+        public Builder<T> enableQueryPlanChecks() {
+            mCheckQueryPlans = true;
+            return this;
+        }
+
         /**
          * Sets the {@link Executor} that will be used to execute all non-blocking asynchronous
          * queries and tasks, including {@code LiveData} invalidation, {@code Flowable} scheduling
@@ -777,6 +1070,56 @@ public abstract class RoomDatabase {
         @NonNull
         public Builder<T> enableMultiInstanceInvalidation() {
             mMultiInstanceInvalidation = mName != null;
+            mMultiInstanceInvalidationBatchWindowMillis = -1;
+            return this;
+        }
+
+        /**
+         * Enables multi-instance invalidation like {@link #enableMultiInstanceInvalidation()}, but
+         * instead of broadcasting the names of the invalidated tables after every transaction,
+         * this instance increments a version of each table in a file shared by all the instances
+         * of the database, and only notifies the other instances that versions changed, at most
+         * once per {@code batchWindow}. The other instances read the versions to find which tables
+         * changed.
+         * <p>
+         * This reduces the work of apps whose processes write often, at the cost of delaying the
+         * invalidation of the other instances by up to {@code batchWindow}. All the instances of
+         * the database should enable multi-instance invalidation the same way.
+         *
+         * @param batchWindow The minimum time between two notifications of the other instances, 0
+         *                    to notify them after every transaction.
+         * @param unit        The unit of {@code batchWindow}.
+         * @return This {@link Builder} instance.
+         */
+        @NonNull
+        public Builder<T> enableMultiInstanceInvalidation(long batchWindow,
+                @NonNull TimeUnit unit) {
+            if (batchWindow < 0) {
+                throw new IllegalArgumentException("The multi-instance invalidation batch window"
+                        + " cannot be negative, was " + batchWindow);
+            }
+            mMultiInstanceInvalidation = mName != null;
+            mMultiInstanceInvalidationBatchWindowMillis = unit.toMillis(batchWindow);
+            return this;
+        }
+
+        /**
+         * Sets whether {@link Insert} methods that insert several entities at once should bind
+         * them into multi-row {@code INSERT ... VALUES (...), (...)} statements instead of
+         * running a statement for each entity.
+         * <p>
+         * Batching makes bulk inserts considerably faster. Methods that return the row ids of
+         * the inserted entities still insert them one at a time, since the row ids of the rows
+         * of a multi-row statement cannot be told apart. Multi-row statements need SQLite
+         * 3.7.11, so entities are also inserted one at a time before API 16.
+         * <p>
+         * This is not enabled by default.
+         *
+         * @return This {@link Builder} instance.
+         */
+        @NonNull
+        public Builder<T> enableBatchedInserts() {
+            mBatchedInserts = true;
             return this;
         }
 
@@ -919,6 +1262,18 @@ public abstract class RoomDatabase {
                 mFactory = new FrameworkSQLiteOpenHelperFactory();
             }
 
+            if (mCheckQueryPlans && mQueryMetricsCallback == null) {
+                throw new IllegalArgumentException("enableQueryPlanChecks() was called on this "
+                        + "Builder but there is no callback to report the query plans to, use "
+                        + "setQueryMetricsCallback() to set it.");
+            }
+
+            if (mCopyInBackground && mCopyFromAssetPath == null && mCopyFromFile == null) {
+                throw new IllegalArgumentException("copyPrepackagedDatabaseInBackground() was "
+                        + "called on this Builder but there is no pre-packaged database to copy, "
+                        + "use createFromAsset() or createFromFile() to set it.");
+            }
+
             if (mCopyFromAssetPath != null || mCopyFromFile != null) {
                 if (mName == null) {
                     throw new IllegalArgumentException("Cannot create from asset or file for an "
@@ -930,7 +1285,7 @@ public abstract class RoomDatabase {
                             + "only be created using one of the two configurations.");
                 }
                 mFactory = new SQLiteCopyOpenHelperFactory(mCopyFromAssetPath, mCopyFromFile,
-                        mFactory);
+                        mCopyInBackground, mFactory);
             }
             DatabaseConfiguration configuration =
                     new DatabaseConfiguration(
@@ -948,11 +1303,23 @@ public abstract class RoomDatabase {
                             mAllowDestructiveMigrationOnDowngrade,
                             mMigrationsNotRequiredFrom,
                             mCopyFromAssetPath,
-                            mCopyFromFile);
+                            mCopyFromFile,
+                            mPreparedStatementCacheSize,
+                            mBatchedInserts,
+                            mReaderConnectionPoolSize,
+                            mInvalidationRefreshIntervalMillis,
+                            !mSkipMigrationValidationInReleaseBuilds || isDebuggable(mContext),
+                            mQueryMetricsCallback,
+                            mCheckQueryPlans,
+                            mMultiInstanceInvalidationBatchWindowMillis);
             T db = Room.getGeneratedImplementation(mDatabaseClass, DB_IMPL_SUFFIX);
             db.init(configuration);
             return db;
         }
+
+        private static boolean isDebuggable(@NonNull Context context) {
+            return (context.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+        }
     }
 
     /**
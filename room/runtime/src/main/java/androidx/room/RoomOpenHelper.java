@@ -17,6 +17,7 @@
 package androidx.room;
 
 import android.database.Cursor;
+import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -27,6 +28,7 @@ import androidx.sqlite.db.SupportSQLiteDatabase;
 import androidx.sqlite.db.SupportSQLiteOpenHelper;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * An open helper that holds a reference to the configuration until the database is opened.
@@ -48,6 +50,21 @@ public class RoomOpenHelper extends SupportSQLiteOpenHelper.Callback {
      */
     @NonNull // b/64290754
     private final String mLegacyHash;
+    /**
+     * Kept apart from the configuration, which is released once the database is open, since the
+     * cache size has to be set again every time the database is re-opened.
+     */
+    private final int mPreparedStatementCacheSize;
+
+    /**
+     * The time spent in each step of opening the database, in nanoseconds, logged once it is
+     * open.
+     */
+    private long mOpenStartNanos;
+    private long mCreateNanos;
+    private long mMigrateNanos;
+    private long mValidateNanos;
+    private long mIdentityNanos;
 
     public RoomOpenHelper(@NonNull DatabaseConfiguration configuration, @NonNull Delegate delegate,
             @NonNull String identityHash, @NonNull String legacyHash) {
@@ -56,6 +73,7 @@ public class RoomOpenHelper extends SupportSQLiteOpenHelper.Callback {
         mDelegate = delegate;
         mIdentityHash = identityHash;
         mLegacyHash = legacyHash;
+        mPreparedStatementCacheSize = configuration.preparedStatementCacheSize;
     }
 
     public RoomOpenHelper(@NonNull DatabaseConfiguration configuration, @NonNull Delegate delegate,
@@ -65,23 +83,28 @@ public class RoomOpenHelper extends SupportSQLiteOpenHelper.Callback {
 
     @Override
     public void onConfigure(SupportSQLiteDatabase db) {
+        mOpenStartNanos = System.nanoTime();
         super.onConfigure(db);
+        if (mPreparedStatementCacheSize != PreparedStatementCache.DEFAULT_SIZE) {
+            // compiled queries are cached by the connection itself, since they have to be run
+            // through SupportSQLiteDatabase#query(), which only accepts SQL. The framework
+            // connection already keeps DEFAULT_SIZE statements, so only other sizes are set.
+            db.setMaxSqlCacheSize(mPreparedStatementCacheSize);
+        }
     }
 
     @Override
     public void onCreate(SupportSQLiteDatabase db) {
+        final long start = System.nanoTime();
         boolean isEmptyDatabase = hasEmptySchema(db);
         mDelegate.createAllTables(db);
-        if (!isEmptyDatabase) {
+        mCreateNanos = System.nanoTime() - start;
+        if (!isEmptyDatabase && !hasValidIdentity(db)) {
             // A 0 version pre-populated database goes through the create path because the
             // framework's SQLiteOpenHelper thinks the database was just created from scratch. If we
             // find the database not to be empty, then it is a pre-populated, we must validate it to
-            // see if its suitable for usage.
-            ValidationResult result = mDelegate.onValidateSchema(db);
-            if (!result.isValid) {
-                throw new IllegalStateException("Pre-packaged database has an invalid schema: "
-                        + result.expectedFoundMsg);
-            }
+            // see if its suitable for usage, unless Room created it with the same schema.
+            validateSchema(db, "Pre-packaged database has an invalid schema: ");
         }
         updateIdentity(db);
         mDelegate.onCreate(db);
@@ -94,14 +117,14 @@ public class RoomOpenHelper extends SupportSQLiteOpenHelper.Callback {
             List<Migration> migrations = mConfiguration.migrationContainer.findMigrationPath(
                     oldVersion, newVersion);
             if (migrations != null) {
+                final long start = System.nanoTime();
                 mDelegate.onPreMigrate(db);
                 for (Migration migration : migrations) {
                     migration.migrate(db);
                 }
-                ValidationResult result = mDelegate.onValidateSchema(db);
-                if (!result.isValid) {
-                    throw new IllegalStateException("Migration didn't properly handle: "
-                            + result.expectedFoundMsg);
+                mMigrateNanos = System.nanoTime() - start;
+                if (mConfiguration.validateMigrations) {
+                    validateSchema(db, "Migration didn't properly handle: ");
                 }
                 mDelegate.onPostMigrate(db);
                 updateIdentity(db);
@@ -132,25 +155,19 @@ public class RoomOpenHelper extends SupportSQLiteOpenHelper.Callback {
     @Override
     public void onOpen(SupportSQLiteDatabase db) {
         super.onOpen(db);
+        final long start = System.nanoTime();
+        final long validateNanos = mValidateNanos;
         checkIdentity(db);
+        mIdentityNanos = System.nanoTime() - start - (mValidateNanos - validateNanos);
         mDelegate.onOpen(db);
         // there might be too many configurations etc, just clear it.
         mConfiguration = null;
+        logOpenTimes();
     }
 
     private void checkIdentity(SupportSQLiteDatabase db) {
         if (hasRoomMasterTable(db)) {
-            String identityHash = null;
-            Cursor cursor = db.query(new SimpleSQLiteQuery(RoomMasterTable.READ_QUERY));
-            //noinspection TryFinallyCanBeTryWithResources
-            try {
-                if (cursor.moveToFirst()) {
-                    identityHash = cursor.getString(0);
-                }
-            } finally {
-                cursor.close();
-            }
-            if (!mIdentityHash.equals(identityHash) && !mLegacyHash.equals(identityHash)) {
+            if (!isValidIdentity(readIdentityHash(db))) {
                 throw new IllegalStateException("Room cannot verify the data integrity. Looks like"
                         + " you've changed schema but forgot to update the version number. You can"
                         + " simply fix this by increasing the version number.");
@@ -158,16 +175,48 @@ public class RoomOpenHelper extends SupportSQLiteOpenHelper.Callback {
         } else {
             // No room_master_table, this might an a pre-populated DB, we must validate to see if
             // its suitable for usage.
-            ValidationResult result = mDelegate.onValidateSchema(db);
-            if (!result.isValid) {
-                throw new IllegalStateException("Pre-packaged database has an invalid schema: "
-                        + result.expectedFoundMsg);
-            }
+            validateSchema(db, "Pre-packaged database has an invalid schema: ");
             mDelegate.onPostMigrate(db);
             updateIdentity(db);
         }
     }
 
+    private boolean hasValidIdentity(SupportSQLiteDatabase db) {
+        return hasRoomMasterTable(db) && isValidIdentity(readIdentityHash(db));
+    }
+
+    private boolean isValidIdentity(@Nullable String identityHash) {
+        return mIdentityHash.equals(identityHash) || mLegacyHash.equals(identityHash);
+    }
+
+    private void validateSchema(SupportSQLiteDatabase db, String errorPrefix) {
+        final long start = System.nanoTime();
+        ValidationResult result = mDelegate.onValidateSchema(db);
+        mValidateNanos += System.nanoTime() - start;
+        if (!result.isValid) {
+            throw new IllegalStateException(errorPrefix + result.expectedFoundMsg);
+        }
+    }
+
+    private void logOpenTimes() {
+        if (Log.isLoggable(Room.LOG_TAG, Log.DEBUG)) {
+            final long totalNanos = System.nanoTime() - mOpenStartNanos;
+            Log.d(Room.LOG_TAG, "Opened database in " + toMillis(totalNanos) + " ms: tables"
+                    + " created in " + toMillis(mCreateNanos) + " ms, migrations run in "
+                    + toMillis(mMigrateNanos) + " ms, schema validated in "
+                    + toMillis(mValidateNanos) + " ms, identity checked in "
+                    + toMillis(mIdentityNanos) + " ms");
+        }
+        mCreateNanos = 0;
+        mMigrateNanos = 0;
+        mValidateNanos = 0;
+        mIdentityNanos = 0;
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
     private void updateIdentity(SupportSQLiteDatabase db) {
         createMasterTableIfNotExists(db);
         db.execSQL(RoomMasterTable.createInsertQuery(mIdentityHash));
@@ -177,6 +226,17 @@ public class RoomOpenHelper extends SupportSQLiteOpenHelper.Callback {
         db.execSQL(RoomMasterTable.CREATE_QUERY);
     }
 
+    @Nullable
+    private static String readIdentityHash(SupportSQLiteDatabase db) {
+        Cursor cursor = db.query(new SimpleSQLiteQuery(RoomMasterTable.READ_QUERY));
+        //noinspection TryFinallyCanBeTryWithResources
+        try {
+            return cursor.moveToFirst() ? cursor.getString(0) : null;
+        } finally {
+            cursor.close();
+        }
+    }
+
     private static boolean hasRoomMasterTable(SupportSQLiteDatabase db) {
         Cursor cursor = db.query("SELECT 1 FROM sqlite_master WHERE type = 'table' AND name='"
                 + RoomMasterTable.TABLE_NAME + "'");
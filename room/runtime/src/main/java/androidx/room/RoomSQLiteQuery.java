@@ -25,30 +25,30 @@ import androidx.sqlite.db.SupportSQLiteQuery;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.util.Arrays;
-import java.util.Iterator;
-import java.util.Map;
-import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * This class is used as an intermediate place to keep binding arguments so that we can run
  * Cursor queries with correct types rather than passing everything as a string.
  * <p>
  * Because it is relatively a big object, they are pooled and must be released after each use.
+ * The pool is split into stripes that threads use according to their id, and has no lock.
  *
  * @hide
  */
 @SuppressWarnings("unused")
 @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX)
 public class RoomSQLiteQuery implements SupportSQLiteQuery, SupportSQLiteProgram {
-    @SuppressWarnings("WeakerAccess")
+    // Number of pooled queries kept for each capacity, in each stripe of the pool.
     @VisibleForTesting
-    // Maximum number of queries we'll keep cached.
-    static final int POOL_LIMIT = 15;
-    @SuppressWarnings("WeakerAccess")
+    static final int SLOTS_PER_CAPACITY = 2;
+    // Queries are pooled for capacities 0, 1, 3, 7, 15, 31, 63 and 127, each query with the
+    // smallest of them that fits its arguments. Bigger queries are not pooled.
+    private static final int CAPACITY_CLASSES = 8;
     @VisibleForTesting
-    // Once we hit POOL_LIMIT, we'll bring the pool size back to the desired number. We always
-    // clear the bigger queries (# of arguments).
-    static final int DESIRED_POOL_SIZE = 10;
+    static final int MAX_POOLED_CAPACITY = (1 << (CAPACITY_CLASSES - 1)) - 1;
+    // Each thread uses the stripe chosen by its id, so that threads rarely compete for a slot.
+    private static final int STRIPES = stripeCount();
     private volatile String mQuery;
     @SuppressWarnings("WeakerAccess")
     @VisibleForTesting
@@ -74,9 +74,13 @@ public class RoomSQLiteQuery implements SupportSQLiteQuery, SupportSQLiteProgram
     int mArgCount;
 
 
+    // Slot i * SLOTS_PER_CAPACITY + j of stripe s is at index
+    // (s * CAPACITY_CLASSES + i) * SLOTS_PER_CAPACITY + j. Slots are taken and filled with
+    // compare-and-set, so the pool has no lock.
     @SuppressWarnings("WeakerAccess")
     @VisibleForTesting
-    static final TreeMap<Integer, RoomSQLiteQuery> sQueryPool = new TreeMap<>();
+    static final AtomicReferenceArray<RoomSQLiteQuery> sQueryPool =
+            new AtomicReferenceArray<>(STRIPES * CAPACITY_CLASSES * SLOTS_PER_CAPACITY);
 
     /**
      * Copies the given SupportSQLiteQuery and converts it into RoomSQLiteQuery.
@@ -138,17 +142,23 @@ public class RoomSQLiteQuery implements SupportSQLiteQuery, SupportSQLiteProgram
      */
     @SuppressWarnings("WeakerAccess")
     public static RoomSQLiteQuery acquire(String query, int argumentCount) {
-        synchronized (sQueryPool) {
-            final Map.Entry<Integer, RoomSQLiteQuery> entry =
-                    sQueryPool.ceilingEntry(argumentCount);
-            if (entry != null) {
-                sQueryPool.remove(entry.getKey());
-                final RoomSQLiteQuery sqliteQuery = entry.getValue();
-                sqliteQuery.init(query, argumentCount);
-                return sqliteQuery;
+        final int capacityClass = capacityClassOf(argumentCount);
+        RoomSQLiteQuery sqLiteQuery = null;
+        if (capacityClass < CAPACITY_CLASSES) {
+            final int first = firstSlotOf(capacityClass);
+            for (int i = first; i < first + SLOTS_PER_CAPACITY; i++) {
+                final RoomSQLiteQuery pooled = sQueryPool.get(i);
+                if (pooled != null && sQueryPool.compareAndSet(i, pooled, null)) {
+                    sqLiteQuery = pooled;
+                    break;
+                }
             }
+            if (sqLiteQuery == null) {
+                sqLiteQuery = new RoomSQLiteQuery((1 << capacityClass) - 1);
+            }
+        } else {
+            sqLiteQuery = new RoomSQLiteQuery(argumentCount);
         }
-        RoomSQLiteQuery sqLiteQuery = new RoomSQLiteQuery(argumentCount);
         sqLiteQuery.init(query, argumentCount);
         return sqLiteQuery;
     }
@@ -179,21 +189,60 @@ public class RoomSQLiteQuery implements SupportSQLiteQuery, SupportSQLiteProgram
      */
     @SuppressWarnings("WeakerAccess")
     public void release() {
-        synchronized (sQueryPool) {
-            sQueryPool.put(mCapacity, this);
-            prunePoolLocked();
+        final int capacityClass = capacityClassOf(mCapacity);
+        if (capacityClass >= CAPACITY_CLASSES) {
+            return;
+        }
+        final int first = firstSlotOf(capacityClass);
+        for (int i = first; i < first + SLOTS_PER_CAPACITY; i++) {
+            if (sQueryPool.get(i) == null && sQueryPool.compareAndSet(i, null, this)) {
+                return;
+            }
         }
+        // all slots are taken, let this one be garbage collected.
+    }
+
+    /**
+     * Returns the index of the smallest capacity class holding {@code argumentCount} arguments,
+     * which is the number of bits needed to represent it.
+     */
+    private static int capacityClassOf(int argumentCount) {
+        return Integer.SIZE - Integer.numberOfLeadingZeros(argumentCount);
+    }
+
+    private static int firstSlotOf(int capacityClass) {
+        final int stripe = (int) Thread.currentThread().getId() & (STRIPES - 1);
+        return (stripe * CAPACITY_CLASSES + capacityClass) * SLOTS_PER_CAPACITY;
     }
 
-    private static void prunePoolLocked() {
-        if (sQueryPool.size() > POOL_LIMIT) {
-            int toBeRemoved = sQueryPool.size() - DESIRED_POOL_SIZE;
-            final Iterator<Integer> iterator = sQueryPool.descendingKeySet().iterator();
-            while (toBeRemoved-- > 0) {
-                iterator.next();
-                iterator.remove();
+    /** Returns the number of processors rounded up to a power of two, at most 8. */
+    private static int stripeCount() {
+        final int processors = Math.min(Runtime.getRuntime().availableProcessors(), 8);
+        return processors <= 1 ? 1 : Integer.highestOneBit(processors - 1) << 1;
+    }
+
+    /**
+     * Drops every pooled query.
+     */
+    @VisibleForTesting
+    static void clearPool() {
+        for (int i = 0; i < sQueryPool.length(); i++) {
+            sQueryPool.set(i, null);
+        }
+    }
+
+    /**
+     * Returns the number of pooled queries.
+     */
+    @VisibleForTesting
+    static int pooledCount() {
+        int count = 0;
+        for (int i = 0; i < sQueryPool.length(); i++) {
+            if (sQueryPool.get(i) != null) {
+                count++;
             }
         }
+        return count;
     }
 
     @Override
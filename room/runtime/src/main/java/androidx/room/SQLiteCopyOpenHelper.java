@@ -29,20 +29,32 @@ import androidx.room.util.FileUtil;
 import androidx.sqlite.db.SupportSQLiteDatabase;
 import androidx.sqlite.db.SupportSQLiteOpenHelper;
 
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.Executor;
+import java.util.zip.GZIPInputStream;
 
 /**
  * An open helper that will copy & open a pre-populated database if it doesn't exists in internal
  * storage.
+ * <p>
+ * A pre-populated database compressed with gzip is decompressed while it is copied.
  */
 class SQLiteCopyOpenHelper implements SupportSQLiteOpenHelper {
 
+    // the first two bytes of a gzip stream, which can never start an SQLite database file.
+    private static final int GZIP_MAGIC_FIRST = 0x1f;
+    private static final int GZIP_MAGIC_SECOND = 0x8b;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     @NonNull
     private final Context mContext;
     @Nullable
@@ -50,6 +62,7 @@ class SQLiteCopyOpenHelper implements SupportSQLiteOpenHelper {
     @Nullable
     private final File mCopyFromFile;
     private final int mDatabaseVersion;
+    private final boolean mCopyInBackground;
     @NonNull
     private final SupportSQLiteOpenHelper mDelegate;
     @Nullable
@@ -62,11 +75,13 @@ class SQLiteCopyOpenHelper implements SupportSQLiteOpenHelper {
             @Nullable String copyFromAssetPath,
             @Nullable File copyFromFile,
             int databaseVersion,
+            boolean copyInBackground,
             @NonNull SupportSQLiteOpenHelper supportSQLiteOpenHelper) {
         mContext = context;
         mCopyFromAssetPath = copyFromAssetPath;
         mCopyFromFile = copyFromFile;
         mDatabaseVersion = databaseVersion;
+        mCopyInBackground = copyInBackground;
         mDelegate = supportSQLiteOpenHelper;
     }
 
@@ -83,19 +98,13 @@ class SQLiteCopyOpenHelper implements SupportSQLiteOpenHelper {
 
     @Override
     public synchronized SupportSQLiteDatabase getWritableDatabase() {
-        if (!mVerified) {
-            verifyDatabaseFile();
-            mVerified = true;
-        }
+        verifyDatabaseFileOnce();
         return mDelegate.getWritableDatabase();
     }
 
     @Override
     public synchronized SupportSQLiteDatabase getReadableDatabase() {
-        if (!mVerified) {
-            verifyDatabaseFile();
-            mVerified = true;
-        }
+        verifyDatabaseFileOnce();
         return mDelegate.getReadableDatabase();
     }
 
@@ -111,6 +120,35 @@ class SQLiteCopyOpenHelper implements SupportSQLiteOpenHelper {
         mDatabaseConfiguration = databaseConfiguration;
     }
 
+    /**
+     * Starts copying the pre-packaged database on the given executor if it was configured to be
+     * copied in the background, so that it is ready when the database is first opened. Opening
+     * the database waits for a copy in progress, and copies the database itself if the copy has
+     * not started or failed.
+     */
+    void startBackgroundCopy(@NonNull Executor executor) {
+        if (!mCopyInBackground) {
+            return;
+        }
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    verifyDatabaseFileOnce();
+                } catch (RuntimeException e) {
+                    Log.w(Room.LOG_TAG, "Unable to copy database file in the background.", e);
+                }
+            }
+        });
+    }
+
+    private synchronized void verifyDatabaseFileOnce() {
+        if (!mVerified) {
+            verifyDatabaseFile();
+            mVerified = true;
+        }
+    }
+
     private void verifyDatabaseFile() {
         String databaseName = getDatabaseName();
         File databaseFile = mContext.getDatabasePath(databaseName);
@@ -173,14 +211,7 @@ class SQLiteCopyOpenHelper implements SupportSQLiteOpenHelper {
     }
 
     private void copyDatabaseFile(File destinationFile) throws IOException {
-        ReadableByteChannel input;
-        if (mCopyFromAssetPath != null) {
-            input = Channels.newChannel(mContext.getAssets().open(mCopyFromAssetPath));
-        } else if (mCopyFromFile != null) {
-            input = new FileInputStream(mCopyFromFile).getChannel();
-        } else {
-            throw new IllegalStateException("copyFromAssetPath and copyFromFile == null!");
-        }
+        ReadableByteChannel input = openCopySource();
 
         // An intermediate file is used so that we never end up with a half-copied database file
         // in the internal directory.
@@ -202,4 +233,47 @@ class SQLiteCopyOpenHelper implements SupportSQLiteOpenHelper {
                     + destinationFile.getAbsolutePath() + ").");
         }
     }
+
+    /**
+     * Opens the pre-packaged database, decompressing it as it is read if it is compressed with
+     * gzip. An uncompressed file is returned as a {@link FileChannel}, which
+     * {@link FileUtil#copy(ReadableByteChannel, FileChannel)} copies without reading it.
+     */
+    private ReadableByteChannel openCopySource() throws IOException {
+        if (mCopyFromAssetPath != null) {
+            InputStream input = new BufferedInputStream(
+                    mContext.getAssets().open(mCopyFromAssetPath), BUFFER_SIZE);
+            if (isGzip(input)) {
+                input = new GZIPInputStream(input, BUFFER_SIZE);
+            }
+            return Channels.newChannel(input);
+        } else if (mCopyFromFile != null) {
+            FileChannel input = new FileInputStream(mCopyFromFile).getChannel();
+            if (isGzip(input)) {
+                return Channels.newChannel(new GZIPInputStream(
+                        new BufferedInputStream(Channels.newInputStream(input), BUFFER_SIZE),
+                        BUFFER_SIZE));
+            }
+            return input;
+        } else {
+            throw new IllegalStateException("copyFromAssetPath and copyFromFile == null!");
+        }
+    }
+
+    private static boolean isGzip(InputStream input) throws IOException {
+        input.mark(2);
+        try {
+            return input.read() == GZIP_MAGIC_FIRST && input.read() == GZIP_MAGIC_SECOND;
+        } finally {
+            input.reset();
+        }
+    }
+
+    private static boolean isGzip(FileChannel input) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(2);
+        // a positional read, which leaves the channel at the start of the file.
+        return input.read(header, 0) == 2
+                && (header.get(0) & 0xff) == GZIP_MAGIC_FIRST
+                && (header.get(1) & 0xff) == GZIP_MAGIC_SECOND;
+    }
 }
@@ -32,15 +32,18 @@ class SQLiteCopyOpenHelperFactory implements SupportSQLiteOpenHelper.Factory {
     private final String mCopyFromAssetPath;
     @Nullable
     private final File mCopyFromFile;
+    private final boolean mCopyInBackground;
     @NonNull
     private final SupportSQLiteOpenHelper.Factory mDelegate;
 
     SQLiteCopyOpenHelperFactory(
             @Nullable String copyFromAssetPath,
             @Nullable File copyFromFile,
+            boolean copyInBackground,
             @NonNull SupportSQLiteOpenHelper.Factory factory) {
         mCopyFromAssetPath = copyFromAssetPath;
         mCopyFromFile = copyFromFile;
+        mCopyInBackground = copyInBackground;
         mDelegate = factory;
     }
 
@@ -51,6 +54,7 @@ class SQLiteCopyOpenHelperFactory implements SupportSQLiteOpenHelper.Factory {
                 mCopyFromAssetPath,
                 mCopyFromFile,
                 configuration.callback.version,
+                mCopyInBackground,
                 mDelegate.create(configuration));
     }
 }
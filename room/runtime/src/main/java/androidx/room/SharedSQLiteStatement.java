@@ -27,7 +27,8 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * it can be used by other threads.
  * <p>
  * To avoid re-entry even within the same thread, this class allows only 1 time access to the shared
- * statement until it is released.
+ * statement until it is released. Meanwhile, other callers get statements from the
+ * {@link PreparedStatementCache} of the database.
  *
  * @hide
  */
@@ -73,8 +74,8 @@ public abstract class SharedSQLiteStatement {
             }
             stmt = mStmt;
         } else {
-            // it is in use, create a one off statement
-            stmt = createNewStatement();
+            // it is in use, borrow one from the database's cache
+            stmt = mDatabase.acquireStatement(createQuery());
         }
         return stmt;
     }
@@ -95,6 +96,8 @@ public abstract class SharedSQLiteStatement {
     public void release(SupportSQLiteStatement statement) {
         if (statement == mStmt) {
             mLock.set(false);
+        } else {
+            mDatabase.releaseStatement(createQuery(), statement);
         }
     }
 }
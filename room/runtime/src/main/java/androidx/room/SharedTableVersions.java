@@ -0,0 +1,182 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A version counter for each table of a database, kept in a memory-mapped file so that the
+ * instances of the database in all the processes of the app share it.
+ * <p>
+ * An instance that changes tables increments their versions, and the other instances compare the
+ * versions with the ones they last saw to find which tables changed. The file is locked while it
+ * is read or written, and the processes open each file once, through
+ * {@link #acquire(File, String[])}, because a process cannot lock a file twice.
+ * <p>
+ * The file starts with a header of the number of tables and a hash of their names, followed by
+ * the version of each table in the order of their ids. A file with another header, left over by a
+ * previous schema, is reset.
+ */
+final class SharedTableVersions {
+    private static final int MAGIC = 0x524f4f4d; // "ROOM"
+    private static final int HEADER_SIZE = 16;
+
+    // the open files by their path, with the number of times they were acquired.
+    private static final Map<String, SharedTableVersions> sOpenFiles = new HashMap<>();
+
+    @NonNull
+    private final String mPath;
+    @NonNull
+    private final RandomAccessFile mFile;
+    @NonNull
+    private final MappedByteBuffer mBuffer;
+    private final int mTableCount;
+    private int mAcquireCount;
+
+    /**
+     * Opens the versions of the tables in the file, or returns them if they are already open in
+     * this process. Each call has to be balanced by a call to {@link #release()}.
+     *
+     * @param file The file keeping the versions.
+     * @param tableNames The names of the tables, in the order of their ids.
+     */
+    @NonNull
+    static SharedTableVersions acquire(@NonNull File file, @NonNull String[] tableNames)
+            throws IOException {
+        final String path = file.getCanonicalPath();
+        synchronized (sOpenFiles) {
+            SharedTableVersions versions = sOpenFiles.get(path);
+            if (versions == null) {
+                versions = new SharedTableVersions(path, tableNames);
+                sOpenFiles.put(path, versions);
+            }
+            versions.mAcquireCount++;
+            return versions;
+        }
+    }
+
+    private SharedTableVersions(@NonNull String path, @NonNull String[] tableNames)
+            throws IOException {
+        mPath = path;
+        mTableCount = tableNames.length;
+        final int size = HEADER_SIZE + 8 * mTableCount;
+        mFile = new RandomAccessFile(path, "rw");
+        try {
+            final FileChannel channel = mFile.getChannel();
+            final FileLock lock = channel.lock();
+            try {
+                mBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                mBuffer.order(ByteOrder.nativeOrder());
+                final int hash = Arrays.hashCode(tableNames);
+                if (mBuffer.getInt(0) != MAGIC || mBuffer.getInt(4) != mTableCount
+                        || mBuffer.getInt(8) != hash) {
+                    for (int offset = HEADER_SIZE; offset < size; offset += 8) {
+                        mBuffer.putLong(offset, 0);
+                    }
+                    mBuffer.putInt(4, mTableCount);
+                    mBuffer.putInt(8, hash);
+                    mBuffer.putInt(0, MAGIC);
+                }
+            } finally {
+                lock.release();
+            }
+        } catch (IOException | RuntimeException e) {
+            mFile.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return The number of tables.
+     */
+    int getTableCount() {
+        return mTableCount;
+    }
+
+    /**
+     * Reads the version of every table.
+     *
+     * @param versions The array receiving the version of each table, at the index of its id.
+     */
+    synchronized void read(@NonNull long[] versions) throws IOException {
+        final FileLock lock = mFile.getChannel().lock(0, Long.MAX_VALUE, true);
+        try {
+            for (int id = 0; id < mTableCount; id++) {
+                versions[id] = mBuffer.getLong(HEADER_SIZE + 8 * id);
+            }
+        } finally {
+            lock.release();
+        }
+    }
+
+    /**
+     * Increments the versions of the tables.
+     *
+     * @param tableIds The ids of the changed tables.
+     * @return The new version of each table, in the order of {@code tableIds}.
+     */
+    @NonNull
+    synchronized long[] increment(@NonNull int[] tableIds) throws IOException {
+        final long[] versions = new long[tableIds.length];
+        final FileLock lock = mFile.getChannel().lock();
+        try {
+            for (int i = 0; i < tableIds.length; i++) {
+                final int offset = HEADER_SIZE + 8 * tableIds[i];
+                versions[i] = mBuffer.getLong(offset) + 1;
+                mBuffer.putLong(offset, versions[i]);
+            }
+        } finally {
+            lock.release();
+        }
+        return versions;
+    }
+
+    /**
+     * Releases the versions acquired with {@link #acquire(File, String[])}, closing the file once
+     * they are not used anymore in this process.
+     */
+    void release() throws IOException {
+        synchronized (sOpenFiles) {
+            if (--mAcquireCount > 0) {
+                return;
+            }
+            sOpenFiles.remove(mPath);
+        }
+        synchronized (this) {
+            mFile.close();
+        }
+    }
+
+    @VisibleForTesting
+    static int openFileCount() {
+        synchronized (sOpenFiles) {
+            return sOpenFiles.size();
+        }
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room.paging;
+
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+import androidx.room.RoomDatabase;
+import androidx.room.RoomSQLiteQuery;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A data source for queries ordered by columns, that loads the page following an already loaded
+ * one by seeking past the values of the order columns in its last row, instead of skipping all
+ * the rows before it with {@code OFFSET}.
+ * <p>
+ * When the order columns are indexed, loading a page this way costs the same wherever the page
+ * is, while {@code OFFSET} reads and discards every row before the page. Pages that do not
+ * follow a loaded one, such as those loaded when jumping to a position or scrolling backwards,
+ * are still loaded with {@code OFFSET}.
+ * <p>
+ * The rows with the same values in all the order columns as the last row of the previous page
+ * are skipped with an {@code OFFSET} counting only them, so the order columns do not have to be
+ * unique. Like {@link LimitOffsetDataSource}, the pages are only consistent if the order of such
+ * rows does not change from one query to the next.
+ *
+ * @param <T> Data type returned by the data source.
+ *
+ * @hide
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP_PREFIX)
+public abstract class KeysetDataSource<T> extends LimitOffsetDataSource<T> {
+    private final String[] mKeyColumns;
+    private final String mSeekQuery;
+    // the values of the order columns before a position, for the positions pages ended at.
+    private final Map<Integer, Boundary> mBoundaries = new HashMap<>();
+
+    protected KeysetDataSource(RoomDatabase db, RoomSQLiteQuery query, boolean inTransaction,
+            String[] keyColumns, boolean[] descending, String... tables) {
+        super(db, query, inTransaction, tables);
+        mKeyColumns = keyColumns;
+        mSeekQuery = createSeekQuery(query.getSql(), keyColumns, descending);
+    }
+
+    /**
+     * Creates the query loading the rows that come at or after given values of the order
+     * columns, with the order columns and the values bound after the arguments of the source
+     * query, then the limit and the offset.
+     * <p>
+     * The condition is written so that its first term limits the range of the first order column,
+     * which lets SQLite seek in an index of that column, rather than as a disjunction.
+     * <p>
+     * SQLite sorts null values first in ascending order and last in descending order. The values
+     * a page ends at are never null, so rows with a null value in a descending column come after
+     * them and have to be matched explicitly, while those in an ascending column come before.
+     */
+    private static String createSeekQuery(String sql, String[] keyColumns,
+            boolean[] descending) {
+        StringBuilder where = new StringBuilder();
+        StringBuilder orderBy = new StringBuilder();
+        for (int i = 0; i < keyColumns.length; i++) {
+            final String column = "`" + keyColumns[i] + "`";
+            if (i > 0) {
+                orderBy.append(", ");
+            }
+            orderBy.append(column).append(descending[i] ? " DESC" : " ASC");
+            if (descending[i]) {
+                where.append("(").append(column).append(" <= ? OR ").append(column)
+                        .append(" IS NULL)");
+            } else {
+                where.append(column).append(" >= ?");
+            }
+            if (i < keyColumns.length - 1) {
+                where.append(" AND (").append(column).append(descending[i] ? " < ?" : " > ?")
+                        .append(" OR ");
+                if (descending[i]) {
+                    where.append(column).append(" IS NULL OR ");
+                }
+            }
+        }
+        for (int i = 1; i < keyColumns.length; i++) {
+            where.append(")");
+        }
+        return "SELECT * FROM ( " + sql + " ) WHERE " + where + " ORDER BY " + orderBy
+                + " LIMIT ? OFFSET ?";
+    }
+
+    @Override
+    RoomSQLiteQuery getSQLiteQuery(int startPosition, int loadCount) {
+        final Boundary boundary;
+        synchronized (mBoundaries) {
+            boundary = mBoundaries.get(startPosition);
+        }
+        if (boundary == null) {
+            return super.getSQLiteQuery(startPosition, loadCount);
+        }
+        final RoomSQLiteQuery sourceQuery = getSourceQuery();
+        final RoomSQLiteQuery sqLiteQuery = RoomSQLiteQuery.acquire(mSeekQuery,
+                sourceQuery.getArgCount() + 2 * mKeyColumns.length + 1);
+        sqLiteQuery.copyArgumentsFrom(sourceQuery);
+        int index = sourceQuery.getArgCount() + 1;
+        for (int i = 0; i < mKeyColumns.length; i++) {
+            bindKey(sqLiteQuery, index++, boundary.mKey[i]);
+            if (i < mKeyColumns.length - 1) {
+                bindKey(sqLiteQuery, index++, boundary.mKey[i]);
+            }
+        }
+        sqLiteQuery.bindLong(index++, loadCount);
+        sqLiteQuery.bindLong(index, boundary.mTies);
+        return sqLiteQuery;
+    }
+
+    private static void bindKey(RoomSQLiteQuery query, int index, Object value) {
+        if (value instanceof Long) {
+            query.bindLong(index, (Long) value);
+        } else if (value instanceof Double) {
+            query.bindDouble(index, (Double) value);
+        } else if (value instanceof String) {
+            query.bindString(index, (String) value);
+        } else {
+            query.bindBlob(index, (byte[]) value);
+        }
+    }
+
+    @Override
+    void onRowsLoaded(int startPosition, @NonNull Cursor cursor) {
+        final int count = cursor.getCount();
+        if (count == 0) {
+            return;
+        }
+        final int[] columnIndices = new int[mKeyColumns.length];
+        for (int i = 0; i < mKeyColumns.length; i++) {
+            columnIndices[i] = cursor.getColumnIndex(mKeyColumns[i]);
+            if (columnIndices[i] == -1) {
+                return;
+            }
+        }
+        cursor.moveToPosition(count - 1);
+        final Object[] key = readKey(cursor, columnIndices);
+        if (key == null) {
+            return;
+        }
+        // count the rows with the same key at the end of the page.
+        int ties = 1;
+        while (ties < count && cursor.moveToPosition(count - 1 - ties)
+                && sameKey(key, readKey(cursor, columnIndices))) {
+            ties++;
+        }
+        synchronized (mBoundaries) {
+            if (ties == count && startPosition > 0) {
+                // the rows with the key may have started on a previous page.
+                final Boundary previous = mBoundaries.get(startPosition);
+                if (previous == null) {
+                    return;
+                }
+                if (sameKey(key, previous.mKey)) {
+                    ties += previous.mTies;
+                }
+            }
+            mBoundaries.put(startPosition + count, new Boundary(key, ties));
+        }
+    }
+
+    /**
+     * Returns the values of the order columns of the current row, or null if one of them is
+     * null, as seeking past null values is not supported.
+     */
+    @Nullable
+    private static Object[] readKey(Cursor cursor, int[] columnIndices) {
+        final Object[] key = new Object[columnIndices.length];
+        for (int i = 0; i < columnIndices.length; i++) {
+            final int index = columnIndices[i];
+            switch (cursor.getType(index)) {
+                case Cursor.FIELD_TYPE_INTEGER:
+                    key[i] = cursor.getLong(index);
+                    break;
+                case Cursor.FIELD_TYPE_FLOAT:
+                    key[i] = cursor.getDouble(index);
+                    break;
+                case Cursor.FIELD_TYPE_STRING:
+                    key[i] = cursor.getString(index);
+                    break;
+                case Cursor.FIELD_TYPE_BLOB:
+                    key[i] = cursor.getBlob(index);
+                    break;
+                default:
+                    return null;
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Returns whether two keys are equal, comparing numbers by value as SQLite does.
+     */
+    private static boolean sameKey(Object[] first, @Nullable Object[] second) {
+        if (second == null) {
+            return false;
+        }
+        for (int i = 0; i < first.length; i++) {
+            final Object a = first[i];
+            final Object b = second[i];
+            if (a instanceof Number && b instanceof Number) {
+                if ((a instanceof Double || b instanceof Double)
+                        ? ((Number) a).doubleValue() != ((Number) b).doubleValue()
+                        : ((Number) a).longValue() != ((Number) b).longValue()) {
+                    return false;
+                }
+            } else if (a instanceof byte[] && b instanceof byte[]) {
+                if (!Arrays.equals((byte[]) a, (byte[]) b)) {
+                    return false;
+                }
+            } else if (!a.equals(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The values of the order columns in the row before a position, and the number of rows
+     * before that position that have these values.
+     */
+    private static final class Boundary {
+        final Object[] mKey;
+        final int mTies;
+
+        Boundary(Object[] key, int ties) {
+            mKey = key;
+            mTies = ties;
+        }
+    }
+}
@@ -36,7 +36,10 @@ import java.util.Set;
  * <a href="http://www.sqlite.org/cvstrac/wiki?p=ScrollingCursor">recommended</a> to use an indexed
  * ORDER BY statement but that requires a more complex API. This solution is technically equal to
  * receiving a {@link Cursor} from a large query but avoids the need to manually manage it, and
- * never returns inconsistent data if it is invalidated.
+ * never returns inconsistent data if it is invalidated. Queries ordered by columns are paged with
+ * {@link KeysetDataSource} instead.
+ * <p>
+ * The rows are only counted when placeholders are enabled.
  *
  * @param <T> Data type returned by the data source.
  *
@@ -109,36 +112,57 @@ public abstract class LimitOffsetDataSource<T> extends androidx.paging.Positiona
     @Override
     public void loadInitial(@NonNull LoadInitialParams params,
             @NonNull LoadInitialCallback<T> callback) {
-        List<T> list = Collections.emptyList();
-        int totalCount = 0;
+        List<T> list = null;
+        int totalCount = -1;
         int firstLoadPosition = 0;
-        RoomSQLiteQuery sqLiteQuery = null;
-        Cursor cursor = null;
         mDb.beginTransaction();
         try {
-            totalCount = countItems();
-            if (totalCount != 0) {
-                // bound the size requested, based on known count
-                firstLoadPosition = computeInitialLoadPosition(params, totalCount);
-                int firstLoadSize = computeInitialLoadSize(params, firstLoadPosition, totalCount);
-
-                sqLiteQuery = getSQLiteQuery(firstLoadPosition, firstLoadSize);
-                cursor = mDb.query(sqLiteQuery);
-                List<T> rows = convertRows(cursor);
-                mDb.setTransactionSuccessful();
-                list = rows;
+            if (!params.placeholdersEnabled) {
+                // without placeholders the rows are only counted if the requested position is
+                // past the end of the list.
+                firstLoadPosition = params.requestedStartPosition / params.pageSize
+                        * params.pageSize;
+                list = queryRange(firstLoadPosition, params.requestedLoadSize);
+                if (list.isEmpty() && firstLoadPosition != 0) {
+                    list = null;
+                }
             }
-        } finally {
-            if (cursor != null) {
-                cursor.close();
+            if (list == null) {
+                list = Collections.emptyList();
+                firstLoadPosition = 0;
+                totalCount = countItems();
+                if (totalCount != 0) {
+                    // bound the size requested, based on known count
+                    firstLoadPosition = computeInitialLoadPosition(params, totalCount);
+                    int firstLoadSize = computeInitialLoadSize(params, firstLoadPosition,
+                            totalCount);
+                    list = queryRange(firstLoadPosition, firstLoadSize);
+                }
             }
+            mDb.setTransactionSuccessful();
+        } finally {
             mDb.endTransaction();
-            if (sqLiteQuery != null) {
-                sqLiteQuery.release();
-            }
         }
 
-        callback.onResult(list, firstLoadPosition, totalCount);
+        if (totalCount < 0) {
+            callback.onResult(list, firstLoadPosition);
+        } else {
+            callback.onResult(list, firstLoadPosition, totalCount);
+        }
+    }
+
+    private List<T> queryRange(int startPosition, int loadCount) {
+        final RoomSQLiteQuery sqLiteQuery = getSQLiteQuery(startPosition, loadCount);
+        Cursor cursor = mDb.query(sqLiteQuery);
+        //noinspection TryFinallyCanBeTryWithResources
+        try {
+            List<T> rows = convertRows(cursor);
+            onRowsLoaded(startPosition, cursor);
+            return rows;
+        } finally {
+            cursor.close();
+            sqLiteQuery.release();
+        }
     }
 
     @Override
@@ -163,6 +187,7 @@ public abstract class LimitOffsetDataSource<T> extends androidx.paging.Positiona
             try {
                 cursor = mDb.query(sqLiteQuery);
                 List<T> rows = convertRows(cursor);
+                onRowsLoaded(startPosition, cursor);
                 mDb.setTransactionSuccessful();
                 return rows;
             } finally {
@@ -176,7 +201,9 @@ public abstract class LimitOffsetDataSource<T> extends androidx.paging.Positiona
             Cursor cursor = mDb.query(sqLiteQuery);
             //noinspection TryFinallyCanBeTryWithResources
             try {
-                return convertRows(cursor);
+                List<T> rows = convertRows(cursor);
+                onRowsLoaded(startPosition, cursor);
+                return rows;
             } finally {
                 cursor.close();
                 sqLiteQuery.release();
@@ -184,7 +211,10 @@ public abstract class LimitOffsetDataSource<T> extends androidx.paging.Positiona
         }
     }
 
-    private RoomSQLiteQuery getSQLiteQuery(int startPosition, int loadCount) {
+    /**
+     * Returns the query loading {@code loadCount} rows from {@code startPosition}.
+     */
+    RoomSQLiteQuery getSQLiteQuery(int startPosition, int loadCount) {
         final RoomSQLiteQuery sqLiteQuery = RoomSQLiteQuery.acquire(mLimitOffsetQuery,
                 mSourceQuery.getArgCount() + 2);
         sqLiteQuery.copyArgumentsFrom(mSourceQuery);
@@ -192,4 +222,18 @@ public abstract class LimitOffsetDataSource<T> extends androidx.paging.Positiona
         sqLiteQuery.bindLong(sqLiteQuery.getArgCount(), startPosition);
         return sqLiteQuery;
     }
+
+    /**
+     * Called with the cursor of the rows loaded from {@code startPosition}, once they are
+     * converted.
+     */
+    void onRowsLoaded(int startPosition, @NonNull Cursor cursor) {
+    }
+
+    /**
+     * Returns the query this data source pages.
+     */
+    RoomSQLiteQuery getSourceQuery() {
+        return mSourceQuery;
+    }
 }
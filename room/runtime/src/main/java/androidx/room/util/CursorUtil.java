@@ -16,12 +16,15 @@
 
 package androidx.room.util;
 
+import android.database.AbstractWindowedCursor;
 import android.database.Cursor;
+import android.database.CursorWindow;
 import android.database.MatrixCursor;
 import android.os.Build;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
 import androidx.annotation.VisibleForTesting;
 
@@ -124,6 +127,105 @@ public class CursorUtil {
                 + "' does not exist. Available columns: " + availableColumns);
     }
 
+    /**
+     * Reads the values of a column in all the rows of the cursor, starting from the first one.
+     * <p>
+     * When the cursor is backed by a {@link CursorWindow}, the values are read from the window
+     * directly, without moving the cursor for each row. Null values are read as 0.
+     *
+     * @param c     The cursor.
+     * @param index The index of the column.
+     * @return The values of the column, in the order of the rows.
+     */
+    @NonNull
+    public static long[] readLongColumn(@NonNull Cursor c, int index) {
+        final long[] result = new long[c.getCount()];
+        int position = 0;
+        while (position < result.length && c.moveToPosition(position)) {
+            final CursorWindow window = getWindow(c);
+            if (window == null) {
+                result[position++] = c.getLong(index);
+                continue;
+            }
+            final int end = Math.min(result.length,
+                    window.getStartPosition() + window.getNumRows());
+            while (position < end) {
+                result[position] = window.getLong(position, index);
+                position++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reads the integer values of a column in all the rows of the cursor, like
+     * {@link #readLongColumn(Cursor, int)}.
+     */
+    @NonNull
+    public static int[] readIntColumn(@NonNull Cursor c, int index) {
+        final int[] result = new int[c.getCount()];
+        int position = 0;
+        while (position < result.length && c.moveToPosition(position)) {
+            final CursorWindow window = getWindow(c);
+            if (window == null) {
+                result[position++] = c.getInt(index);
+                continue;
+            }
+            final int end = Math.min(result.length,
+                    window.getStartPosition() + window.getNumRows());
+            while (position < end) {
+                result[position] = window.getInt(position, index);
+                position++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reads the floating point values of a column in all the rows of the cursor, like
+     * {@link #readLongColumn(Cursor, int)}.
+     */
+    @NonNull
+    public static double[] readDoubleColumn(@NonNull Cursor c, int index) {
+        final double[] result = new double[c.getCount()];
+        int position = 0;
+        while (position < result.length && c.moveToPosition(position)) {
+            final CursorWindow window = getWindow(c);
+            if (window == null) {
+                result[position++] = c.getDouble(index);
+                continue;
+            }
+            final int end = Math.min(result.length,
+                    window.getStartPosition() + window.getNumRows());
+            while (position < end) {
+                result[position] = window.getDouble(position, index);
+                position++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the window holding the current row of the cursor, or null if it does not have one
+     * or the row is not in it.
+     */
+    @Nullable
+    private static CursorWindow getWindow(@NonNull Cursor c) {
+        if (!(c instanceof AbstractWindowedCursor)) {
+            return null;
+        }
+        final CursorWindow window = ((AbstractWindowedCursor) c).getWindow();
+        if (window == null) {
+            return null;
+        }
+        final int position = c.getPosition();
+        if (position < window.getStartPosition()
+                || position >= window.getStartPosition() + window.getNumRows()) {
+            return null;
+        }
+        return window;
+    }
+
     /**
      * Finds a column by name by appending `.` in front of it and checking by suffix match.
      * Also checks for the version wrapped with `` (backticks).
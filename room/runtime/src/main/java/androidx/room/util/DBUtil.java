@@ -35,6 +35,11 @@ import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Database utilities for Room
@@ -98,6 +103,98 @@ public class DBUtil {
         return cursor;
     }
 
+    /**
+     * Runs independent tasks that query the database, such as the fetching of the different
+     * relations of a POJO, and returns once all of them are done.
+     * <p>
+     * If queries can run concurrently on reader connections (see
+     * {@link RoomDatabase#canRunQueriesConcurrently()}), all the tasks but the first one are
+     * handed to the query executor of the database while the calling thread runs the first one.
+     * The calling thread then runs the tasks that the executor has not started yet itself, so
+     * that it never waits for an executor whose threads are all busy. Otherwise, the tasks run
+     * one after the other on the calling thread.
+     * <p>
+     * If a task throws, its exception is rethrown once the tasks that already started are done.
+     *
+     * @param db    The database the tasks query.
+     * @param tasks The tasks to run.
+     */
+    public static void runConcurrently(@NonNull RoomDatabase db, @NonNull Runnable... tasks) {
+        if (tasks.length < 2 || !db.canRunQueriesConcurrently()) {
+            for (Runnable task : tasks) {
+                task.run();
+            }
+            return;
+        }
+        final Executor executor = db.getQueryExecutor();
+        final List<FutureTask<Void>> futures = new ArrayList<>(tasks.length - 1);
+        for (int i = 1; i < tasks.length; i++) {
+            final FutureTask<Void> future = new FutureTask<>(tasks[i], null);
+            futures.add(future);
+            try {
+                executor.execute(future);
+            } catch (RejectedExecutionException e) {
+                // run by the calling thread below.
+            }
+        }
+        RuntimeException failure = null;
+        try {
+            tasks[0].run();
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+        for (FutureTask<Void> future : futures) {
+            if (failure != null) {
+                // do not start the remaining tasks.
+                future.cancel(false);
+            } else {
+                // does nothing if the executor already started the task.
+                future.run();
+            }
+        }
+        for (FutureTask<Void> future : futures) {
+            final RuntimeException taskFailure = waitFor(future);
+            if (failure == null) {
+                failure = taskFailure;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Waits for a task without being interrupted, and returns the exception it threw if any.
+     */
+    @Nullable
+    private static RuntimeException waitFor(@NonNull FutureTask<Void> future) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    future.get();
+                    return null;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (CancellationException e) {
+                    return null;
+                } catch (ExecutionException e) {
+                    final Throwable cause = e.getCause();
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    } else if (cause instanceof RuntimeException) {
+                        return (RuntimeException) cause;
+                    }
+                    return new RuntimeException(cause);
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
     /**
      * Drops all FTS content sync triggers created by Room.
      * <p>
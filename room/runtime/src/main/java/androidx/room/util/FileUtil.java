@@ -48,7 +48,19 @@ public class FileUtil {
     public static void copy(@NonNull ReadableByteChannel input, @NonNull FileChannel output)
             throws IOException {
         try {
-            if (Build.VERSION.SDK_INT > Build.VERSION_CODES.M) {
+            if (input instanceof FileChannel) {
+                // lets the kernel copy the data without going through a buffer in this process.
+                FileChannel inputFile = (FileChannel) input;
+                long size = inputFile.size();
+                long position = 0;
+                while (position < size) {
+                    long count = inputFile.transferTo(position, size - position, output);
+                    if (count <= 0) {
+                        break;
+                    }
+                    position += count;
+                }
+            } else if (Build.VERSION.SDK_INT > Build.VERSION_CODES.M) {
                 output.transferFrom(input, 0, Long.MAX_VALUE);
             } else {
                 InputStream inputStream = Channels.newInputStream(input);
@@ -172,6 +172,75 @@ public final class TableInfo {
         return new TableInfo(tableName, columns, foreignKeys, indices);
     }
 
+    /**
+     * Reads the table information from the given database, unless the table and its indices were
+     * created by the given statements, in which case the expected information is returned
+     * without reading the table.
+     * <p>
+     * Comparing the statements only needs a query on {@code sqlite_master}, while reading the
+     * table takes a query for its columns, one for its foreign keys and one for each index.
+     *
+     * @param database       The database to read the information from.
+     * @param expected       The information of the table created by the given statements.
+     * @param createTableSql The statement creating the table.
+     * @param createIndexSql The statements creating the indices of the table.
+     * @return The expected TableInfo if the table is unchanged, otherwise a TableInfo containing
+     * the schema information of the table.
+     */
+    public static TableInfo readIfChanged(SupportSQLiteDatabase database, TableInfo expected,
+            String createTableSql, String... createIndexSql) {
+        if (hasSchema(database, expected.name, createTableSql, createIndexSql)) {
+            return expected;
+        }
+        return read(database, expected.name);
+    }
+
+    private static boolean hasSchema(SupportSQLiteDatabase database, String tableName,
+            String createTableSql, String[] createIndexSql) {
+        final String expectedTableSql = storedSql(createTableSql);
+        final Set<String> expectedIndexSql = new HashSet<>();
+        for (String sql : createIndexSql) {
+            expectedIndexSql.add(storedSql(sql));
+        }
+        Cursor cursor = database.query("SELECT type, sql FROM sqlite_master WHERE tbl_name = ?",
+                new Object[]{tableName});
+        boolean hasTable = false;
+        int indexCount = 0;
+        try {
+            while (cursor.moveToNext()) {
+                final String type = cursor.getString(0);
+                final String sql = cursor.getString(1);
+                if ("table".equals(type)) {
+                    if (!expectedTableSql.equals(sql)) {
+                        return false;
+                    }
+                    hasTable = true;
+                } else if ("index".equals(type) && sql != null) {
+                    // indices without a statement are created for the constraints of the table.
+                    if (!expectedIndexSql.contains(sql)) {
+                        return false;
+                    }
+                    indexCount++;
+                }
+            }
+        } finally {
+            cursor.close();
+        }
+        return hasTable && indexCount == expectedIndexSql.size();
+    }
+
+    /**
+     * Returns the statement as SQLite stores it in {@code sqlite_master}, which removes the
+     * {@code IF NOT EXISTS} clause Room adds to the statements creating tables and indices.
+     */
+    private static String storedSql(String sql) {
+        final int index = sql.indexOf(" IF NOT EXISTS ");
+        if (index == -1) {
+            return sql;
+        }
+        return sql.substring(0, index) + sql.substring(index + " IF NOT EXISTS".length());
+    }
+
     private static Set<ForeignKey> readForeignKeys(SupportSQLiteDatabase database,
             String tableName) {
         Set<ForeignKey> foreignKeys = new HashSet<>();
@@ -24,10 +24,12 @@ import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import static java.util.Arrays.asList;
 
 import android.content.Context;
+import android.content.pm.ApplicationInfo;
 
 import androidx.annotation.NonNull;
 import androidx.room.migration.Migration;
@@ -43,6 +45,7 @@ import org.junit.runners.JUnit4;
 import java.io.File;
 import java.util.List;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 @SuppressWarnings("ArraysAsListWithZeroOrOneArgument")
 @RunWith(JUnit4.class)
@@ -108,6 +111,158 @@ public class BuilderTest {
         assertThat(db.mDatabaseConfiguration.transactionExecutor, is(executor2));
     }
 
+    @Test
+    public void preparedStatementCacheSize() {
+        TestDatabase db = Room.databaseBuilder(mock(Context.class), TestDatabase.class, "foo")
+                .setPreparedStatementCacheSize(40)
+                .build();
+
+        assertThat(db.mDatabaseConfiguration.preparedStatementCacheSize, is(40));
+        assertThat(db.getPreparedStatementCache().maxSize(), is(40));
+    }
+
+    @Test
+    public void preparedStatementCacheSize_default() {
+        TestDatabase db = Room.databaseBuilder(mock(Context.class), TestDatabase.class, "foo")
+                .build();
+
+        assertThat(db.mDatabaseConfiguration.preparedStatementCacheSize,
+                is(PreparedStatementCache.DEFAULT_SIZE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void preparedStatementCacheSize_tooLarge() {
+        Room.databaseBuilder(mock(Context.class), TestDatabase.class, "foo")
+                .setPreparedStatementCacheSize(101);
+    }
+
+    @Test
+    public void batchedInserts() {
+        TestDatabase db = Room.databaseBuilder(mock(Context.class), TestDatabase.class, "foo")
+                .enableBatchedInserts()
+                .build();
+
+        assertThat(db.mDatabaseConfiguration.batchedInserts, is(true));
+        assertThat(db.mBatchedInsertsEnabled, is(true));
+    }
+
+    @Test
+    public void batchedInserts_disabledByDefault() {
+        TestDatabase db = Room.databaseBuilder(mock(Context.class), TestDatabase.class, "foo")
+                .build();
+
+        assertThat(db.mDatabaseConfiguration.batchedInserts, is(false));
+        assertThat(db.mBatchedInsertsEnabled, is(false));
+    }
+
+    @Test
+    public void readerConnectionPoolSize() {
+        TestDatabase db = Room.databaseBuilder(mock(Context.class), TestDatabase.class, "foo")
+                .setReaderConnectionPoolSize(4)
+                .build();
+
+        assertThat(db.mDatabaseConfiguration.readerConnectionPoolSize, is(4));
+    }
+
+    @Test
+    public void readerConnectionPoolSize_default() {
+        TestDatabase db = Room.databaseBuilder(mock(Context.class), TestDatabase.class, "foo")
+                .build();
+
+        assertThat(db.mDatabaseConfiguration.readerConnectionPoolSize, is(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void readerConnectionPoolSize_negative() {
+        Room.databaseBuilder(mock(Context.class), TestDatabase.class, "foo")
+                .setReaderConnectionPoolSize(-1);
+    }
+
+    @Test
+    public void invalidationRefreshInterval() {
+        TestDatabase db = Room.databaseBuilder(mock(Context.class), TestDatabase.class, "foo")
+                .setInvalidationRefreshInterval(2, TimeUnit.SECONDS)
+                .build();
+
+        assertThat(db.mDatabaseConfiguration.invalidationRefreshIntervalMillis, is(2000L));
+        assertThat(db.mInvalidationRefreshIntervalMillis, is(2000L));
+    }
+
+    @Test
+    public void invalidationRefreshInterval_default() {
+        TestDatabase db = Room.databaseBuilder(mock(Context.class), TestDatabase.class, "foo")
+                .build();
+
+        assertThat(db.mDatabaseConfiguration.invalidationRefreshIntervalMillis, is(0L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidationRefreshInterval_negative() {
+        Room.databaseBuilder(mock(Context.class), TestDatabase.class, "foo")
+                .setInvalidationRefreshInterval(-1, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void multiInstanceInvalidationBatchWindow() {
+        TestDatabase db = Room.inMemoryDatabaseBuilder(mock(Context.class), TestDatabase.class)
+                .enableMultiInstanceInvalidation(2, TimeUnit.SECONDS)
+                .build();
+
+        assertThat(db.mDatabaseConfiguration.multiInstanceInvalidationBatchWindowMillis,
+                is(2000L));
+    }
+
+    @Test
+    public void multiInstanceInvalidationBatchWindow_default() {
+        TestDatabase db = Room.inMemoryDatabaseBuilder(mock(Context.class), TestDatabase.class)
+                .enableMultiInstanceInvalidation()
+                .build();
+
+        assertThat(db.mDatabaseConfiguration.multiInstanceInvalidationBatchWindowMillis,
+                is(-1L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void multiInstanceInvalidationBatchWindow_negative() {
+        Room.databaseBuilder(mock(Context.class), TestDatabase.class, "foo")
+                .enableMultiInstanceInvalidation(-1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void validateMigrations_default() {
+        TestDatabase db = Room.databaseBuilder(mock(Context.class), TestDatabase.class, "foo")
+                .build();
+
+        assertThat(db.mDatabaseConfiguration.validateMigrations, is(true));
+    }
+
+    @Test
+    public void skipMigrationValidationInReleaseBuilds() {
+        TestDatabase db = Room.databaseBuilder(mockContext(0), TestDatabase.class, "foo")
+                .skipMigrationValidationInReleaseBuilds()
+                .build();
+
+        assertThat(db.mDatabaseConfiguration.validateMigrations, is(false));
+    }
+
+    @Test
+    public void skipMigrationValidationInReleaseBuilds_debuggable() {
+        Context context = mockContext(ApplicationInfo.FLAG_DEBUGGABLE);
+        TestDatabase db = Room.databaseBuilder(context, TestDatabase.class, "foo")
+                .skipMigrationValidationInReleaseBuilds()
+                .build();
+
+        assertThat(db.mDatabaseConfiguration.validateMigrations, is(true));
+    }
+
+    private static Context mockContext(int applicationFlags) {
+        ApplicationInfo applicationInfo = mock(ApplicationInfo.class);
+        applicationInfo.flags = applicationFlags;
+        Context context = mock(Context.class);
+        when(context.getApplicationInfo()).thenReturn(applicationInfo);
+        return context;
+    }
+
     @Test
     public void migration() {
         Migration m1 = new EmptyMigration(0, 1);
@@ -446,6 +601,50 @@ public class BuilderTest {
                         + "this Builder"));
     }
 
+    @Test
+    public void copyInBackgroundWithoutPrepackagedDatabase() {
+        Exception exception = null;
+        try {
+            Room.databaseBuilder(mock(Context.class), TestDatabase.class, "foo")
+                    .copyPrepackagedDatabaseInBackground()
+                    .build();
+            fail("Build should have thrown");
+        } catch (Exception e) {
+            exception = e;
+        }
+        assertThat(exception, instanceOf(IllegalArgumentException.class));
+        assertThat(exception.getMessage(),
+                containsString("there is no pre-packaged database to copy"));
+    }
+
+    @Test
+    public void createWithQueryMetricsCallback() {
+        QueryMetrics.Callback callback = mock(QueryMetrics.Callback.class);
+        TestDatabase db = Room.inMemoryDatabaseBuilder(mock(Context.class), TestDatabase.class)
+                .setQueryMetricsCallback(callback)
+                .enableQueryPlanChecks()
+                .build();
+        DatabaseConfiguration config = ((BuilderTest_TestDatabase_Impl) db).mConfig;
+        assertThat(config.queryMetricsCallback, is(callback));
+        assertThat(config.checkQueryPlans, is(true));
+    }
+
+    @Test
+    public void queryPlanChecksWithoutQueryMetricsCallback() {
+        Exception exception = null;
+        try {
+            Room.inMemoryDatabaseBuilder(mock(Context.class), TestDatabase.class)
+                    .enableQueryPlanChecks()
+                    .build();
+            fail("Build should have thrown");
+        } catch (Exception e) {
+            exception = e;
+        }
+        assertThat(exception, instanceOf(IllegalArgumentException.class));
+        assertThat(exception.getMessage(),
+                containsString("there is no callback to report the query plans to"));
+    }
+
     @Test
     public void createInMemoryFromAsset() {
         Exception exception = null;
@@ -27,11 +27,14 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import static java.util.Arrays.asList;
+
 import android.database.Cursor;
 import android.database.sqlite.SQLiteException;
 
@@ -187,7 +190,7 @@ public class InvalidationTrackerTest {
 
     @Test
     public void refreshCheckTasks() throws Exception {
-        when(mRoomDatabase.query(any(SimpleSQLiteQuery.class)))
+        when(mSqliteDb.query(any(SimpleSQLiteQuery.class)))
                 .thenReturn(mock(Cursor.class));
         mTracker.refreshVersionsAsync();
         mTracker.refreshVersionsAsync();
@@ -199,6 +202,70 @@ public class InvalidationTrackerTest {
         verify(mTaskExecutorRule.getTaskExecutor()).executeOnDiskIO(mTracker.mRefreshRunnable);
     }
 
+    @Test
+    public void refreshInterval_delaysRefresh() throws Exception {
+        mRoomDatabase.mInvalidationRefreshIntervalMillis = TimeUnit.MINUTES.toMillis(1);
+        setInvalidatedTables(0);
+        refreshSync();
+        assertThat(mTracker.refreshCount(), is(1L));
+
+        reset(mTaskExecutorRule.getTaskExecutor());
+        mTracker.refreshVersionsAsync();
+        mTracker.refreshVersionsAsync();
+        drainTasks();
+        verify(mTaskExecutorRule.getTaskExecutor(), never()).executeOnDiskIO(
+                any(Runnable.class));
+        assertThat(mTracker.refreshCount(), is(1L));
+        assertThat(mTracker.mPendingRefresh.get(), is(true));
+    }
+
+    @Test
+    public void refreshInterval_coalescesRefreshes() throws Exception {
+        mRoomDatabase.mInvalidationRefreshIntervalMillis = 500;
+        LatchObserver observer = new LatchObserver(1, "a");
+        mTracker.addObserver(observer);
+        setInvalidatedTables(0);
+        refreshSync();
+        assertThat(observer.await(), is(true));
+
+        observer.reset(1);
+        setInvalidatedTables(0);
+        mTracker.refreshVersionsAsync();
+        mTracker.refreshVersionsAsync();
+        mTracker.refreshVersionsAsync();
+        assertThat(observer.await(), is(true));
+        drainTasks();
+        assertThat(mTracker.refreshCount(), is(2L));
+        assertThat(mTracker.notifiedObserverCount(), is(2L));
+    }
+
+    @Test
+    public void refreshCounters() throws Exception {
+        LatchObserver observerA = new LatchObserver(1, "a");
+        LatchObserver observerB = new LatchObserver(1, "B");
+        mTracker.addObserver(observerA);
+        mTracker.addObserver(observerB);
+        setInvalidatedTables(0);
+        refreshSync();
+        assertThat(mTracker.refreshCount(), is(1L));
+        assertThat(mTracker.invalidatedTableCount(), is(1L));
+        assertThat(mTracker.notifiedObserverCount(), is(1L));
+
+        setInvalidatedTables(0, 1, 2);
+        refreshSync();
+        assertThat(mTracker.refreshCount(), is(2L));
+        assertThat(mTracker.invalidatedTableCount(), is(4L));
+        assertThat(mTracker.notifiedObserverCount(), is(3L));
+
+        setInvalidatedTables();
+        refreshSync();
+        assertThat(mTracker.refreshCount(), is(3L));
+        assertThat(mTracker.invalidatedTableCount(), is(4L));
+
+        mTracker.notifyObserversByTableNames("B");
+        assertThat(mTracker.notifiedObserverCount(), is(4L));
+    }
+
     @Test
     public void observe1Table() throws Exception {
         LatchObserver observer = new LatchObserver(1, "a");
@@ -300,6 +367,98 @@ public class InvalidationTrackerTest {
         }
     }
 
+    @Test
+    public void createTriggersOnColumns() {
+        setTableColumns("a", "x", "Y", "z");
+        LatchObserver observer = new LatchObserver(1, "a", asList("y", "X"));
+        String[] triggers = new String[]{"UPDATE OF `x`, `y`", "DELETE", "INSERT"};
+        String[] names = new String[]{"UPDATE", "DELETE", "INSERT"};
+
+        mTracker.addObserver(observer);
+        ArgumentCaptor<String> sqlArgCaptor = ArgumentCaptor.forClass(String.class);
+        verify(mSqliteDb, times(4)).execSQL(sqlArgCaptor.capture());
+        List<String> sqlCaptorValues = sqlArgCaptor.getAllValues();
+        assertThat(sqlCaptorValues.get(0),
+                is("INSERT OR IGNORE INTO room_table_modification_log VALUES(5, 0)"));
+        for (int i = 0; i < triggers.length; i++) {
+            assertThat(sqlCaptorValues.get(i + 1),
+                    is("CREATE TEMP TRIGGER IF NOT EXISTS "
+                            + "`room_column_modification_trigger_a_5_" + names[i]
+                            + "` AFTER " + triggers[i] + " ON `a` BEGIN UPDATE "
+                            + "room_table_modification_log SET invalidated = 1 WHERE table_id = 5 "
+                            + "AND invalidated = 0; END"
+                    ));
+        }
+
+        reset(mSqliteDb);
+
+        mTracker.removeObserver(observer);
+        sqlArgCaptor = ArgumentCaptor.forClass(String.class);
+        verify(mSqliteDb, times(3)).execSQL(sqlArgCaptor.capture());
+        sqlCaptorValues = sqlArgCaptor.getAllValues();
+        for (int i = 0; i < names.length; i++) {
+            assertThat(sqlCaptorValues.get(i),
+                    is("DROP TRIGGER IF EXISTS `room_column_modification_trigger_a_5_"
+                            + names[i] + "`"));
+        }
+    }
+
+    @Test
+    public void observeColumns() throws InterruptedException {
+        setTableColumns("a", "x", "y");
+        LatchObserver tableObserver = new LatchObserver(1, "a");
+        LatchObserver columnObserver = new LatchObserver(1, "a", asList("x"));
+        LatchObserver sameColumnsObserver = new LatchObserver(1, "A", asList("X"));
+        mTracker.addObserver(tableObserver);
+        mTracker.addObserver(columnObserver);
+        mTracker.addObserver(sameColumnsObserver);
+
+        // only the table triggers fired, for instance on an update of another column.
+        setInvalidatedTables(0);
+        refreshSync();
+        assertThat(tableObserver.await(), is(true));
+        assertThat(columnObserver.await(), is(false));
+
+        tableObserver.reset(1);
+        columnObserver.reset(1);
+        setInvalidatedTables(0, 5);
+        refreshSync();
+        assertThat(tableObserver.await(), is(true));
+        assertThat(columnObserver.await(), is(true));
+        assertThat(columnObserver.getInvalidatedTables(), hasItem("a"));
+        assertThat(sameColumnsObserver.await(), is(true));
+        // the column set is counted as its table
+        assertThat(mTracker.invalidatedTableCount(), is(2L));
+
+        columnObserver.reset(1);
+        setInvalidatedTables(5);
+        refreshSync();
+        assertThat(columnObserver.await(), is(true));
+        assertThat(mTracker.invalidatedTableCount(), is(3L));
+    }
+
+    @Test
+    public void observeUnknownColumn() {
+        setTableColumns("a", "x", "y");
+        try {
+            mTracker.addObserver(new LatchObserver(1, "a", asList("x", "z")));
+            Assert.fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            assertThat(expected.getMessage(), is("There is no column z in table a"));
+        }
+        verify(mSqliteDb, never()).execSQL(Mockito.anyString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void observeColumnsOfFtsTable() {
+        mTracker.addObserver(new LatchObserver(1, "C", asList("x")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void observeColumnsOfView() {
+        mTracker.addObserver(new LatchObserver(1, "e", asList("x")));
+    }
+
     @Test
     public void observeFtsTable() throws InterruptedException {
         LatchObserver observer = new LatchObserver(1, "C");
@@ -449,6 +608,36 @@ public class InvalidationTrackerTest {
         mTracker.mRefreshRunnable.run();
     }
 
+    /**
+     * Setup the columns returned by PRAGMA table_info for the given table
+     */
+    private void setTableColumns(final String tableName, final String... columnNames) {
+        final Cursor cursor = mock(Cursor.class);
+        final AtomicInteger index = new AtomicInteger(-1);
+        when(cursor.getColumnIndex("name")).thenReturn(1);
+        when(cursor.moveToNext()).thenAnswer(new Answer<Boolean>() {
+            @Override
+            public Boolean answer(InvocationOnMock invocation) {
+                return index.incrementAndGet() < columnNames.length;
+            }
+        });
+        when(cursor.getString(1)).thenAnswer(new Answer<String>() {
+            @Override
+            public String answer(InvocationOnMock invocation) {
+                return columnNames[index.get()];
+            }
+        });
+        doReturn(cursor).when(mSqliteDb).query(
+                argThat(new ArgumentMatcher<SimpleSQLiteQuery>() {
+                    @Override
+                    public boolean matches(SimpleSQLiteQuery argument) {
+                        return argument.getSql().equals(
+                                "PRAGMA table_info(`" + tableName + "`)");
+                    }
+                })
+        );
+    }
+
     /**
      * Setup Cursor result to return INVALIDATED for given tableIds
      */
@@ -457,7 +646,7 @@ public class InvalidationTrackerTest {
         // sync background tasks.
         drainTasks();
         Cursor cursor = createCursorWithValues(tableIds);
-        doReturn(cursor).when(mRoomDatabase).query(
+        doReturn(cursor).when(mSqliteDb).query(
                 argThat(new ArgumentMatcher<SimpleSQLiteQuery>() {
                     @Override
                     public boolean matches(SimpleSQLiteQuery argument) {
@@ -498,6 +687,11 @@ public class InvalidationTrackerTest {
             mLatch = new CountDownLatch(count);
         }
 
+        LatchObserver(int count, String tableName, List<String> columnNames) {
+            super(tableName, columnNames);
+            mLatch = new CountDownLatch(count);
+        }
+
         boolean await() throws InterruptedException {
             return mLatch.await(3, TimeUnit.SECONDS);
         }
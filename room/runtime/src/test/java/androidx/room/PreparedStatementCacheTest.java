@@ -0,0 +1,140 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.io.IOException;
+
+@RunWith(JUnit4.class)
+public class PreparedStatementCacheTest {
+    private PreparedStatementCache mCache;
+    private SupportSQLiteDatabase mDb;
+
+    @Before
+    public void init() {
+        mCache = new PreparedStatementCache();
+        mDb = mockDatabase();
+    }
+
+    @Test
+    public void releasedStatementIsReused() {
+        SupportSQLiteStatement stmt1 = mCache.acquire(mDb, "foo");
+        mCache.release(mDb, "foo", stmt1);
+        SupportSQLiteStatement stmt2 = mCache.acquire(mDb, "foo");
+        assertThat(stmt2, is(stmt1));
+        verify(mDb).compileStatement("foo");
+        verify(stmt1).clearBindings();
+        assertThat(mCache.hitCount(), is(1L));
+        assertThat(mCache.missCount(), is(1L));
+    }
+
+    @Test
+    public void statementInUseIsNotShared() throws IOException {
+        SupportSQLiteStatement stmt1 = mCache.acquire(mDb, "foo");
+        SupportSQLiteStatement stmt2 = mCache.acquire(mDb, "foo");
+        assertThat(stmt2, is(not(stmt1)));
+        mCache.release(mDb, "foo", stmt1);
+        mCache.release(mDb, "foo", stmt2);
+        verify(stmt1, never()).close();
+        verify(stmt2).close();
+        assertThat(mCache.size(), is(1));
+        assertThat(mCache.missCount(), is(2L));
+    }
+
+    @Test
+    public void leastRecentlyUsedIsEvicted() throws IOException {
+        mCache.setMaxSize(2);
+        SupportSQLiteStatement a = mCache.acquire(mDb, "a");
+        SupportSQLiteStatement b = mCache.acquire(mDb, "b");
+        mCache.release(mDb, "a", a);
+        mCache.release(mDb, "b", b);
+        mCache.release(mDb, "a", mCache.acquire(mDb, "a"));
+        SupportSQLiteStatement c = mCache.acquire(mDb, "c");
+        mCache.release(mDb, "c", c);
+        verify(b).close();
+        verify(a, never()).close();
+        assertThat(mCache.size(), is(2));
+        assertThat(mCache.evictionCount(), is(1L));
+    }
+
+    @Test
+    public void statementsAreDroppedWhenConnectionChanges() throws IOException {
+        SupportSQLiteStatement stmt1 = mCache.acquire(mDb, "foo");
+        mCache.release(mDb, "foo", stmt1);
+        SupportSQLiteDatabase other = mockDatabase();
+        SupportSQLiteStatement stmt2 = mCache.acquire(other, "foo");
+        assertThat(stmt2, is(not(stmt1)));
+        verify(stmt1).close();
+        verify(other).compileStatement("foo");
+    }
+
+    @Test
+    public void statementOfClosedConnectionIsNotCached() throws IOException {
+        SupportSQLiteStatement stmt = mCache.acquire(mDb, "foo");
+        mCache.clear();
+        mCache.release(mDb, "foo", stmt);
+        verify(stmt).close();
+        assertThat(mCache.size(), is(0));
+    }
+
+    @Test
+    public void zeroSizeDisablesCache() throws IOException {
+        mCache.setMaxSize(0);
+        SupportSQLiteStatement stmt = mCache.acquire(mDb, "foo");
+        mCache.release(mDb, "foo", stmt);
+        verify(stmt).close();
+        assertThat(mCache.acquire(mDb, "foo"), is(not(stmt)));
+    }
+
+    @Test
+    public void clearClosesStatements() throws IOException {
+        SupportSQLiteStatement stmt = mCache.acquire(mDb, "foo");
+        mCache.release(mDb, "foo", stmt);
+        mCache.clear();
+        verify(stmt).close();
+        assertThat(mCache.size(), is(0));
+    }
+
+    private static SupportSQLiteDatabase mockDatabase() {
+        SupportSQLiteDatabase db = mock(SupportSQLiteDatabase.class);
+        when(db.compileStatement(anyString())).thenAnswer(new Answer<SupportSQLiteStatement>() {
+            @Override
+            public SupportSQLiteStatement answer(InvocationOnMock invocation) {
+                return mock(SupportSQLiteStatement.class);
+            }
+        });
+        return db;
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+
+import android.database.Cursor;
+
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteQuery;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.Collections;
+
+@RunWith(JUnit4.class)
+public class QueryMetricsRecorderTest {
+    @Test
+    public void findFullTableScans() {
+        assertThat(QueryMetricsRecorder.findFullTableScans(asList(
+                "SCAN foo",
+                "SCAN TABLE bar",
+                "SEARCH baz USING INDEX baz_name (name=?)",
+                "SCAN foo USING COVERING INDEX foo_name",
+                "SCAN TABLE bar USING INTEGER PRIMARY KEY",
+                "SCAN ft VIRTUAL TABLE INDEX 0:",
+                "SCAN CONSTANT ROW",
+                "USE TEMP B-TREE FOR ORDER BY")),
+                is(asList("SCAN foo", "SCAN TABLE bar")));
+    }
+
+    @Test
+    public void findFullTableScans_subqueries() {
+        assertThat(QueryMetricsRecorder.findFullTableScans(asList(
+                "CO-ROUTINE recent",
+                "SCAN foo",
+                "MATERIALIZE 1",
+                "SEARCH bar USING INTEGER PRIMARY KEY (rowid=?)",
+                "SCAN recent",
+                "SCAN SUBQUERY 1",
+                "SCAN (subquery-2)")),
+                is(singletonList("SCAN foo")));
+    }
+
+    @Test
+    public void findFullTableScans_none() {
+        assertThat(QueryMetricsRecorder.findFullTableScans(
+                Collections.<String>emptyList()).isEmpty(), is(true));
+    }
+
+    @Test
+    public void query_reportsMetrics() {
+        QueryMetrics.Callback callback = mock(QueryMetrics.Callback.class);
+        QueryMetricsRecorder recorder = new QueryMetricsRecorder(callback, false);
+        SupportSQLiteDatabase db = mock(SupportSQLiteDatabase.class);
+        Cursor cursor = mock(Cursor.class);
+        when(cursor.getCount()).thenReturn(3);
+        SupportSQLiteQuery query = new SimpleSQLiteQuery("SELECT * FROM foo WHERE id > ?",
+                new Object[]{1});
+        when(db.query(query)).thenReturn(cursor);
+
+        long startNanos = System.nanoTime();
+        assertThat(recorder.query(db, query, null, startNanos, true), is(cursor));
+
+        ArgumentCaptor<QueryMetrics> captor = ArgumentCaptor.forClass(QueryMetrics.class);
+        verify(callback).onQuery(captor.capture());
+        QueryMetrics metrics = captor.getValue();
+        assertThat(metrics.getSql(), is("SELECT * FROM foo WHERE id > ?"));
+        assertThat(metrics.getArgCount(), is(1));
+        assertThat(metrics.getRowCount(), is(3));
+        assertThat(metrics.isMainThread(), is(true));
+        assertThat(metrics.getPrepareTimeNanos() >= 0, is(true));
+        assertThat(metrics.getStepTimeNanos() >= 0, is(true));
+        assertThat(metrics.getTotalTimeNanos() >= metrics.getPrepareTimeNanos()
+                + metrics.getStepTimeNanos(), is(true));
+        assertThat(metrics.getFullTableScans(), is(nullValue()));
+    }
+
+    @Test
+    public void query_explainsEachSqlOnce() {
+        QueryMetrics.Callback callback = mock(QueryMetrics.Callback.class);
+        QueryMetricsRecorder recorder = new QueryMetricsRecorder(callback, true);
+        SupportSQLiteDatabase db = mock(SupportSQLiteDatabase.class);
+        final Cursor cursor = mock(Cursor.class);
+        final Cursor plan = mock(Cursor.class);
+        when(plan.getColumnCount()).thenReturn(4);
+        when(plan.moveToNext()).thenReturn(true, false);
+        when(plan.getString(3)).thenReturn("SCAN foo");
+        when(db.query(any(SupportSQLiteQuery.class))).thenAnswer(new Answer<Cursor>() {
+            @Override
+            public Cursor answer(InvocationOnMock invocation) {
+                SupportSQLiteQuery query = invocation.getArgument(0);
+                return query.getSql().startsWith("EXPLAIN QUERY PLAN ") ? plan : cursor;
+            }
+        });
+        SupportSQLiteQuery query = new SimpleSQLiteQuery("SELECT * FROM foo");
+
+        recorder.query(db, query, null, System.nanoTime(), false);
+        recorder.query(db, query, null, System.nanoTime(), false);
+
+        // once for the plan and twice for the query.
+        verify(db, times(3)).query(any(SupportSQLiteQuery.class));
+        verify(plan).close();
+        ArgumentCaptor<QueryMetrics> captor = ArgumentCaptor.forClass(QueryMetrics.class);
+        verify(callback, times(2)).onQuery(captor.capture());
+        for (QueryMetrics metrics : captor.getAllValues()) {
+            assertThat(metrics.getFullTableScans(), is(singletonList("SCAN foo")));
+        }
+    }
+
+    @Test
+    public void query_closesCursorOnFailure() {
+        QueryMetrics.Callback callback = mock(QueryMetrics.Callback.class);
+        QueryMetricsRecorder recorder = new QueryMetricsRecorder(callback, false);
+        SupportSQLiteDatabase db = mock(SupportSQLiteDatabase.class);
+        Cursor cursor = mock(Cursor.class);
+        IllegalStateException failure = new IllegalStateException("failed");
+        when(cursor.getCount()).thenThrow(failure);
+        SupportSQLiteQuery query = new SimpleSQLiteQuery("SELECT * FROM foo");
+        when(db.query(query)).thenReturn(cursor);
+        try {
+            recorder.query(db, query, null, System.nanoTime(), false);
+            fail("the failure should have been rethrown");
+        } catch (IllegalStateException e) {
+            assertThat(e, is(failure));
+        }
+        verify(cursor).close();
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.content.Context;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@RunWith(JUnit4.class)
+public class ReaderConnectionPoolTest {
+    private SupportSQLiteOpenHelper.Factory mFactory;
+    private SupportSQLiteDatabase mWriter;
+    private final List<SupportSQLiteOpenHelper> mHelpers = new ArrayList<>();
+
+    @Before
+    public void init() {
+        mWriter = mock(SupportSQLiteDatabase.class);
+        when(mWriter.getVersion()).thenReturn(3);
+        mFactory = mock(SupportSQLiteOpenHelper.Factory.class);
+        when(mFactory.create(any(SupportSQLiteOpenHelper.Configuration.class))).thenAnswer(
+                new Answer<SupportSQLiteOpenHelper>() {
+                    @Override
+                    public SupportSQLiteOpenHelper answer(InvocationOnMock invocation) {
+                        SupportSQLiteOpenHelper helper = mock(SupportSQLiteOpenHelper.class);
+                        SupportSQLiteDatabase reader = mock(SupportSQLiteDatabase.class);
+                        when(reader.isOpen()).thenReturn(true);
+                        when(helper.getReadableDatabase()).thenReturn(reader);
+                        mHelpers.add(helper);
+                        return helper;
+                    }
+                });
+    }
+
+    @Test
+    public void readerIsOpenedAtWriterVersion() {
+        ReaderConnectionPool pool = createPool(2);
+        SupportSQLiteDatabase reader = pool.acquire(mWriter);
+
+        ArgumentCaptor<SupportSQLiteOpenHelper.Configuration> captor =
+                ArgumentCaptor.forClass(SupportSQLiteOpenHelper.Configuration.class);
+        verify(mFactory).create(captor.capture());
+        assertThat(captor.getValue().name, is("foo.db"));
+        assertThat(captor.getValue().callback.version, is(3));
+        verify(mHelpers.get(0)).setWriteAheadLoggingEnabled(true);
+        assertThat(reader, is(mHelpers.get(0).getReadableDatabase()));
+    }
+
+    @Test
+    public void threadKeepsItsReader() {
+        ReaderConnectionPool pool = createPool(2);
+        SupportSQLiteDatabase reader = pool.acquire(mWriter);
+        assertThat(pool.acquire(mWriter), is(reader));
+        verify(mFactory, times(1)).create(any(SupportSQLiteOpenHelper.Configuration.class));
+    }
+
+    @Test
+    public void threadsAreSpreadOverReaders() throws Exception {
+        final ReaderConnectionPool pool = createPool(2);
+        SupportSQLiteDatabase first = acquireOnNewThread(pool);
+        SupportSQLiteDatabase second = acquireOnNewThread(pool);
+        SupportSQLiteDatabase third = acquireOnNewThread(pool);
+        assertThat(second, is(not(first)));
+        assertThat(third, is(first));
+        verify(mFactory, times(2)).create(any(SupportSQLiteOpenHelper.Configuration.class));
+    }
+
+    @Test
+    public void closeClosesReaders() {
+        ReaderConnectionPool pool = createPool(1);
+        SupportSQLiteDatabase reader = pool.acquire(mWriter);
+        pool.close();
+        verify(mHelpers.get(0)).close();
+
+        assertThat(pool.acquire(mWriter), is(not(reader)));
+        verify(mFactory, times(2)).create(any(SupportSQLiteOpenHelper.Configuration.class));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void readerDoesNotMigrate() {
+        createPool(1).acquire(mWriter);
+        ArgumentCaptor<SupportSQLiteOpenHelper.Configuration> captor =
+                ArgumentCaptor.forClass(SupportSQLiteOpenHelper.Configuration.class);
+        verify(mFactory).create(captor.capture());
+        captor.getValue().callback.onUpgrade(mock(SupportSQLiteDatabase.class), 2, 3);
+    }
+
+    private ReaderConnectionPool createPool(int size) {
+        return new ReaderConnectionPool(mock(Context.class), "foo.db", mFactory, size,
+                PreparedStatementCache.DEFAULT_SIZE);
+    }
+
+    private SupportSQLiteDatabase acquireOnNewThread(final ReaderConnectionPool pool)
+            throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            return executor.submit(new Callable<SupportSQLiteDatabase>() {
+                @Override
+                public SupportSQLiteDatabase call() {
+                    return pool.acquire(mWriter);
+                }
+            }).get();
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -31,14 +31,17 @@ import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @RunWith(JUnit4.class)
 public class RoomSQLiteQueryTest {
     @Before
     public void clear() {
-        RoomSQLiteQuery.sQueryPool.clear();
+        RoomSQLiteQuery.clearPool();
     }
 
     @Test
@@ -90,17 +93,20 @@ public class RoomSQLiteQueryTest {
     }
 
     @Test
-    public void dontKeepSameSizeTwice() {
-        RoomSQLiteQuery query1 = RoomSQLiteQuery.acquire("abc", 3);
-        RoomSQLiteQuery query2 = RoomSQLiteQuery.acquire("zx", 3);
-        RoomSQLiteQuery query3 = RoomSQLiteQuery.acquire("qw", 0);
+    public void keepLimitedNumberOfSameSize() {
+        List<RoomSQLiteQuery> queries = new ArrayList<>();
+        for (int i = 0; i < RoomSQLiteQuery.SLOTS_PER_CAPACITY + 1; i++) {
+            queries.add(RoomSQLiteQuery.acquire("abc", 3));
+        }
+        RoomSQLiteQuery other = RoomSQLiteQuery.acquire("qw", 0);
 
-        query1.release();
-        query2.release();
-        assertThat(RoomSQLiteQuery.sQueryPool.size(), is(1));
+        for (RoomSQLiteQuery query : queries) {
+            query.release();
+        }
+        assertThat(RoomSQLiteQuery.pooledCount(), is(RoomSQLiteQuery.SLOTS_PER_CAPACITY));
 
-        query3.release();
-        assertThat(RoomSQLiteQuery.sQueryPool.size(), is(2));
+        other.release();
+        assertThat(RoomSQLiteQuery.pooledCount(), is(RoomSQLiteQuery.SLOTS_PER_CAPACITY + 1));
     }
 
     @Test
@@ -118,32 +124,64 @@ public class RoomSQLiteQueryTest {
     }
 
     @Test
-    public void pruneCache() {
-        for (int i = 0; i < RoomSQLiteQuery.POOL_LIMIT; i++) {
-            RoomSQLiteQuery.acquire("dsdsa", i).release();
-        }
-        pruneCacheTest();
+    public void capacityIsRoundedUp() {
+        RoomSQLiteQuery query = RoomSQLiteQuery.acquire("abc", 9);
+        assertThat(query.mCapacity, is(15));
+        query.release();
+        assertThat(RoomSQLiteQuery.acquire("dsa", 15), sameInstance(query));
     }
 
     @Test
-    public void pruneCacheReverseInsertion() {
-        List<RoomSQLiteQuery> queries = new ArrayList<>();
-        for (int i = RoomSQLiteQuery.POOL_LIMIT - 1; i >= 0; i--) {
-            queries.add(RoomSQLiteQuery.acquire("dsdsa", i));
-        }
-        for (RoomSQLiteQuery query : queries) {
-            query.release();
-        }
-        pruneCacheTest();
+    public void dontPoolLargeQueries() {
+        int argCount = RoomSQLiteQuery.MAX_POOLED_CAPACITY + 1;
+        RoomSQLiteQuery query = RoomSQLiteQuery.acquire("abc", argCount);
+        assertThat(query.mCapacity, is(argCount));
+        query.release();
+        assertThat(RoomSQLiteQuery.pooledCount(), is(0));
+        assertThat(RoomSQLiteQuery.acquire("dsa", argCount), not(sameInstance(query)));
     }
 
-    private void pruneCacheTest() {
-        assertThat(RoomSQLiteQuery.sQueryPool.size(), is(RoomSQLiteQuery.POOL_LIMIT));
-        RoomSQLiteQuery.acquire("dsadsa", RoomSQLiteQuery.POOL_LIMIT + 1).release();
-        assertThat(RoomSQLiteQuery.sQueryPool.size(), is(RoomSQLiteQuery.DESIRED_POOL_SIZE));
-        Iterator<RoomSQLiteQuery> itr = RoomSQLiteQuery.sQueryPool.values().iterator();
-        for (int i = 0; i < RoomSQLiteQuery.DESIRED_POOL_SIZE; i++) {
-            assertThat(itr.next().mCapacity, is(i));
+    @Test
+    public void releasedOnAnotherThread() throws InterruptedException {
+        final RoomSQLiteQuery query = RoomSQLiteQuery.acquire("abc", 3);
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                query.release();
+            }
+        });
+        thread.start();
+        thread.join();
+        assertThat(RoomSQLiteQuery.pooledCount(), is(1));
+    }
+
+    @Test
+    public void concurrentAcquireAndRelease() throws InterruptedException {
+        final Set<RoomSQLiteQuery> inUse =
+                Collections.newSetFromMap(new ConcurrentHashMap<RoomSQLiteQuery, Boolean>());
+        final AtomicBoolean sharedTwice = new AtomicBoolean();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 10000; i++) {
+                        RoomSQLiteQuery query = RoomSQLiteQuery.acquire("abc", i % 5);
+                        if (!inUse.add(query)) {
+                            sharedTwice.set(true);
+                        }
+                        inUse.remove(query);
+                        query.release();
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
         }
+        assertThat(sharedTwice.get(), is(false));
     }
 }
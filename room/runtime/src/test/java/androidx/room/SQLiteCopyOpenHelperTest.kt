@@ -19,19 +19,23 @@ package androidx.room
 import android.content.Context
 import android.content.res.AssetManager
 import androidx.sqlite.db.SupportSQLiteOpenHelper
+import org.junit.Assert.assertArrayEquals
 import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
 import org.junit.Rule
 import org.junit.Test
 import org.junit.rules.TemporaryFolder
 import org.junit.runner.RunWith
 import org.junit.runners.JUnit4
 import org.mockito.Mockito.`when`
+import org.mockito.Mockito.doReturn
 import org.mockito.Mockito.mock
 import org.mockito.Mockito.times
 import org.mockito.Mockito.verify
 import org.mockito.Mockito.verifyNoMoreInteractions
 import java.io.File
 import java.io.FileInputStream
+import java.io.FileOutputStream
 import java.io.IOException
 import java.io.InputStream
 import java.io.RandomAccessFile
@@ -39,6 +43,7 @@ import java.nio.ByteBuffer
 import java.util.concurrent.TimeUnit
 import java.util.concurrent.TimeoutException
 import java.util.concurrent.atomic.AtomicInteger
+import java.util.zip.GZIPOutputStream
 import kotlin.concurrent.thread
 
 @RunWith(JUnit4::class)
@@ -180,6 +185,74 @@ class SQLiteCopyOpenHelperTest {
         assertEquals(1, exceptions.size)
     }
 
+    @Test
+    fun copyFile() {
+        val contents = createDatabaseContents()
+        val copyFile = tempDirectory.newFile("toCopy.db")
+        copyFile.writeBytes(contents)
+        setupMocks(tempDirectory.root, copyFile)
+
+        createFileOpenHelper(copyFile).writableDatabase
+
+        assertArrayEquals(contents, File(tempDirectory.root, DB_NAME).readBytes())
+    }
+
+    @Test
+    fun copyGzipFile() {
+        val contents = createDatabaseContents()
+        val copyFile = tempDirectory.newFile("toCopy.db.gz")
+        gzip(contents, copyFile)
+        setupMocks(tempDirectory.root, copyFile)
+
+        createFileOpenHelper(copyFile).writableDatabase
+
+        assertArrayEquals(contents, File(tempDirectory.root, DB_NAME).readBytes())
+    }
+
+    @Test
+    fun copyGzipAsset() {
+        val contents = createDatabaseContents()
+        val copyFile = tempDirectory.newFile("toCopy.db.gz")
+        gzip(contents, copyFile)
+        setupMocks(tempDirectory.root, copyFile)
+        doReturn(FileInputStream(copyFile)).`when`(assetManager).open(copyFile.name)
+
+        createOpenHelper(copyFile).writableDatabase
+
+        assertArrayEquals(contents, File(tempDirectory.root, DB_NAME).readBytes())
+    }
+
+    @Test
+    fun copyInBackground() {
+        val copyFile = tempDirectory.newFile("toCopy.db")
+        writeDatabaseVersion(copyFile)
+        setupMocks(tempDirectory.root, copyFile)
+        val tasks = mutableListOf<Runnable>()
+
+        val openHelper = createOpenHelper(copyFile, copyInBackground = true)
+        openHelper.startBackgroundCopy { tasks.add(it) }
+        assertEquals(1, tasks.size)
+        tasks.single().run()
+        assertTrue(File(tempDirectory.root, DB_NAME).exists())
+
+        openHelper.writableDatabase
+
+        verify(assetManager).open("toCopy.db")
+        assertEquals(1, getAndIncrementAccessCount(copyFile))
+    }
+
+    @Test
+    fun copyInBackground_disabled() {
+        val copyFile = tempDirectory.newFile("toCopy.db")
+        writeDatabaseVersion(copyFile)
+        setupMocks(tempDirectory.root, copyFile)
+        val tasks = mutableListOf<Runnable>()
+
+        createOpenHelper(copyFile).startBackgroundCopy { tasks.add(it) }
+
+        assertEquals(0, tasks.size)
+    }
+
     internal fun setupMocks(tmpDir: File, copyFromFile: File, onAssetOpen: () -> Unit = {}) {
         `when`(delegate.databaseName).thenReturn(DB_NAME)
         `when`(context.getDatabasePath(DB_NAME)).thenReturn(File(tmpDir, DB_NAME))
@@ -202,15 +275,37 @@ class SQLiteCopyOpenHelperTest {
         }
     }
 
-    internal fun createOpenHelper(copyFromAssetFile: File) =
+    internal fun createOpenHelper(copyFromAssetFile: File, copyInBackground: Boolean = false) =
         SQLiteCopyOpenHelper(
             context,
             copyFromAssetFile.name,
             null,
             DB_VERSION,
+            copyInBackground,
+            delegate
+        ).apply { setDatabaseConfiguration(configuration) }
+
+    private fun createFileOpenHelper(copyFromFile: File) =
+        SQLiteCopyOpenHelper(
+            context,
+            null,
+            copyFromFile,
+            DB_VERSION,
+            false,
             delegate
         ).apply { setDatabaseConfiguration(configuration) }
 
+    // Creates the contents of a database file, with the sqlite user database version.
+    private fun createDatabaseContents(): ByteArray {
+        val contents = ByteArray(64 * 1024) { it.toByte() }
+        ByteBuffer.wrap(contents).putInt(60, DB_VERSION)
+        return contents
+    }
+
+    private fun gzip(contents: ByteArray, file: File) {
+        GZIPOutputStream(FileOutputStream(file)).use { it.write(contents) }
+    }
+
     // Writes sqlite user database version in a file, located at offset 60.
     private fun writeDatabaseVersion(file: File) {
         val buffer = ByteBuffer.allocate(4)
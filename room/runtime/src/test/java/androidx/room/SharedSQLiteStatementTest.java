@@ -21,6 +21,7 @@ import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -51,6 +52,13 @@ public class SharedSQLiteStatementTest {
                 return mock(SupportSQLiteStatement.class);
             }
         });
+        when(mDb.acquireStatement(anyString())).thenAnswer(
+                new Answer<SupportSQLiteStatement>() {
+                    @Override
+                    public SupportSQLiteStatement answer(InvocationOnMock invocation) {
+                        return mock(SupportSQLiteStatement.class);
+                    }
+                });
         when(mDb.getInvalidationTracker()).thenReturn(mock(InvalidationTracker.class));
         mSharedStmt = new SharedSQLiteStatement(mDb) {
             @Override
@@ -89,6 +97,17 @@ public class SharedSQLiteStatementTest {
         assertThat(stmt1, is(stmt2));
     }
 
+    @Test
+    public void statementUsedWhileHoldingIsReturnedToDatabase() {
+        SupportSQLiteStatement stmt1 = mSharedStmt.acquire();
+        SupportSQLiteStatement stmt2 = mSharedStmt.acquire();
+        verify(mDb).acquireStatement("foo");
+        mSharedStmt.release(stmt2);
+        verify(mDb).releaseStatement("foo", stmt2);
+        mSharedStmt.release(stmt1);
+        verify(mDb, never()).releaseStatement("foo", stmt1);
+    }
+
     @Test
     public void getFromAnotherThreadWhileHolding() throws ExecutionException, InterruptedException {
         SupportSQLiteStatement stmt1 = mSharedStmt.acquire();
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.File;
+import java.io.IOException;
+
+@RunWith(JUnit4.class)
+public class SharedTableVersionsTest {
+    private static final String[] TABLES = new String[]{"a", "b", "c"};
+
+    @Rule
+    public TemporaryFolder mTemporaryFolder = new TemporaryFolder();
+
+    private File mFile;
+
+    @Before
+    public void setup() throws IOException {
+        mFile = new File(mTemporaryFolder.getRoot(), "test.db-room-versions");
+    }
+
+    @After
+    public void tearDown() {
+        assertThat(SharedTableVersions.openFileCount(), is(0));
+    }
+
+    @Test
+    public void incrementAndRead() throws IOException {
+        SharedTableVersions versions = SharedTableVersions.acquire(mFile, TABLES);
+        try {
+            assertThat(versions.getTableCount(), is(3));
+            assertThat(read(versions), is(new long[]{0, 0, 0}));
+            assertThat(versions.increment(new int[]{0, 2}), is(new long[]{1, 1}));
+            assertThat(versions.increment(new int[]{2}), is(new long[]{2}));
+            assertThat(read(versions), is(new long[]{1, 0, 2}));
+        } finally {
+            versions.release();
+        }
+    }
+
+    @Test
+    public void acquiredOncePerFile() throws IOException {
+        SharedTableVersions versions1 = SharedTableVersions.acquire(mFile, TABLES);
+        SharedTableVersions versions2 = SharedTableVersions.acquire(mFile, TABLES);
+        assertThat(versions2, sameInstance(versions1));
+        assertThat(SharedTableVersions.openFileCount(), is(1));
+        versions1.release();
+        // still usable by the other instance.
+        versions2.increment(new int[]{1});
+        assertThat(read(versions2), is(new long[]{0, 1, 0}));
+        versions2.release();
+    }
+
+    @Test
+    public void versionsKeptWhenReopened() throws IOException {
+        SharedTableVersions versions = SharedTableVersions.acquire(mFile, TABLES);
+        versions.increment(new int[]{0, 1});
+        versions.release();
+
+        versions = SharedTableVersions.acquire(mFile, TABLES);
+        try {
+            assertThat(read(versions), is(new long[]{1, 1, 0}));
+        } finally {
+            versions.release();
+        }
+    }
+
+    @Test
+    public void versionsResetForOtherTables() throws IOException {
+        SharedTableVersions versions = SharedTableVersions.acquire(mFile, TABLES);
+        versions.increment(new int[]{0, 1, 2});
+        versions.release();
+
+        versions = SharedTableVersions.acquire(mFile, new String[]{"a", "b", "d"});
+        try {
+            assertThat(read(versions), is(new long[]{0, 0, 0}));
+        } finally {
+            versions.release();
+        }
+    }
+
+    private static long[] read(SharedTableVersions versions) throws IOException {
+        long[] result = new long[versions.getTableCount()];
+        versions.read(result);
+        return result;
+    }
+}
@@ -15,9 +15,13 @@
  */
 package androidx.room.util
 
+import android.database.Cursor
 import androidx.room.util.CursorUtil.findColumnIndexBySuffix
 import com.google.common.truth.Truth.assertThat
 import org.junit.Test
+import org.mockito.ArgumentMatchers.anyInt
+import org.mockito.Mockito.`when`
+import org.mockito.Mockito.mock
 
 class CursorUtilTest {
     @Test
@@ -69,4 +73,50 @@ class CursorUtilTest {
             )
         ).isEqualTo(-1)
     }
-}
\ No newline at end of file
+
+    @Test
+    fun readLongColumn() {
+        val cursor = createCursor(listOf(3L, 1L, Long.MAX_VALUE))
+        assertThat(CursorUtil.readLongColumn(cursor, 1).toList())
+            .containsExactly(3L, 1L, Long.MAX_VALUE).inOrder()
+    }
+
+    @Test
+    fun readIntColumn() {
+        val cursor = createCursor(listOf(3L, -1L))
+        assertThat(CursorUtil.readIntColumn(cursor, 1).toList())
+            .containsExactly(3, -1).inOrder()
+    }
+
+    @Test
+    fun readDoubleColumn() {
+        val cursor = createCursor(listOf(3L, 2L))
+        assertThat(CursorUtil.readDoubleColumn(cursor, 1).toList())
+            .containsExactly(3.0, 2.0).inOrder()
+    }
+
+    @Test
+    fun readLongColumn_empty() {
+        val cursor = createCursor(emptyList())
+        assertThat(CursorUtil.readLongColumn(cursor, 1)).isEmpty()
+    }
+
+    /**
+     * Creates a cursor that is not backed by a window, with the given values in its second
+     * column.
+     */
+    private fun createCursor(values: List<Long>): Cursor {
+        val cursor = mock(Cursor::class.java)
+        var position = -1
+        `when`(cursor.count).thenReturn(values.size)
+        `when`(cursor.position).thenAnswer { position }
+        `when`(cursor.moveToPosition(anyInt())).thenAnswer {
+            position = it.getArgument(0)
+            position >= 0 && position < values.size
+        }
+        `when`(cursor.getLong(1)).thenAnswer { values[position] }
+        `when`(cursor.getInt(1)).thenAnswer { values[position].toInt() }
+        `when`(cursor.getDouble(1)).thenAnswer { values[position].toDouble() }
+        return cursor
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.room.util
+
+import androidx.room.RoomDatabase
+import com.google.common.truth.Truth.assertThat
+import org.junit.After
+import org.junit.Assert.fail
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.JUnit4
+import org.mockito.Mockito.`when`
+import org.mockito.Mockito.mock
+import org.mockito.Mockito.verify
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executor
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+@RunWith(JUnit4::class)
+class DBUtilRunConcurrentlyTest {
+    private val executor = Executors.newFixedThreadPool(2)
+
+    @After
+    fun tearDown() {
+        executor.shutdownNow()
+    }
+
+    private fun createDatabase(concurrent: Boolean, queryExecutor: Executor): RoomDatabase {
+        val db = mock(RoomDatabase::class.java)
+        `when`(db.canRunQueriesConcurrently()).thenReturn(concurrent)
+        `when`(db.queryExecutor).thenReturn(queryExecutor)
+        return db
+    }
+
+    @Test
+    fun sequential() {
+        val queryExecutor = mock(Executor::class.java)
+        val db = createDatabase(false, queryExecutor)
+        val threads = Collections.synchronizedList(mutableListOf<Thread>())
+        val order = Collections.synchronizedList(mutableListOf<Int>())
+        DBUtil.runConcurrently(db, *Array(3) { index ->
+            Runnable {
+                threads.add(Thread.currentThread())
+                order.add(index)
+            }
+        })
+        assertThat(order).containsExactly(0, 1, 2).inOrder()
+        assertThat(threads.toSet()).containsExactly(Thread.currentThread())
+        verify(db).canRunQueriesConcurrently()
+    }
+
+    @Test
+    fun concurrent() {
+        val db = createDatabase(true, executor)
+        // each task waits for the others, so they can only complete if they run concurrently.
+        val started = CountDownLatch(3)
+        val threads = Collections.synchronizedSet(mutableSetOf<Thread>())
+        DBUtil.runConcurrently(db, *Array(3) {
+            Runnable {
+                threads.add(Thread.currentThread())
+                started.countDown()
+                assertThat(started.await(5, TimeUnit.SECONDS)).isTrue()
+            }
+        })
+        assertThat(threads).hasSize(3)
+        assertThat(threads).contains(Thread.currentThread())
+    }
+
+    @Test
+    fun concurrent_executorNotRunning() {
+        // an executor whose threads are all busy, the calling thread runs all the tasks.
+        val db = createDatabase(true, Executor { })
+        val order = Collections.synchronizedList(mutableListOf<Int>())
+        DBUtil.runConcurrently(db, *Array(3) { index -> Runnable { order.add(index) } })
+        assertThat(order).containsExactly(0, 1, 2).inOrder()
+    }
+
+    @Test
+    fun concurrent_failure() {
+        val db = createDatabase(true, executor)
+        val failure = IllegalStateException("failed")
+        try {
+            DBUtil.runConcurrently(db, Runnable { }, Runnable { throw failure })
+            fail("the failure should have been rethrown")
+        } catch (e: IllegalStateException) {
+            assertThat(e).isSameInstanceAs(failure)
+        }
+    }
+}
@@ -25,6 +25,7 @@ import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.arch.core.executor.ArchTaskExecutor;
 import androidx.room.DatabaseConfiguration;
+import androidx.room.PreparedStatementCache;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
 import androidx.room.RoomOpenHelper;
@@ -166,7 +167,15 @@ public class MigrationTestHelper extends TestWatcher {
                 false,
                 Collections.<Integer>emptySet(),
                 null,
-                null);
+                null,
+                PreparedStatementCache.DEFAULT_SIZE,
+                false,
+                0,
+                0,
+                true,
+                null,
+                false,
+                -1);
         RoomOpenHelper roomOpenHelper = new RoomOpenHelper(configuration,
                 new CreatingDelegate(schemaBundle.getDatabase()),
                 schemaBundle.getDatabase().getIdentityHash(),
@@ -226,7 +235,15 @@ public class MigrationTestHelper extends TestWatcher {
                 false,
                 Collections.<Integer>emptySet(),
                 null,
-                null);
+                null,
+                PreparedStatementCache.DEFAULT_SIZE,
+                false,
+                0,
+                0,
+                true,
+                null,
+                false,
+                -1);
         RoomOpenHelper roomOpenHelper = new RoomOpenHelper(configuration,
                 new MigratingDelegate(schemaBundle.getDatabase(), validateDroppedTables),
                 // we pass the same hash twice since an old schema does not necessarily have
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.sqlite.inspection.test
+
+import android.database.sqlite.SQLiteCursor
+import android.database.sqlite.SQLiteDatabase
+import android.database.sqlite.SQLiteQuery
+import android.database.sqlite.SQLiteStatement
+import androidx.inspection.InspectorEnvironment
+import androidx.sqlite.inspection.SqliteInspectorProtocol.Event.OneOfCase.QUERY_PROFILE
+import androidx.sqlite.inspection.SqliteInspectorProtocol.QueryProfileEvent
+import androidx.sqlite.inspection.test.MessageFactory.createProfileQueriesCommand
+import androidx.sqlite.inspection.test.MessageFactory.createProfileQueriesResponse
+import androidx.sqlite.inspection.test.MessageFactory.createTrackDatabasesCommand
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.filters.MediumTest
+import androidx.test.platform.app.InstrumentationRegistry.getInstrumentation
+import com.google.common.truth.Truth.assertThat
+import kotlinx.coroutines.runBlocking
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import org.junit.runner.RunWith
+
+private const val FILL_WINDOW_SIGNATURE = "fillWindow(Landroid/database/CursorWindow;IIZ)I"
+private const val GET_THREAD_SESSION_SIGNATURE =
+    "getThreadSession()Landroid/database/sqlite/SQLiteSession;"
+
+// Long enough for the executions to only be reported when profiling is stopped
+private const val REPORT_INTERVAL_MS = 60_000
+
+@MediumTest
+@RunWith(AndroidJUnit4::class)
+class ProfilingTest {
+    @get:Rule
+    val testEnvironment = SqliteInspectorTestEnvironment()
+
+    @get:Rule
+    val temporaryFolder = TemporaryFolder(getInstrumentation().context.cacheDir)
+
+    private val table = Table("t1", Column("c1", "int"))
+
+    @Test
+    fun test_hooks_registered_once(): Unit = runBlocking {
+        startProfiling()
+
+        val hooks = testEnvironment.consumeRegisteredHooks()
+        listOf(
+            SQLiteQuery::class.java to FILL_WINDOW_SIGNATURE,
+            SQLiteStatement::class.java to "execute()V",
+            SQLiteStatement::class.java to "executeInsert()J",
+            SQLiteStatement::class.java to "executeUpdateDelete()I",
+            SQLiteStatement::class.java to "simpleQueryForLong()J",
+            SQLiteStatement::class.java to "simpleQueryForString()Ljava/lang/String;"
+        ).forEach { (clazz, method) ->
+            val methodHooks = hooks
+                .filter { it.originMethod == method && it.originClass == clazz }
+                .sortedBy { it.javaClass.canonicalName }
+            assertThat(methodHooks).hasSize(2)
+            assertThat(methodHooks.first()).isInstanceOf(Hook.EntryHook::class.java)
+            assertThat(methodHooks.last()).isInstanceOf(Hook.ExitHook::class.java)
+        }
+        hooks.single {
+            it.originMethod == GET_THREAD_SESSION_SIGNATURE &&
+                it.originClass == SQLiteDatabase::class.java
+        }.let { hook -> assertThat(hook).isInstanceOf(Hook.EntryHook::class.java) }
+
+        stopProfiling()
+        startProfiling()
+        assertThat(testEnvironment.consumeRegisteredHooks()).isEmpty()
+    }
+
+    @Test
+    fun test_statements_aggregated(): Unit = runBlocking {
+        val db = Database("db1", table).createInstance(temporaryFolder)
+        val insert = db.compileStatement("insert into t1 values (1)")
+        val update = db.compileStatement("update t1 set c1 = 2")
+        startProfiling()
+        val hooks = testEnvironment.consumeRegisteredHooks()
+
+        repeat(3) { hooks.execute("executeInsert()J", insert, 1L) }
+        hooks.execute("executeUpdateDelete()I", update, 3)
+
+        val event = stopProfilingAndReceiveEvent()
+        assertThat(event.droppedExecutionCount).isEqualTo(0)
+        assertThat(event.statementsList.map { it.sql }).containsExactly(
+            "insert into t1 values (1)",
+            "update t1 set c1 = 2"
+        )
+        event.statementsList.first { it.sql == "insert into t1 values (1)" }.let { profile ->
+            assertThat(profile.executionCount).isEqualTo(3)
+            assertThat(profile.rowCount).isEqualTo(3)
+            assertThat(profile.durationHistogramList.sum()).isEqualTo(3)
+            assertThat(profile.totalDurationNs).isAtLeast(profile.maxDurationNs)
+            assertThat(profile.mainThreadExecutionCount).isEqualTo(0)
+            assertThat(profile.threadNamesList).containsExactly(Thread.currentThread().name)
+        }
+        event.statementsList.first { it.sql == "update t1 set c1 = 2" }.let { profile ->
+            assertThat(profile.executionCount).isEqualTo(1)
+            assertThat(profile.rowCount).isEqualTo(3)
+        }
+        testEnvironment.assertNoQueuedEvents()
+    }
+
+    @Test
+    fun test_query_reported(): Unit = runBlocking {
+        val db = Database("db1", table).createInstance(temporaryFolder)
+        val query = queryFor(db, "select * from t1")
+        startProfiling()
+        val hooks = testEnvironment.consumeRegisteredHooks()
+
+        hooks.execute(FILL_WINDOW_SIGNATURE, query, 42)
+
+        val profile = stopProfilingAndReceiveEvent().statementsList.single()
+        assertThat(profile.sql).isEqualTo("select * from t1")
+        assertThat(profile.executionCount).isEqualTo(1)
+        assertThat(profile.rowCount).isEqualTo(42)
+    }
+
+    @Test
+    fun test_executions_reported_per_database(): Unit = runBlocking {
+        val db1 = Database("db1", table).createInstance(temporaryFolder)
+        val db2 = Database("db2", table).createInstance(temporaryFolder)
+        testEnvironment.registerAlreadyOpenDatabases(listOf(db1, db2))
+        testEnvironment.sendCommand(createTrackDatabasesCommand())
+        val id1 = testEnvironment.awaitDatabaseOpenedEvent(db1.displayName).databaseId
+        val id2 = testEnvironment.awaitDatabaseOpenedEvent(db2.displayName).databaseId
+        val sql = "delete from t1"
+        val statement1 = db1.compileStatement(sql)
+        val statement2 = db2.compileStatement(sql)
+        testEnvironment.consumeRegisteredHooks() // registered when tracking databases
+        startProfiling()
+        val hooks = testEnvironment.consumeRegisteredHooks()
+        val method = "executeUpdateDelete()I"
+
+        hooks.execute(method, statement1, 1, db1)
+        repeat(2) { hooks.execute(method, statement2, 1, db2) }
+
+        val profiles = stopProfilingAndReceiveEvent().statementsList
+        assertThat(profiles.map { it.databaseId to it.executionCount })
+            .containsExactly(id1 to 1L, id2 to 2L)
+        assertThat(profiles.map { it.sql }.distinct()).containsExactly(sql)
+        testEnvironment.assertNoQueuedEvents()
+    }
+
+    @Test
+    fun test_only_profiled_while_enabled(): Unit = runBlocking {
+        val db = Database("db1", table).createInstance(temporaryFolder)
+        val statementA = db.compileStatement("delete from t1 where c1 = 1")
+        val statementB = db.compileStatement("delete from t1 where c1 = 2")
+        val statementC = db.compileStatement("delete from t1 where c1 = 3")
+        startProfiling()
+        val hooks = testEnvironment.consumeRegisteredHooks()
+        val method = "executeUpdateDelete()I"
+
+        hooks.execute(method, statementA, 0)
+        assertThat(stopProfilingAndReceiveEvent().statementsList.map { it.sql })
+            .containsExactly("delete from t1 where c1 = 1")
+
+        // executed while stopped, and finishing after profiling is started again
+        hooks.entryHookFor(method).onEntry(statementB, emptyList())
+        startProfiling()
+        hooks.exitHookFor(method).onExit(0)
+        hooks.execute(method, statementC, 0)
+
+        assertThat(stopProfilingAndReceiveEvent().statementsList.map { it.sql })
+            .containsExactly("delete from t1 where c1 = 3")
+        testEnvironment.assertNoQueuedEvents()
+    }
+
+    @Test
+    fun test_execution_that_threw_not_reported(): Unit = runBlocking {
+        val db = Database("db1", table).createInstance(temporaryFolder)
+        val failing = db.compileStatement("insert into t1 values (1)")
+        val statement = db.compileStatement("delete from t1")
+        startProfiling()
+        val hooks = testEnvironment.consumeRegisteredHooks()
+
+        // the exit hook does not run when the method throws
+        repeat(20) { hooks.entryHookFor("executeInsert()J").onEntry(failing, emptyList()) }
+        hooks.execute("executeUpdateDelete()I", statement, 1)
+
+        val profile = stopProfilingAndReceiveEvent().statementsList.single()
+        assertThat(profile.sql).isEqualTo("delete from t1")
+        assertThat(profile.executionCount).isEqualTo(1)
+        assertThat(profile.rowCount).isEqualTo(1)
+        testEnvironment.assertNoQueuedEvents()
+    }
+
+    private suspend fun startProfiling() {
+        testEnvironment.sendCommand(createProfileQueriesCommand(true, REPORT_INTERVAL_MS))
+            .let { response -> assertThat(response).isEqualTo(createProfileQueriesResponse()) }
+    }
+
+    private suspend fun stopProfiling() {
+        testEnvironment.sendCommand(createProfileQueriesCommand(false))
+            .let { response -> assertThat(response).isEqualTo(createProfileQueriesResponse()) }
+    }
+
+    private suspend fun stopProfilingAndReceiveEvent(): QueryProfileEvent {
+        stopProfiling()
+        val event = testEnvironment.receiveEvent()
+        assertThat(event.oneOfCase).isEqualTo(QUERY_PROFILE)
+        return event.queryProfile
+    }
+
+    private fun queryFor(db: SQLiteDatabase, sql: String): SQLiteQuery {
+        var query: SQLiteQuery? = null
+        db.rawQueryWithFactory({ _, driver, editTable, q ->
+            query = q
+            SQLiteCursor(driver, editTable, q)
+        }, sql, null, null).close()
+        return query!!
+    }
+
+    private fun List<Hook>.execute(
+        method: String,
+        program: Any,
+        result: Any?,
+        database: SQLiteDatabase? = null
+    ) {
+        entryHookFor(method).onEntry(program, emptyList())
+        database?.let { entryHookFor(GET_THREAD_SESSION_SIGNATURE).onEntry(it, emptyList()) }
+        exitHookFor(method).onExit(result)
+    }
+
+    private fun List<Hook>.entryHookFor(m: String): InspectorEnvironment.EntryHook =
+        this.first { it.originMethod == m && it is Hook.EntryHook }.asEntryHook
+
+    @Suppress("UNCHECKED_CAST")
+    private fun List<Hook>.exitHookFor(m: String): InspectorEnvironment.ExitHook<Any?> =
+        this.first { it.originMethod == m && it is Hook.ExitHook }
+            .asExitHook as InspectorEnvironment.ExitHook<Any?>
+}
@@ -23,6 +23,8 @@ import androidx.sqlite.inspection.SqliteInspectorProtocol.GetSchemaCommand
 import androidx.sqlite.inspection.SqliteInspectorProtocol.GetSchemaResponse
 import androidx.sqlite.inspection.SqliteInspectorProtocol.KeepDatabasesOpenCommand
 import androidx.sqlite.inspection.SqliteInspectorProtocol.KeepDatabasesOpenResponse
+import androidx.sqlite.inspection.SqliteInspectorProtocol.ProfileQueriesCommand
+import androidx.sqlite.inspection.SqliteInspectorProtocol.ProfileQueriesResponse
 import androidx.sqlite.inspection.SqliteInspectorProtocol.QueryCommand
 import androidx.sqlite.inspection.SqliteInspectorProtocol.QueryParameterValue
 import androidx.sqlite.inspection.SqliteInspectorProtocol.Response
@@ -61,6 +63,18 @@ object MessageFactory {
             KeepDatabasesOpenResponse.getDefaultInstance()
         ).build()
 
+    fun createProfileQueriesCommand(setEnabled: Boolean, reportIntervalMs: Int = 0): Command =
+        Command.newBuilder().setProfileQueries(
+            ProfileQueriesCommand.newBuilder()
+                .setSetEnabled(setEnabled)
+                .setReportIntervalMs(reportIntervalMs)
+        ).build()
+
+    fun createProfileQueriesResponse(): Response =
+        Response.newBuilder().setProfileQueries(
+            ProfileQueriesResponse.getDefaultInstance()
+        ).build()
+
     fun createGetSchemaCommand(databaseId: Int): Command =
         Command.newBuilder().setGetSchema(
             GetSchemaCommand.newBuilder().setDatabaseId(databaseId).build()
@@ -257,6 +257,17 @@ class DatabaseRegistry {
         }
     }
 
+    /**
+     * Returns the id of a database, or 0 if it is not tracked.
+     * Thread-safe
+     */
+    int getDatabaseId(@NonNull SQLiteDatabase database) {
+        synchronized (mLock) {
+            final int id = getIdForDatabase(database);
+            return id == NOT_TRACKED ? 0 : id;
+        }
+    }
+
     @GuardedBy("mLock")
     private SQLiteDatabase acquireReferenceImpl(int databaseId) {
         KeepOpenReference keepOpenReference = mKeepOpenReferences.get(databaseId);
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.sqlite.inspection;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded buffer of {@link Execution}s, added by any number of threads without locking and
+ * drained by one thread at a time.
+ * <p>
+ * Each added execution claims the next position in the buffer and never waits for the reader:
+ * once the reader is a whole capacity behind, the oldest executions are overwritten and counted
+ * as dropped when the reader gets to them.
+ * <p>
+ * Thread safe, as long as {@link #drain} is not called concurrently.
+ */
+final class ExecutionRingBuffer {
+    private final AtomicReferenceArray<Execution> mSlots;
+    private final int mMask;
+    private final AtomicLong mWritePosition = new AtomicLong();
+    private long mReadPosition;
+
+    /**
+     * @param capacity The number of executions kept until drained, a power of two.
+     */
+    ExecutionRingBuffer(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity has to be a power of two: " + capacity);
+        }
+        mSlots = new AtomicReferenceArray<>(capacity);
+        mMask = capacity - 1;
+    }
+
+    void add(@NonNull Execution execution) {
+        final long position = mWritePosition.getAndIncrement();
+        execution.mPosition = position;
+        // publishes the execution, together with its position, to the reader.
+        mSlots.set((int) (position & mMask), execution);
+    }
+
+    /**
+     * Moves the executions added since the previous call to {@code out}, in the order of their
+     * positions. An execution still being added is left for the next call.
+     *
+     * @return The number of executions overwritten since the previous call.
+     */
+    long drain(@NonNull List<Execution> out) {
+        final long end = mWritePosition.get();
+        final int capacity = mSlots.length();
+        long dropped = 0;
+        if (end - mReadPosition > capacity) {
+            dropped += end - capacity - mReadPosition;
+            mReadPosition = end - capacity;
+        }
+        while (mReadPosition < end) {
+            final int index = (int) (mReadPosition & mMask);
+            final Execution execution = mSlots.get(index);
+            if (execution == null) {
+                break; // not added yet
+            }
+            if (execution.mPosition == mReadPosition) {
+                // releases the program of the execution, unless it was just overwritten.
+                mSlots.compareAndSet(index, execution, null);
+                out.add(execution);
+            } else {
+                // Overwritten by a newer execution, or by an older one that was added late: the
+                // execution at this position is lost, or will be once it is added.
+                dropped++;
+            }
+            mReadPosition++;
+        }
+        return dropped;
+    }
+
+    /**
+     * An execution of a statement or query.
+     */
+    static final class Execution {
+        /** The {@link android.database.sqlite.SQLiteProgram} executed. */
+        final Object mProgram;
+        /** The {@link android.database.sqlite.SQLiteDatabase} of the program, if known. */
+        @Nullable
+        final Object mDatabase;
+        final long mDurationNanos;
+        final long mRowCount;
+        final String mThreadName;
+        final boolean mMainThread;
+        // set by the buffer before publishing the execution.
+        long mPosition;
+
+        Execution(@NonNull Object program, @Nullable Object database, long durationNanos,
+                long rowCount, @NonNull String threadName, boolean mainThread) {
+            mProgram = program;
+            mDatabase = database;
+            mDurationNanos = durationNanos;
+            mRowCount = rowCount;
+            mThreadName = threadName;
+            mMainThread = mainThread;
+        }
+    }
+}
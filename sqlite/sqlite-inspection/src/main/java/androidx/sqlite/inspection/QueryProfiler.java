@@ -0,0 +1,436 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.sqlite.inspection;
+
+import android.annotation.SuppressLint;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteQuery;
+import android.database.sqlite.SQLiteStatement;
+import android.os.Looper;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.inspection.InspectorEnvironment;
+import androidx.sqlite.inspection.ExecutionRingBuffer.Execution;
+import androidx.sqlite.inspection.SqliteInspectorProtocol.QueryProfileEvent;
+import androidx.sqlite.inspection.SqliteInspectorProtocol.StatementProfile;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Profiles the statements and queries executed by the app.
+ * <p>
+ * Entry and exit hooks on {@link SQLiteStatement}'s execute methods and on
+ * {@link SQLiteQuery}'s fillWindow, which runs the query of a cursor, time each execution and add
+ * it to an {@link ExecutionRingBuffer} without locking or formatting anything on the app's
+ * threads. Every report interval, the executions are drained on the IO executor, aggregated by
+ * database and SQL and sent as a {@link QueryProfileEvent}.
+ * <p>
+ * The database of a program is not exposed, so it is recorded when the execution gets its session
+ * from the database, which is hooked as well.
+ * <p>
+ * The hooks are registered when profiling is first started and stay registered, since hooks cannot
+ * be removed; while profiling is stopped they only track which method is being executed.
+ * <p>
+ * The exit hook does not run when a method throws, and it does not receive the program, so the
+ * execution a thread is in cannot be matched with its exit. None of the hooked methods run
+ * another one on the same thread, so each thread only tracks one execution, which the next entry
+ * replaces if the previous one threw. The program is weakly referenced, so that an execution
+ * left behind does not keep it reachable.
+ */
+final class QueryProfiler {
+    static final int DEFAULT_REPORT_INTERVAL_MS = 1000;
+
+    @VisibleForTesting
+    static final String SQLITE_QUERY_FILL_WINDOW_SIGNATURE =
+            "fillWindow(Landroid/database/CursorWindow;IIZ)I";
+
+    @VisibleForTesting
+    static final String SQLITE_DATABASE_GET_THREAD_SESSION_SIGNATURE =
+            "getThreadSession()Landroid/database/sqlite/SQLiteSession;";
+
+    private static final String[] SQL_PREFIXES = {"SQLiteProgram: ", "SQLiteQuery: "};
+
+    private static final int BUFFER_CAPACITY = 4096;
+    private static final int HISTOGRAM_BUCKET_COUNT = 32;
+
+    // How the number of rows of an execution is derived from the result of the method
+    private static final int ROWS_NONE = 0;
+    private static final int ROWS_FROM_RESULT = 1;
+    private static final int ROWS_INSERTED = 2;
+    private static final int ROWS_SINGLE = 3;
+
+    private static final Comparator<StatementAggregate> SLOWEST_FIRST =
+            new Comparator<StatementAggregate>() {
+                @Override
+                public int compare(StatementAggregate a, StatementAggregate b) {
+                    return Long.compare(b.mTotalDurationNanos, a.mTotalDurationNanos);
+                }
+            };
+
+    private final InspectorEnvironment mEnvironment;
+    private final DatabaseRegistry mDatabaseRegistry;
+    private final Executor mIOExecutor;
+    private final ScheduledExecutorService mScheduledExecutor;
+    private final Callback mCallback;
+    private final ExecutionRingBuffer mBuffer = new ExecutionRingBuffer(BUFFER_CAPACITY);
+    private final ThreadLocal<Frame> mFrame = new ThreadLocal<Frame>() {
+        @NonNull
+        @Override
+        protected Frame initialValue() {
+            return new Frame();
+        }
+    };
+    private final Runnable mReportRunnable = new Runnable() {
+        @Override
+        public void run() {
+            report();
+        }
+    };
+
+    private volatile boolean mEnabled;
+
+    @GuardedBy("this")
+    private boolean mHooksRegistered;
+    @GuardedBy("this")
+    @Nullable
+    private ScheduledFuture<?> mReportFuture;
+
+    QueryProfiler(@NonNull InspectorEnvironment environment,
+            @NonNull DatabaseRegistry databaseRegistry, @NonNull Executor ioExecutor,
+            @NonNull ScheduledExecutorService scheduledExecutor, @NonNull Callback callback) {
+        mEnvironment = environment;
+        mDatabaseRegistry = databaseRegistry;
+        mIOExecutor = ioExecutor;
+        mScheduledExecutor = scheduledExecutor;
+        mCallback = callback;
+    }
+
+    /**
+     * Starts profiling, or changes the report interval if already started.
+     *
+     * @param reportIntervalMs The interval between two reports, or 0 for the default one.
+     */
+    synchronized void start(int reportIntervalMs) {
+        if (!mHooksRegistered) {
+            registerHooks();
+            mHooksRegistered = true;
+        }
+        if (mReportFuture != null) {
+            mReportFuture.cancel(false);
+        }
+        final long intervalMs = reportIntervalMs > 0 ? reportIntervalMs
+                : DEFAULT_REPORT_INTERVAL_MS;
+        mEnabled = true;
+        mReportFuture = mScheduledExecutor.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                mIOExecutor.execute(mReportRunnable);
+            }
+        }, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops profiling and reports the executions since the last report.
+     */
+    synchronized void stop() {
+        if (!cancel()) {
+            return;
+        }
+        mIOExecutor.execute(mReportRunnable);
+    }
+
+    /**
+     * Stops profiling without reporting anything, e.g. when the inspector is disposed.
+     */
+    synchronized void dispose() {
+        cancel();
+    }
+
+    @GuardedBy("this")
+    private boolean cancel() {
+        if (!mEnabled) {
+            return false;
+        }
+        mEnabled = false;
+        if (mReportFuture != null) {
+            mReportFuture.cancel(false);
+            mReportFuture = null;
+        }
+        return true;
+    }
+
+    private void registerHooks() {
+        registerHook(SQLiteQuery.class, SQLITE_QUERY_FILL_WINDOW_SIGNATURE, ROWS_FROM_RESULT);
+        registerHook(SQLiteStatement.class, "execute()V", ROWS_NONE);
+        registerHook(SQLiteStatement.class, "executeInsert()J", ROWS_INSERTED);
+        registerHook(SQLiteStatement.class, "executeUpdateDelete()I", ROWS_FROM_RESULT);
+        registerHook(SQLiteStatement.class, "simpleQueryForLong()J", ROWS_SINGLE);
+        registerHook(SQLiteStatement.class, "simpleQueryForString()Ljava/lang/String;",
+                ROWS_SINGLE);
+
+        // Every execution gets its session from the database of the program.
+        mEnvironment.registerEntryHook(SQLiteDatabase.class,
+                SQLITE_DATABASE_GET_THREAD_SESSION_SIGNATURE,
+                new InspectorEnvironment.EntryHook() {
+                    @SuppressLint("SyntheticAccessor")
+                    @Override
+                    public void onEntry(@Nullable Object thisObject, @NonNull List<Object> args) {
+                        final Frame frame = getFrame();
+                        if (frame.mProgram != null && frame.mDatabase == null
+                                && thisObject != null) {
+                            frame.mDatabase = new WeakReference<>(thisObject);
+                        }
+                    }
+                });
+    }
+
+    private void registerHook(Class<?> originClass, String originMethod, final int rows) {
+        mEnvironment.registerEntryHook(originClass, originMethod,
+                new InspectorEnvironment.EntryHook() {
+                    @SuppressLint("SyntheticAccessor")
+                    @Override
+                    public void onEntry(@Nullable Object thisObject, @NonNull List<Object> args) {
+                        final Frame frame = getFrame();
+                        frame.mActive = true;
+                        frame.mDatabase = null;
+                        if (mEnabled && thisObject != null) {
+                            frame.mProgram = new WeakReference<>(thisObject);
+                            frame.mStartNanos = System.nanoTime();
+                        } else {
+                            frame.mProgram = null;
+                        }
+                    }
+                });
+
+        mEnvironment.registerExitHook(originClass, originMethod,
+                new InspectorEnvironment.ExitHook<Object>() {
+                    @SuppressLint("SyntheticAccessor")
+                    @Override
+                    public Object onExit(Object result) {
+                        final long endNanos = System.nanoTime();
+                        final Frame frame = getFrame();
+                        if (!frame.mActive) {
+                            return result; // entered before the hooks were registered
+                        }
+                        frame.mActive = false;
+                        final WeakReference<Object> reference = frame.mProgram;
+                        frame.mProgram = null;
+                        final Object program = reference != null ? reference.get() : null;
+                        final Object database = frame.mDatabase != null
+                                ? frame.mDatabase.get() : null;
+                        frame.mDatabase = null;
+                        if (program != null && mEnabled) {
+                            mBuffer.add(new Execution(program, database,
+                                    endNanos - frame.mStartNanos,
+                                    rowCount(rows, result),
+                                    Thread.currentThread().getName(),
+                                    Looper.getMainLooper().isCurrentThread()));
+                        }
+                        return result;
+                    }
+                });
+    }
+
+    private @NonNull Frame getFrame() {
+        /** It won't be null because of overridden {@link ThreadLocal#initialValue} */
+        //noinspection ConstantConditions
+        return mFrame.get();
+    }
+
+    private static long rowCount(int rows, Object result) {
+        switch (rows) {
+            case ROWS_FROM_RESULT:
+                return result instanceof Number ? ((Number) result).longValue() : 0;
+            case ROWS_INSERTED:
+                return result instanceof Long && (Long) result != -1 ? 1 : 0;
+            case ROWS_SINGLE:
+                return 1;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Drains the executions added since the previous report and sends them aggregated by database
+     * and SQL, if there are any.
+     */
+    @VisibleForTesting
+    void report() {
+        final List<Execution> executions = new ArrayList<>();
+        final long dropped;
+        synchronized (mBuffer) {
+            dropped = mBuffer.drain(executions);
+        }
+        if (executions.isEmpty() && dropped == 0) {
+            return;
+        }
+
+        // the same statement is often executed many times, so its SQL is only extracted once.
+        final Map<Object, String> programSql = new IdentityHashMap<>();
+        final Map<Object, Integer> databaseIds = new IdentityHashMap<>();
+        final Map<Integer, Map<String, StatementAggregate>> aggregates = new HashMap<>();
+        for (Execution execution : executions) {
+            String sql = programSql.get(execution.mProgram);
+            if (sql == null) {
+                sql = sqlOf(execution.mProgram);
+                programSql.put(execution.mProgram, sql);
+            }
+            Integer databaseId = databaseIds.get(execution.mDatabase);
+            if (databaseId == null) {
+                databaseId = execution.mDatabase instanceof SQLiteDatabase
+                        ? mDatabaseRegistry.getDatabaseId((SQLiteDatabase) execution.mDatabase)
+                        : 0;
+                databaseIds.put(execution.mDatabase, databaseId);
+            }
+            Map<String, StatementAggregate> databaseAggregates = aggregates.get(databaseId);
+            if (databaseAggregates == null) {
+                databaseAggregates = new HashMap<>();
+                aggregates.put(databaseId, databaseAggregates);
+            }
+            StatementAggregate aggregate = databaseAggregates.get(sql);
+            if (aggregate == null) {
+                aggregate = new StatementAggregate(databaseId, sql);
+                databaseAggregates.put(sql, aggregate);
+            }
+            aggregate.add(execution);
+        }
+
+        final List<StatementAggregate> sorted = new ArrayList<>();
+        for (Map<String, StatementAggregate> databaseAggregates : aggregates.values()) {
+            sorted.addAll(databaseAggregates.values());
+        }
+        Collections.sort(sorted, SLOWEST_FIRST);
+        final QueryProfileEvent.Builder event = QueryProfileEvent.newBuilder()
+                .setDroppedExecutionCount(dropped);
+        for (StatementAggregate aggregate : sorted) {
+            event.addStatements(aggregate.toProfile());
+        }
+        mCallback.onProfile(event.build());
+    }
+
+    /**
+     * Returns the SQL of a {@link android.database.sqlite.SQLiteProgram}, which is only exposed by
+     * its toString.
+     */
+    @VisibleForTesting
+    @NonNull
+    static String sqlOf(@NonNull Object program) {
+        final String description = program.toString();
+        for (String prefix : SQL_PREFIXES) {
+            if (description.startsWith(prefix)) {
+                return description.substring(prefix.length());
+            }
+        }
+        return description;
+    }
+
+    /**
+     * Returns the histogram bucket of a duration: bucket i holds the durations between 2^i and
+     * 2^(i+1) microseconds, with the shorter durations in the first bucket and the longer ones in
+     * the last.
+     */
+    @VisibleForTesting
+    static int histogramBucket(long durationNanos) {
+        final long micros = durationNanos / 1000;
+        if (micros < 2) {
+            return 0;
+        }
+        return Math.min(63 - Long.numberOfLeadingZeros(micros), HISTOGRAM_BUCKET_COUNT - 1);
+    }
+
+    private static final class StatementAggregate {
+        final int mDatabaseId;
+        final String mSql;
+        final long[] mHistogram = new long[HISTOGRAM_BUCKET_COUNT];
+        final Set<String> mThreadNames = new LinkedHashSet<>();
+        int mHistogramSize;
+        long mExecutionCount;
+        long mTotalDurationNanos;
+        long mMaxDurationNanos;
+        long mRowCount;
+        long mMainThreadExecutionCount;
+
+        StatementAggregate(int databaseId, String sql) {
+            mDatabaseId = databaseId;
+            mSql = sql;
+        }
+
+        void add(Execution execution) {
+            mExecutionCount++;
+            mTotalDurationNanos += execution.mDurationNanos;
+            mMaxDurationNanos = Math.max(mMaxDurationNanos, execution.mDurationNanos);
+            mRowCount += execution.mRowCount;
+            if (execution.mMainThread) {
+                mMainThreadExecutionCount++;
+            }
+            mThreadNames.add(execution.mThreadName);
+            final int bucket = histogramBucket(execution.mDurationNanos);
+            mHistogram[bucket]++;
+            mHistogramSize = Math.max(mHistogramSize, bucket + 1);
+        }
+
+        StatementProfile toProfile() {
+            final StatementProfile.Builder profile = StatementProfile.newBuilder()
+                    .setDatabaseId(mDatabaseId)
+                    .setSql(mSql)
+                    .setExecutionCount(mExecutionCount)
+                    .setTotalDurationNs(mTotalDurationNanos)
+                    .setMaxDurationNs(mMaxDurationNanos)
+                    .setRowCount(mRowCount)
+                    .setMainThreadExecutionCount(mMainThreadExecutionCount)
+                    .addAllThreadNames(mThreadNames);
+            for (int i = 0; i < mHistogramSize; i++) {
+                profile.addDurationHistogram(mHistogram[i]);
+            }
+            return profile.build();
+        }
+    }
+
+    /**
+     * The program being executed by a thread, with the time its execution started at and its
+     * database once it got a session from it. The program is null when its execution is not
+     * profiled.
+     */
+    private static final class Frame {
+        @Nullable
+        WeakReference<Object> mProgram;
+        @Nullable
+        WeakReference<Object> mDatabase;
+        long mStartNanos;
+        boolean mActive;
+    }
+
+    interface Callback {
+        void onProfile(@NonNull QueryProfileEvent event);
+    }
+}
@@ -64,8 +64,11 @@ import androidx.sqlite.inspection.SqliteInspectorProtocol.GetSchemaCommand;
 import androidx.sqlite.inspection.SqliteInspectorProtocol.GetSchemaResponse;
 import androidx.sqlite.inspection.SqliteInspectorProtocol.KeepDatabasesOpenCommand;
 import androidx.sqlite.inspection.SqliteInspectorProtocol.KeepDatabasesOpenResponse;
+import androidx.sqlite.inspection.SqliteInspectorProtocol.ProfileQueriesCommand;
+import androidx.sqlite.inspection.SqliteInspectorProtocol.ProfileQueriesResponse;
 import androidx.sqlite.inspection.SqliteInspectorProtocol.QueryCommand;
 import androidx.sqlite.inspection.SqliteInspectorProtocol.QueryParameterValue;
+import androidx.sqlite.inspection.SqliteInspectorProtocol.QueryProfileEvent;
 import androidx.sqlite.inspection.SqliteInspectorProtocol.QueryResponse;
 import androidx.sqlite.inspection.SqliteInspectorProtocol.Response;
 import androidx.sqlite.inspection.SqliteInspectorProtocol.Row;
@@ -180,6 +183,9 @@ final class SqliteInspector extends Inspector {
     @NonNull
     private final SqlDelightInvalidation mSqlDelightInvalidation;
 
+    @NonNull
+    private final QueryProfiler mQueryProfiler;
+
     SqliteInspector(@NonNull Connection connection, InspectorEnvironment environment,
             Executor ioExecutor, ScheduledExecutorService scheduledExecutor) {
         super(connection);
@@ -202,6 +208,14 @@ final class SqliteInspector extends Inspector {
                         dispatchDatabaseClosedEvent(databaseId, path);
                     }
                 });
+
+        mQueryProfiler = new QueryProfiler(mEnvironment, mDatabaseRegistry, mIOExecutor,
+                mScheduledExecutor, new QueryProfiler.Callback() {
+                    @Override
+                    public void onProfile(@NonNull QueryProfileEvent event) {
+                        dispatchQueryProfileEvent(event);
+                    }
+                });
     }
 
     @Override
@@ -221,6 +235,9 @@ final class SqliteInspector extends Inspector {
                 case KEEP_DATABASES_OPEN:
                     handleKeepDatabasesOpen(command.getKeepDatabasesOpen(), callback);
                     break;
+                case PROFILE_QUERIES:
+                    handleProfileQueries(command.getProfileQueries(), callback);
+                    break;
                 default:
                     callback.reply(
                         createErrorOccurredResponse(
@@ -241,6 +258,11 @@ final class SqliteInspector extends Inspector {
         }
     }
 
+    @Override
+    public void onDispose() {
+        mQueryProfiler.dispose();
+    }
+
     private void handleTrackDatabases(CommandCallback callback) {
         callback.reply(Response.newBuilder()
                 .setTrackDatabases(TrackDatabasesResponse.getDefaultInstance())
@@ -502,6 +524,10 @@ final class SqliteInspector extends Inspector {
         ).build().toByteArray());
     }
 
+    private void dispatchQueryProfileEvent(QueryProfileEvent event) {
+        getConnection().sendEvent(Event.newBuilder().setQueryProfile(event).build().toByteArray());
+    }
+
     private void handleGetSchema(GetSchemaCommand command, CommandCallback callback) {
         SQLiteDatabase reference = acquireReference(command.getDatabaseId(), callback);
         if (reference == null) return;
@@ -579,6 +605,20 @@ final class SqliteInspector extends Inspector {
         mDatabaseRegistry.notifyKeepOpenToggle(keepDatabasesOpen.getSetEnabled());
     }
 
+    private void handleProfileQueries(ProfileQueriesCommand profileQueries,
+            CommandCallback callback) {
+        // Acknowledge the command
+        callback.reply(Response.newBuilder().setProfileQueries(
+                ProfileQueriesResponse.getDefaultInstance()
+        ).build().toByteArray());
+
+        if (profileQueries.getSetEnabled()) {
+            mQueryProfiler.start(profileQueries.getReportIntervalMs());
+        } else {
+            mQueryProfiler.stop();
+        }
+    }
+
     @SuppressLint("Recycle") // For: "The cursor should be freed up after use with #close"
     private static Cursor rawQuery(@NonNull SQLiteDatabase database, @NonNull String queryText,
             @NonNull final String[] params, @Nullable CancellationSignal cancellationSignal) {
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.work.benchmark
+
+import android.util.Log
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.filters.LargeTest
+import androidx.work.Data
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import java.io.ByteArrayOutputStream
+import java.io.ObjectOutputStream
+
+/**
+ * Measures serializing [Data] in its binary encoding and reading it back with
+ * [Data.fromByteArray], for the input of a typical worker and for a large primitive array,
+ * compared to the [ObjectOutputStream] format that [Data.toByteArray] still writes until the
+ * binary encoding is enabled. The serialized sizes are logged with the tag `DataSerialization`.
+ */
+@RunWith(AndroidJUnit4::class)
+@LargeTest
+class DataSerializationBenchmark {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private val typicalInput = Data.Builder()
+        .putString("uri", "content://media/external/images/media/1234")
+        .putString("destination", "/storage/emulated/0/Pictures/upload")
+        .putInt("quality", 80)
+        .putLong("timestamp", 1_580_000_000_000L)
+        .putBoolean("wifi_only", true)
+        .putStringArray("tags", arrayOf("camera", "holiday", "2020"))
+        .build()
+
+    private val largeArray = Data.Builder()
+        .putIntArray("ids", IntArray(1000) { it * 31 })
+        .build()
+
+    @Test
+    fun serialize_typicalInput() {
+        logSizes("typicalInput", typicalInput)
+        benchmarkRule.measureRepeated {
+            Data.toEncodedByteArrayInternal(typicalInput)
+        }
+    }
+
+    @Test
+    fun serialize_typicalInput_objectStream() {
+        benchmarkRule.measureRepeated {
+            toObjectStreamByteArray(typicalInput)
+        }
+    }
+
+    @Test
+    fun deserialize_typicalInput() {
+        val bytes = Data.toEncodedByteArrayInternal(typicalInput)!!
+        benchmarkRule.measureRepeated {
+            Data.fromByteArray(bytes)
+        }
+    }
+
+    @Test
+    fun deserialize_typicalInput_objectStream() {
+        val bytes = toObjectStreamByteArray(typicalInput)
+        benchmarkRule.measureRepeated {
+            Data.fromByteArray(bytes)
+        }
+    }
+
+    @Test
+    fun serialize_largeArray() {
+        logSizes("largeArray", largeArray)
+        benchmarkRule.measureRepeated {
+            Data.toEncodedByteArrayInternal(largeArray)
+        }
+    }
+
+    @Test
+    fun serialize_largeArray_objectStream() {
+        benchmarkRule.measureRepeated {
+            toObjectStreamByteArray(largeArray)
+        }
+    }
+
+    @Test
+    fun deserialize_largeArray() {
+        val bytes = Data.toEncodedByteArrayInternal(largeArray)!!
+        benchmarkRule.measureRepeated {
+            Data.fromByteArray(bytes)
+        }
+    }
+
+    @Test
+    fun deserialize_largeArray_objectStream() {
+        val bytes = toObjectStreamByteArray(largeArray)
+        benchmarkRule.measureRepeated {
+            Data.fromByteArray(bytes)
+        }
+    }
+
+    private fun logSizes(name: String, data: Data) {
+        Log.i(
+            TAG,
+            "$name: ${Data.toEncodedByteArrayInternal(data)!!.size} bytes, " +
+                "${toObjectStreamByteArray(data).size} bytes with an ObjectOutputStream"
+        )
+    }
+
+    /**
+     * Serializes [data] the way [Data.toByteArray] does while the binary encoding is disabled.
+     */
+    private fun toObjectStreamByteArray(data: Data): ByteArray {
+        val outputStream = ByteArrayOutputStream()
+        ObjectOutputStream(outputStream).use { objectOutputStream ->
+            val values = data.keyValueMap
+            objectOutputStream.writeInt(values.size)
+            for ((key, value) in values) {
+                objectOutputStream.writeUTF(key)
+                objectOutputStream.writeObject(value)
+            }
+        }
+        return outputStream.toByteArray()
+    }
+
+    companion object {
+        private const val TAG = "DataSerialization"
+    }
+}
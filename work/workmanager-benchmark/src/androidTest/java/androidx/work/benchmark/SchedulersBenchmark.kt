@@ -0,0 +1,109 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.work.benchmark
+
+import android.content.Context
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.test.core.app.ApplicationProvider
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.filters.LargeTest
+import androidx.work.Configuration
+import androidx.work.Data
+import androidx.work.OneTimeWorkRequestBuilder
+import androidx.work.impl.Scheduler
+import androidx.work.impl.Schedulers
+import androidx.work.impl.WorkDatabase
+import androidx.work.impl.WorkDatabasePathHelper
+import androidx.work.impl.model.WorkSpec
+import org.junit.After
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import java.util.concurrent.Executor
+
+/**
+ * Measures [Schedulers.schedule] with a large number of enqueued [WorkSpec]s, once the scheduling
+ * slots of the schedulers with limited slots are taken, as after enqueuing work or after a
+ * worker finishes.
+ */
+@RunWith(AndroidJUnit4::class)
+@LargeTest
+class SchedulersBenchmark {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+    private lateinit var context: Context
+    private lateinit var database: WorkDatabase
+    private val configuration = Configuration.Builder().build()
+    private val schedulers = listOf(NoOpScheduler(true), NoOpScheduler(false))
+    private lateinit var lastId: String
+
+    @Before
+    fun setUp() {
+        context = ApplicationProvider.getApplicationContext()
+        context.deleteDatabase(WorkDatabasePathHelper.getDatabasePath(context).path)
+        database = WorkDatabase.create(context, Executor { it.run() }, false)
+        val input = Data.Builder()
+            .putString("uri", "content://media/external/images/media/1234")
+            .putLong("timestamp", 1_580_000_000_000L)
+            .build()
+        database.runInTransaction(Runnable {
+            repeat(WORK_SPEC_COUNT) {
+                val request = OneTimeWorkRequestBuilder<NoOpWorker>().setInputData(input).build()
+                database.workSpecDao().insertWorkSpec(request.workSpec)
+                lastId = request.stringId
+            }
+        })
+        // Takes the slots of the schedulers with limited scheduling slots.
+        Schedulers.schedule(configuration, database, schedulers)
+    }
+
+    @After
+    fun tearDown() {
+        database.close()
+        context.deleteDatabase(WorkDatabasePathHelper.getDatabasePath(context).path)
+    }
+
+    @Test
+    fun schedule_allEnqueuedWork() {
+        benchmarkRule.measureRepeated {
+            Schedulers.schedule(configuration, database, schedulers)
+        }
+    }
+
+    @Test
+    fun schedule_newlyEligibleWork() {
+        val workSpecIds = listOf(lastId)
+        benchmarkRule.measureRepeated {
+            Schedulers.schedule(configuration, database, schedulers, workSpecIds)
+        }
+    }
+
+    private class NoOpScheduler(private val limitedSchedulingSlots: Boolean) : Scheduler {
+        override fun schedule(vararg workSpecs: WorkSpec) {}
+
+        override fun cancel(workSpecId: String) {}
+
+        override fun hasLimitedSchedulingSlots() = limitedSchedulingSlots
+    }
+
+    companion object {
+        private const val WORK_SPEC_COUNT = 20_000
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.work.benchmark
+
+import android.content.Context
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.test.core.app.ApplicationProvider
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.filters.LargeTest
+import androidx.work.Data
+import androidx.work.OneTimeWorkRequestBuilder
+import androidx.work.PeriodicWorkRequestBuilder
+import androidx.work.WorkInfo
+import androidx.work.WorkRequest
+import androidx.work.impl.WorkDatabase
+import androidx.work.impl.WorkDatabasePathHelper
+import androidx.work.impl.model.WorkSpec
+import org.junit.After
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import java.util.concurrent.Executor
+import java.util.concurrent.TimeUnit
+
+/**
+ * Measures the database cost of the state transitions of a job in
+ * [androidx.work.impl.WorkerWrapper], from enqueued to running to its result, with a separate
+ * statement for each column as WorkerWrapper used to update them, and with a single statement
+ * per transition.
+ */
+@RunWith(AndroidJUnit4::class)
+@LargeTest
+class WorkSpecTransitionsBenchmark {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+    private lateinit var context: Context
+    private lateinit var database: WorkDatabase
+    private val output = Data.Builder().putString("key", "value").build()
+
+    @Before
+    fun setUp() {
+        context = ApplicationProvider.getApplicationContext()
+        context.deleteDatabase(WorkDatabasePathHelper.getDatabasePath(context).path)
+        database = WorkDatabase.create(context, Executor { it.run() }, false)
+    }
+
+    @After
+    fun tearDown() {
+        database.close()
+        context.deleteDatabase(WorkDatabasePathHelper.getDatabasePath(context).path)
+    }
+
+    @Test
+    fun succeeded_separateStatements() {
+        measureJob(OneTimeWorkRequestBuilder<NoOpWorker>().build()) { id ->
+            setRunningSeparately(id)
+            database.runInTransaction(Runnable {
+                val workSpecDao = database.workSpecDao()
+                workSpecDao.setState(WorkInfo.State.SUCCEEDED, id)
+                workSpecDao.setOutput(id, output)
+                for (dependentId in database.dependencyDao().getDependentWorkIds(id)) {
+                    if (workSpecDao.getState(dependentId) == WorkInfo.State.BLOCKED &&
+                        database.dependencyDao().hasCompletedAllPrerequisites(dependentId)
+                    ) {
+                        workSpecDao.setState(WorkInfo.State.ENQUEUED, dependentId)
+                        workSpecDao.setPeriodStartTime(dependentId, System.currentTimeMillis())
+                    }
+                }
+            })
+            resolveSeparately()
+        }
+    }
+
+    @Test
+    fun succeeded_combinedStatements() {
+        measureJob(OneTimeWorkRequestBuilder<NoOpWorker>().build()) { id ->
+            database.workSpecDao().setRunningIfEnqueued(id)
+            database.runInTransaction(Runnable {
+                database.workSpecDao().setSucceeded(id, output)
+                database.workSpecDao().enqueueUnblockedDependents(id, System.currentTimeMillis())
+            })
+            database.workSpecDao().hasUnfinishedWork()
+        }
+    }
+
+    @Test
+    fun retry_separateStatements() {
+        measureJob(OneTimeWorkRequestBuilder<NoOpWorker>().build()) { id ->
+            setRunningSeparately(id)
+            database.runInTransaction(Runnable {
+                val workSpecDao = database.workSpecDao()
+                workSpecDao.setState(WorkInfo.State.ENQUEUED, id)
+                workSpecDao.setPeriodStartTime(id, System.currentTimeMillis())
+                workSpecDao.markWorkSpecScheduled(id, WorkSpec.SCHEDULE_NOT_REQUESTED_YET)
+            })
+            resolveSeparately()
+        }
+    }
+
+    @Test
+    fun retry_combinedStatements() {
+        measureJob(OneTimeWorkRequestBuilder<NoOpWorker>().build()) { id ->
+            database.workSpecDao().setRunningIfEnqueued(id)
+            database.workSpecDao().setEnqueuedForRetry(id, System.currentTimeMillis())
+            database.workSpecDao().hasUnfinishedWork()
+        }
+    }
+
+    @Test
+    fun periodic_separateStatements() {
+        measureJob(periodicRequest()) { id ->
+            setRunningSeparately(id)
+            database.runInTransaction(Runnable {
+                val workSpecDao = database.workSpecDao()
+                workSpecDao.setPeriodStartTime(id, System.currentTimeMillis())
+                workSpecDao.setState(WorkInfo.State.ENQUEUED, id)
+                workSpecDao.resetWorkSpecRunAttemptCount(id)
+                workSpecDao.markWorkSpecScheduled(id, WorkSpec.SCHEDULE_NOT_REQUESTED_YET)
+            })
+            resolveSeparately()
+        }
+    }
+
+    @Test
+    fun periodic_combinedStatements() {
+        measureJob(periodicRequest()) { id ->
+            database.workSpecDao().setRunningIfEnqueued(id)
+            database.workSpecDao().resetPeriodic(id, System.currentTimeMillis())
+            database.workSpecDao().hasUnfinishedWork()
+        }
+    }
+
+    private fun periodicRequest(): WorkRequest =
+        PeriodicWorkRequestBuilder<NoOpWorker>(15, TimeUnit.MINUTES).build()
+
+    /**
+     * Measures [transitions] on a new job for each repetition, inserting and deleting the job
+     * outside of the measurement.
+     */
+    private fun measureJob(request: WorkRequest, transitions: (id: String) -> Unit) {
+        val workSpec = request.workSpec
+        benchmarkRule.measureRepeated {
+            runWithTimingDisabled {
+                workSpec.state = WorkInfo.State.ENQUEUED
+                database.workSpecDao().insertWorkSpec(workSpec)
+            }
+            transitions(workSpec.id)
+            runWithTimingDisabled {
+                database.workSpecDao().delete(workSpec.id)
+            }
+        }
+    }
+
+    private fun setRunningSeparately(id: String) {
+        database.runInTransaction(Runnable {
+            val workSpecDao = database.workSpecDao()
+            if (workSpecDao.getState(id) == WorkInfo.State.ENQUEUED) {
+                workSpecDao.setState(WorkInfo.State.RUNNING, id)
+                workSpecDao.incrementWorkSpecRunAttemptCount(id)
+            }
+        })
+    }
+
+    private fun resolveSeparately() {
+        database.workSpecDao().getAllUnfinishedWork().isNullOrEmpty()
+    }
+}
@@ -17,7 +17,9 @@
 package androidx.work;
 
 import static androidx.work.WorkInfo.State.BLOCKED;
+import static androidx.work.WorkInfo.State.ENQUEUED;
 import static androidx.work.WorkInfo.State.FAILED;
+import static androidx.work.WorkInfo.State.RUNNING;
 import static androidx.work.WorkInfo.State.SUCCEEDED;
 import static androidx.work.impl.Scheduler.MAX_SCHEDULER_LIMIT;
 
@@ -29,6 +31,7 @@ import static org.hamcrest.Matchers.containsInAnyOrder;
 
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import androidx.test.filters.SmallTest;
+import androidx.work.impl.model.Dependency;
 import androidx.work.impl.model.WorkSpec;
 import androidx.work.impl.model.WorkSpecDao;
 import androidx.work.worker.TestWorker;
@@ -36,6 +39,7 @@ import androidx.work.worker.TestWorker;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
@@ -115,6 +119,44 @@ public class WorkSpecDaoTest extends DatabaseTest {
                 containsInAnyOrder(work.getWorkSpec(), enqueued.getWorkSpec()));
     }
 
+    @Test
+    @SmallTest
+    public void testEligibleWorkSpecsForScheduling_withIds() {
+        long startTime = System.currentTimeMillis();
+        OneTimeWorkRequest enqueued = new OneTimeWorkRequest.Builder(TestWorker.class)
+                .setPeriodStartTime(startTime, TimeUnit.MILLISECONDS)
+                .setInputData(new Data.Builder().putString("key", "value").build())
+                .build();
+        OneTimeWorkRequest otherEnqueued = new OneTimeWorkRequest.Builder(TestWorker.class)
+                .setPeriodStartTime(startTime, TimeUnit.MILLISECONDS)
+                .build();
+        OneTimeWorkRequest blocked = new OneTimeWorkRequest.Builder(TestWorker.class)
+                .setInitialState(BLOCKED)
+                .build();
+        OneTimeWorkRequest succeeded = new OneTimeWorkRequest.Builder(TestWorker.class)
+                .setInitialState(SUCCEEDED)
+                .build();
+
+        insertWork(enqueued);
+        insertWork(otherEnqueued);
+        insertWork(blocked);
+        insertWork(succeeded);
+
+        WorkSpecDao workSpecDao = mDatabase.workSpecDao();
+        List<WorkSpec> eligibleWorkSpecs = workSpecDao.getEligibleWorkSpecsForScheduling(
+                Arrays.asList(
+                        enqueued.getStringId(),
+                        blocked.getStringId(),
+                        succeeded.getStringId()));
+
+        assertThat(eligibleWorkSpecs.size(), equalTo(1));
+        WorkSpec workSpec = eligibleWorkSpecs.get(0);
+        assertThat(workSpec.id, is(enqueued.getStringId()));
+        assertThat(workSpec.periodStartTime, is(startTime));
+        // The input is only read when the work runs.
+        assertThat(workSpec.input, is(Data.EMPTY));
+    }
+
     @Test
     @SmallTest
     public void testScheduledWorkSpecCount() {
@@ -218,4 +260,153 @@ public class WorkSpecDaoTest extends DatabaseTest {
         // Not using contains in any order as the scheduleRequestedAt changes post reset.
         assertThat(eligibleWorkSpecs.get(0).id, is(enqueued.getStringId()));
     }
+
+    @Test
+    @SmallTest
+    public void testSetRunningIfEnqueued() {
+        WorkSpecDao workSpecDao = mDatabase.workSpecDao();
+        OneTimeWorkRequest enqueued = new OneTimeWorkRequest.Builder(TestWorker.class).build();
+        OneTimeWorkRequest blocked = new OneTimeWorkRequest.Builder(TestWorker.class)
+                .setInitialState(BLOCKED)
+                .build();
+        insertWork(enqueued);
+        insertWork(blocked);
+
+        assertThat(workSpecDao.setRunningIfEnqueued(enqueued.getStringId()), is(1));
+        assertThat(workSpecDao.setRunningIfEnqueued(enqueued.getStringId()), is(0));
+        assertThat(workSpecDao.setRunningIfEnqueued(blocked.getStringId()), is(0));
+
+        WorkSpec running = workSpecDao.getWorkSpec(enqueued.getStringId());
+        assertThat(running.state, is(RUNNING));
+        assertThat(running.runAttemptCount, is(1));
+        WorkSpec stillBlocked = workSpecDao.getWorkSpec(blocked.getStringId());
+        assertThat(stillBlocked.state, is(BLOCKED));
+        assertThat(stillBlocked.runAttemptCount, is(0));
+    }
+
+    @Test
+    @SmallTest
+    public void testSetSucceeded() {
+        WorkSpecDao workSpecDao = mDatabase.workSpecDao();
+        OneTimeWorkRequest work = new OneTimeWorkRequest.Builder(TestWorker.class)
+                .setInitialState(RUNNING)
+                .build();
+        insertWork(work);
+        Data output = new Data.Builder().putString("key", "value").build();
+
+        assertThat(workSpecDao.setSucceeded(work.getStringId(), output), is(1));
+
+        WorkSpec workSpec = workSpecDao.getWorkSpec(work.getStringId());
+        assertThat(workSpec.state, is(SUCCEEDED));
+        assertThat(workSpec.output, is(output));
+    }
+
+    @Test
+    @SmallTest
+    public void testEnqueueUnblockedDependents() {
+        WorkSpecDao workSpecDao = mDatabase.workSpecDao();
+        OneTimeWorkRequest prerequisite = new OneTimeWorkRequest.Builder(TestWorker.class)
+                .setInitialState(SUCCEEDED)
+                .build();
+        OneTimeWorkRequest otherPrerequisite = new OneTimeWorkRequest.Builder(TestWorker.class)
+                .build();
+        OneTimeWorkRequest unblocked = new OneTimeWorkRequest.Builder(TestWorker.class)
+                .setInitialState(BLOCKED)
+                .build();
+        OneTimeWorkRequest stillBlocked = new OneTimeWorkRequest.Builder(TestWorker.class)
+                .setInitialState(BLOCKED)
+                .build();
+        OneTimeWorkRequest cancelled = new OneTimeWorkRequest.Builder(TestWorker.class)
+                .setInitialState(WorkInfo.State.CANCELLED)
+                .build();
+        insertWork(prerequisite);
+        insertWork(otherPrerequisite);
+        insertWork(unblocked);
+        insertWork(stillBlocked);
+        insertWork(cancelled);
+        insertDependency(unblocked, prerequisite);
+        insertDependency(stillBlocked, prerequisite);
+        insertDependency(stillBlocked, otherPrerequisite);
+        insertDependency(cancelled, prerequisite);
+
+        long periodStartTime = System.currentTimeMillis();
+        assertThat(workSpecDao.enqueueUnblockedDependents(prerequisite.getStringId(),
+                periodStartTime), is(1));
+
+        WorkSpec enqueued = workSpecDao.getWorkSpec(unblocked.getStringId());
+        assertThat(enqueued.state, is(ENQUEUED));
+        assertThat(enqueued.periodStartTime, is(periodStartTime));
+        assertThat(workSpecDao.getState(stillBlocked.getStringId()), is(BLOCKED));
+        assertThat(workSpecDao.getState(cancelled.getStringId()),
+                is(WorkInfo.State.CANCELLED));
+    }
+
+    @Test
+    @SmallTest
+    public void testSetEnqueuedForRetry() {
+        WorkSpecDao workSpecDao = mDatabase.workSpecDao();
+        long startTime = System.currentTimeMillis();
+        OneTimeWorkRequest work = new OneTimeWorkRequest.Builder(TestWorker.class)
+                .setScheduleRequestedAt(startTime, TimeUnit.MILLISECONDS)
+                .setPeriodStartTime(startTime, TimeUnit.MILLISECONDS)
+                .setInitialRunAttemptCount(2)
+                .setInitialState(RUNNING)
+                .build();
+        insertWork(work);
+
+        long periodStartTime = startTime + 1;
+        assertThat(workSpecDao.setEnqueuedForRetry(work.getStringId(), periodStartTime), is(1));
+
+        WorkSpec workSpec = workSpecDao.getWorkSpec(work.getStringId());
+        assertThat(workSpec.state, is(ENQUEUED));
+        assertThat(workSpec.periodStartTime, is(periodStartTime));
+        assertThat(workSpec.scheduleRequestedAt, is(WorkSpec.SCHEDULE_NOT_REQUESTED_YET));
+        assertThat(workSpec.runAttemptCount, is(2));
+    }
+
+    @Test
+    @SmallTest
+    public void testResetPeriodic() {
+        WorkSpecDao workSpecDao = mDatabase.workSpecDao();
+        long startTime = System.currentTimeMillis();
+        PeriodicWorkRequest work = new PeriodicWorkRequest.Builder(TestWorker.class,
+                PeriodicWorkRequest.MIN_PERIODIC_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)
+                .setScheduleRequestedAt(startTime, TimeUnit.MILLISECONDS)
+                .setPeriodStartTime(startTime, TimeUnit.MILLISECONDS)
+                .setInitialRunAttemptCount(2)
+                .setInitialState(RUNNING)
+                .build();
+        insertWork(work);
+
+        long periodStartTime = startTime + 1;
+        assertThat(workSpecDao.resetPeriodic(work.getStringId(), periodStartTime), is(1));
+
+        WorkSpec workSpec = workSpecDao.getWorkSpec(work.getStringId());
+        assertThat(workSpec.state, is(ENQUEUED));
+        assertThat(workSpec.periodStartTime, is(periodStartTime));
+        assertThat(workSpec.scheduleRequestedAt, is(WorkSpec.SCHEDULE_NOT_REQUESTED_YET));
+        assertThat(workSpec.runAttemptCount, is(0));
+    }
+
+    @Test
+    @SmallTest
+    public void testHasUnfinishedWork() {
+        WorkSpecDao workSpecDao = mDatabase.workSpecDao();
+        assertThat(workSpecDao.hasUnfinishedWork(), is(false));
+
+        insertWork(new OneTimeWorkRequest.Builder(TestWorker.class)
+                .setInitialState(SUCCEEDED)
+                .build());
+        assertThat(workSpecDao.hasUnfinishedWork(), is(false));
+
+        insertWork(new OneTimeWorkRequest.Builder(TestWorker.class)
+                .setInitialState(BLOCKED)
+                .build());
+        assertThat(workSpecDao.hasUnfinishedWork(), is(true));
+    }
+
+    private void insertDependency(WorkRequest work, WorkRequest prerequisite) {
+        mDatabase.dependencyDao().insertDependency(
+                new Dependency(work.getStringId(), prerequisite.getStringId()));
+    }
 }
@@ -51,6 +51,10 @@ public final class Data {
 
     private static final String TAG = Logger.tagWithPrefix("Data");
 
+    // Data is only written with DataEncoding once a release that reads it has shipped, so that
+    // downgrading WorkManager to that release does not lose the input and output of workers.
+    private static final boolean WRITE_DATA_ENCODING = false;
+
     /**
      * An empty Data object with no elements.
      */
@@ -384,6 +388,36 @@ public final class Data {
     @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
     @TypeConverter
     public static @NonNull byte[] toByteArrayInternal(@NonNull Data data) {
+        byte[] bytes = WRITE_DATA_ENCODING ? DataEncoding.encode(data.mValues) : null;
+        if (bytes == null) {
+            // Only the previous format can represent some values, see DataEncoding#encode.
+            bytes = toObjectStreamByteArray(data);
+        }
+        if (bytes.length > MAX_DATA_BYTES) {
+            throw new IllegalStateException(
+                    "Data cannot occupy more than " + MAX_DATA_BYTES
+                            + " bytes when serialized");
+        }
+        return bytes;
+    }
+
+    /**
+     * Converts {@link Data} to a byte array in the binary encoding that
+     * {@link #fromByteArray(byte[])} reads, whether or not {@link #toByteArrayInternal(Data)}
+     * writes it yet.
+     *
+     * @param data The {@link Data} object to convert
+     * @return The byte array representation of the input, or {@code null} if some of its values
+     *         cannot be represented in the binary encoding
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    @VisibleForTesting
+    public static @Nullable byte[] toEncodedByteArrayInternal(@NonNull Data data) {
+        return DataEncoding.encode(data.mValues);
+    }
+
+    private static @NonNull byte[] toObjectStreamByteArray(@NonNull Data data) {
         ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
         ObjectOutputStream objectOutputStream = null;
         try {
@@ -412,12 +446,6 @@ public final class Data {
                 Log.e(TAG, "Error in Data#toByteArray: ", e);
             }
         }
-
-        if (outputStream.size() > MAX_DATA_BYTES) {
-            throw new IllegalStateException(
-                    "Data cannot occupy more than " + MAX_DATA_BYTES
-                            + " bytes when serialized");
-        }
         return outputStream.toByteArray();
     }
 
@@ -436,6 +464,16 @@ public final class Data {
         }
 
         Map<String, Object> map = new HashMap<>();
+        if (DataEncoding.isEncoded(bytes)) {
+            try {
+                DataEncoding.decode(bytes, map);
+            } catch (IOException e) {
+                Log.e(TAG, "Error in Data#fromByteArray: ", e);
+            }
+            return new Data(map);
+        }
+
+        // Data serialized with an ObjectOutputStream, before DataEncoding.
         ByteArrayInputStream inputStream = new ByteArrayInputStream(bytes);
         ObjectInputStream objectInputStream = null;
         try {
@@ -0,0 +1,465 @@
+/*
+ * Copyright 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.work;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * The binary format of {@link Data}.
+ * <p>
+ * An encoded {@link Data} starts with a 2 byte magic number, which cannot start a stream of the
+ * {@link java.io.ObjectOutputStream} format Data is also stored in, and a version. It is followed
+ * by the number of entries and, for each entry, its type tag, its key, the length of its value and
+ * the value itself. A reader skips the values of the tags it does not know.
+ * <p>
+ * Lengths, counts, ints and longs are varints, with ints and longs zig-zag encoded so that small
+ * negative numbers are short too. Floats and doubles are written as their big-endian bits, and
+ * Strings as UTF-8. Arrays start with their number of elements, and their elements are written
+ * unboxed.
+ */
+final class DataEncoding {
+    private static final byte MAGIC_0 = (byte) 0x57; // 'W'
+    private static final byte MAGIC_1 = (byte) 0x44; // 'D'
+    private static final byte VERSION = 1;
+    private static final int HEADER_SIZE = 3;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    // Type tags. Never reuse a tag, only add new ones.
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_BOOLEAN = 1;
+    private static final byte TYPE_BYTE = 2;
+    private static final byte TYPE_INT = 3;
+    private static final byte TYPE_LONG = 4;
+    private static final byte TYPE_FLOAT = 5;
+    private static final byte TYPE_DOUBLE = 6;
+    private static final byte TYPE_STRING = 7;
+    private static final byte TYPE_BOOLEAN_ARRAY = 8;
+    private static final byte TYPE_BYTE_ARRAY = 9;
+    private static final byte TYPE_INT_ARRAY = 10;
+    private static final byte TYPE_LONG_ARRAY = 11;
+    private static final byte TYPE_FLOAT_ARRAY = 12;
+    private static final byte TYPE_DOUBLE_ARRAY = 13;
+    private static final byte TYPE_STRING_ARRAY = 14;
+
+    private DataEncoding() {
+    }
+
+    /**
+     * @return {@code true} if the bytes are in this format, rather than the previous one.
+     */
+    static boolean isEncoded(@NonNull byte[] bytes) {
+        return bytes.length >= HEADER_SIZE && bytes[0] == MAGIC_0 && bytes[1] == MAGIC_1;
+    }
+
+    /**
+     * Encodes the values of a {@link Data}.
+     *
+     * @return The encoded values, or {@code null} if they cannot be encoded in this format, which
+     * is the case of arrays of boxed primitives containing null elements, and of Strings with
+     * unpaired surrogates, which UTF-8 cannot represent.
+     */
+    static @Nullable byte[] encode(@NonNull Map<String, Object> values) {
+        final Writer writer = new Writer(64);
+        final Writer valueWriter = new Writer(32);
+        writer.writeByte(MAGIC_0);
+        writer.writeByte(MAGIC_1);
+        writer.writeByte(VERSION);
+        writer.writeVarint(values.size());
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            valueWriter.reset();
+            final byte type = writeValue(valueWriter, entry.getValue());
+            if (type < 0 || hasUnpairedSurrogate(entry.getKey())) {
+                return null;
+            }
+            writer.writeByte(type);
+            writer.writeString(entry.getKey());
+            writer.writeVarint(valueWriter.mSize);
+            writer.write(valueWriter.mBytes, 0, valueWriter.mSize);
+        }
+        return writer.toByteArray();
+    }
+
+    /**
+     * Decodes bytes for which {@link #isEncoded(byte[])} is {@code true} into the values of a
+     * {@link Data}.
+     *
+     * @param values The map receiving the values, which keeps the values decoded before an error.
+     * @throws IOException if the bytes are truncated, corrupted, or of a newer version.
+     */
+    static void decode(@NonNull byte[] bytes, @NonNull Map<String, Object> values)
+            throws IOException {
+        final Reader reader = new Reader(bytes);
+        reader.mPosition = 2;
+        final int version = reader.readByte();
+        if (version > VERSION) {
+            throw new IOException("Unsupported Data version " + version);
+        }
+        for (int i = reader.readCount(); i > 0; i--) {
+            final byte type = reader.readByte();
+            final String key = reader.readString();
+            final int length = reader.readCount();
+            final int end = reader.mPosition + length;
+            if (end > bytes.length) {
+                throw new IOException("Truncated value for " + key);
+            }
+            if (type >= TYPE_NULL && type <= TYPE_STRING_ARRAY) {
+                values.put(key, readValue(reader, type, length));
+                if (reader.mPosition != end) {
+                    throw new IOException("Corrupted value for " + key);
+                }
+            }
+            // values of unknown types, written by a newer version, are skipped.
+            reader.mPosition = end;
+        }
+    }
+
+    /**
+     * @return The type tag of the value, or -1 if it cannot be encoded.
+     */
+    private static byte writeValue(@NonNull Writer writer, @Nullable Object value) {
+        if (value == null) {
+            return TYPE_NULL;
+        } else if (value instanceof Boolean) {
+            writer.writeByte((Boolean) value ? 1 : 0);
+            return TYPE_BOOLEAN;
+        } else if (value instanceof Byte) {
+            writer.writeByte((Byte) value);
+            return TYPE_BYTE;
+        } else if (value instanceof Integer) {
+            writer.writeZigZag((Integer) value);
+            return TYPE_INT;
+        } else if (value instanceof Long) {
+            writer.writeZigZag((Long) value);
+            return TYPE_LONG;
+        } else if (value instanceof Float) {
+            writer.writeFixed32(Float.floatToIntBits((Float) value));
+            return TYPE_FLOAT;
+        } else if (value instanceof Double) {
+            writer.writeFixed64(Double.doubleToLongBits((Double) value));
+            return TYPE_DOUBLE;
+        } else if (value instanceof String) {
+            if (hasUnpairedSurrogate((String) value)) {
+                return -1;
+            }
+            final byte[] bytes = ((String) value).getBytes(UTF_8);
+            writer.write(bytes, 0, bytes.length);
+            return TYPE_STRING;
+        } else if (value instanceof String[]) {
+            final String[] array = (String[]) value;
+            writer.writeVarint(array.length);
+            for (String element : array) {
+                if (element == null) {
+                    writer.writeVarint(0);
+                } else if (hasUnpairedSurrogate(element)) {
+                    return -1;
+                } else {
+                    final byte[] bytes = element.getBytes(UTF_8);
+                    // 0 is for null elements
+                    writer.writeVarint(bytes.length + 1);
+                    writer.write(bytes, 0, bytes.length);
+                }
+            }
+            return TYPE_STRING_ARRAY;
+        }
+
+        final Object[] array = (Object[]) value;
+        if (Arrays.asList(array).contains(null)) {
+            return -1;
+        }
+        writer.writeVarint(array.length);
+        if (value instanceof Boolean[]) {
+            for (Object element : array) {
+                writer.writeByte((Boolean) element ? 1 : 0);
+            }
+            return TYPE_BOOLEAN_ARRAY;
+        } else if (value instanceof Byte[]) {
+            for (Object element : array) {
+                writer.writeByte((Byte) element);
+            }
+            return TYPE_BYTE_ARRAY;
+        } else if (value instanceof Integer[]) {
+            for (Object element : array) {
+                writer.writeZigZag((Integer) element);
+            }
+            return TYPE_INT_ARRAY;
+        } else if (value instanceof Long[]) {
+            for (Object element : array) {
+                writer.writeZigZag((Long) element);
+            }
+            return TYPE_LONG_ARRAY;
+        } else if (value instanceof Float[]) {
+            for (Object element : array) {
+                writer.writeFixed32(Float.floatToIntBits((Float) element));
+            }
+            return TYPE_FLOAT_ARRAY;
+        } else if (value instanceof Double[]) {
+            for (Object element : array) {
+                writer.writeFixed64(Double.doubleToLongBits((Double) element));
+            }
+            return TYPE_DOUBLE_ARRAY;
+        }
+        // Data.Builder only accepts the types above.
+        throw new IllegalArgumentException("Invalid type " + value.getClass());
+    }
+
+    private static boolean hasUnpairedSurrogate(@NonNull String value) {
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                i++;
+            } else if (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static @Nullable Object readValue(@NonNull Reader reader, byte type, int length)
+            throws IOException {
+        switch (type) {
+            case TYPE_NULL:
+                return null;
+            case TYPE_BOOLEAN:
+                return reader.readByte() != 0;
+            case TYPE_BYTE:
+                return reader.readByte();
+            case TYPE_INT:
+                return (int) reader.readZigZag();
+            case TYPE_LONG:
+                return reader.readZigZag();
+            case TYPE_FLOAT:
+                return Float.intBitsToFloat(reader.readFixed32());
+            case TYPE_DOUBLE:
+                return Double.longBitsToDouble(reader.readFixed64());
+            case TYPE_STRING:
+                return reader.readString(length);
+            case TYPE_BOOLEAN_ARRAY: {
+                final Boolean[] array = new Boolean[reader.readCount()];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = reader.readByte() != 0;
+                }
+                return array;
+            }
+            case TYPE_BYTE_ARRAY: {
+                final Byte[] array = new Byte[reader.readCount()];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = reader.readByte();
+                }
+                return array;
+            }
+            case TYPE_INT_ARRAY: {
+                final Integer[] array = new Integer[reader.readCount()];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = (int) reader.readZigZag();
+                }
+                return array;
+            }
+            case TYPE_LONG_ARRAY: {
+                final Long[] array = new Long[reader.readCount()];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = reader.readZigZag();
+                }
+                return array;
+            }
+            case TYPE_FLOAT_ARRAY: {
+                final Float[] array = new Float[reader.readCount()];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = Float.intBitsToFloat(reader.readFixed32());
+                }
+                return array;
+            }
+            case TYPE_DOUBLE_ARRAY: {
+                final Double[] array = new Double[reader.readCount()];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = Double.longBitsToDouble(reader.readFixed64());
+                }
+                return array;
+            }
+            case TYPE_STRING_ARRAY: {
+                final String[] array = new String[reader.readCount()];
+                for (int i = 0; i < array.length; i++) {
+                    // the length of the element + 1, or 0 for null elements
+                    final int elementLength = reader.readCount(1);
+                    array[i] = elementLength == 0 ? null : reader.readString(elementLength - 1);
+                }
+                return array;
+            }
+            default:
+                throw new IOException("Unknown type " + type);
+        }
+    }
+
+    private static final class Writer {
+        byte[] mBytes;
+        int mSize;
+
+        Writer(int capacity) {
+            mBytes = new byte[capacity];
+        }
+
+        void reset() {
+            mSize = 0;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (mSize + extra > mBytes.length) {
+                mBytes = Arrays.copyOf(mBytes, Math.max(mBytes.length * 2, mSize + extra));
+            }
+        }
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            mBytes[mSize++] = (byte) value;
+        }
+
+        void write(byte[] bytes, int offset, int length) {
+            ensureCapacity(length);
+            System.arraycopy(bytes, offset, mBytes, mSize, length);
+            mSize += length;
+        }
+
+        void writeVarint(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                mBytes[mSize++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            mBytes[mSize++] = (byte) value;
+        }
+
+        void writeZigZag(long value) {
+            writeVarint((value << 1) ^ (value >> 63));
+        }
+
+        void writeFixed32(int value) {
+            ensureCapacity(4);
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                mBytes[mSize++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeFixed64(long value) {
+            ensureCapacity(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                mBytes[mSize++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeString(String value) {
+            final byte[] bytes = value.getBytes(UTF_8);
+            writeVarint(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(mBytes, mSize);
+        }
+    }
+
+    private static final class Reader {
+        final byte[] mBytes;
+        int mPosition;
+
+        Reader(byte[] bytes) {
+            mBytes = bytes;
+        }
+
+        private void require(int length) throws IOException {
+            if (length < 0 || mPosition + length > mBytes.length) {
+                throw new IOException("Truncated Data");
+            }
+        }
+
+        byte readByte() throws IOException {
+            require(1);
+            return mBytes[mPosition++];
+        }
+
+        long readVarint() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                final byte b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint");
+        }
+
+        /**
+         * Reads a count or a length, which cannot be more than the remaining bytes.
+         */
+        int readCount() throws IOException {
+            return readCount(0);
+        }
+
+        /**
+         * Reads a count or a length, which cannot be more than the remaining bytes plus
+         * {@code extra}.
+         */
+        int readCount(int extra) throws IOException {
+            final long count = readVarint();
+            if (count < 0 || count > mBytes.length - mPosition + extra) {
+                throw new IOException("Invalid length " + count);
+            }
+            return (int) count;
+        }
+
+        long readZigZag() throws IOException {
+            final long value = readVarint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        int readFixed32() throws IOException {
+            require(4);
+            int value = 0;
+            for (int i = 0; i < 4; i++) {
+                value = (value << 8) | (mBytes[mPosition++] & 0xFF);
+            }
+            return value;
+        }
+
+        long readFixed64() throws IOException {
+            require(8);
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (mBytes[mPosition++] & 0xFF);
+            }
+            return value;
+        }
+
+        String readString() throws IOException {
+            return readString(readCount());
+        }
+
+        String readString(int length) throws IOException {
+            require(length);
+            final String value = new String(mBytes, mPosition, length, UTF_8);
+            mPosition += length;
+            return value;
+        }
+    }
+}
@@ -49,6 +49,9 @@ public class Schedulers {
     public static final String GCM_SCHEDULER = "androidx.work.impl.background.gcm.GcmScheduler";
     private static final String TAG = Logger.tagWithPrefix("Schedulers");
 
+    // The default limit of SQLite on the number of parameters bound to a query.
+    private static final int MAX_ELIGIBLE_WORK_SPEC_IDS = 999;
+
     /**
      * Schedules {@link WorkSpec}s while honoring the {@link Scheduler#MAX_SCHEDULER_LIMIT}.
      *
@@ -59,6 +62,45 @@ public class Schedulers {
             @NonNull Configuration configuration,
             @NonNull WorkDatabase workDatabase,
             List<Scheduler> schedulers) {
+        scheduleInternal(configuration, workDatabase, schedulers, null);
+    }
+
+    /**
+     * Schedules {@link WorkSpec}s while honoring the {@link Scheduler#MAX_SCHEDULER_LIMIT}, when
+     * only the given {@link WorkSpec}s can have become eligible for scheduling since the
+     * {@link Scheduler}s were last asked to schedule work in this process.
+     * <p>
+     * {@link Scheduler}s with limited scheduling slots are handed the same {@link WorkSpec}s as
+     * with {@link #schedule(Configuration, WorkDatabase, List)}, while the other
+     * {@link Scheduler}s are only handed the eligible {@link WorkSpec}s among
+     * {@code workSpecIds}, instead of all the enqueued work.
+     *
+     * @param workDatabase The {@link WorkDatabase}.
+     * @param schedulers   The {@link List} of {@link Scheduler}s to delegate to.
+     * @param workSpecIds  The ids of the {@link WorkSpec}s that can have become eligible.
+     */
+    public static void schedule(
+            @NonNull Configuration configuration,
+            @NonNull WorkDatabase workDatabase,
+            List<Scheduler> schedulers,
+            @NonNull List<String> workSpecIds) {
+        if (workSpecIds.size() > MAX_ELIGIBLE_WORK_SPEC_IDS) {
+            scheduleInternal(configuration, workDatabase, schedulers, null);
+        } else {
+            scheduleInternal(configuration, workDatabase, schedulers, workSpecIds);
+        }
+    }
+
+    /**
+     * @param workSpecIds The ids of the {@link WorkSpec}s that can have become eligible, or
+     *                    {@code null} to hand all the enqueued work to {@link Scheduler}s without
+     *                    limited scheduling slots.
+     */
+    private static void scheduleInternal(
+            @NonNull Configuration configuration,
+            @NonNull WorkDatabase workDatabase,
+            List<Scheduler> schedulers,
+            @Nullable List<String> workSpecIds) {
         if (schedulers == null || schedulers.size() == 0) {
             return;
         }
@@ -74,7 +116,14 @@ public class Schedulers {
                     configuration.getMaxSchedulerLimit());
 
             // Enqueued workSpecs when scheduling limits are NOT applicable.
-            allEligibleWorkSpecs = workSpecDao.getAllEligibleWorkSpecsForScheduling();
+            if (workSpecIds == null) {
+                allEligibleWorkSpecs = workSpecDao.getAllEligibleWorkSpecsForScheduling();
+            } else if (workSpecIds.isEmpty()) {
+                allEligibleWorkSpecs = null;
+            } else {
+                allEligibleWorkSpecs =
+                        workSpecDao.getEligibleWorkSpecsForScheduling(workSpecIds);
+            }
 
             if (eligibleWorkSpecsForLimitedSlots != null
                     && eligibleWorkSpecsForLimitedSlots.size() > 0) {
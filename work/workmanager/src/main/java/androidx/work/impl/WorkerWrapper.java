@@ -16,12 +16,10 @@
 
 package androidx.work.impl;
 
-import static androidx.work.WorkInfo.State.BLOCKED;
 import static androidx.work.WorkInfo.State.CANCELLED;
 import static androidx.work.WorkInfo.State.ENQUEUED;
 import static androidx.work.WorkInfo.State.FAILED;
 import static androidx.work.WorkInfo.State.RUNNING;
-import static androidx.work.WorkInfo.State.SUCCEEDED;
 import static androidx.work.impl.model.WorkSpec.SCHEDULE_NOT_REQUESTED_YET;
 
 import android.annotation.SuppressLint;
@@ -359,7 +357,12 @@ public class WorkerWrapper implements Runnable {
             for (Scheduler scheduler : mSchedulers) {
                 scheduler.cancel(mWorkSpecId);
             }
-            Schedulers.schedule(mConfiguration, mWorkDatabase, mSchedulers);
+            // Only this work, when it needs to be rescheduled, and its dependents can have become
+            // eligible for scheduling.
+            List<String> workSpecIds = new ArrayList<>(
+                    mWorkDatabase.dependencyDao().getDependentWorkIds(mWorkSpecId));
+            workSpecIds.add(mWorkSpecId);
+            Schedulers.schedule(mConfiguration, mWorkDatabase, mSchedulers, workSpecIds);
         }
     }
 
@@ -432,8 +435,7 @@ public class WorkerWrapper implements Runnable {
             // Check to see if there is more work to be done. If there is no more work, then
             // disable RescheduleReceiver. Using a transaction here, as there could be more than
             // one thread looking at the list of eligible WorkSpecs.
-            List<String> unfinishedWork = mWorkDatabase.workSpecDao().getAllUnfinishedWork();
-            boolean noMoreWork = unfinishedWork == null || unfinishedWork.isEmpty();
+            boolean noMoreWork = !mWorkDatabase.workSpecDao().hasUnfinishedWork();
             if (noMoreWork) {
                 PackageManagerHelper.setComponentEnabled(
                         mAppContext, RescheduleReceiver.class, false);
@@ -481,20 +483,8 @@ public class WorkerWrapper implements Runnable {
     }
 
     private boolean trySetRunning() {
-        boolean setToRunning = false;
-        mWorkDatabase.beginTransaction();
-        try {
-            WorkInfo.State currentState = mWorkSpecDao.getState(mWorkSpecId);
-            if (currentState == ENQUEUED) {
-                mWorkSpecDao.setState(RUNNING, mWorkSpecId);
-                mWorkSpecDao.incrementWorkSpecRunAttemptCount(mWorkSpecId);
-                setToRunning = true;
-            }
-            mWorkDatabase.setTransactionSuccessful();
-        } finally {
-            mWorkDatabase.endTransaction();
-        }
-        return setToRunning;
+        // A single statement checks the state and updates it atomically.
+        return mWorkSpecDao.setRunningIfEnqueued(mWorkSpecId) > 0;
     }
 
     @VisibleForTesting
@@ -530,9 +520,7 @@ public class WorkerWrapper implements Runnable {
     private void rescheduleAndResolve() {
         mWorkDatabase.beginTransaction();
         try {
-            mWorkSpecDao.setState(ENQUEUED, mWorkSpecId);
-            mWorkSpecDao.setPeriodStartTime(mWorkSpecId, System.currentTimeMillis());
-            mWorkSpecDao.markWorkSpecScheduled(mWorkSpecId, SCHEDULE_NOT_REQUESTED_YET);
+            mWorkSpecDao.setEnqueuedForRetry(mWorkSpecId, System.currentTimeMillis());
             mWorkDatabase.setTransactionSuccessful();
         } finally {
             mWorkDatabase.endTransaction();
@@ -547,10 +535,7 @@ public class WorkerWrapper implements Runnable {
             // Therefore we always use the current time to determine the next run time of a Worker.
             // This way, the Schedulers will correctly schedule the next instance of the
             // PeriodicWork in the future. This happens in calculateNextRunTime() in WorkSpec.
-            mWorkSpecDao.setPeriodStartTime(mWorkSpecId, System.currentTimeMillis());
-            mWorkSpecDao.setState(ENQUEUED, mWorkSpecId);
-            mWorkSpecDao.resetWorkSpecRunAttemptCount(mWorkSpecId);
-            mWorkSpecDao.markWorkSpecScheduled(mWorkSpecId, SCHEDULE_NOT_REQUESTED_YET);
+            mWorkSpecDao.resetPeriodic(mWorkSpecId, System.currentTimeMillis());
             mWorkDatabase.setTransactionSuccessful();
         } finally {
             mWorkDatabase.endTransaction();
@@ -561,23 +546,18 @@ public class WorkerWrapper implements Runnable {
     private void setSucceededAndResolve() {
         mWorkDatabase.beginTransaction();
         try {
-            mWorkSpecDao.setState(SUCCEEDED, mWorkSpecId);
             ListenableWorker.Result.Success success = (ListenableWorker.Result.Success) mResult;
             // Update Data as necessary.
             Data output = success.getOutputData();
-            mWorkSpecDao.setOutput(mWorkSpecId, output);
+            mWorkSpecDao.setSucceeded(mWorkSpecId, output);
 
             // Unblock Dependencies and set Period Start Time
-            long currentTimeMillis = System.currentTimeMillis();
-            List<String> dependentWorkIds = mDependencyDao.getDependentWorkIds(mWorkSpecId);
-            for (String dependentWorkId : dependentWorkIds) {
-                if (mWorkSpecDao.getState(dependentWorkId) == BLOCKED
-                        && mDependencyDao.hasCompletedAllPrerequisites(dependentWorkId)) {
-                    Logger.get().info(TAG,
-                            String.format("Setting status to enqueued for %s", dependentWorkId));
-                    mWorkSpecDao.setState(ENQUEUED, dependentWorkId);
-                    mWorkSpecDao.setPeriodStartTime(dependentWorkId, currentTimeMillis);
-                }
+            int enqueued = mWorkSpecDao.enqueueUnblockedDependents(
+                    mWorkSpecId, System.currentTimeMillis());
+            if (enqueued > 0) {
+                Logger.get().info(TAG,
+                        String.format("Setting status to enqueued for %d dependents of %s",
+                                enqueued, mWorkSpecId));
             }
 
             mWorkDatabase.setTransactionSuccessful();
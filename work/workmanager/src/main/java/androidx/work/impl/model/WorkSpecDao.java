@@ -26,6 +26,7 @@ import androidx.lifecycle.LiveData;
 import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.Query;
+import androidx.room.RoomWarnings;
 import androidx.room.Transaction;
 import androidx.work.Data;
 import androidx.work.WorkInfo;
@@ -38,6 +39,18 @@ import java.util.List;
 @Dao
 @SuppressLint("UnknownNullness")
 public interface WorkSpecDao {
+    /**
+     * The columns of a {@link WorkSpec} used by {@link androidx.work.impl.Scheduler}s: all of them
+     * but the input and output {@link Data}, which are only read when the work runs.
+     */
+    String SCHEDULING_COLUMNS = "id, state, worker_class_name, input_merger_class_name, "
+            + "initial_delay, interval_duration, flex_duration, required_network_type, "
+            + "requires_charging, requires_device_idle, requires_battery_not_low, "
+            + "requires_storage_not_low, trigger_content_update_delay, trigger_max_content_delay, "
+            + "content_uri_triggers, run_attempt_count, backoff_policy, backoff_delay_duration, "
+            + "period_start_time, minimum_retention_duration, schedule_requested_at, "
+            + "run_in_foreground";
+
     /**
      * Attempts to insert a {@link WorkSpec} into the database.
      *
@@ -138,6 +151,76 @@ public interface WorkSpecDao {
     @Query("UPDATE workspec SET run_attempt_count=0 WHERE id=:id")
     int resetWorkSpecRunAttemptCount(String id);
 
+    /**
+     * Marks an enqueued {@link WorkSpec} as running and increments its run attempt count, in a
+     * single statement.
+     *
+     * @param id The identifier for the {@link WorkSpec}
+     * @return The number of rows that were updated (1 if the {@link WorkSpec} was enqueued, 0
+     * otherwise)
+     */
+    @Query("UPDATE workspec SET state=" + WorkTypeConverters.StateIds.RUNNING
+            + ", run_attempt_count=run_attempt_count+1"
+            + " WHERE id=:id AND state=" + WorkTypeConverters.StateIds.ENQUEUED)
+    int setRunningIfEnqueued(String id);
+
+    /**
+     * Marks a {@link WorkSpec} as succeeded and sets its output, in a single statement.
+     *
+     * @param id The {@link WorkSpec} identifier to update
+     * @param output The {@link Data} to set as the output
+     * @return The number of rows that were updated (should be 0 or 1)
+     */
+    @Query("UPDATE workspec SET state=" + WorkTypeConverters.StateIds.SUCCEEDED
+            + ", output=:output WHERE id=:id")
+    int setSucceeded(String id, Data output);
+
+    /**
+     * Enqueues the blocked dependents of a {@link WorkSpec} that have completed all their
+     * prerequisites, in a single statement.
+     *
+     * @param id The identifier of the prerequisite {@link WorkSpec}
+     * @param periodStartTime The period start time of the enqueued dependents
+     * @return The number of dependents that were enqueued
+     */
+    @Query("UPDATE workspec SET state=" + WorkTypeConverters.StateIds.ENQUEUED
+            + ", period_start_time=:periodStartTime"
+            + " WHERE state=" + WorkTypeConverters.StateIds.BLOCKED
+            + " AND id IN (SELECT work_spec_id FROM dependency WHERE prerequisite_id=:id)"
+            + " AND NOT EXISTS (SELECT 1 FROM dependency WHERE work_spec_id=workspec.id"
+            + " AND prerequisite_id IN (SELECT id FROM workspec WHERE state!="
+            + WorkTypeConverters.StateIds.SUCCEEDED + "))")
+    int enqueueUnblockedDependents(String id, long periodStartTime);
+
+    /**
+     * Enqueues a {@link WorkSpec} again to be retried, starting a new period and resetting its
+     * scheduled state, in a single statement.
+     *
+     * @param id The {@link WorkSpec} identifier to update
+     * @param periodStartTime The time when the period started
+     * @return The number of rows that were updated (should be 0 or 1)
+     */
+    @Query("UPDATE workspec SET state=" + WorkTypeConverters.StateIds.ENQUEUED
+            + ", period_start_time=:periodStartTime"
+            + ", schedule_requested_at=" + WorkSpec.SCHEDULE_NOT_REQUESTED_YET
+            + " WHERE id=:id")
+    int setEnqueuedForRetry(String id, long periodStartTime);
+
+    /**
+     * Enqueues a periodic {@link WorkSpec} for its next period, resetting its run attempt count
+     * and scheduled state, in a single statement.
+     *
+     * @param id The {@link WorkSpec} identifier to update
+     * @param periodStartTime The time when the period started
+     * @return The number of rows that were updated (should be 0 or 1)
+     */
+    @Query("UPDATE workspec SET state=" + WorkTypeConverters.StateIds.ENQUEUED
+            + ", period_start_time=:periodStartTime"
+            + ", run_attempt_count=0"
+            + ", schedule_requested_at=" + WorkSpec.SCHEDULE_NOT_REQUESTED_YET
+            + " WHERE id=:id")
+    int resetPeriodic(String id, long periodStartTime);
+
     /**
      * Retrieves the state of a {@link WorkSpec}.
      *
@@ -264,6 +347,13 @@ public interface WorkSpecDao {
     @Query("SELECT id FROM workspec WHERE state NOT IN " + COMPLETED_STATES)
     List<String> getAllUnfinishedWork();
 
+    /**
+     * @return {@code true} if there is any unfinished work
+     */
+    @Query("SELECT COUNT(*) > 0 FROM (SELECT id FROM workspec WHERE state NOT IN "
+            + COMPLETED_STATES + " LIMIT 1)")
+    boolean hasUnfinishedWork();
+
     /**
      * Marks a {@link WorkSpec} as scheduled.
      *
@@ -289,9 +379,11 @@ public interface WorkSpecDao {
     int resetScheduledState();
 
     /**
-     * @return The List of {@link WorkSpec}s that are eligible to be scheduled.
+     * @return The List of {@link WorkSpec}s that are eligible to be scheduled, with only their
+     * {@link #SCHEDULING_COLUMNS}.
      */
-    @Query("SELECT * FROM workspec WHERE "
+    @SuppressWarnings(RoomWarnings.CURSOR_MISMATCH)
+    @Query("SELECT " + SCHEDULING_COLUMNS + " FROM workspec WHERE "
             + "state=" + WorkTypeConverters.StateIds.ENQUEUED
             // We only want WorkSpecs which have not been previously scheduled.
             + " AND schedule_requested_at=" + WorkSpec.SCHEDULE_NOT_REQUESTED_YET
@@ -307,15 +399,30 @@ public interface WorkSpecDao {
 
     /**
      * @return The List of {@link WorkSpec}s that can be scheduled irrespective of scheduling
-     * limits.
+     * limits, with only their {@link #SCHEDULING_COLUMNS}.
      */
-    @Query("SELECT * FROM workspec WHERE "
+    @SuppressWarnings(RoomWarnings.CURSOR_MISMATCH)
+    @Query("SELECT " + SCHEDULING_COLUMNS + " FROM workspec WHERE "
             + "state=" + WorkTypeConverters.StateIds.ENQUEUED
             // Order by period start time so we execute scheduled WorkSpecs in FIFO order
             + " ORDER BY period_start_time"
     )
     List<WorkSpec> getAllEligibleWorkSpecsForScheduling();
 
+    /**
+     * @param ids The ids of the {@link WorkSpec}s
+     * @return The List of {@link WorkSpec}s among {@code ids} that can be scheduled irrespective
+     * of scheduling limits, with only their {@link #SCHEDULING_COLUMNS}.
+     */
+    @SuppressWarnings(RoomWarnings.CURSOR_MISMATCH)
+    @Query("SELECT " + SCHEDULING_COLUMNS + " FROM workspec WHERE "
+            + "state=" + WorkTypeConverters.StateIds.ENQUEUED
+            + " AND id IN (:ids)"
+            // Order by period start time so we execute scheduled WorkSpecs in FIFO order
+            + " ORDER BY period_start_time"
+    )
+    List<WorkSpec> getEligibleWorkSpecsForScheduling(List<String> ids);
+
     /**
      * @return The List of {@link WorkSpec}s that are unfinished and scheduled.
      */
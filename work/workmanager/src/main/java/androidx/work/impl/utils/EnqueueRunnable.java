@@ -131,10 +131,12 @@ public class EnqueueRunnable implements Runnable {
     @VisibleForTesting
     public void scheduleWorkInBackground() {
         WorkManagerImpl workManager = mWorkContinuation.getWorkManagerImpl();
+        // Only the work of this continuation can have become eligible for scheduling.
         Schedulers.schedule(
                 workManager.getConfiguration(),
                 workManager.getWorkDatabase(),
-                workManager.getSchedulers());
+                workManager.getSchedulers(),
+                mWorkContinuation.getAllIds());
     }
 
     private static boolean processContinuation(@NonNull WorkContinuationImpl workContinuation) {
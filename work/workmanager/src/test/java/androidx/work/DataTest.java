@@ -27,6 +27,9 @@ import androidx.annotation.NonNull;
 
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -89,6 +92,101 @@ public class DataTest {
         assertThat(restoredData.getIntArray(KEY2), is(equalTo(expectedValue2)));
     }
 
+    @Test
+    public void testSerializeAllTypes() {
+        Data data = new Data.Builder()
+                .putBoolean("boolean", true)
+                .putByte("byte", (byte) -1)
+                .putInt("int", Integer.MIN_VALUE)
+                .putLong("long", Long.MAX_VALUE)
+                .putFloat("float", -0.5f)
+                .putDouble("double", Double.NaN)
+                .putString("string", "\u00e9t\u00e9 \ud83d\ude00")
+                .putString("null", null)
+                .putBooleanArray("boolean array", new boolean[]{true, false})
+                .putByteArray("byte array", new byte[]{1, -128})
+                .putIntArray("int array", new int[]{0, -1, Integer.MAX_VALUE})
+                .putLongArray("long array", new long[]{Long.MIN_VALUE, 300L})
+                .putFloatArray("float array", new float[]{Float.MAX_VALUE})
+                .putDoubleArray("double array", new double[]{})
+                .putStringArray("string array", new String[]{"a", null, ""})
+                .build();
+
+        assertThat(Data.fromByteArray(data.toByteArray()), is(data));
+        assertThat(Data.fromByteArray(Data.toEncodedByteArrayInternal(data)), is(data));
+    }
+
+    @Test
+    public void testSerializeWritesObjectStream() {
+        Data data = new Data.Builder().putString(KEY1, "value1").build();
+
+        assertThat(DataEncoding.isEncoded(data.toByteArray()), is(false));
+        assertThat(DataEncoding.isEncoded(Data.toEncodedByteArrayInternal(data)), is(true));
+    }
+
+    @Test
+    public void testSerializeSmallerThanObjectStream() throws IOException {
+        Data data = new Data.Builder()
+                .putString(KEY1, "content://media/external/images/media/1")
+                .putIntArray(KEY2, new int[]{64, 128, 256, 512})
+                .build();
+
+        int size = Data.toEncodedByteArrayInternal(data).length;
+        int objectStreamSize = toObjectStreamByteArray(data.getKeyValueMap()).length;
+        assertThat(size < objectStreamSize, is(true));
+    }
+
+    @Test
+    public void testSerializeArrayWithNullElements() {
+        Map<String, Object> map = new HashMap<>();
+        map.put(KEY1, new Integer[]{1, null});
+        Data data = new Data.Builder().putAll(map).build();
+
+        Data restoredData = Data.fromByteArray(data.toByteArray());
+
+        assertThat(Data.toEncodedByteArrayInternal(data), is(nullValue()));
+        assertThat(restoredData, is(data));
+    }
+
+    @Test
+    public void testDeserializeObjectStream() throws IOException {
+        Map<String, Object> map = new HashMap<>();
+        map.put(KEY1, "value1");
+        map.put(KEY2, new Long[]{1L, 2L});
+        map.put("null", null);
+
+        Data restoredData = Data.fromByteArray(toObjectStreamByteArray(map));
+
+        assertThat(restoredData, is(new Data.Builder().putAll(map).build()));
+    }
+
+    @Test
+    public void testDeserializeSkipsUnknownTypes() {
+        byte[] bytes = new byte[]{
+                'W', 'D', 1, // header
+                2, // entries
+                99, 1, 'a', 2, 0, 0, // an unknown type, with a 2 byte value
+                7, 1, 'b', 1, 'c' // a String
+        };
+
+        Data restoredData = Data.fromByteArray(bytes);
+
+        assertThat(restoredData.size(), is(1));
+        assertThat(restoredData.getString("b"), is("c"));
+    }
+
+    @Test
+    public void testDeserializeTruncated() {
+        byte[] bytes = Data.toEncodedByteArrayInternal(
+                new Data.Builder().putString(KEY1, "value1").build());
+        byte[] truncated = new byte[bytes.length - 1];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+
+        Data restoredData = Data.fromByteArray(truncated);
+
+        assertThat(restoredData.size(), is(0));
+    }
+
     @Test
     public void testSerializePastMaxSize() {
         int[] payload = new int[Data.MAX_DATA_BYTES + 1];
@@ -230,6 +328,19 @@ public class DataTest {
         assertThat(caughtIllegalArgumentException, is(true));
     }
 
+    @NonNull
+    private static byte[] toObjectStreamByteArray(Map<String, Object> values) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ObjectOutputStream objectOutputStream = new ObjectOutputStream(outputStream);
+        objectOutputStream.writeInt(values.size());
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            objectOutputStream.writeUTF(entry.getKey());
+            objectOutputStream.writeObject(entry.getValue());
+        }
+        objectOutputStream.close();
+        return outputStream.toByteArray();
+    }
+
     @NonNull
     private Data createData() {
         Map<String, Object> map = new HashMap<>();